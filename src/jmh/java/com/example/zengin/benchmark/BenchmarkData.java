@@ -0,0 +1,36 @@
+package com.example.zengin.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.example.zengin.format.ZenginCharset;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+
+/**
+ * ベンチマーク用の全銀データを生成するクラス
+ */
+final class BenchmarkData {
+    
+    static final int DATA_LENGTH = 120; // データレコード長
+    
+    private BenchmarkData() {
+    }
+    
+    /**
+     * 金額フィールドを含む振込データレコードを生成します
+     * 
+     * @param recordCount レコード件数
+     * @return データレコード配列
+     */
+    static byte[][] transferRecords(int recordCount) {
+        byte[][] records = new byte[recordCount][DATA_LENGTH];
+        for (int i = 0; i < recordCount; i++) {
+            byte[] record = records[i];
+            Arrays.fill(record, (byte) ' ');
+            byte[] name = String.format("RECORD%08d", i).getBytes(StandardCharsets.UTF_8);
+            System.arraycopy(name, 0, record, 0, name.length);
+            SogoFurikomiLayout.DATA_AMOUNT.setLong(record, 1000 + (i % 100000), ZenginCharset.JIS);
+        }
+        return records;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.example.zengin.benchmark;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.zengin.format.ZenginCharset;
+
+/**
+ * 全銀フォーマットの文字コード変換のベンチマーク
+ * 半角カナ・英数字からなる120バイトのデータレコードについて、
+ * ZenginCharset の変換表による変換と Charset（Shift_JIS / IBM290）による変換を比較します
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CharsetBenchmark {
+    
+    private static final Charset SHIFT_JIS = Charset.forName("Shift_JIS");
+    private static final Charset IBM290 = Charset.forName("IBM290");
+    
+    @Param({ "JIS", "EBCDIC" })
+    private ZenginCharset zenginCharset;
+    
+    private Charset charset; // 比較対象の Charset
+    private String record;
+    private byte[] recordBytes;
+    
+    @Setup
+    public void setUp() {
+        charset = zenginCharset == ZenginCharset.JIS ? SHIFT_JIS : IBM290;
+        
+        // 銀行コード・支店コード・受取人名（半角カナ）・口座番号・金額
+        StringBuilder sb = new StringBuilder("0001001ｾﾞﾝｷﾞﾝ ﾀﾛｳ(ｶ)            1234567");
+        sb.append(String.format("%012d", 1234567890L));
+        while (sb.length() < BenchmarkData.DATA_LENGTH) {
+            sb.append(' ');
+        }
+        record = sb.toString();
+        recordBytes = zenginCharset.encode(record, BenchmarkData.DATA_LENGTH);
+    }
+    
+    /**
+     * 変換表によるレコードのエンコードを計測します
+     */
+    @Benchmark
+    public byte[] tableEncode() {
+        return zenginCharset.encode(record, BenchmarkData.DATA_LENGTH);
+    }
+    
+    /**
+     * 変換表によるレコードのデコードを計測します
+     */
+    @Benchmark
+    public String tableDecode() {
+        return zenginCharset.decode(recordBytes);
+    }
+    
+    /**
+     * String.getBytes(Charset) によるレコードのエンコードを計測します
+     */
+    @Benchmark
+    public byte[] charsetEncode() {
+        return record.getBytes(charset);
+    }
+    
+    /**
+     * new String(byte[], Charset) によるレコードのデコードを計測します
+     */
+    @Benchmark
+    public String charsetDecode() {
+        return new String(recordBytes, charset);
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.example.zengin.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.zengin.format.ZenginCharset;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+import com.example.zengin.format.validation.DuplicateRecordDetector;
+import com.example.zengin.format.validation.DuplicateRecordDetector.Duplicate;
+
+/**
+ * ファイル内の重複振込の検出のベンチマーク
+ * 総合振込のデータレコードについて、ヒープ外のハッシュ表による検出と
+ * キー項目の文字列を HashMap に登録する方法をレコード件数別に計測します
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DuplicateDetectionBenchmark {
+    
+    private static final int DUPLICATE_INTERVAL = 100000; // 重複レコードを混ぜる間隔
+    
+    @Param({ "1000000", "10000000" })
+    private int recordCount;
+    
+    private byte[][] records;
+    private DuplicateRecordDetector detector;
+    
+    @Setup
+    public void setUp() {
+        // 口座番号と顧客コードが異なるデータレコードに、一定間隔で直前のレコードの重複を混ぜる
+        records = new byte[recordCount][];
+        for (int i = 0; i < recordCount; i++) {
+            int key = i % DUPLICATE_INTERVAL == DUPLICATE_INTERVAL - 1 ? i - 1 : i;
+            String record = "2" + "0001" + "ｾﾞﾝｷﾞﾝ         " + "001" + "ﾎﾝﾃﾝ           " + "    " + "1"
+                    + String.format("%07d", key % 10000000) + "ｾﾞﾝｷﾞﾝ ﾀﾛｳ(ｶ)                 "
+                    + String.format("%010d", 1000 + (key % 100000)) + "0" + String.format("%010d", key) + "          "
+                    + " " + " " + "       ";
+            records[i] = ZenginCharset.JIS.encode(record, BenchmarkData.DATA_LENGTH);
+        }
+        detector = DuplicateRecordDetector.transferData();
+    }
+    
+    /**
+     * ヒープ外のハッシュ表による検出を計測します
+     */
+    @Benchmark
+    public List<Duplicate> offHeap() {
+        return detector.detect(records);
+    }
+    
+    /**
+     * キー項目の文字列を HashMap に登録する検出を計測します
+     */
+    @Benchmark
+    public List<Duplicate> hashMap() {
+        Map<String, Integer> first = new HashMap<>();
+        List<Duplicate> duplicates = new ArrayList<>();
+        for (int i = 0; i < records.length; i++) {
+            byte[] record = records[i];
+            String key = SogoFurikomiLayout.DATA_BANK_CODE.getString(record, ZenginCharset.JIS)
+                    + SogoFurikomiLayout.DATA_BRANCH_CODE.getString(record, ZenginCharset.JIS)
+                    + SogoFurikomiLayout.DATA_ACCOUNT_TYPE.getString(record, ZenginCharset.JIS)
+                    + SogoFurikomiLayout.DATA_ACCOUNT_NUMBER.getString(record, ZenginCharset.JIS)
+                    + SogoFurikomiLayout.DATA_AMOUNT.getLong(record, ZenginCharset.JIS)
+                    + SogoFurikomiLayout.DATA_CUSTOMER_CODE1.getString(record, ZenginCharset.JIS)
+                    + SogoFurikomiLayout.DATA_CUSTOMER_CODE2.getString(record, ZenginCharset.JIS);
+            Integer previous = first.putIfAbsent(key, i);
+            if (previous != null) {
+                duplicates.add(new Duplicate(i, previous));
+            }
+        }
+        return duplicates;
+    }
+} 
\ No newline at end of file
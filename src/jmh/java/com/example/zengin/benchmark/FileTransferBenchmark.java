@@ -0,0 +1,125 @@
+package com.example.zengin.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.zengin.communication.ZenginCommunicationException;
+import com.example.zengin.communication.ZenginTcpIpProtocolImpl;
+import com.example.zengin.format.ZenginCharset;
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginMessage.MessageType;
+import com.example.zengin.format.layout.MessageEnvelopeLayout;
+import com.example.zengin.stub.StubBankServer;
+
+/**
+ * 送信ファイルの送信ベンチマーク
+ * 非TLS接続のループバックのスタブ銀行サーバ（受信データを保持しない）に対し、
+ * FileChannel.transferTo によるファイルの送信と、ファイルをデータレコード単位で byte[][] に読み込み
+ * toByteArray() で1つの配列にまとめて OutputStream で送信する従来の方法を、ファイルサイズ別に計測します
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileTransferBenchmark {
+    
+    private static final String HOST = "127.0.0.1";
+    private static final int HEADER_LENGTH = MessageEnvelopeLayout.HEADER.getLength(); // ヘッダレコード長
+    private static final int TRAILER_LENGTH = MessageEnvelopeLayout.TRAILER.getLength(); // トレーラレコード長
+    
+    @Param({ "104857600", "1073741824" })
+    private long fileSize;
+    
+    private StubBankServer server;
+    private ZenginTcpIpProtocolImpl protocol;
+    private Path file;
+    private int recordCount;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        recordCount = (int) ((fileSize - HEADER_LENGTH - TRAILER_LENGTH) / BenchmarkData.DATA_LENGTH);
+        file = Files.createTempFile("zengin-transfer", ".dat");
+        writeFile(file, recordCount);
+        
+        server = new StubBankServer().discardData(true).start();
+        protocol = new ZenginTcpIpProtocolImpl();
+        protocol.setUseTLS(false);
+        protocol.connect(HOST, server.getPort());
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        protocol.disconnect();
+        server.close();
+        Files.deleteIfExists(file);
+    }
+    
+    /**
+     * FileChannel.transferTo によるファイルの送信からACK受信までを計測します
+     */
+    @Benchmark
+    public boolean transferTo() throws ZenginCommunicationException {
+        return protocol.sendFile(HOST, server.getPort(), file);
+    }
+    
+    /**
+     * ファイルの読み込み、電文の組み立て、OutputStream による送信からACK受信までを計測します
+     */
+    @Benchmark
+    public boolean heapCopy() throws IOException, ZenginCommunicationException {
+        byte[][] dataRecords = new byte[recordCount][BenchmarkData.DATA_LENGTH];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 65536))) {
+            in.skipNBytes(HEADER_LENGTH);
+            for (byte[] dataRecord : dataRecords) {
+                in.readFully(dataRecord);
+            }
+        }
+        
+        ZenginMessage message = new ZenginMessage(MessageType.TRANSFER, "SENDER0001", "BANK000001");
+        message.setDataRecords(dataRecords);
+        return protocol.sendData(HOST, server.getPort(), message.toByteArray());
+    }
+    
+    /**
+     * 送信ファイル（ヘッダ・データレコード・トレーラ）を作成します
+     */
+    private static void writeFile(Path file, int recordCount) throws IOException {
+        byte[][] records = BenchmarkData.transferRecords(1000);
+        ZenginMessage message = new ZenginMessage(MessageType.TRANSFER, "SENDER0001", "BANK000001");
+        byte[] header = message.toByteArray();
+        byte[] trailer = MessageEnvelopeLayout.TRAILER.newRecord(ZenginCharset.JIS);
+        MessageEnvelopeLayout.TRAILER_IDENTIFIER.setString(trailer, MessageEnvelopeLayout.IDENTIFIER, ZenginCharset.JIS);
+        MessageEnvelopeLayout.TRAILER_TYPE.setString(trailer, MessageEnvelopeLayout.TRAILER_RECORD_TYPE, ZenginCharset.JIS);
+        MessageEnvelopeLayout.TRAILER_RECORD_COUNT.setLong(trailer, recordCount, ZenginCharset.JIS);
+        
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 20)) {
+            out.write(header, 0, HEADER_LENGTH);
+            for (int i = 0; i < recordCount; i++) {
+                out.write(records[i % records.length]);
+            }
+            out.write(trailer);
+        }
+    }
+} 
@@ -0,0 +1,105 @@
+package com.example.zengin.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+
+import com.example.zengin.format.ZenginMessage.MessageType;
+import com.example.zengin.logging.MessageLogSummary;
+import com.example.zengin.security.MessageIntegrityInfo;
+
+/**
+ * 電文ごとのログ出力のベンチマーク
+ * ログレベルをINFOとした状態で、無効なレベルへの電文ごとのログ出力にかかる時間と割り当て量を
+ * 文字列連結・パラメータ化・レベル判定付きの書き方別に計測します
+ * 
+ * 1電文あたりの割り当て量は gc プロファイラの gc.alloc.rate.norm で確認します
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LoggingBenchmark.class);
+    
+    private final byte[] data = new byte[80 + 10 * 120 + 80];
+    
+    private MessageIntegrityInfo integrityInfo;
+    private MessageLogSummary logSummary;
+    
+    @Setup
+    public void setUp() {
+        LoggingSystem.get(getClass().getClassLoader()).setLogLevel("com.example.zengin", LogLevel.INFO);
+        
+        integrityInfo = new MessageIntegrityInfo("F000000001",
+                "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08", 10, 123456789L);
+        logSummary = new MessageLogSummary();
+        logSummary.setIntervalSeconds(Long.MAX_VALUE / 1_000_000_000L);
+    }
+    
+    /**
+     * 文字列連結によるログ出力（レベルが無効でも文字列を生成する）
+     */
+    @Benchmark
+    public void concatenated() {
+        logger.debug("全銀データを送信しました: " + data.length + " バイト");
+    }
+    
+    /**
+     * パラメータ化したログ出力（int 引数のボクシングは発生しうる）
+     */
+    @Benchmark
+    public void parameterized() {
+        logger.debug("全銀データを送信しました: {} バイト", data.length);
+    }
+    
+    /**
+     * レベル判定付きのログ出力
+     */
+    @Benchmark
+    public void guarded() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("全銀データを送信しました: {} バイト", data.length);
+        }
+    }
+    
+    /**
+     * 整合性情報の文字列連結によるログ出力（エンティティの toString を呼び出す）
+     */
+    @Benchmark
+    public void integrityInfoConcatenated() {
+        logger.debug("メッセージ整合性情報を生成しました: " + integrityInfo);
+    }
+    
+    /**
+     * 整合性情報のパラメータ化したログ出力
+     */
+    @Benchmark
+    public void integrityInfoParameterized() {
+        logger.debug("メッセージ整合性情報を生成しました: {}", integrityInfo);
+    }
+    
+    /**
+     * 電文ごとのINFOログの代わりに送受信サマリへ記録する処理
+     */
+    @Benchmark
+    public void summaryRecord() {
+        logSummary.recordSent(MessageType.TRANSFER, data.length);
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.example.zengin.benchmark;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.zengin.format.ZenginCharset;
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginMessage.MessageType;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+import com.example.zengin.security.MessageIntegrityUtil;
+
+/**
+ * 整合性チェック処理のベンチマーク
+ * MessageIntegrityUtil のハッシュ計算・合計金額計算をデータレコード件数別に計測します
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageIntegrityBenchmark {
+    
+    @Param({ "1", "1000", "1000000" })
+    private int recordCount;
+    
+    private final MessageIntegrityUtil integrityUtil = new MessageIntegrityUtil();
+    
+    private byte[][] dataRecords;
+    private byte[] messageBytes;
+    
+    @Setup
+    public void setUp() {
+        dataRecords = BenchmarkData.transferRecords(recordCount);
+        
+        ZenginMessage message = new ZenginMessage(MessageType.TRANSFER, "SENDER0001", "BANK000001");
+        message.setDataRecords(dataRecords);
+        messageBytes = message.toByteArray();
+    }
+    
+    /**
+     * 電文全体のハッシュ値計算を計測します
+     */
+    @Benchmark
+    public String calculateHash() throws NoSuchAlgorithmException {
+        return integrityUtil.calculateHash(messageBytes);
+    }
+    
+    /**
+     * データレコードの合計金額計算を計測します
+     */
+    @Benchmark
+    public long calculateTotalAmount() {
+        return integrityUtil.calculateTotalAmount(dataRecords, SogoFurikomiLayout.DATA_AMOUNT, ZenginCharset.JIS);
+    }
+} 
\ No newline at end of file
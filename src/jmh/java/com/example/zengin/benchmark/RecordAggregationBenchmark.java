@@ -0,0 +1,108 @@
+package com.example.zengin.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.zengin.format.ZenginCharset;
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginMessage.MessageType;
+import com.example.zengin.format.aggregate.RecordAggregate;
+import com.example.zengin.format.aggregate.ZenginRecordAggregator;
+
+/**
+ * 受信データレコードの集計のベンチマーク
+ * 総合振込のデータレコードについて、分割しない集計と ForkJoinPool による並列集計を
+ * デコード済みの電文とヒープ外のバッファ（一時ファイルのメモリマップ相当）で比較します
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordAggregationBenchmark {
+    
+    private static final int ACCOUNT_COUNT = 10000; // 口座数
+    
+    @Param({ "1000000" })
+    private int recordCount;
+    
+    private ZenginMessage message;
+    private ByteBuffer direct;
+    private ForkJoinPool pool;
+    private ZenginRecordAggregator sequentialAggregator;
+    private ZenginRecordAggregator parallelAggregator;
+    
+    @Setup
+    public void setUp() {
+        byte[][] records = new byte[recordCount][];
+        for (int i = 0; i < recordCount; i++) {
+            String record = "2" + "0001" + "ｾﾞﾝｷﾞﾝ         " + "001" + "ﾎﾝﾃﾝ           " + "    " + "1"
+                    + String.format("%07d", i % ACCOUNT_COUNT) + "ｾﾞﾝｷﾞﾝ ﾀﾛｳ(ｶ)                 "
+                    + String.format("%010d", 1000 + (i % 100000)) + "0" + "CUST000001" + "          " + " " + " "
+                    + "       ";
+            records[i] = ZenginCharset.JIS.encode(record, BenchmarkData.DATA_LENGTH);
+        }
+        message = new ZenginMessage(MessageType.NOTIFICATION, "BANK0001", "BENCHMARK");
+        message.setDataRecords(records);
+        
+        byte[] data = message.toByteArray();
+        direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data).flip();
+        
+        pool = new ForkJoinPool();
+        sequentialAggregator = new ZenginRecordAggregator(pool, Integer.MAX_VALUE);
+        parallelAggregator = new ZenginRecordAggregator(pool, ZenginRecordAggregator.DEFAULT_SPLIT_RECORDS);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+    
+    /**
+     * デコード済みの電文を分割せずに集計します
+     */
+    @Benchmark
+    public RecordAggregate sequential() {
+        return sequentialAggregator.aggregate(message);
+    }
+    
+    /**
+     * デコード済みの電文を並列に集計します
+     */
+    @Benchmark
+    public RecordAggregate parallel() {
+        return parallelAggregator.aggregate(message);
+    }
+    
+    /**
+     * ヒープ外のバッファを分割せずに集計します
+     */
+    @Benchmark
+    public RecordAggregate sequentialBuffer() {
+        return sequentialAggregator.aggregate(direct);
+    }
+    
+    /**
+     * ヒープ外のバッファを並列に集計します
+     */
+    @Benchmark
+    public RecordAggregate parallelBuffer() {
+        return parallelAggregator.aggregate(direct);
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.example.zengin.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.zengin.format.ZenginCharset;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+import com.example.zengin.format.validation.ZenginRecordValidator;
+import com.example.zengin.format.validation.ZenginRecordValidator.ValidationError;
+
+/**
+ * データレコードの文字種チェックのベンチマーク
+ * 総合振込のデータレコードについて、Vector API による判定と1バイトずつの判定をレコード件数別に計測します
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordValidationBenchmark {
+    
+    @Param({ "1000000", "10000000" })
+    private int recordCount;
+    
+    @Param({ "JIS", "EBCDIC" })
+    private ZenginCharset charset;
+    
+    private byte[][] records;
+    private ZenginRecordValidator vectorValidator;
+    private ZenginRecordValidator scalarValidator;
+    
+    @Setup
+    public void setUp() {
+        // 銀行・支店・受取人名（半角カナ）・口座番号・金額を設定した総合振込のデータレコード
+        String record = "2" + "0001" + "ｾﾞﾝｷﾞﾝ         " + "001" + "ﾎﾝﾃﾝ           " + "    " + "1" + "1234567"
+                + "ｾﾞﾝｷﾞﾝ ﾀﾛｳ(ｶ)                 " + "0000012345" + "0" + "CUST000001" + "          " + " " + " "
+                + "       ";
+        records = new byte[recordCount][];
+        for (int i = 0; i < recordCount; i++) {
+            records[i] = charset.encode(record, BenchmarkData.DATA_LENGTH);
+        }
+        
+        vectorValidator = new ZenginRecordValidator(charset, SogoFurikomiLayout.DATA, true);
+        scalarValidator = new ZenginRecordValidator(charset, SogoFurikomiLayout.DATA, false);
+        if (!vectorValidator.isVectorized()) {
+            throw new IllegalStateException("Vector API を使用できません（--add-modules jdk.incubator.vector を指定してください）");
+        }
+    }
+    
+    /**
+     * Vector API による判定を計測します
+     */
+    @Benchmark
+    public List<ValidationError> vector() {
+        return vectorValidator.validate(records);
+    }
+    
+    /**
+     * 1バイトずつの判定を計測します
+     */
+    @Benchmark
+    public List<ValidationError> scalar() {
+        return scalarValidator.validate(records);
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.example.zengin.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginMessage.MessageType;
+
+/**
+ * 全銀電文の変換処理のベンチマーク
+ * ZenginMessage の toByteArray / fromByteArray をデータレコード件数別に計測します
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZenginMessageBenchmark {
+    
+    @Param({ "1", "1000", "1000000" })
+    private int recordCount;
+    
+    private ZenginMessage message;
+    private byte[] messageBytes;
+    
+    @Setup
+    public void setUp() {
+        // ファイルIDの採番は1ノードあたり毎秒32768件で待ちになるため、電文は準備時に作成する
+        message = new ZenginMessage(MessageType.TRANSFER, "SENDER0001", "BANK000001");
+        message.setDataRecords(BenchmarkData.transferRecords(recordCount));
+        messageBytes = message.toByteArray();
+    }
+    
+    /**
+     * バイト配列への変換（ヘッダ・トレーラ作成を含む）を計測します
+     */
+    @Benchmark
+    public byte[] toByteArray() {
+        return message.toByteArray();
+    }
+    
+    /**
+     * バイト配列からの電文解析を計測します
+     */
+    @Benchmark
+    public ZenginMessage fromByteArray() {
+        return ZenginMessage.fromByteArray(messageBytes);
+    }
+} 
\ No newline at end of file
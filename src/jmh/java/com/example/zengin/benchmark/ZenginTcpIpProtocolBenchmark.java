@@ -0,0 +1,114 @@
+package com.example.zengin.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.zengin.communication.ZenginCommunicationException;
+import com.example.zengin.communication.ZenginTcpIpProtocolImpl;
+import com.example.zengin.communication.ZenginTcpIpProtocolImpl.FramingMode;
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginMessage.MessageType;
+import com.example.zengin.stub.StubBankServer;
+
+/**
+ * 全銀TCP/IPプロトコルの送受信ベンチマーク
+ * ループバックのスタブ銀行サーバに対する ZenginTcpIpProtocolImpl の送信（ACK受信まで）と
+ * 照会の送受信（応答電文のACKまで）を、TLSの有無・フレーム形式・データレコード件数別に計測します
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZenginTcpIpProtocolBenchmark {
+    
+    private static final String HOST = "127.0.0.1";
+    
+    /**
+     * スタブ銀行サーバへの接続の状態
+     * 接続の確立（ENQ/ACK、TLSハンドシェイク）は計測に含めません
+     */
+    @State(Scope.Thread)
+    public static class LoopbackState {
+        
+        @Param({ "false", "true" })
+        boolean tls;
+        
+        @Param({ "ETX", "LENGTH_PREFIXED" })
+        FramingMode framing;
+        
+        @Param({ "1", "1000" })
+        int recordCount;
+        
+        StubBankServer server;
+        ZenginTcpIpProtocolImpl protocol;
+        ZenginMessage transferMessage;
+        byte[] transferData;
+        byte[] inquiryData;
+        
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            server = new StubBankServer().tls(tls).start();
+            
+            protocol = new ZenginTcpIpProtocolImpl();
+            protocol.setUseTLS(tls);
+            protocol.setFramingMode(framing);
+            protocol.connect(HOST, server.getPort());
+            
+            byte[][] dataRecords = BenchmarkData.transferRecords(recordCount);
+            transferMessage = createMessage(MessageType.TRANSFER, dataRecords);
+            transferData = transferMessage.toByteArray();
+            inquiryData = createMessage(MessageType.INQUIRY, dataRecords).toByteArray();
+        }
+        
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            protocol.disconnect();
+            server.close();
+        }
+        
+        private static ZenginMessage createMessage(MessageType messageType, byte[][] dataRecords) {
+            ZenginMessage message = new ZenginMessage(messageType, "SENDER0001", "BANK000001");
+            message.setDataRecords(dataRecords);
+            return message;
+        }
+    }
+    
+    /**
+     * データ送信からACK受信までを計測します
+     */
+    @Benchmark
+    public boolean sendData(LoopbackState state) throws ZenginCommunicationException {
+        return state.protocol.sendData(HOST, state.server.getPort(), state.transferData);
+    }
+    
+    /**
+     * 電文の変換（非TLS接続では送信フレームへの直接書き込み）からACK受信までを計測します
+     */
+    @Benchmark
+    public boolean sendMessage(LoopbackState state) throws ZenginCommunicationException {
+        return state.protocol.sendMessage(HOST, state.server.getPort(), state.transferMessage);
+    }
+    
+    /**
+     * 照会電文の送信から応答電文の受信・ACK送信までを計測します
+     */
+    @Benchmark
+    public byte[] sendAndReceive(LoopbackState state) throws ZenginCommunicationException {
+        state.protocol.sendData(HOST, state.server.getPort(), state.inquiryData);
+        return state.protocol.receiveData(HOST, state.server.getPort());
+    }
+} 
\ No newline at end of file
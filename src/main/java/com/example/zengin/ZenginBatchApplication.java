@@ -5,12 +5,16 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
+import com.example.zengin.format.FileIdGenerator;
+
 @SpringBootApplication
 @EntityScan("com.example.zengin")
 @EnableJpaRepositories("com.example.zengin")
 public class ZenginBatchApplication {
 
 	public static void main(String[] args) {
+		// ノードIDの設定誤りは電文の作成時ではなく起動時にエラーとする
+		FileIdGenerator.shared();
 		SpringApplication.run(ZenginBatchApplication.class, args);
 	}
 
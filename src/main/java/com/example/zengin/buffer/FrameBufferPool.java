@@ -0,0 +1,300 @@
+package com.example.zengin.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * フレーム送受信用のバッファプール
+ * 8KBから4MBまでの2のべき乗のサイズクラスごとにバッファを再利用し、電文ごとのバッファ確保を避けます
+ * 
+ * 解放されたバッファはまず解放したスレッドのキャッシュに、満杯の場合は全スレッド共有のキャッシュに戻します
+ * 取得時はスレッドのキャッシュ、共有のキャッシュの順に探し、どちらにもない場合に新しく確保します
+ * 4MBを超えるバッファはプールせず、その都度ヒープに確保します
+ * 
+ * リーク検出を有効にすると、解放されていないバッファの取得箇所を記録し、checkLeaks で出力します（テスト用）
+ */
+@Component
+public class FrameBufferPool {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FrameBufferPool.class);
+    
+    private static final int MIN_CAPACITY_SHIFT = 13; // 最小のサイズクラス（8KB）
+    private static final int SIZE_CLASS_COUNT = 10; // サイズクラス数（8KB～4MB）
+    
+    /**
+     * プールするバッファの最大容量
+     */
+    public static final int MAX_POOLED_CAPACITY = 1 << (MIN_CAPACITY_SHIFT + SIZE_CLASS_COUNT - 1);
+    
+    private static final FrameBufferPool SHARED = new FrameBufferPool();
+    
+    @Value("${zengin.buffer.direct:true}")
+    private boolean direct = true; // ダイレクトバッファを使用する場合はtrue
+    
+    @Value("${zengin.buffer.thread-cache-size:2}")
+    private int threadCacheSize = 2; // スレッドごと・サイズクラスごとのキャッシュ数
+    
+    @Value("${zengin.buffer.shared-cache-size:16}")
+    private int sharedCacheSize = 16; // サイズクラスごとの共有キャッシュ数
+    
+    @Value("${zengin.buffer.leak-detection:false}")
+    private boolean leakDetection; // 取得箇所を記録する場合はtrue
+    
+    private final ThreadLocal<ThreadCache> threadCaches = ThreadLocal.withInitial(ThreadCache::new);
+    private final ConcurrentLinkedQueue<ByteBuffer>[] sharedCaches;
+    private final AtomicInteger[] sharedCounts = new AtomicInteger[SIZE_CLASS_COUNT];
+    private final Map<PooledBuffer, Throwable> liveBuffers = new ConcurrentHashMap<>();
+    
+    // 取得結果ごとの件数
+    private final LongAdder threadCacheHits = new LongAdder();
+    private final LongAdder sharedCacheHits = new LongAdder();
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder unpooledAllocations = new LongAdder();
+    private final AtomicLong outstanding = new AtomicLong();
+    
+    /**
+     * コンストラクタ
+     */
+    @SuppressWarnings("unchecked")
+    public FrameBufferPool() {
+        sharedCaches = new ConcurrentLinkedQueue[SIZE_CLASS_COUNT];
+        for (int i = 0; i < SIZE_CLASS_COUNT; i++) {
+            sharedCaches[i] = new ConcurrentLinkedQueue<>();
+            sharedCounts[i] = new AtomicInteger();
+        }
+    }
+    
+    /**
+     * Spring管理外で生成したセッションが使用する共有のバッファプールを取得します
+     * 
+     * @return バッファプール
+     */
+    public static FrameBufferPool shared() {
+        return SHARED;
+    }
+    
+    /**
+     * 指定した容量以上のバッファを取得します
+     * バッファは位置0、リミットは容量の状態で返されます。使用後は close で解放してください
+     * 
+     * @param capacity 必要な容量（バイト）
+     * @return バッファ
+     */
+    public PooledBuffer acquire(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("容量が不正です: " + capacity);
+        }
+        
+        PooledBuffer pooledBuffer;
+        if (!isPooled(capacity)) {
+            unpooledAllocations.increment();
+            pooledBuffer = new PooledBuffer(this, ByteBuffer.allocate(capacity), -1);
+        } else {
+            int sizeClass = sizeClass(capacity);
+            ByteBuffer buffer = threadCaches.get().poll(sizeClass);
+            if (buffer != null) {
+                threadCacheHits.increment();
+            } else if ((buffer = sharedCaches[sizeClass].poll()) != null) {
+                sharedCounts[sizeClass].decrementAndGet();
+                sharedCacheHits.increment();
+            } else {
+                allocations.increment();
+                int classCapacity = 1 << (MIN_CAPACITY_SHIFT + sizeClass);
+                buffer = direct ? ByteBuffer.allocateDirect(classCapacity) : ByteBuffer.allocate(classCapacity);
+            }
+            buffer.clear();
+            pooledBuffer = new PooledBuffer(this, buffer, sizeClass);
+        }
+        
+        outstanding.incrementAndGet();
+        if (leakDetection) {
+            liveBuffers.put(pooledBuffer, new Throwable("バッファの取得箇所（容量: " + capacity + " バイト）"));
+        }
+        return pooledBuffer;
+    }
+    
+    /**
+     * バッファをプールに戻します（PooledBuffer.close から呼び出されます）
+     * 
+     * @param pooledBuffer 解放するバッファ
+     * @param buffer バッファの実体
+     */
+    void release(PooledBuffer pooledBuffer, ByteBuffer buffer) {
+        outstanding.decrementAndGet();
+        if (leakDetection) {
+            liveBuffers.remove(pooledBuffer);
+        }
+        
+        int sizeClass = pooledBuffer.getSizeClass();
+        if (sizeClass < 0 || threadCaches.get().offer(sizeClass, buffer)) {
+            return;
+        }
+        if (sharedCounts[sizeClass].incrementAndGet() <= sharedCacheSize) {
+            sharedCaches[sizeClass].offer(buffer);
+        } else {
+            // キャッシュが満杯の場合は破棄（ダイレクトバッファのメモリはGCで解放される）
+            sharedCounts[sizeClass].decrementAndGet();
+        }
+    }
+    
+    /**
+     * 指定した容量のバッファをプールから取得するかを判定します
+     * 
+     * @param capacity 容量（バイト）
+     * @return プールする容量の場合はtrue
+     */
+    public boolean isPooled(int capacity) {
+        return capacity <= MAX_POOLED_CAPACITY;
+    }
+    
+    /**
+     * 解放されていないバッファの取得箇所をエラーログに出力します
+     * リーク検出が無効な場合は取得箇所を記録していないため、常に0を返します
+     * 
+     * @return 解放されていないバッファの数
+     */
+    public int checkLeaks() {
+        for (Throwable allocationSite : liveBuffers.values()) {
+            logger.error("解放されていないバッファがあります", allocationSite);
+        }
+        return liveBuffers.size();
+    }
+    
+    private static int sizeClass(int capacity) {
+        if (capacity <= 1 << MIN_CAPACITY_SHIFT) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_CAPACITY_SHIFT;
+    }
+    
+    /**
+     * ダイレクトバッファの使用を設定します
+     * 
+     * @param direct ダイレクトバッファを使用する場合はtrue
+     */
+    public void setDirect(boolean direct) {
+        this.direct = direct;
+    }
+    
+    /**
+     * スレッドごと・サイズクラスごとのキャッシュ数を設定します
+     * 
+     * @param threadCacheSize キャッシュ数
+     */
+    public void setThreadCacheSize(int threadCacheSize) {
+        this.threadCacheSize = threadCacheSize;
+    }
+    
+    /**
+     * サイズクラスごとの共有キャッシュ数を設定します
+     * 
+     * @param sharedCacheSize キャッシュ数
+     */
+    public void setSharedCacheSize(int sharedCacheSize) {
+        this.sharedCacheSize = sharedCacheSize;
+    }
+    
+    /**
+     * リーク検出の有効・無効を設定します
+     * 
+     * @param leakDetection 取得箇所を記録する場合はtrue
+     */
+    public void setLeakDetection(boolean leakDetection) {
+        this.leakDetection = leakDetection;
+    }
+    
+    /**
+     * スレッドのキャッシュから取得した件数を取得します
+     * 
+     * @return 件数
+     */
+    public long getThreadCacheHits() {
+        return threadCacheHits.sum();
+    }
+    
+    /**
+     * 共有のキャッシュから取得した件数を取得します
+     * 
+     * @return 件数
+     */
+    public long getSharedCacheHits() {
+        return sharedCacheHits.sum();
+    }
+    
+    /**
+     * キャッシュになく新しく確保した件数を取得します
+     * 
+     * @return 件数
+     */
+    public long getAllocations() {
+        return allocations.sum();
+    }
+    
+    /**
+     * プールする容量を超えたためヒープに確保した件数を取得します
+     * 
+     * @return 件数
+     */
+    public long getUnpooledAllocations() {
+        return unpooledAllocations.sum();
+    }
+    
+    /**
+     * 取得済みで解放されていないバッファの数を取得します
+     * 
+     * @return バッファ数
+     */
+    public long getOutstanding() {
+        return outstanding.get();
+    }
+    
+    /**
+     * プールする容量の取得のうち、キャッシュから取得した割合を取得します
+     * 
+     * @return ヒット率（取得がない場合は0）
+     */
+    public double getHitRate() {
+        long hits = getThreadCacheHits() + getSharedCacheHits();
+        long total = hits + getAllocations();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+    
+    /**
+     * スレッドごとのキャッシュ
+     */
+    private class ThreadCache {
+        
+        private final ByteBuffer[][] buffers = new ByteBuffer[SIZE_CLASS_COUNT][];
+        private final int[] counts = new int[SIZE_CLASS_COUNT];
+        
+        ByteBuffer poll(int sizeClass) {
+            if (counts[sizeClass] == 0) {
+                return null;
+            }
+            ByteBuffer buffer = buffers[sizeClass][--counts[sizeClass]];
+            buffers[sizeClass][counts[sizeClass]] = null;
+            return buffer;
+        }
+        
+        boolean offer(int sizeClass, ByteBuffer buffer) {
+            if (buffers[sizeClass] == null) {
+                buffers[sizeClass] = new ByteBuffer[threadCacheSize];
+            }
+            if (counts[sizeClass] >= buffers[sizeClass].length) {
+                return false;
+            }
+            buffers[sizeClass][counts[sizeClass]++] = buffer;
+            return true;
+        }
+    }
+} 
\ No newline at end of file
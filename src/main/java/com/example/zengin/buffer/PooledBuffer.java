@@ -0,0 +1,58 @@
+package com.example.zengin.buffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * バッファプールから取得したバッファ
+ * 使用後は close でプールに戻します。解放後のバッファは使用できません
+ */
+public final class PooledBuffer implements AutoCloseable {
+    
+    private final FrameBufferPool pool;
+    private final int sizeClass; // プールしないバッファは-1
+    private ByteBuffer buffer;
+    
+    PooledBuffer(FrameBufferPool pool, ByteBuffer buffer, int sizeClass) {
+        this.pool = pool;
+        this.buffer = buffer;
+        this.sizeClass = sizeClass;
+    }
+    
+    /**
+     * バッファを取得します
+     * 
+     * @return バッファ
+     * @throws IllegalStateException 解放済みの場合
+     */
+    public ByteBuffer buffer() {
+        if (buffer == null) {
+            throw new IllegalStateException("バッファは解放済みです");
+        }
+        return buffer;
+    }
+    
+    /**
+     * バッファの容量を取得します
+     * 
+     * @return 容量（バイト）
+     */
+    public int capacity() {
+        return buffer().capacity();
+    }
+    
+    /**
+     * バッファをプールに戻します
+     * 
+     * @throws IllegalStateException 解放済みの場合
+     */
+    @Override
+    public void close() {
+        ByteBuffer released = buffer();
+        buffer = null;
+        pool.release(this, released);
+    }
+    
+    int getSizeClass() {
+        return sizeClass;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.example.zengin.buffer;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 受信中のフレームをヒープに保持する量の上限（メモリ予算）
+ * すべてのセッションで共有し、受信中のデータをヒープに保持する前に予約します
+ * 
+ * 1フレームが閾値を超える場合、または予算を予約できない場合、受信データは一時ファイルに書き出します（スピル）
+ * 大きな電文を複数のセッションで同時に受信しても、ヒープに保持する量は予算を超えません
+ * 
+ * 1フレームのデータ長には上限を設け、相手が送信したデータ長や受信済みのデータ量が上限を超えた時点で受信を打ち切ります
+ */
+@Component
+public class ReceiveBufferBudget {
+    
+    private static final ReceiveBufferBudget SHARED = new ReceiveBufferBudget();
+    
+    @Value("${zengin.receive.memory-budget:67108864}")
+    private long memoryBudget = 64L * 1024 * 1024; // ヒープに保持できる受信データの合計（バイト）
+    
+    @Value("${zengin.receive.spill-threshold:4194304}")
+    private long spillThreshold = 4L * 1024 * 1024; // 1フレームをヒープに保持する上限（バイト）
+    
+    @Value("${zengin.receive.max-frame-length:268435456}")
+    private long maxFrameLength = 256L * 1024 * 1024; // 受信できる1フレームのデータ長の上限（バイト）
+    
+    @Value("${zengin.receive.spill-directory:${java.io.tmpdir}}")
+    private String spillDirectory = System.getProperty("java.io.tmpdir"); // 一時ファイルの作成先
+    
+    private final AtomicLong reserved = new AtomicLong();
+    private final LongAdder spills = new LongAdder();
+    private final LongAdder spilledBytes = new LongAdder();
+    
+    /**
+     * Spring管理外で生成したセッションが使用する共有のメモリ予算を取得します
+     * 
+     * @return メモリ予算
+     */
+    public static ReceiveBufferBudget shared() {
+        return SHARED;
+    }
+    
+    /**
+     * 受信データをヒープに保持するための予算を予約します
+     * 
+     * @param bytes 予約するバイト数
+     * @return 予約できた場合はtrue（予算を超える場合は予約せずにfalse）
+     */
+    public boolean tryReserve(long bytes) {
+        long current;
+        do {
+            current = reserved.get();
+            if (current + bytes > memoryBudget) {
+                return false;
+            }
+        } while (!reserved.compareAndSet(current, current + bytes));
+        return true;
+    }
+    
+    /**
+     * 予約した予算を解放します
+     * 
+     * @param bytes 解放するバイト数
+     */
+    public void release(long bytes) {
+        reserved.addAndGet(-bytes);
+    }
+    
+    /**
+     * 一時ファイルに書き出したフレームを記録します
+     * 
+     * @param bytes フレームのデータ長
+     */
+    public void recordSpill(long bytes) {
+        spills.increment();
+        spilledBytes.add(bytes);
+    }
+    
+    /**
+     * 1フレームをヒープに保持する上限を取得します
+     * 
+     * @return 上限（バイト）
+     */
+    public long getSpillThreshold() {
+        return spillThreshold;
+    }
+    
+    /**
+     * 受信できる1フレームのデータ長の上限を取得します
+     * 
+     * @return 上限（バイト）
+     */
+    public long getMaxFrameLength() {
+        return maxFrameLength;
+    }
+    
+    /**
+     * 一時ファイルの作成先を取得します
+     * 
+     * @return 作成先のディレクトリ
+     */
+    public Path getSpillDirectory() {
+        return Path.of(spillDirectory);
+    }
+    
+    /**
+     * 予約中のバイト数を取得します
+     * 
+     * @return バイト数
+     */
+    public long getReserved() {
+        return reserved.get();
+    }
+    
+    /**
+     * 一時ファイルに書き出したフレーム数を取得します
+     * 
+     * @return フレーム数
+     */
+    public long getSpills() {
+        return spills.sum();
+    }
+    
+    /**
+     * 一時ファイルに書き出したバイト数を取得します
+     * 
+     * @return バイト数
+     */
+    public long getSpilledBytes() {
+        return spilledBytes.sum();
+    }
+    
+    /**
+     * ヒープに保持できる受信データの合計を設定します
+     * 
+     * @param memoryBudget 合計（バイト）
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+    
+    /**
+     * 1フレームをヒープに保持する上限を設定します
+     * 
+     * @param spillThreshold 上限（バイト）
+     */
+    public void setSpillThreshold(long spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+    
+    /**
+     * 受信できる1フレームのデータ長の上限を設定します
+     * 
+     * @param maxFrameLength 上限（バイト）
+     */
+    public void setMaxFrameLength(long maxFrameLength) {
+        this.maxFrameLength = maxFrameLength;
+    }
+    
+    /**
+     * 一時ファイルの作成先を設定します
+     * 
+     * @param spillDirectory 作成先のディレクトリ
+     */
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+} 
\ No newline at end of file
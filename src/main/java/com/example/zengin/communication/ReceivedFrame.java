@@ -0,0 +1,296 @@
+package com.example.zengin.communication;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.zengin.buffer.ReceiveBufferBudget;
+import com.example.zengin.format.ReceivedTotals;
+import com.example.zengin.format.ZenginStreamDecoder;
+
+/**
+ * 受信したフレームのデータ部
+ * メモリ予算（ReceiveBufferBudget）の範囲ではヒープに、閾値を超える場合は一時ファイルをメモリマップして保持します
+ * どちらの場合も decode でデータレコードを1件ずつ処理できるため、呼び出し元は保持先を意識する必要はありません
+ * 
+ * 使用後は close で予算を解放し、一時ファイルを削除してください
+ */
+public class ReceivedFrame implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReceivedFrame.class);
+    
+    private static final int CHUNK_SIZE = 8192; // 一時ファイルからデコーダに渡す単位
+    private static final int INITIAL_CAPACITY = 8192; // データ長が不明な場合の初期容量
+    
+    private final byte[] data; // ヒープに保持する場合のデータ
+    private final MappedByteBuffer mapped; // 一時ファイルに保持する場合のデータ
+    private final Path file;
+    private final long length;
+    private final ReceiveBufferBudget budget;
+    private long reservedBytes;
+    
+    private ReceivedFrame(byte[] data, MappedByteBuffer mapped, Path file, long length, ReceiveBufferBudget budget,
+            long reservedBytes) {
+        this.data = data;
+        this.mapped = mapped;
+        this.file = file;
+        this.length = length;
+        this.budget = budget;
+        this.reservedBytes = reservedBytes;
+    }
+    
+    /**
+     * ヒープに受信済みのデータからフレームを作成します（メモリ予算の対象外）
+     * 
+     * @param data データ部
+     * @return フレーム
+     */
+    public static ReceivedFrame of(byte[] data) {
+        return new ReceivedFrame(data, null, null, data.length, null, 0);
+    }
+    
+    /**
+     * データ部をデコーダで解析します
+     * 一時ファイルに保持している場合も、メモリマップから一定の単位でデコーダに渡します
+     * 
+     * @param decoder 受信データを解析するデコーダ
+     * @return 受信したトレーラの記載値と集計値
+     * @throws IllegalArgumentException 不正なデータ形式の場合
+     */
+    public ReceivedTotals decode(ZenginStreamDecoder decoder) {
+        if (mapped == null) {
+            decoder.feed(data, 0, (int) length);
+            return decoder.finish();
+        }
+        
+        ByteBuffer view = mapped.duplicate();
+        byte[] chunk = new byte[CHUNK_SIZE];
+        while (view.hasRemaining()) {
+            int count = Math.min(chunk.length, view.remaining());
+            view.get(chunk, 0, count);
+            decoder.feed(chunk, 0, count);
+        }
+        return decoder.finish();
+    }
+    
+    /**
+     * データ部を読み取り専用のバッファとして取得します
+     * 一時ファイルに保持している場合はメモリマップをそのまま返すため、ヒープにコピーせずに並列集計などに使用できます
+     * バッファは close 後に使用しないでください
+     * 
+     * @return データ部（位置0からデータ長まで）
+     */
+    public ByteBuffer buffer() {
+        if (mapped == null) {
+            return ByteBuffer.wrap(data, 0, (int) length).asReadOnlyBuffer();
+        }
+        return mapped.duplicate();
+    }
+    
+    /**
+     * データ部をバイト配列として取得します
+     * ヒープに保持している配列がデータ長と一致する場合はコピーせずにそのまま返します
+     * 
+     * @return データ部
+     */
+    public byte[] toByteArray() {
+        if (mapped == null) {
+            return data.length == length ? data : Arrays.copyOf(data, (int) length);
+        }
+        byte[] bytes = new byte[(int) length];
+        mapped.duplicate().get(bytes);
+        return bytes;
+    }
+    
+    /**
+     * データ長を取得します
+     * 
+     * @return データ長（バイト）
+     */
+    public long length() {
+        return length;
+    }
+    
+    /**
+     * 一時ファイルに保持しているかを取得します
+     * 
+     * @return 一時ファイルに保持している場合はtrue
+     */
+    public boolean isSpilled() {
+        return mapped != null;
+    }
+    
+    /**
+     * メモリ予算を解放し、一時ファイルを削除します
+     */
+    @Override
+    public void close() {
+        if (budget != null && reservedBytes > 0) {
+            budget.release(reservedBytes);
+            reservedBytes = 0;
+        }
+        deleteQuietly(file);
+    }
+    
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            // メモリマップはGCで解放される（削除済みのファイルはマップの解放時に領域が回収される）
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("受信データの一時ファイルを削除できませんでした: {}", file, e);
+        }
+    }
+    
+    /**
+     * 受信中のフレームのデータ部を書き込むクラス
+     * メモリ予算の範囲ではヒープに書き込み、閾値を超えた時点、または予算を予約できない時点で一時ファイルに切り替えます
+     * build しないまま close した場合は予算を解放し、一時ファイルを削除します
+     */
+    static final class Writer implements AutoCloseable {
+        
+        private final ReceiveBufferBudget budget;
+        private byte[] data = new byte[0];
+        private long length;
+        private long reservedBytes;
+        private Path file;
+        private FileChannel channel;
+        private boolean built;
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param budget メモリ予算
+         * @param expectedLength データ長（不明な場合は-1）
+         * @throws IOException 一時ファイルの作成に失敗した場合
+         */
+        Writer(ReceiveBufferBudget budget, long expectedLength) throws IOException {
+            this.budget = budget;
+            if (expectedLength < 0) {
+                return;
+            }
+            if (expectedLength <= budget.getSpillThreshold() && budget.tryReserve(expectedLength)) {
+                reservedBytes = expectedLength;
+                data = new byte[(int) expectedLength];
+            } else {
+                spill();
+            }
+        }
+        
+        /**
+         * データを書き込みます
+         * 
+         * @param src 書き込むデータ
+         * @param offset 開始位置
+         * @param count バイト数
+         * @throws IOException 一時ファイルへの書き込みに失敗した場合
+         */
+        void write(byte[] src, int offset, int count) throws IOException {
+            if (channel == null && !ensureHeapCapacity(length + count)) {
+                spill();
+            }
+            if (channel != null) {
+                ByteBuffer buffer = ByteBuffer.wrap(src, offset, count);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } else {
+                System.arraycopy(src, offset, data, (int) length, count);
+            }
+            length += count;
+        }
+        
+        /**
+         * 書き込んだデータ長を取得します
+         * 
+         * @return データ長（バイト）
+         */
+        long length() {
+            return length;
+        }
+        
+        /**
+         * 書き込んだデータからフレームを作成します
+         * 
+         * @return フレーム
+         * @throws IOException 一時ファイルのメモリマップに失敗した場合
+         */
+        ReceivedFrame build() throws IOException {
+            ReceivedFrame frame;
+            if (channel != null) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+                channel.close();
+                budget.recordSpill(length);
+                frame = new ReceivedFrame(null, mapped, file, length, budget, 0);
+            } else {
+                frame = new ReceivedFrame(data, null, null, length, budget, reservedBytes);
+            }
+            built = true;
+            return frame;
+        }
+        
+        @Override
+        public void close() {
+            if (built) {
+                return;
+            }
+            budget.release(reservedBytes);
+            reservedBytes = 0;
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.debug("受信データの一時ファイルを閉じられませんでした: {}", file, e);
+                }
+            }
+            deleteQuietly(file);
+        }
+        
+        /**
+         * ヒープの容量を確保します（予算を予約して倍々に拡張）
+         * 
+         * @return 確保できた場合はtrue、閾値を超える、または予算を予約できない場合はfalse
+         */
+        private boolean ensureHeapCapacity(long required) {
+            if (required <= data.length) {
+                return true;
+            }
+            long threshold = budget.getSpillThreshold();
+            if (required > threshold) {
+                return false;
+            }
+            long capacity = Math.min(Math.max(required, Math.max(INITIAL_CAPACITY, (long) data.length * 2)), threshold);
+            if (!budget.tryReserve(capacity - data.length)) {
+                return false;
+            }
+            reservedBytes += capacity - data.length;
+            data = Arrays.copyOf(data, (int) capacity);
+            return true;
+        }
+        
+        /**
+         * 一時ファイルに切り替え、ヒープに書き込み済みのデータを移します
+         */
+        private void spill() throws IOException {
+            file = Files.createTempFile(budget.getSpillDirectory(), "zengin-", ".frame");
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer buffer = ByteBuffer.wrap(data, 0, (int) length);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            budget.release(reservedBytes);
+            reservedBytes = 0;
+            data = null;
+        }
+    }
+} 
\ No newline at end of file
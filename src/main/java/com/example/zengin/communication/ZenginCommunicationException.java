@@ -65,4 +65,27 @@ public class ZenginCommunicationException extends Exception {
     public String getErrorCode() {
         return errorCode;
     }
+    
+    /**
+     * 例外の原因をたどり、最も具体的なエラーコードを取得します
+     * 上位で包まれたデフォルトエラーコード（E000）よりも、原因側のエラーコードを優先します
+     * 
+     * @param cause 例外
+     * @return エラーコード（全銀通信例外を含まない場合は例外クラスの単純名）
+     */
+    public static String findErrorCode(Throwable cause) {
+        String errorCode = null;
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof ZenginCommunicationException) {
+                String code = ((ZenginCommunicationException) t).getErrorCode();
+                if (errorCode == null || !"E000".equals(code)) {
+                    errorCode = code;
+                }
+            }
+        }
+        if (errorCode != null) {
+            return errorCode;
+        }
+        return cause == null ? "E000" : cause.getClass().getSimpleName();
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.example.zengin.communication;
+
+/**
+ * 全銀TCP/IP手順で単独で送受信される制御文字
+ * Spring Integration TCPアダプタでは、データフレーム（byte[]）と区別するためにこの型のペイロードとして扱います
+ */
+public enum ZenginControlCode {
+    
+    ENQ((byte) 0x05), // 問い合わせ（接続要求）
+    ACK((byte) 0x06), // 肯定応答
+    NAK((byte) 0x15), // 否定応答
+    EOT((byte) 0x04); // 転送終了
+    
+    private final byte code;
+    
+    ZenginControlCode(byte code) {
+        this.code = code;
+    }
+    
+    /**
+     * 制御文字のコードを取得します
+     * 
+     * @return コード
+     */
+    public byte getCode() {
+        return code;
+    }
+    
+    /**
+     * コードから制御文字を取得します
+     * 
+     * @param bite 受信したバイト
+     * @return 制御文字（単独で送受信される制御文字でない場合はnull）
+     */
+    public static ZenginControlCode of(int bite) {
+        for (ZenginControlCode controlCode : values()) {
+            if (controlCode.code == (byte) bite) {
+                return controlCode;
+            }
+        }
+        return null;
+    }
+} 
\ No newline at end of file
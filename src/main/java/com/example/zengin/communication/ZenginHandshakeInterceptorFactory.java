@@ -0,0 +1,126 @@
+package com.example.zengin.communication;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.integration.ip.tcp.connection.TcpConnectionInterceptorFactory;
+import org.springframework.integration.ip.tcp.connection.TcpConnectionInterceptorSupport;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+
+/**
+ * Spring Integration TCP接続に全銀TCP/IP手順の接続・切断シーケンスを組み込むインターセプタのファクトリ
+ * 
+ * 送信側（クライアント接続）は最初のフレームを送信する前に ENQ を送信して ACK を待ち、
+ * 物理的な接続を閉じる前に EOT を送信します
+ * 受信側（サーバ接続）は ENQ に ACK を応答し、EOT を受信した時点で接続を閉じます
+ * どちらも接続・切断シーケンスの制御文字はゲートウェイに渡しません
+ */
+public class ZenginHandshakeInterceptorFactory implements TcpConnectionInterceptorFactory {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ZenginHandshakeInterceptorFactory.class);
+    
+    private final long handshakeTimeoutMillis;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param handshakeTimeoutMillis ENQに対する応答の待機時間（ミリ秒）
+     */
+    public ZenginHandshakeInterceptorFactory(long handshakeTimeoutMillis) {
+        this.handshakeTimeoutMillis = handshakeTimeoutMillis;
+    }
+    
+    @Override
+    public TcpConnectionInterceptorSupport getInterceptor() {
+        return new HandshakeInterceptor(handshakeTimeoutMillis);
+    }
+    
+    /**
+     * 1接続分の接続・切断シーケンスを処理するインターセプタ
+     */
+    static class HandshakeInterceptor extends TcpConnectionInterceptorSupport {
+        
+        private final long handshakeTimeoutMillis;
+        private final CountDownLatch handshakeReply = new CountDownLatch(1);
+        private volatile ZenginControlCode reply; // ENQに対する応答
+        private volatile boolean established;
+        
+        HandshakeInterceptor(long handshakeTimeoutMillis) {
+            this.handshakeTimeoutMillis = handshakeTimeoutMillis;
+        }
+        
+        @Override
+        public void send(Message<?> message) {
+            if (!established && !isServer()) {
+                establish();
+            }
+            super.send(message);
+        }
+        
+        @Override
+        public boolean onMessage(Message<?> message) {
+            Object payload = message.getPayload();
+            if (!(payload instanceof ZenginControlCode controlCode)) {
+                return super.onMessage(message);
+            }
+            
+            if (isServer()) {
+                if (controlCode == ZenginControlCode.ENQ) {
+                    // 接続要求にACKを応答
+                    established = true;
+                    super.send(MessageBuilder.withPayload(ZenginControlCode.ACK).build());
+                    return true;
+                }
+                if (controlCode == ZenginControlCode.EOT) {
+                    logger.debug("転送終了（EOT）を受信したため接続を閉じます: {}", getConnectionId());
+                    super.close();
+                    return true;
+                }
+            } else if (!established && reply == null) {
+                // 接続要求に対する応答
+                reply = controlCode;
+                handshakeReply.countDown();
+                return true;
+            }
+            return super.onMessage(message);
+        }
+        
+        @Override
+        public void close() {
+            if (established && !isServer()) {
+                try {
+                    super.send(MessageBuilder.withPayload(ZenginControlCode.EOT).build());
+                } catch (RuntimeException e) {
+                    logger.debug("転送終了（EOT）を送信できませんでした: {}", getConnectionId(), e);
+                }
+            }
+            super.close();
+        }
+        
+        /**
+         * 接続要求（ENQ）を送信し、ACKを受信するまで待機します
+         */
+        private synchronized void establish() {
+            if (established) {
+                return;
+            }
+            super.send(MessageBuilder.withPayload(ZenginControlCode.ENQ).build());
+            try {
+                if (!handshakeReply.await(handshakeTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new MessagingException("接続要求（ENQ）に対する応答がありません: " + getConnectionId());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MessagingException("接続要求（ENQ）の応答待ちで割り込まれました: " + getConnectionId(), e);
+            }
+            if (reply != ZenginControlCode.ACK) {
+                throw new MessagingException("接続要求に対する応答が不正です: " + reply);
+            }
+            established = true;
+        }
+    }
+} 
\ No newline at end of file
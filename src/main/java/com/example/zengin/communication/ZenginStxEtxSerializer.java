@@ -0,0 +1,157 @@
+package com.example.zengin.communication;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.integration.ip.tcp.serializer.SoftEndOfStreamException;
+import org.springframework.integration.ip.tcp.serializer.TcpDeserializationExceptionEvent;
+
+/**
+ * Spring Integration TCPアダプタ用の全銀フレームシリアライザ
+ * 全銀TCP/IP手順の STX + データ + ETX 形式のフレームと、ENQ/ACK/NAK/EOT の単独制御文字を相互に変換します
+ * 
+ * データフレームは byte[]、制御文字は ZenginControlCode のペイロードとして明示的に区別します
+ * 送信時は byte[] を長さによらず必ずSTX/ETXで囲み、ZenginControlCode のみを単独の1バイトとして書き込みます
+ * 受信時はSTX以前の単独の制御文字を ZenginControlCode、STXからETXまでのデータ部を byte[] として返します
+ * 接続ファクトリの TcpMessageMapper は stringToBytes=false とし、ペイロードをそのまま渡してください
+ * 
+ * ペイロードに ZenginControlCode を含むため、byte[] 専用の AbstractByteArraySerializer は継承しません
+ * 次のフレームを読み進めないようETXまで1バイトずつ読み取りますが、NIO接続の入力ストリームは受信済みのバッファから返すため、
+ * 1バイトごとにシステムコールが発生することはありません
+ */
+public class ZenginStxEtxSerializer implements Serializer<Object>, Deserializer<Object>, ApplicationEventPublisherAware {
+    
+    // 全銀プロトコル定数
+    public static final byte STX = 0x02; // 通信開始文字
+    public static final byte ETX = 0x03; // 通信終了文字
+    
+    private static final int INITIAL_BUFFER_SIZE = 8192; // 受信バッファの初期サイズ
+    private static final int DEFAULT_MAX_MESSAGE_SIZE = 2048; // フレーム長の上限の既定値
+    
+    private int maxMessageSize = DEFAULT_MAX_MESSAGE_SIZE;
+    private ApplicationEventPublisher applicationEventPublisher;
+    
+    /**
+     * フレームを読み取ります
+     * 
+     * @param inputStream 入力ストリーム
+     * @return データフレームのデータ部（byte[]）、または単独の制御文字（ZenginControlCode）
+     * @throws IOException 読み取りエラー、またはフレーム長が上限を超えた場合
+     */
+    @Override
+    public Object deserialize(InputStream inputStream) throws IOException {
+        int bite = inputStream.read();
+        if (bite < 0) {
+            throw new SoftEndOfStreamException("フレーム間で接続が切断されました");
+        }
+        
+        // STX以前の制御文字は単独のフレームとして返す
+        while (bite != STX) {
+            ZenginControlCode controlCode = ZenginControlCode.of(bite);
+            if (controlCode != null) {
+                return controlCode;
+            }
+            bite = inputStream.read();
+            checkClosure(bite);
+        }
+        
+        byte[] buffer = new byte[Math.min(INITIAL_BUFFER_SIZE, maxMessageSize)];
+        int length = 0;
+        
+        while (true) {
+            bite = inputStream.read();
+            checkClosure(bite);
+            
+            if (bite == ETX) {
+                return Arrays.copyOf(buffer, length);
+            }
+            
+            if (length >= buffer.length) {
+                if (buffer.length >= maxMessageSize) {
+                    IOException e = new IOException("ETXを受信する前にフレーム長が上限を超えました: " + maxMessageSize);
+                    publishEvent(e, buffer, length);
+                    throw e;
+                }
+                buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, maxMessageSize));
+            }
+            buffer[length++] = (byte) bite;
+        }
+    }
+    
+    /**
+     * フレームを書き込みます
+     * 
+     * @param payload データフレームのデータ部（byte[]）、または制御文字（ZenginControlCode）
+     * @param outputStream 出力ストリーム
+     * @throws IOException 書き込みエラー発生時
+     * @throws IllegalArgumentException それ以外の型のペイロードの場合
+     */
+    @Override
+    public void serialize(Object payload, OutputStream outputStream) throws IOException {
+        if (payload instanceof ZenginControlCode controlCode) {
+            outputStream.write(controlCode.getCode());
+            outputStream.flush();
+            return;
+        }
+        if (!(payload instanceof byte[] bytes)) {
+            throw new IllegalArgumentException("全銀フレームのペイロードは byte[] または ZenginControlCode で指定してください: "
+                    + (payload == null ? null : payload.getClass().getName()));
+        }
+        
+        // 1回の書き込みで送信できるようにフレームを組み立てる
+        byte[] frame = new byte[bytes.length + 2];
+        frame[0] = STX;
+        System.arraycopy(bytes, 0, frame, 1, bytes.length);
+        frame[frame.length - 1] = ETX;
+        
+        outputStream.write(frame);
+        outputStream.flush();
+    }
+    
+    /**
+     * フレーム長の上限を取得します
+     * 
+     * @return フレーム長の上限（バイト）
+     */
+    public int getMaxMessageSize() {
+        return maxMessageSize;
+    }
+    
+    /**
+     * フレーム長の上限を設定します
+     * 
+     * @param maxMessageSize フレーム長の上限（バイト）
+     */
+    public void setMaxMessageSize(int maxMessageSize) {
+        this.maxMessageSize = maxMessageSize;
+    }
+    
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+    
+    /**
+     * フレームの途中で切断されていないかを確認します
+     */
+    private static void checkClosure(int bite) throws IOException {
+        if (bite < 0) {
+            throw new IOException("フレームの受信中に接続が切断されました");
+        }
+    }
+    
+    /**
+     * 受信フレームの解析エラーをイベントとして通知します
+     */
+    private void publishEvent(Exception cause, byte[] buffer, int offset) {
+        if (applicationEventPublisher != null) {
+            applicationEventPublisher.publishEvent(new TcpDeserializationExceptionEvent(this, cause, buffer, offset));
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.example.zengin.communication;
+
+/**
+ * Spring Integration TCP送信ゲートウェイのインターフェース
+ * 送信したデータフレームに対する銀行ホストの応答（ACK/NAKまたは応答フレーム）を返します
+ * 接続・切断シーケンス（ENQ/ACK、EOT）は接続ファクトリが処理するため、呼び出し元で送信する必要はありません
+ */
+public interface ZenginTcpGateway {
+    
+    /**
+     * データフレームを送信し、応答を受信します
+     * 
+     * @param frame 送信フレームのデータ部（長さによらずSTX/ETXで囲んで送信します）
+     * @return 応答（ACK/NAK の場合は ZenginControlCode、応答フレームの場合はデータ部の byte[]）
+     */
+    Object exchange(byte[] frame);
+} 
\ No newline at end of file
@@ -1,11 +1,35 @@
 package com.example.zengin.communication;
 
+import java.nio.file.Path;
+
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginStreamDecoder;
+
 /**
  * 全銀TCP/IPプロトコルの通信インターフェース
  * 全銀協標準通信プロトコルに準拠した送受信処理を定義します
  */
 public interface ZenginTcpIpProtocol {
     
+    /**
+     * 受信したフレームを応答の前に処理するインターフェース
+     * 
+     * @param <T> 処理結果の型
+     */
+    @FunctionalInterface
+    interface FrameProcessor<T> {
+        
+        /**
+         * 受信したフレームを処理します
+         * フレームは処理後に閉じられるため、必要なデータは処理中に取り出してください
+         * 
+         * @param frame 受信したフレーム
+         * @return 処理結果
+         * @throws ZenginCommunicationException 受信データを受け付けない場合
+         */
+        T process(ReceivedFrame frame) throws ZenginCommunicationException;
+    }
+    
     /**
      * 銀行ホストに接続し、データを送信します
      * 
@@ -17,6 +41,46 @@ public interface ZenginTcpIpProtocol {
      */
     boolean sendData(String hostAddress, int port, byte[] data) throws ZenginCommunicationException;
     
+    /**
+     * 銀行ホストに接続し、電文を送信します
+     * 実装によっては電文全体のバイト配列を作成せず、送信フレームに直接書き込みます
+     * 
+     * @param hostAddress 接続先ホストアドレス
+     * @param port 接続先ポート
+     * @param message 送信電文
+     * @return 送信結果
+     * @throws ZenginCommunicationException 通信エラー発生時
+     */
+    default boolean sendMessage(String hostAddress, int port, ZenginMessage message) throws ZenginCommunicationException {
+        return sendData(hostAddress, port, message.toByteArray());
+    }
+    
+    /**
+     * 銀行ホストにファイルの内容を1つのデータとして送信します
+     * 作成済みの送信ファイルをメモリに読み込まずに送信する場合に使用します
+     * 
+     * @param hostAddress 接続先ホストアドレス
+     * @param port 接続先ポート
+     * @param file 送信ファイル（全銀フォーマット）
+     * @return 送信結果
+     * @throws ZenginCommunicationException 通信エラー、ファイルの読み込みエラー発生時
+     */
+    boolean sendFile(String hostAddress, int port, Path file) throws ZenginCommunicationException;
+    
+    /**
+     * 銀行ホストにデータをブロック分割して送信します
+     * 指定したウィンドウサイズまで応答を待たずにブロックを送信し、NAKまたは応答のないブロックのみを再送します
+     * 転送が中断された場合は、同じ転送IDで確認済みブロックの次から再開します
+     * 
+     * @param hostAddress 接続先ホストアドレス
+     * @param port 接続先ポート
+     * @param transferId 転送ID（10文字以内、再開時の識別に使用）
+     * @param data 送信データ（全銀フォーマット）
+     * @return 送信結果
+     * @throws ZenginCommunicationException 通信エラー発生時
+     */
+    boolean sendDataInBlocks(String hostAddress, int port, String transferId, byte[] data) throws ZenginCommunicationException;
+    
     /**
      * 銀行ホストからデータを受信します
      * 
@@ -27,6 +91,61 @@ public interface ZenginTcpIpProtocol {
      */
     byte[] receiveData(String hostAddress, int port) throws ZenginCommunicationException;
     
+    /**
+     * 銀行ホストからデータを受信し、ACKを応答します
+     * 実装によっては閾値を超えるデータをヒープではなく一時ファイルに保持します
+     * 
+     * @param hostAddress 接続先ホストアドレス
+     * @param port 接続先ポート
+     * @return 受信したフレーム（使用後は close してください）
+     * @throws ZenginCommunicationException 通信エラー発生時
+     */
+    default ReceivedFrame receiveFrame(String hostAddress, int port) throws ZenginCommunicationException {
+        return ReceivedFrame.of(receiveData(hostAddress, port));
+    }
+    
+    /**
+     * 銀行ホストからデータを受信し、処理が成功した場合にACKを応答します
+     * 実装によっては処理が例外で終了した場合にACKの代わりにNAKを応答し、銀行側に再送させます
+     * （既定の実装は受信時にACKを応答します）
+     * 
+     * @param <T> 処理結果の型
+     * @param hostAddress 接続先ホストアドレス
+     * @param port 接続先ポート
+     * @param processor 受信したフレームの処理
+     * @return 処理結果
+     * @throws ZenginCommunicationException 通信エラー発生時、処理が失敗した場合
+     */
+    default <T> T receiveFrame(String hostAddress, int port, FrameProcessor<T> processor)
+            throws ZenginCommunicationException {
+        try (ReceivedFrame frame = receiveFrame(hostAddress, port)) {
+            return processor.process(frame);
+        }
+    }
+    
+    /**
+     * 銀行ホストからデータを受信し、受信しながらデコーダで解析します
+     * 実装によってはETXの受信を待たずにデコーダに渡して受信データ全体のバイト配列を作成せず、
+     * 解析に失敗した場合はACKの代わりにNAKを応答します
+     * 
+     * @param hostAddress 接続先ホストアドレス
+     * @param port 接続先ポート
+     * @param decoder 受信データを解析するデコーダ
+     * @return 受信したバイト数
+     * @throws ZenginCommunicationException 通信エラー、解析エラー発生時
+     */
+    default long receiveStream(String hostAddress, int port, ZenginStreamDecoder decoder)
+            throws ZenginCommunicationException {
+        byte[] data = receiveData(hostAddress, port);
+        try {
+            decoder.feed(data, 0, data.length);
+            decoder.finish();
+        } catch (RuntimeException e) {
+            throw new ZenginCommunicationException("受信データの解析に失敗しました: " + e.getMessage(), e, "E017");
+        }
+        return data.length;
+    }
+    
     /**
      * 通信接続を確立します
      * 
@@ -42,4 +161,13 @@ public interface ZenginTcpIpProtocol {
      * @throws ZenginCommunicationException 切断エラー発生時
      */
     void disconnect() throws ZenginCommunicationException;
+    
+    /**
+     * 別のスレッドで受信待ちなどの処理中の通信接続を中断します
+     * 実装によっては接続を閉じて処理中の送受信をエラーで終了させ、以降の接続を行いません
+     * 切断シーケンスは送信せず、リソースの解放は処理中のスレッドが disconnect で行います
+     */
+    default void abort() {
+        // 中断できない実装では何もしない
+    }
 } 
\ No newline at end of file
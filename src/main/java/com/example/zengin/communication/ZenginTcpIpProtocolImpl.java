@@ -1,13 +1,25 @@
 package com.example.zengin.communication;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocket;
@@ -15,16 +27,41 @@ import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.example.zengin.buffer.FrameBufferPool;
+import com.example.zengin.buffer.PooledBuffer;
+import com.example.zengin.buffer.ReceiveBufferBudget;
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginStreamDecoder;
+import com.example.zengin.jfr.ZenginConnectEvent;
+import com.example.zengin.jfr.ZenginEventContext;
+import com.example.zengin.jfr.ZenginFrameReceiveEvent;
+import com.example.zengin.jfr.ZenginFrameSendEvent;
+import com.example.zengin.metrics.ZenginMetrics;
+
 /**
  * 全銀TCP/IPプロトコルの実装クラス
  * 全銀協標準通信プロトコル（TCP/IP手順）に準拠した送受信処理を実装します
+ * 
+ * 非TLS接続（閉域網）では SocketChannel を使用し、ファイルの送信は FileChannel.transferTo により
+ * ヒープを経由せずにカーネル内でソケットに転送します
+ * 
+ * フレーム形式は STX + データ + ETX を標準とし、設定により接続時にフレーム長付き形式
+ * （STX + データ長 + データ + ETX）を交渉します。フレーム長付き形式ではデータにETXと同じ値のバイトを含められ、
+ * 受信側はデータ長の分を一括で読み取ります
+ * 
+ * 受信フレームの組み立てと非TLS接続での送信フレームの作成には FrameBufferPool のバッファを使用し、
+ * 非TLS接続ではSTXからETXまでを1回の書き込みで送信します
  */
 @Component
 public class ZenginTcpIpProtocolImpl implements ZenginTcpIpProtocol {
     
-    private static final Logger logger = Logger.getLogger(ZenginTcpIpProtocolImpl.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(ZenginTcpIpProtocolImpl.class);
     
     // 全銀プロトコル定数
     private static final byte STX = 0x02; // 通信開始文字
@@ -34,13 +71,69 @@ public class ZenginTcpIpProtocolImpl implements ZenginTcpIpProtocol {
     private static final byte ACK = 0x06; // 肯定応答文字
     private static final byte NAK = 0x15; // 否定応答文字
     private static final byte DLE = 0x10; // データリンクエスケープ
+    private static final byte LENGTH_PREFIXED_REQUEST = 'L'; // DLEに続けて送るフレーム長付き形式の要求
+    
+    // フレーム長付き形式の定数
+    private static final int FRAME_LENGTH_FIELD_LENGTH = 4; // データ長（ビッグエンディアン）のバイト数
+    private static final int MAX_FRAME_LENGTH = Integer.MAX_VALUE - 8; // データ長に指定できる上限（配列長の上限、受信はメモリ予算の上限まで）
+    private static final int RECEIVE_BUFFER_CAPACITY = 8192; // 受信データをまとめて読み取る単位
+    
+    /**
+     * フレーム形式
+     */
+    public enum FramingMode {
+        ETX, // STX + データ + ETX（データにETXを含められない）
+        LENGTH_PREFIXED // STX + データ長（4バイト） + データ + ETX（接続時に交渉、相手が応じない場合はETX形式）
+    }
+    
+    // ブロック転送定数
+    private static final int TRANSFER_ID_LENGTH = 10; // 転送ID長
+    private static final int BLOCK_NUMBER_LENGTH = 8; // ブロック番号長
     
     // 通信制御用変数
-    private Socket socket;
+    private volatile Socket socket; // abort で別スレッドから閉じるため volatile
+    private volatile boolean aborted; // abort 後は接続しない
     private InputStream inputStream;
     private OutputStream outputStream;
+    private final byte[] receiveChunk = new byte[RECEIVE_BUFFER_CAPACITY]; // 受信データの読み取りバッファ
     private final AtomicInteger sequenceNumber = new AtomicInteger(0); // TTCシーケンス番号
     private boolean useTLS = true; // デフォルトでTLS使用
+    private FramingMode negotiatedFraming = FramingMode.ETX; // 接続中のフレーム形式
+    
+    // フレーム形式設定
+    @Value("${zengin.framing.mode:ETX}")
+    private FramingMode framingMode = FramingMode.ETX; // 接続時に要求するフレーム形式
+    
+    @Value("${zengin.framing.negotiation-timeout-millis:3000}")
+    private int negotiationTimeoutMillis = 3000; // フレーム形式の交渉の応答待機時間
+    
+    // ブロック転送設定
+    @Value("${zengin.block.size:65536}")
+    private int blockSize = 65536; // 1ブロックあたりのデータ長
+    
+    @Value("${zengin.block.window-size:8}")
+    private int windowSize = 8; // 応答未受信のまま送信できるブロック数
+    
+    @Value("${zengin.block.ack-timeout-millis:30000}")
+    private int blockAckTimeoutMillis = 30000; // ブロック応答の待機時間
+    
+    @Value("${zengin.block.max-retransmissions:3}")
+    private int maxBlockRetransmissions = 3; // 同一ブロックの最大再送回数
+    
+    @Value("${zengin.block.max-reconnects:3}")
+    private int maxBlockReconnects = 3; // 転送中断時の最大再接続回数
+    
+    // 転送ID毎の確認済みブロック数（再接続時の再開位置）
+    private final Map<String, Integer> blockTransferProgress = new ConcurrentHashMap<>();
+    
+    @Autowired(required = false)
+    private ZenginMetrics metrics = ZenginMetrics.noop();
+    
+    @Autowired(required = false)
+    private FrameBufferPool bufferPool = FrameBufferPool.shared();
+    
+    @Autowired(required = false)
+    private ReceiveBufferBudget receiveBudget = ReceiveBufferBudget.shared();
     
     /**
      * コンストラクタ
@@ -51,6 +144,21 @@ public class ZenginTcpIpProtocolImpl implements ZenginTcpIpProtocol {
     
     @Override
     public void connect(String hostAddress, int port) throws ZenginCommunicationException {
+        connect(hostAddress, port, framingMode);
+    }
+    
+    /**
+     * 通信接続を確立し、フレーム形式を交渉します
+     * 
+     * @param hostAddress 接続先ホストアドレス
+     * @param port 接続先ポート
+     * @param requestedFraming 要求するフレーム形式
+     * @throws ZenginCommunicationException 接続エラー発生時
+     */
+    private void connect(String hostAddress, int port, FramingMode requestedFraming) throws ZenginCommunicationException {
+        long startNanos = System.nanoTime();
+        ZenginConnectEvent event = new ZenginConnectEvent();
+        event.begin();
         try {
             if (useTLS) {
                 // SSL/TLS接続を確立
@@ -64,35 +172,98 @@ public class ZenginTcpIpProtocolImpl implements ZenginTcpIpProtocol {
                 String[] strongCipherSuites = getStrongCipherSuites(sslSocket.getSupportedCipherSuites());
                 sslSocket.setEnabledCipherSuites(strongCipherSuites);
                 
+                long handshakeStartNanos = System.nanoTime();
                 sslSocket.startHandshake();
+                event.handshakeNanos = System.nanoTime() - handshakeStartNanos;
                 this.socket = sslSocket;
             } else {
                 // 非SSL接続（テスト用または閉域網用）
                 this.socket = createNonTLSSocket(hostAddress, port);
             }
+            if (aborted) {
+                closeQuietly();
+                throw new ZenginCommunicationException("全銀TCP/IP接続は中断されました", "E002");
+            }
             
-            this.inputStream = socket.getInputStream();
+            // 制御文字・ETX形式のフレームを1バイトずつ読み取るため、読み取りごとのシステムコールと配列確保を避ける
+            this.inputStream = new BufferedInputStream(socket.getInputStream());
             this.outputStream = socket.getOutputStream();
             
             // 接続要求（ENQ）を送信
+            long enqNanos = System.nanoTime();
             sendControlCharacter(ENQ);
             
             // ACK応答を待機
             byte response = readControlCharacter();
             if (response != ACK) {
+                if (response == NAK) {
+                    metrics.recordNak("connect");
+                }
                 throw new ZenginCommunicationException(
                     "接続要求に対する応答が不正です: " + response, 
                     "E001"
                 );
             }
             
-            logger.info("全銀TCP/IP接続が確立されました: " + hostAddress + ":" + port);
+            long enqAckNanos = System.nanoTime() - enqNanos;
+            
+            // フレーム形式を交渉（応答がない場合は交渉せずに接続し直す）
+            negotiatedFraming = FramingMode.ETX;
+            if (requestedFraming == FramingMode.LENGTH_PREFIXED && !negotiateLengthPrefixed()) {
+                closeQuietly();
+                connect(hostAddress, port, FramingMode.ETX);
+                return;
+            }
+            
+            long now = System.nanoTime();
+            metrics.recordEnqAck(bankKey(hostAddress), enqAckNanos);
+            metrics.recordConnect(hostAddress, useTLS, now - startNanos);
+            event.host = hostAddress;
+            event.port = port;
+            event.tls = useTLS;
+            ZenginEventContext.commit(event);
+            logger.info("全銀TCP/IP接続が確立されました: {}:{}（フレーム形式: {}）", hostAddress, port, negotiatedFraming);
             
         } catch (IOException e) {
             throw new ZenginCommunicationException("全銀TCP/IP接続に失敗しました: " + e.getMessage(), e, "E002");
         }
     }
     
+    /**
+     * フレーム長付き形式を要求します（DLE + 'L'）
+     * ACKを受信した場合はフレーム長付き形式、NAK等を受信した場合はETX形式で通信します
+     * 
+     * @return 応答を受信した場合はtrue、待機時間内に応答がない場合はfalse
+     * @throws IOException 送受信エラー発生時
+     */
+    private boolean negotiateLengthPrefixed() throws IOException {
+        outputStream.write(new byte[] { DLE, LENGTH_PREFIXED_REQUEST });
+        outputStream.flush();
+        
+        int originalTimeout = socket.getSoTimeout();
+        socket.setSoTimeout(negotiationTimeoutMillis);
+        try {
+            int response = inputStream.read();
+            if (response == -1) {
+                throw new IOException("フレーム形式の交渉中に接続が切断されました");
+            }
+            if (response == ACK) {
+                negotiatedFraming = FramingMode.LENGTH_PREFIXED;
+            } else {
+                logger.info("フレーム長付き形式が受け入れられなかったため、ETX形式で通信します: 応答={}", response);
+            }
+            return true;
+        } catch (SocketTimeoutException e) {
+            // 応答が遅れて届くと以降の応答と取り違えるため、この接続は使用しない
+            logger.warn("フレーム形式の交渉に応答がないため、ETX形式で接続し直します");
+            return false;
+        } finally {
+            if (socket != null && !socket.isClosed()) {
+                socket.setSoTimeout(originalTimeout);
+            }
+        }
+    }
+    
     @Override
     public void disconnect() throws ZenginCommunicationException {
         if (socket == null || socket.isClosed()) {
@@ -120,34 +291,188 @@ public class ZenginTcpIpProtocolImpl implements ZenginTcpIpProtocol {
         }
     }
     
+    /**
+     * 処理中の通信接続を中断します
+     * ソケットを閉じて受信待ちのスレッドを終了させます（ソケットのクローズはスレッドセーフ）
+     */
+    @Override
+    public void abort() {
+        aborted = true;
+        Socket current = socket;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (IOException e) {
+            logger.debug("ソケットのクローズに失敗しました", e);
+        }
+    }
+    
     @Override
     public boolean sendData(String hostAddress, int port, byte[] data) throws ZenginCommunicationException {
         if (socket == null || socket.isClosed()) {
             connect(hostAddress, port);
         }
         
+        ZenginFrameSendEvent event = new ZenginFrameSendEvent();
+        event.begin();
+        try {
+            // データ送信シーケンス
+            // 1. STX（フレーム長付き形式の場合はデータ長を含む）、データ本体、ETXを送信
+            long sendStartNanos = System.nanoTime();
+            SocketChannel channel = pooledFrameChannel(data.length);
+            if (channel != null) {
+                try (PooledBuffer frame = bufferPool.acquire(frameLength(data.length))) {
+                    ByteBuffer buffer = frame.buffer();
+                    putFrameStart(buffer, data.length);
+                    buffer.put(data).put(ETX).flip();
+                    writeFully(channel, buffer);
+                }
+            } else {
+                outputStream.write(frameStart(data.length));
+                outputStream.write(data);
+                outputStream.write(ETX);
+                outputStream.flush();
+            }
+            
+            // 2. ACK応答を待機
+            return awaitDataAck(hostAddress, data.length, sendStartNanos, event);
+            
+        } catch (IOException e) {
+            throw new ZenginCommunicationException("データ送信中にエラーが発生しました: " + e.getMessage(), e, "E005");
+        }
+    }
+    
+    /**
+     * 電文を送信します
+     * 非TLS接続では電文全体のバイト配列を作成せず、プールのバッファに送信フレームとして直接書き込みます
+     */
+    @Override
+    public boolean sendMessage(String hostAddress, int port, ZenginMessage message) throws ZenginCommunicationException {
+        if (socket == null || socket.isClosed()) {
+            connect(hostAddress, port);
+        }
+        
+        int length = message.getEncodedLength();
+        SocketChannel channel = pooledFrameChannel(length);
+        if (channel == null) {
+            return sendData(hostAddress, port, message.toByteArray());
+        }
+        
+        ZenginFrameSendEvent event = new ZenginFrameSendEvent();
+        event.begin();
+        try {
+            long sendStartNanos = System.nanoTime();
+            try (PooledBuffer frame = bufferPool.acquire(frameLength(length))) {
+                ByteBuffer buffer = frame.buffer();
+                putFrameStart(buffer, length);
+                message.encodeTo(buffer);
+                buffer.put(ETX).flip();
+                writeFully(channel, buffer);
+            }
+            return awaitDataAck(hostAddress, length, sendStartNanos, event);
+            
+        } catch (IOException e) {
+            throw new ZenginCommunicationException("データ送信中にエラーが発生しました: " + e.getMessage(), e, "E005");
+        }
+    }
+    
+    /**
+     * 送信したフレームに対するACK応答を待機し、送信結果を記録します
+     * 
+     * @param hostAddress 接続先ホストアドレス
+     * @param length 送信したデータ長
+     * @param sendStartNanos 送信開始時刻（System.nanoTime()）
+     * @param event 送信イベント
+     * @return 送信結果
+     * @throws IOException 受信エラー発生時
+     * @throws ZenginCommunicationException ACK以外の応答を受信した場合
+     */
+    private boolean awaitDataAck(String hostAddress, int length, long sendStartNanos, ZenginFrameSendEvent event)
+            throws IOException, ZenginCommunicationException {
+        byte response = readControlCharacter();
+        if (response != ACK) {
+            if (response == NAK) {
+                metrics.recordNak("data");
+            }
+            throw new ZenginCommunicationException(
+                "データ送信に対する応答が不正です: " + response, 
+                "E004"
+            );
+        }
+        
+        metrics.recordFrameAck(bankKey(hostAddress), System.nanoTime() - sendStartNanos);
+        event.bytes = length;
+        event.blocks = 1;
+        ZenginEventContext.commit(event);
+        
+        if (logger.isDebugEnabled()) {
+            logger.debug("全銀データを送信しました: {} バイト", length);
+        }
+        return true;
+    }
+    
+    @Override
+    public boolean sendFile(String hostAddress, int port, Path file) throws ZenginCommunicationException {
+        if (socket == null || socket.isClosed()) {
+            connect(hostAddress, port);
+        }
+        
+        SocketChannel channel = socket.getChannel();
+        if (channel == null) {
+            // TLS接続では暗号化が必要なため、ファイルを読み込んで送信
+            return sendData(hostAddress, port, readFile(file));
+        }
+        
+        FileChannel fileChannel;
         try {
+            fileChannel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new ZenginCommunicationException("送信ファイルを開けません: " + file, e, "E015");
+        }
+        
+        ZenginFrameSendEvent event = new ZenginFrameSendEvent();
+        event.begin();
+        try (fileChannel) {
+            long size = fileChannel.size();
+            
+            if (negotiatedFraming == FramingMode.LENGTH_PREFIXED && size > MAX_FRAME_LENGTH) {
+                throw new ZenginCommunicationException("送信ファイルがフレーム長の上限を超えています: " + size + " バイト", "E015");
+            }
+            
             // データ送信シーケンス
-            // 1. STXを送信
-            outputStream.write(STX);
+            // 1. STX（フレーム長付き形式の場合はデータ長を含む）を送信
+            long sendStartNanos = System.nanoTime();
+            writeFully(channel, frameStart((int) size));
             
-            // 2. データ本体を送信
-            outputStream.write(data);
+            // 2. ファイルの内容をカーネル内でソケットに転送（1回の転送量には上限があるため繰り返す）
+            long position = 0;
+            while (position < size) {
+                position += fileChannel.transferTo(position, size - position, channel);
+            }
             
             // 3. ETXを送信
-            outputStream.write(ETX);
-            outputStream.flush();
+            writeFully(channel, new byte[] { ETX });
             
             // 4. ACK応答を待機
             byte response = readControlCharacter();
             if (response != ACK) {
+                if (response == NAK) {
+                    metrics.recordNak("data");
+                }
                 throw new ZenginCommunicationException(
                     "データ送信に対する応答が不正です: " + response, 
                     "E004"
                 );
             }
             
-            logger.info("全銀データを送信しました: " + data.length + " バイト");
+            metrics.recordFrameAck(bankKey(hostAddress), System.nanoTime() - sendStartNanos);
+            event.bytes = size;
+            event.blocks = 1;
+            ZenginEventContext.commit(event);
+            
+            logger.debug("全銀データをファイルから送信しました: {} バイト", size);
             return true;
             
         } catch (IOException e) {
@@ -161,53 +486,620 @@ public class ZenginTcpIpProtocolImpl implements ZenginTcpIpProtocol {
             connect(hostAddress, port);
         }
         
+        ZenginFrameReceiveEvent event = new ZenginFrameReceiveEvent();
+        event.begin();
+        try {
+            skipToStx();
+            long stxNanos = System.nanoTime();
+            
+            // フレームをまとめて読み取り（閾値を超える場合は一時ファイル経由）、ACK応答を送信
+            byte[] receivedData;
+            try (ReceivedFrame frame = negotiatedFraming == FramingMode.LENGTH_PREFIXED
+                    ? spoolLengthPrefixedFrame()
+                    : spoolEtxFrame()) {
+                receivedData = frame.toByteArray();
+            }
+            metrics.recordFrameAssembly(bankKey(hostAddress), System.nanoTime() - stxNanos);
+            sendControlCharacter(ACK);
+            
+            event.bytes = receivedData.length;
+            ZenginEventContext.commit(event);
+            if (logger.isDebugEnabled()) {
+                logger.debug("全銀データを受信しました: {} バイト", receivedData.length);
+            }
+            
+            return receivedData;
+            
+        } catch (IOException e) {
+            throw new ZenginCommunicationException("データ受信中にエラーが発生しました: " + e.getMessage(), e, "E007");
+        }
+    }
+    
+    @Override
+    public ReceivedFrame receiveFrame(String hostAddress, int port) throws ZenginCommunicationException {
+        if (socket == null || socket.isClosed()) {
+            connect(hostAddress, port);
+        }
+        
+        ZenginFrameReceiveEvent event = new ZenginFrameReceiveEvent();
+        event.begin();
+        try {
+            // フレームを読み取り、ACK応答を送信
+            ReceivedFrame frame = spoolFrame(hostAddress);
+            try {
+                sendControlCharacter(ACK);
+            } catch (IOException e) {
+                frame.close();
+                throw e;
+            }
+            
+            event.bytes = frame.length();
+            ZenginEventContext.commit(event);
+            if (logger.isDebugEnabled()) {
+                logger.debug("全銀データを受信しました: {} バイト（一時ファイル: {}）", frame.length(), frame.isSpilled());
+            }
+            
+            return frame;
+            
+        } catch (IOException e) {
+            throw new ZenginCommunicationException("データ受信中にエラーが発生しました: " + e.getMessage(), e, "E007");
+        }
+    }
+    
+    @Override
+    public <T> T receiveFrame(String hostAddress, int port, FrameProcessor<T> processor)
+            throws ZenginCommunicationException {
+        if (socket == null || socket.isClosed()) {
+            connect(hostAddress, port);
+        }
+        
+        ZenginFrameReceiveEvent event = new ZenginFrameReceiveEvent();
+        event.begin();
         try {
-            // データ受信準備
-            byte[] buffer = new byte[8192]; // 受信バッファ
-            int totalBytesRead = 0;
-            boolean stxReceived = false;
-            boolean dataComplete = false;
-            
-            while (!dataComplete) {
-                int byteRead = inputStream.read();
+            // フレームを読み取って処理し、処理が成功した場合のみACKを応答する（失敗した場合はNAKで再送を求める）
+            T result;
+            try (ReceivedFrame frame = spoolFrame(hostAddress)) {
+                event.bytes = frame.length();
+                try {
+                    result = processor.process(frame);
+                } catch (ZenginCommunicationException | RuntimeException e) {
+                    try {
+                        sendControlCharacter(NAK);
+                    } catch (IOException nakError) {
+                        e.addSuppressed(nakError);
+                    }
+                    throw e;
+                }
+            }
+            sendControlCharacter(ACK);
+            
+            ZenginEventContext.commit(event);
+            if (logger.isDebugEnabled()) {
+                logger.debug("全銀データを受信して処理しました: {} バイト", event.bytes);
+            }
+            
+            return result;
+            
+        } catch (IOException e) {
+            throw new ZenginCommunicationException("データ受信中にエラーが発生しました: " + e.getMessage(), e, "E007");
+        }
+    }
+    
+    /**
+     * STXから1フレームを読み取り、メモリ予算に応じてヒープまたは一時ファイルに保持します（応答は送信しません）
+     * 
+     * @param hostAddress 接続先ホストアドレス（応答時間の集計先）
+     * @return 受信したフレーム
+     * @throws IOException 読み取りエラー発生時
+     * @throws ZenginCommunicationException STX前に切断された場合、フレーム長が上限を超えた場合
+     */
+    private ReceivedFrame spoolFrame(String hostAddress) throws IOException, ZenginCommunicationException {
+        skipToStx();
+        long stxNanos = System.nanoTime();
+        ReceivedFrame frame = negotiatedFraming == FramingMode.LENGTH_PREFIXED
+                ? spoolLengthPrefixedFrame()
+                : spoolEtxFrame();
+        metrics.recordFrameAssembly(bankKey(hostAddress), System.nanoTime() - stxNanos);
+        return frame;
+    }
+    
+    @Override
+    public long receiveStream(String hostAddress, int port, ZenginStreamDecoder decoder)
+            throws ZenginCommunicationException {
+        if (socket == null || socket.isClosed()) {
+            connect(hostAddress, port);
+        }
+        
+        ZenginFrameReceiveEvent event = new ZenginFrameReceiveEvent();
+        event.begin();
+        try {
+            skipToStx();
+            long stxNanos = System.nanoTime();
+            
+            // フレームを読み取りながらデコーダに渡す（解析に失敗してもフレームの終端まで読み取る）
+            RuntimeException decodeError = negotiatedFraming == FramingMode.LENGTH_PREFIXED
+                    ? streamLengthPrefixedFrame(decoder)
+                    : streamEtxFrame(decoder);
+            if (decodeError == null) {
+                try {
+                    decoder.finish();
+                } catch (IllegalArgumentException e) {
+                    decodeError = e;
+                }
+            }
+            metrics.recordFrameAssembly(bankKey(hostAddress), System.nanoTime() - stxNanos);
+            
+            if (decodeError != null) {
+                sendControlCharacter(NAK);
+                throw new ZenginCommunicationException("受信データの解析に失敗しました: " + decodeError.getMessage(),
+                        decodeError, "E017");
+            }
+            sendControlCharacter(ACK);
+            
+            event.bytes = decoder.getBytes();
+            ZenginEventContext.commit(event);
+            if (logger.isDebugEnabled()) {
+                logger.debug("全銀データを受信しながら解析しました: {} バイト", decoder.getBytes());
+            }
+            
+            return decoder.getBytes();
+            
+        } catch (IOException e) {
+            throw new ZenginCommunicationException("データ受信中にエラーが発生しました: " + e.getMessage(), e, "E007");
+        }
+    }
+    
+    /**
+     * STXまで読み飛ばします
+     * 
+     * @throws IOException 読み取りエラー発生時
+     * @throws ZenginCommunicationException STX前に切断された場合
+     */
+    private void skipToStx() throws IOException, ZenginCommunicationException {
+        int byteRead;
+        while ((byteRead = inputStream.read()) != STX) {
+            if (byteRead == -1) {
+                throw new ZenginCommunicationException("接続が切断されました", "E006");
+            }
+        }
+    }
+    
+    /**
+     * ETXまでのデータを読み取りながらデコーダに渡します（STXは読み取り済み）
+     * ETXより後のデータは読み取らずに入力ストリームに残します
+     * 
+     * @param decoder 受信データを解析するデコーダ
+     * @return 解析エラー（成功した場合はnull）
+     * @throws IOException 読み取りエラー発生時
+     * @throws ZenginCommunicationException ETX前に切断された場合
+     */
+    private RuntimeException streamEtxFrame(ZenginStreamDecoder decoder)
+            throws IOException, ZenginCommunicationException {
+        RuntimeException decodeError = null;
+        long received = 0;
+        while (true) {
+            inputStream.mark(receiveChunk.length);
+            int read = inputStream.read(receiveChunk);
+            if (read == -1) {
+                throw new ZenginCommunicationException("接続が切断されました", "E006");
+            }
+            
+            int etx = 0;
+            while (etx < read && receiveChunk[etx] != ETX) {
+                etx++;
+            }
+            received += etx;
+            checkEtxFrameLength(received);
+            if (etx == read) {
+                decodeError = feed(decoder, etx, decodeError);
+                continue;
+            }
+            
+            // ETXの次の位置まで戻す
+            inputStream.reset();
+            inputStream.skipNBytes(etx + 1);
+            return feed(decoder, etx, decodeError);
+        }
+    }
+    
+    /**
+     * ETXまでのデータをメモリ予算の範囲でヒープに、超える場合は一時ファイルに読み取ります（STXは読み取り済み）
+     * 
+     * @return 受信したフレーム
+     * @throws IOException 読み取りエラー、一時ファイルの書き込みエラー発生時
+     * @throws ZenginCommunicationException ETX前に切断された場合
+     */
+    private ReceivedFrame spoolEtxFrame() throws IOException, ZenginCommunicationException {
+        try (ReceivedFrame.Writer writer = new ReceivedFrame.Writer(receiveBudget, -1)) {
+            while (true) {
+                inputStream.mark(receiveChunk.length);
+                int read = inputStream.read(receiveChunk);
+                if (read == -1) {
+                    throw new ZenginCommunicationException("接続が切断されました", "E006");
+                }
                 
-                if (byteRead == -1) {
+                int etx = 0;
+                while (etx < read && receiveChunk[etx] != ETX) {
+                    etx++;
+                }
+                checkEtxFrameLength(writer.length() + etx);
+                writer.write(receiveChunk, 0, etx);
+                if (etx < read) {
+                    // ETXの次の位置まで戻す
+                    inputStream.reset();
+                    inputStream.skipNBytes(etx + 1);
+                    return writer.build();
+                }
+            }
+        }
+    }
+    
+    /**
+     * フレーム長付き形式のデータを、データ長が閾値以下で予算を予約できる場合はヒープに、
+     * それ以外は一時ファイルに読み取ります（STXは読み取り済み）
+     * 
+     * @return 受信したフレーム
+     * @throws IOException 読み取りエラー、一時ファイルの書き込みエラー発生時
+     * @throws ZenginCommunicationException 切断、またはデータ長・終端が不正な場合
+     */
+    private ReceivedFrame spoolLengthPrefixedFrame() throws IOException, ZenginCommunicationException {
+        int remaining = readFrameLength();
+        try (ReceivedFrame.Writer writer = new ReceivedFrame.Writer(receiveBudget, remaining)) {
+            while (remaining > 0) {
+                int read = inputStream.read(receiveChunk, 0, Math.min(remaining, receiveChunk.length));
+                if (read == -1) {
                     throw new ZenginCommunicationException("接続が切断されました", "E006");
                 }
+                writer.write(receiveChunk, 0, read);
+                remaining -= read;
+            }
+            readFrameEnd();
+            return writer.build();
+        }
+    }
+    
+    /**
+     * フレーム長付き形式のデータを読み取りながらデコーダに渡します（STXは読み取り済み）
+     * 
+     * @param decoder 受信データを解析するデコーダ
+     * @return 解析エラー（成功した場合はnull）
+     * @throws IOException 読み取りエラー発生時
+     * @throws ZenginCommunicationException 切断、またはデータ長・終端が不正な場合
+     */
+    private RuntimeException streamLengthPrefixedFrame(ZenginStreamDecoder decoder)
+            throws IOException, ZenginCommunicationException {
+        RuntimeException decodeError = null;
+        int remaining = readFrameLength();
+        while (remaining > 0) {
+            int read = inputStream.read(receiveChunk, 0, Math.min(remaining, receiveChunk.length));
+            if (read == -1) {
+                throw new ZenginCommunicationException("接続が切断されました", "E006");
+            }
+            decodeError = feed(decoder, read, decodeError);
+            remaining -= read;
+        }
+        readFrameEnd();
+        return decodeError;
+    }
+    
+    /**
+     * 受信バッファの先頭から指定したバイト数をデコーダに渡します
+     * 解析エラーが発生した後のデータは渡しません
+     * 
+     * @return 解析エラー（発生していない場合はnull）
+     */
+    private RuntimeException feed(ZenginStreamDecoder decoder, int length, RuntimeException decodeError) {
+        if (decodeError != null || length == 0) {
+            return decodeError;
+        }
+        try {
+            decoder.feed(receiveChunk, 0, length);
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+    
+    /**
+     * フレーム長付き形式のデータ長を読み取ります
+     * データ長が受信できる上限を超える場合は、データ部を読み取る前（バッファを確保する前）に受信を打ち切ります
+     * 
+     * @return データ長
+     * @throws IOException 読み取りエラー発生時
+     * @throws ZenginCommunicationException 切断、またはデータ長が不正な場合
+     */
+    private int readFrameLength() throws IOException, ZenginCommunicationException {
+        byte[] lengthBytes = inputStream.readNBytes(FRAME_LENGTH_FIELD_LENGTH);
+        if (lengthBytes.length < FRAME_LENGTH_FIELD_LENGTH) {
+            throw new ZenginCommunicationException("接続が切断されました", "E006");
+        }
+        int length = ByteBuffer.wrap(lengthBytes).getInt();
+        if (length < 0) {
+            throw new ZenginCommunicationException("フレームのデータ長が不正です: " + length, "E016");
+        }
+        if (length > maxReceiveFrameLength()) {
+            throw new ZenginCommunicationException(
+                "フレームのデータ長が上限を超えています: " + length + " バイト（上限 " + maxReceiveFrameLength() + " バイト）",
+                "E016"
+            );
+        }
+        return length;
+    }
+    
+    /**
+     * ETX形式で受信中のデータ長が上限以下であることを確認します
+     * 
+     * @param length ETXまでに受信したデータ長
+     * @throws ZenginCommunicationException 上限を超えた場合
+     */
+    private void checkEtxFrameLength(long length) throws ZenginCommunicationException {
+        if (length > maxReceiveFrameLength()) {
+            throw new ZenginCommunicationException(
+                "ETXを受信する前にデータ長が上限を超えました（上限 " + maxReceiveFrameLength() + " バイト）",
+                "E016"
+            );
+        }
+    }
+    
+    /**
+     * 受信できる1フレームのデータ長の上限を取得します（メモリ予算の設定値、ただし配列長の上限まで）
+     * 
+     * @return 上限（バイト）
+     */
+    private long maxReceiveFrameLength() {
+        return Math.min(receiveBudget.getMaxFrameLength(), MAX_FRAME_LENGTH);
+    }
+    
+    /**
+     * フレーム長付き形式の終端（ETX）を読み取ります
+     * 
+     * @throws IOException 読み取りエラー発生時
+     * @throws ZenginCommunicationException 終端が不正な場合
+     */
+    private void readFrameEnd() throws IOException, ZenginCommunicationException {
+        int end = inputStream.read();
+        if (end != ETX) {
+            throw new ZenginCommunicationException("フレームの終端が不正です: " + end, "E016");
+        }
+    }
+    
+    @Override
+    public boolean sendDataInBlocks(String hostAddress, int port, String transferId, byte[] data)
+            throws ZenginCommunicationException {
+        if (transferId == null || transferId.isEmpty() || transferId.length() > TRANSFER_ID_LENGTH) {
+            throw new IllegalArgumentException("転送IDが不正です: " + transferId);
+        }
+        
+        int totalBlocks = Math.max(1, (data.length + blockSize - 1) / blockSize);
+        int reconnects = 0;
+        ZenginFrameSendEvent event = new ZenginFrameSendEvent();
+        event.begin();
+        
+        while (true) {
+            if (socket == null || socket.isClosed()) {
+                connect(hostAddress, port);
+            }
+            
+            try {
+                transferBlocks(transferId, data, totalBlocks, bankKey(hostAddress));
+                blockTransferProgress.remove(transferId);
+                event.bytes = data.length;
+                event.blocks = totalBlocks;
+                ZenginEventContext.commit(event);
                 
-                byte receivedByte = (byte) byteRead;
+                logger.debug("全銀データをブロック転送しました: {} バイト, {} ブロック", data.length, totalBlocks);
+                return true;
                 
-                if (!stxReceived) {
-                    if (receivedByte == STX) {
-                        stxReceived = true;
+            } catch (IOException e) {
+                // 接続を破棄し、確認済みブロックの次から再開する
+                closeQuietly();
+                int resumeFrom = blockTransferProgress.getOrDefault(transferId, 0);
+                if (++reconnects > maxBlockReconnects) {
+                    throw new ZenginCommunicationException(
+                        "ブロック転送が中断されました（確認済み " + resumeFrom + "/" + totalBlocks + " ブロック）: " + e.getMessage(),
+                        e,
+                        "E011"
+                    );
+                }
+                logger.warn("ブロック転送が中断されました。ブロック {} から再開します: {}", resumeFrom, e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * ウィンドウ制御によりブロックを送信し、全ブロックの確認応答を待機します
+     * 確認済みのブロックは再送せず、NAKまたは応答のないブロックのみを再送します
+     * 
+     * @param transferId 転送ID
+     * @param data 送信データ
+     * @param totalBlocks 総ブロック数
+     * @param bank 応答時間の集計先の銀行
+     * @throws IOException 送受信エラー発生時
+     * @throws ZenginCommunicationException 再送回数超過等のエラー発生時
+     */
+    private void transferBlocks(String transferId, byte[] data, int totalBlocks, String bank)
+            throws IOException, ZenginCommunicationException {
+        int base = blockTransferProgress.getOrDefault(transferId, 0); // 未確認の先頭ブロック
+        int nextBlock = base; // 次に新規送信するブロック
+        boolean[] acknowledged = new boolean[totalBlocks];
+        int[] retransmissions = new int[totalBlocks];
+        long[] sentNanos = new long[totalBlocks]; // ブロックごとの最終送信時刻
+        Deque<Integer> retransmitQueue = new ArrayDeque<>();
+        
+        int originalTimeout = socket.getSoTimeout();
+        socket.setSoTimeout(blockAckTimeoutMillis);
+        
+        try {
+            while (base < totalBlocks) {
+                // 1. 再送対象ブロックを送信
+                while (!retransmitQueue.isEmpty()) {
+                    int blockNumber = retransmitQueue.poll();
+                    if (!acknowledged[blockNumber]) {
+                        writeBlock(transferId, data, blockNumber, totalBlocks);
+                        sentNanos[blockNumber] = System.nanoTime();
                     }
-                    continue;
                 }
                 
-                if (receivedByte == ETX) {
-                    dataComplete = true;
-                    // ACK応答を送信
-                    sendControlCharacter(ACK);
-                } else {
-                    // バッファサイズチェック
-                    if (totalBytesRead >= buffer.length) {
-                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                // 2. ウィンドウに空きがある限り新規ブロックを送信
+                while (nextBlock < totalBlocks && nextBlock - base < windowSize) {
+                    writeBlock(transferId, data, nextBlock, totalBlocks);
+                    sentNanos[nextBlock++] = System.nanoTime();
+                }
+                outputStream.flush();
+                
+                // 3. 応答を1件受信
+                try {
+                    byte response = readControlCharacter();
+                    int blockNumber = readBlockNumber();
+                    
+                    if (blockNumber < 0 || blockNumber >= totalBlocks) {
+                        throw new ZenginCommunicationException("不正なブロック番号の応答を受信しました: " + blockNumber, "E012");
+                    }
+                    
+                    if (response == ACK) {
+                        if (!acknowledged[blockNumber]) {
+                            metrics.recordFrameAck(bank, System.nanoTime() - sentNanos[blockNumber]);
+                        }
+                        acknowledged[blockNumber] = true;
+                    } else if (response == NAK) {
+                        metrics.recordNak("block");
+                        if (++retransmissions[blockNumber] > maxBlockRetransmissions) {
+                            throw new ZenginCommunicationException(
+                                "ブロック " + blockNumber + " の再送回数が上限を超えました", 
+                                "E012"
+                            );
+                        }
+                        logger.debug("ブロック {} のNAKを受信しました。再送します", blockNumber);
+                        retransmitQueue.add(blockNumber);
+                    } else {
+                        throw new ZenginCommunicationException("ブロック送信に対する応答が不正です: " + response, "E004");
+                    }
+                    
+                } catch (SocketTimeoutException e) {
+                    // 応答のないブロックを消失とみなして再送
+                    for (int i = base; i < nextBlock; i++) {
+                        if (!acknowledged[i]) {
+                            if (++retransmissions[i] > maxBlockRetransmissions) {
+                                throw new ZenginCommunicationException(
+                                    "ブロック " + i + " の応答待ちがタイムアウトしました", 
+                                    e, 
+                                    "E012"
+                                );
+                            }
+                            retransmitQueue.add(i);
+                        }
                     }
-                    buffer[totalBytesRead++] = receivedByte;
+                    logger.debug("ブロック応答待ちがタイムアウトしました。未確認ブロックを再送します");
                 }
+                
+                // 4. 連続して確認済みとなったブロックまでウィンドウを進める
+                while (base < totalBlocks && acknowledged[base]) {
+                    base++;
+                }
+                blockTransferProgress.put(transferId, base);
+            }
+        } finally {
+            if (socket != null && !socket.isClosed()) {
+                socket.setSoTimeout(originalTimeout);
+            }
+        }
+    }
+    
+    /**
+     * ブロックを1件書き込みます
+     * ブロックは STX + 転送ID(10) + ブロック番号(8) + 総ブロック数(8) + データ + ETX で構成されます
+     * （フレーム長付き形式の場合はSTXの後にデータ長が入ります）
+     * 
+     * @param transferId 転送ID
+     * @param data 送信データ
+     * @param blockNumber ブロック番号（0始まり）
+     * @param totalBlocks 総ブロック数
+     * @throws IOException 送信エラー発生時
+     */
+    private void writeBlock(String transferId, byte[] data, int blockNumber, int totalBlocks) throws IOException {
+        int offset = blockNumber * blockSize;
+        int length = Math.min(blockSize, data.length - offset);
+        
+        String blockHeader = String.format("%-" + TRANSFER_ID_LENGTH + "s%0" + BLOCK_NUMBER_LENGTH + "d%0" + BLOCK_NUMBER_LENGTH + "d",
+                transferId, blockNumber, totalBlocks);
+        
+        byte[] blockHeaderBytes = blockHeader.getBytes(StandardCharsets.US_ASCII);
+        int frameDataLength = blockHeaderBytes.length + length;
+        SocketChannel channel = pooledFrameChannel(frameDataLength);
+        if (channel != null) {
+            try (PooledBuffer frame = bufferPool.acquire(frameLength(frameDataLength))) {
+                ByteBuffer buffer = frame.buffer();
+                putFrameStart(buffer, frameDataLength);
+                buffer.put(blockHeaderBytes).put(data, offset, length).put(ETX).flip();
+                writeFully(channel, buffer);
+            }
+            return;
+        }
+        
+        outputStream.write(frameStart(frameDataLength));
+        outputStream.write(blockHeaderBytes);
+        outputStream.write(data, offset, length);
+        outputStream.write(ETX);
+    }
+    
+    /**
+     * 制御文字に続くブロック番号（8桁）を読み取ります
+     * 
+     * @return ブロック番号
+     * @throws IOException 読み取りエラー発生時
+     * @throws ZenginCommunicationException 切断または不正な番号の場合
+     */
+    private int readBlockNumber() throws IOException, ZenginCommunicationException {
+        byte[] numberBytes = inputStream.readNBytes(BLOCK_NUMBER_LENGTH);
+        if (numberBytes.length < BLOCK_NUMBER_LENGTH) {
+            throw new ZenginCommunicationException("接続が切断されました", "E008");
+        }
+        try {
+            return Integer.parseInt(new String(numberBytes, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            throw new ZenginCommunicationException("ブロック番号の解析に失敗しました", e, "E012");
+        }
+    }
+    
+    /**
+     * 通信エラー後の接続を破棄します（EOTは送信しません）
+     */
+    private void closeQuietly() {
+        try {
+            if (socket != null) {
+                socket.close();
             }
-            
-            // 実際に受信したデータサイズに合わせる
-            byte[] receivedData = Arrays.copyOf(buffer, totalBytesRead);
-            logger.info("全銀データを受信しました: " + receivedData.length + " バイト");
-            
-            return receivedData;
-            
         } catch (IOException e) {
-            throw new ZenginCommunicationException("データ受信中にエラーが発生しました: " + e.getMessage(), e, "E007");
+            logger.debug("ソケットのクローズに失敗しました", e);
+        } finally {
+            socket = null;
+            inputStream = null;
+            outputStream = null;
         }
     }
     
+    /**
+     * 応答時間の集計先の銀行を取得します
+     * 全銀通信サービスから送受信している場合は処理中の電文の受信者ID、それ以外は接続先ホストとします
+     * 
+     * @param hostAddress 接続先ホスト
+     * @return 銀行
+     */
+    private static String bankKey(String hostAddress) {
+        String receiverId = ZenginEventContext.currentReceiverId();
+        return receiverId != null ? receiverId : hostAddress;
+    }
+    
+    /**
+     * 転送IDに対する確認済みブロック数を取得します
+     * 
+     * @param transferId 転送ID
+     * @return 確認済みブロック数（転送中でない場合は0）
+     */
+    public int getAcknowledgedBlocks(String transferId) {
+        return blockTransferProgress.getOrDefault(transferId, 0);
+    }
+    
     /**
      * 制御文字を送信します
      * 
@@ -218,7 +1110,101 @@ public class ZenginTcpIpProtocolImpl implements ZenginTcpIpProtocol {
         if (outputStream != null) {
             outputStream.write(controlChar);
             outputStream.flush();
-            logger.fine("制御文字を送信しました: " + controlChar);
+            logger.trace("制御文字を送信しました: {}", controlChar);
+        }
+    }
+    
+    /**
+     * ソケットチャネルにバイト列をすべて書き込みます
+     * 
+     * @param channel ソケットチャネル
+     * @param bytes 書き込むバイト列
+     * @throws IOException 送信エラー発生時
+     */
+    private static void writeFully(SocketChannel channel, byte[] bytes) throws IOException {
+        writeFully(channel, ByteBuffer.wrap(bytes));
+    }
+    
+    /**
+     * ソケットチャネルにバッファの残りをすべて書き込みます
+     * 
+     * @param channel ソケットチャネル
+     * @param buffer 書き込むバッファ
+     * @throws IOException 送信エラー発生時
+     */
+    private static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    
+    /**
+     * フレームの先頭（STX、フレーム長付き形式の場合はSTXとデータ長）を作成します
+     * 
+     * @param length データ長
+     * @return フレームの先頭
+     */
+    private byte[] frameStart(int length) {
+        ByteBuffer buffer = ByteBuffer.allocate(frameStartLength());
+        putFrameStart(buffer, length);
+        return buffer.array();
+    }
+    
+    /**
+     * フレームの先頭（STX、フレーム長付き形式の場合はSTXとデータ長）をバッファに書き込みます
+     * 
+     * @param buffer 書き込み先のバッファ
+     * @param length データ長
+     */
+    private void putFrameStart(ByteBuffer buffer, int length) {
+        buffer.put(STX);
+        if (negotiatedFraming == FramingMode.LENGTH_PREFIXED) {
+            buffer.putInt(length);
+        }
+    }
+    
+    /**
+     * フレームの先頭（STX、フレーム長付き形式の場合はSTXとデータ長）の長さを取得します
+     * 
+     * @return フレームの先頭の長さ
+     */
+    private int frameStartLength() {
+        return negotiatedFraming == FramingMode.LENGTH_PREFIXED ? 1 + FRAME_LENGTH_FIELD_LENGTH : 1;
+    }
+    
+    /**
+     * STXからETXまでのフレーム全体の長さを取得します
+     * 
+     * @param length データ長
+     * @return フレーム長
+     */
+    private int frameLength(int length) {
+        return frameStartLength() + length + 1;
+    }
+    
+    /**
+     * 送信フレームをプールのバッファで作成して書き込むソケットチャネルを取得します
+     * 
+     * @param length データ長
+     * @return ソケットチャネル（TLS接続、またはフレームがプールする容量を超える場合はnull）
+     */
+    private SocketChannel pooledFrameChannel(int length) {
+        SocketChannel channel = socket.getChannel();
+        return channel != null && bufferPool.isPooled(frameLength(length)) ? channel : null;
+    }
+    
+    /**
+     * 送信ファイルを読み込みます
+     * 
+     * @param file 送信ファイル
+     * @return ファイルの内容
+     * @throws ZenginCommunicationException 読み込みエラー発生時
+     */
+    private static byte[] readFile(Path file) throws ZenginCommunicationException {
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new ZenginCommunicationException("送信ファイルを開けません: " + file, e, "E015");
         }
     }
     
@@ -235,7 +1221,7 @@ public class ZenginTcpIpProtocolImpl implements ZenginTcpIpProtocol {
             if (byteRead == -1) {
                 throw new ZenginCommunicationException("接続が切断されました", "E008");
             }
-            logger.fine("制御文字を受信しました: " + byteRead);
+            logger.trace("制御文字を受信しました: {}", byteRead);
             return (byte) byteRead;
         }
         throw new ZenginCommunicationException("入力ストリームが初期化されていません", "E009");
@@ -272,7 +1258,8 @@ public class ZenginTcpIpProtocolImpl implements ZenginTcpIpProtocol {
     
     /**
      * 非TLSソケットを作成します
-     * テスト用に追加
+     * ファイル送信でカーネル内の転送を行うため、SocketChannel のソケットを使用します
+     * 制御文字（ETX）が直前のデータの確認応答待ちで遅延しないよう、TCP_NODELAY を設定します
      * 
      * @param hostAddress ホストアドレス
      * @param port ポート番号
@@ -280,7 +1267,10 @@ public class ZenginTcpIpProtocolImpl implements ZenginTcpIpProtocol {
      * @throws IOException 接続エラー発生時
      */
     protected Socket createNonTLSSocket(String hostAddress, int port) throws IOException {
-        return new Socket(hostAddress, port);
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress(hostAddress, port));
+        Socket plainSocket = channel.socket();
+        plainSocket.setTcpNoDelay(true);
+        return plainSocket;
     }
     
     /**
@@ -315,4 +1305,71 @@ public class ZenginTcpIpProtocolImpl implements ZenginTcpIpProtocol {
     public void setUseTLS(boolean useTLS) {
         this.useTLS = useTLS;
     }
+    
+    /**
+     * メトリクスの記録先を設定します
+     * Spring管理外で生成したセッションのメトリクスを公開する場合に使用します
+     * 
+     * @param metrics メトリクス
+     */
+    public void setMetrics(ZenginMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    /**
+     * 送受信フレームのバッファプールを設定します
+     * Spring管理外で生成したセッションでアプリケーションのバッファプールを使用する場合に使用します
+     * 
+     * @param bufferPool バッファプール
+     */
+    public void setBufferPool(FrameBufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+    }
+    
+    /**
+     * 受信データをヒープに保持する量のメモリ予算を設定します
+     * Spring管理外で生成したセッションでアプリケーションのメモリ予算を使用する場合に使用します
+     * 
+     * @param receiveBudget メモリ予算
+     */
+    public void setReceiveBudget(ReceiveBufferBudget receiveBudget) {
+        this.receiveBudget = receiveBudget;
+    }
+    
+    /**
+     * 接続時に要求するフレーム形式を設定します
+     * 次回の接続から有効になります
+     * 
+     * @param framingMode フレーム形式
+     */
+    public void setFramingMode(FramingMode framingMode) {
+        this.framingMode = framingMode;
+    }
+    
+    /**
+     * 接続中のフレーム形式を取得します
+     * 
+     * @return 交渉の結果決まったフレーム形式（未接続の場合は前回の接続のフレーム形式）
+     */
+    public FramingMode getNegotiatedFraming() {
+        return negotiatedFraming;
+    }
+    
+    /**
+     * ブロック転送のブロックサイズを設定します
+     * 
+     * @param blockSize ブロックサイズ（バイト）
+     */
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+    
+    /**
+     * ブロック転送のウィンドウサイズを設定します
+     * 
+     * @param windowSize 応答未受信のまま送信できるブロック数
+     */
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,313 @@
+package com.example.zengin.config;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import javax.net.ssl.SSLContext;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.gateway.GatewayProxyFactoryBean;
+import org.springframework.integration.ip.tcp.TcpInboundGateway;
+import org.springframework.integration.ip.tcp.TcpOutboundGateway;
+import org.springframework.integration.ip.tcp.connection.AbstractClientConnectionFactory;
+import org.springframework.integration.ip.tcp.connection.AbstractServerConnectionFactory;
+import org.springframework.integration.ip.tcp.connection.CachingClientConnectionFactory;
+import org.springframework.integration.ip.tcp.connection.DefaultTcpNioSSLConnectionSupport;
+import org.springframework.integration.ip.tcp.connection.TcpNioClientConnectionFactory;
+import org.springframework.integration.ip.tcp.connection.TcpConnectionInterceptorFactory;
+import org.springframework.integration.ip.tcp.connection.TcpConnectionInterceptorFactoryChain;
+import org.springframework.integration.ip.tcp.connection.TcpMessageMapper;
+import org.springframework.integration.ip.tcp.connection.TcpNioServerConnectionFactory;
+import org.springframework.integration.util.CallerBlocksPolicy;
+import org.springframework.integration.util.CompositeExecutor;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.example.zengin.communication.ZenginHandshakeInterceptorFactory;
+import com.example.zengin.communication.ZenginStxEtxSerializer;
+import com.example.zengin.communication.ZenginTcpGateway;
+
+/**
+ * 全銀TCP/IP通信のSpring Integration設定クラス
+ * NIO接続ファクトリを使用した送信・受信ゲートウェイを構成します
+ * 接続・切断シーケンス（ENQ/ACK、EOT）は接続ファクトリのインターセプタで処理するため、
+ * ゲートウェイはデータフレーム（byte[]）と応答（ACK/NAK は ZenginControlCode）のみを扱います
+ * zengin.integration.enabled=true の場合のみ有効になります
+ */
+@Configuration
+@ConditionalOnProperty(name = "zengin.integration.enabled", havingValue = "true")
+public class ZenginIntegrationConfig {
+    
+    public static final String OUTBOUND_CHANNEL = "zenginOutboundChannel";
+    public static final String INBOUND_CHANNEL = "zenginInboundChannel";
+    
+    @Value("${zengin.bank.host:localhost}")
+    private String bankHost;
+    
+    @Value("${zengin.bank.port:20000}")
+    private int bankPort;
+    
+    @Value("${zengin.integration.inbound.port:20001}")
+    private int inboundPort;
+    
+    @Value("${zengin.integration.connection-pool-size:10}")
+    private int connectionPoolSize;
+    
+    @Value("${zengin.integration.so-timeout-millis:60000}")
+    private int soTimeoutMillis;
+    
+    @Value("${zengin.integration.remote-timeout-millis:30000}")
+    private long remoteTimeoutMillis;
+    
+    @Value("${zengin.integration.max-message-size:16777216}")
+    private int maxMessageSize;
+    
+    @Value("${zengin.integration.executor.io-pool-size:4}")
+    private int executorIoPoolSize;
+    
+    @Value("${zengin.integration.executor.assembler-pool-size:16}")
+    private int executorAssemblerPoolSize;
+    
+    @Value("${zengin.tls.enabled:true}")
+    private boolean tlsEnabled;
+    
+    /**
+     * 全銀フレームのシリアライザを生成します
+     * 
+     * @return シリアライザ
+     */
+    @Bean
+    public ZenginStxEtxSerializer zenginSerializer() {
+        ZenginStxEtxSerializer serializer = new ZenginStxEtxSerializer();
+        serializer.setMaxMessageSize(maxMessageSize);
+        return serializer;
+    }
+    
+    /**
+     * 接続・切断シーケンスのインターセプタを生成します
+     * 
+     * @return インターセプタのチェーン
+     */
+    @Bean
+    public TcpConnectionInterceptorFactoryChain zenginInterceptorFactoryChain() {
+        TcpConnectionInterceptorFactoryChain chain = new TcpConnectionInterceptorFactoryChain();
+        chain.setInterceptors(new TcpConnectionInterceptorFactory[] {
+            new ZenginHandshakeInterceptorFactory(remoteTimeoutMillis)
+        });
+        return chain;
+    }
+    
+    /**
+     * 送信側の接続ファクトリがソケットの読み取りに使用するエグゼキュータを生成します
+     * 
+     * @return タスクエグゼキュータ
+     */
+    @Bean
+    public ThreadPoolTaskExecutor zenginClientIoExecutor() {
+        return ioExecutor("zengin-tcp-client-io-");
+    }
+    
+    /**
+     * 送信側の接続ファクトリがフレームの組み立てに使用するエグゼキュータを生成します
+     * 
+     * @return タスクエグゼキュータ
+     */
+    @Bean
+    public ThreadPoolTaskExecutor zenginClientAssemblerExecutor() {
+        return assemblerExecutor("zengin-tcp-client-");
+    }
+    
+    /**
+     * 受信側の接続ファクトリがソケットの読み取りに使用するエグゼキュータを生成します
+     * 
+     * @return タスクエグゼキュータ
+     */
+    @Bean
+    public ThreadPoolTaskExecutor zenginServerIoExecutor() {
+        return ioExecutor("zengin-tcp-server-io-");
+    }
+    
+    /**
+     * 受信側の接続ファクトリがフレームの組み立てに使用するエグゼキュータを生成します
+     * 
+     * @return タスクエグゼキュータ
+     */
+    @Bean
+    public ThreadPoolTaskExecutor zenginServerAssemblerExecutor() {
+        return assemblerExecutor("zengin-tcp-server-");
+    }
+    
+    /**
+     * 銀行ホストへのNIO接続ファクトリを生成します
+     * 接続はキャッシュされ、送信ごとに再利用されます
+     * 物理的な接続ごとに最初の送信前に ENQ/ACK を交換し、接続を閉じる前に EOT を送信します
+     * 
+     * @param zenginSerializer シリアライザ
+     * @param zenginInterceptorFactoryChain 接続・切断シーケンスのインターセプタ
+     * @param zenginClientIoExecutor ソケットの読み取り用エグゼキュータ
+     * @param zenginClientAssemblerExecutor フレームの組み立て用エグゼキュータ
+     * @param sslContextProvider SSLコンテキスト（TLS有効時）
+     * @return キャッシュ付き接続ファクトリ
+     */
+    @Bean
+    public AbstractClientConnectionFactory zenginClientConnectionFactory(ZenginStxEtxSerializer zenginSerializer,
+            TcpConnectionInterceptorFactoryChain zenginInterceptorFactoryChain,
+            ThreadPoolTaskExecutor zenginClientIoExecutor, ThreadPoolTaskExecutor zenginClientAssemblerExecutor,
+            ObjectProvider<SSLContext> sslContextProvider) {
+        TcpNioClientConnectionFactory connectionFactory = new TcpNioClientConnectionFactory(bankHost, bankPort);
+        connectionFactory.setSerializer(zenginSerializer);
+        connectionFactory.setDeserializer(zenginSerializer);
+        connectionFactory.setMapper(payloadMapper());
+        connectionFactory.setInterceptorFactoryChain(zenginInterceptorFactoryChain);
+        connectionFactory.setTaskExecutor(new CompositeExecutor(zenginClientIoExecutor, zenginClientAssemblerExecutor));
+        connectionFactory.setSoTimeout(soTimeoutMillis);
+        
+        SSLContext sslContext = tlsEnabled ? sslContextProvider.getIfAvailable() : null;
+        if (sslContext != null) {
+            connectionFactory.setTcpNioConnectionSupport(new DefaultTcpNioSSLConnectionSupport(() -> sslContext));
+        }
+        
+        return new CachingClientConnectionFactory(connectionFactory, connectionPoolSize);
+    }
+    
+    /**
+     * 銀行ホストからの接続を受け付けるNIO接続ファクトリを生成します
+     * 接続要求（ENQ）には ACK を応答し、EOT を受信した時点で接続を閉じます
+     * 
+     * @param zenginSerializer シリアライザ
+     * @param zenginInterceptorFactoryChain 接続・切断シーケンスのインターセプタ
+     * @param zenginServerIoExecutor ソケットの読み取り用エグゼキュータ
+     * @param zenginServerAssemblerExecutor フレームの組み立て用エグゼキュータ
+     * @param sslContextProvider SSLコンテキスト（TLS有効時）
+     * @return サーバ接続ファクトリ
+     */
+    @Bean
+    public AbstractServerConnectionFactory zenginServerConnectionFactory(ZenginStxEtxSerializer zenginSerializer,
+            TcpConnectionInterceptorFactoryChain zenginInterceptorFactoryChain,
+            ThreadPoolTaskExecutor zenginServerIoExecutor, ThreadPoolTaskExecutor zenginServerAssemblerExecutor,
+            ObjectProvider<SSLContext> sslContextProvider) {
+        TcpNioServerConnectionFactory connectionFactory = new TcpNioServerConnectionFactory(inboundPort);
+        connectionFactory.setSerializer(zenginSerializer);
+        connectionFactory.setDeserializer(zenginSerializer);
+        connectionFactory.setMapper(payloadMapper());
+        connectionFactory.setInterceptorFactoryChain(zenginInterceptorFactoryChain);
+        connectionFactory.setTaskExecutor(new CompositeExecutor(zenginServerIoExecutor, zenginServerAssemblerExecutor));
+        connectionFactory.setSoTimeout(soTimeoutMillis);
+        
+        SSLContext sslContext = tlsEnabled ? sslContextProvider.getIfAvailable() : null;
+        if (sslContext != null) {
+            connectionFactory.setTcpNioConnectionSupport(new DefaultTcpNioSSLConnectionSupport(() -> sslContext));
+        }
+        
+        return connectionFactory;
+    }
+    
+    /**
+     * ソケットの読み取り用エグゼキュータを生成します
+     * キューを持たず、スレッドが空いていない場合は拒否し、CompositeExecutor が組み立て用のエグゼキュータで実行します
+     */
+    private ThreadPoolTaskExecutor ioExecutor(String threadNamePrefix) {
+        return nonQueueingExecutor(threadNamePrefix, executorIoPoolSize, new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    /**
+     * フレームの組み立て用エグゼキュータを生成します
+     * キューを持たず、スレッドが空くまで読み取りスレッドを待機させます
+     * 読み取りスレッドとは別のプールのため、組み立てが滞っても読み取りが枯渇することはありません
+     */
+    private ThreadPoolTaskExecutor assemblerExecutor(String threadNamePrefix) {
+        return nonQueueingExecutor(threadNamePrefix, executorAssemblerPoolSize, new CallerBlocksPolicy(-1));
+    }
+    
+    private static ThreadPoolTaskExecutor nonQueueingExecutor(String threadNamePrefix, int poolSize,
+            RejectedExecutionHandler rejectedExecutionHandler) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(0);
+        executor.setRejectedExecutionHandler(rejectedExecutionHandler);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        return executor;
+    }
+    
+    /**
+     * ペイロード（byte[] または ZenginControlCode）をそのままシリアライザに渡すマッパーを生成します
+     * 
+     * @return メッセージマッパー
+     */
+    private static TcpMessageMapper payloadMapper() {
+        TcpMessageMapper mapper = new TcpMessageMapper();
+        mapper.setStringToBytes(false);
+        return mapper;
+    }
+    
+    /**
+     * 送信チャネルを生成します
+     * 
+     * @return 送信チャネル
+     */
+    @Bean(name = OUTBOUND_CHANNEL)
+    public MessageChannel zenginOutboundChannel() {
+        return new DirectChannel();
+    }
+    
+    /**
+     * 受信チャネルを生成します
+     * 
+     * @return 受信チャネル
+     */
+    @Bean(name = INBOUND_CHANNEL)
+    public MessageChannel zenginInboundChannel() {
+        return new DirectChannel();
+    }
+    
+    /**
+     * 送信ゲートウェイを生成します
+     * 送信チャネルに投入されたフレームを銀行ホストへ送信し、応答を返します
+     * 
+     * @param zenginClientConnectionFactory 接続ファクトリ
+     * @return 送信ゲートウェイ
+     */
+    @Bean
+    @ServiceActivator(inputChannel = OUTBOUND_CHANNEL)
+    public TcpOutboundGateway zenginOutboundGateway(AbstractClientConnectionFactory zenginClientConnectionFactory) {
+        TcpOutboundGateway gateway = new TcpOutboundGateway();
+        gateway.setConnectionFactory(zenginClientConnectionFactory);
+        gateway.setRemoteTimeout(remoteTimeoutMillis);
+        return gateway;
+    }
+    
+    /**
+     * 受信ゲートウェイを生成します
+     * 銀行ホストから受信したフレームを受信チャネルへ投入し、処理結果（ACK/NAK）を応答します
+     * 
+     * @param zenginServerConnectionFactory サーバ接続ファクトリ
+     * @return 受信ゲートウェイ
+     */
+    @Bean
+    public TcpInboundGateway zenginInboundGateway(AbstractServerConnectionFactory zenginServerConnectionFactory) {
+        TcpInboundGateway gateway = new TcpInboundGateway();
+        gateway.setConnectionFactory(zenginServerConnectionFactory);
+        gateway.setRequestChannelName(INBOUND_CHANNEL);
+        gateway.setReplyTimeout(remoteTimeoutMillis);
+        return gateway;
+    }
+    
+    /**
+     * アプリケーションから送信ゲートウェイを呼び出すためのプロキシを生成します
+     * 
+     * @return ゲートウェイプロキシのファクトリ
+     */
+    @Bean
+    public GatewayProxyFactoryBean<ZenginTcpGateway> zenginTcpGateway() {
+        GatewayProxyFactoryBean<ZenginTcpGateway> factoryBean = new GatewayProxyFactoryBean<>(ZenginTcpGateway.class);
+        factoryBean.setDefaultRequestChannelName(OUTBOUND_CHANNEL);
+        return factoryBean;
+    }
+} 
\ No newline at end of file
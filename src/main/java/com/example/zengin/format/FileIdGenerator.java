@@ -0,0 +1,216 @@
+package com.example.zengin.format;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * ファイルIDの生成クラス
+ * 時刻（秒）・ノードID・連番を1つの値にまとめ、36進数（0-9、A-Z）の10桁で表します
+ * 同じ秒・同じノードで生成したIDは連番で区別するため、同一ミリ秒に複数の電文を作成しても重複しません
+ * 
+ * 時刻と連番は1つの AtomicLong で管理し、ロックを使用せずに採番します
+ * 時刻部分は現在時刻（秒）より先に進めないため、1秒の連番（32768件）を使い切った場合は次の秒まで待ちます
+ * 時計が戻った場合は最後に採番した値から続け、時計が追いつくまで待ちます（5秒を超えて戻った場合は採番を中止します）
+ * これにより、プロセスを再起動しても前のプロセスが先取りした値を再び採番することはありません
+ * 
+ * 複数のJVMで電文を送信する場合は、システムプロパティ zengin.node-count または環境変数 ZENGIN_NODE_COUNT にJVMの数を、
+ * zengin.node-id または ZENGIN_NODE_ID にJVMごとに異なるノードID（0～ノード数-1）を指定してください
+ * ノード数が2以上でノードIDが未指定の場合は、重複したIDを採番しないように起動時にエラーとします（単一ノードの既定値は0）
+ * 時刻は起点日（システムプロパティ zengin.file-id.epoch または環境変数 ZENGIN_FILE_ID_EPOCH、既定は2024-01-01）からの
+ * 秒数で、約34年（2^30秒）で上限に達します。上限を超えた場合は値が一巡して重複しないように採番を中止するため、
+ * それまでに起点日を更新してください（更新後のIDは更新前に採番したIDと重複する可能性があります）
+ */
+public class FileIdGenerator {
+    
+    /** ファイルIDの桁数 */
+    public static final int LENGTH = 10;
+    
+    private static final int NODE_BITS = 6; // ノードIDのビット数（64ノード）
+    private static final int SEQUENCE_BITS = 15; // 1秒あたりの連番のビット数
+    private static final int TIME_BITS = 30; // 時刻（秒）のビット数（36進数10桁に収まる範囲）
+    private static final long NODE_MASK = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+    private static final long MAX_WAIT_SECONDS = 5; // 時計が追いつくまで待つ上限（秒）
+    private static final long WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1); // 時計の確認間隔
+    private static final LocalDate DEFAULT_EPOCH = LocalDate.of(2024, 1, 1); // 時刻の起点日（UTC）
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    
+    private static final String NODE_ID_PROPERTY = "zengin.node-id";
+    private static final String NODE_ID_ENV = "ZENGIN_NODE_ID";
+    private static final String NODE_COUNT_PROPERTY = "zengin.node-count";
+    private static final String NODE_COUNT_ENV = "ZENGIN_NODE_COUNT";
+    private static final String EPOCH_PROPERTY = "zengin.file-id.epoch";
+    private static final String EPOCH_ENV = "ZENGIN_FILE_ID_EPOCH";
+    
+    private static final FileIdGenerator SHARED = new FileIdGenerator(resolveNodeId(), resolveEpoch());
+    
+    private final int nodeId;
+    private final long epochSeconds;
+    private final LongSupplier clock;
+    private final AtomicLong last = new AtomicLong(); // 最後に採番した（時刻 << SEQUENCE_BITS | 連番）
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param nodeId ノードID（0～63）
+     */
+    public FileIdGenerator(int nodeId) {
+        this(nodeId, DEFAULT_EPOCH);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param nodeId ノードID（0～63）
+     * @param epoch 時刻の起点日（UTC、現在日以前）
+     */
+    public FileIdGenerator(int nodeId, LocalDate epoch) {
+        this(nodeId, epoch, System::currentTimeMillis);
+    }
+    
+    /**
+     * コンストラクタ（テスト用に時計を指定）
+     * 
+     * @param nodeId ノードID（0～63）
+     * @param clock 現在時刻（エポックミリ秒）
+     */
+    FileIdGenerator(int nodeId, LongSupplier clock) {
+        this(nodeId, DEFAULT_EPOCH, clock);
+    }
+    
+    /**
+     * コンストラクタ（テスト用に時計を指定）
+     * 
+     * @param nodeId ノードID（0～63）
+     * @param epoch 時刻の起点日（UTC、現在日以前）
+     * @param clock 現在時刻（エポックミリ秒）
+     */
+    FileIdGenerator(int nodeId, LocalDate epoch, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > NODE_MASK) {
+            throw new IllegalArgumentException("ノードIDは0～" + NODE_MASK + "で指定してください: " + nodeId);
+        }
+        long epochSeconds = epoch.atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+        if (epochSeconds > clock.getAsLong() / 1000) {
+            throw new IllegalArgumentException("ファイルIDの起点日は現在日以前で指定してください: " + epoch);
+        }
+        this.nodeId = nodeId;
+        this.epochSeconds = epochSeconds;
+        this.clock = clock;
+    }
+    
+    /**
+     * 電文の作成時に使用する共有の生成クラスを取得します
+     * 
+     * @return 生成クラス
+     */
+    public static FileIdGenerator shared() {
+        return SHARED;
+    }
+    
+    /**
+     * ファイルIDを生成します
+     * 
+     * @return 10桁のファイルID
+     * @throws IllegalStateException 起点日からの時刻が上限を超えた場合、時計が上限を超えて戻った場合
+     */
+    public String next() {
+        while (true) {
+            long nowSeconds = Math.max(0, clock.getAsLong() / 1000 - epochSeconds);
+            long current = last.get();
+            long value = Math.max(current + 1, nowSeconds << SEQUENCE_BITS);
+            
+            // 連番を使い切った場合・時計が戻った場合は、時刻部分が現在時刻を超えないように時計が追いつくまで待つ
+            long ahead = (value >>> SEQUENCE_BITS) - nowSeconds;
+            if (ahead > MAX_WAIT_SECONDS) {
+                throw new IllegalStateException("時計が戻ったためファイルIDを採番できません: " + ahead + "秒");
+            }
+            if (ahead > 0) {
+                LockSupport.parkNanos(WAIT_NANOS);
+                continue;
+            }
+            if (last.compareAndSet(current, value)) {
+                return format(value);
+            }
+        }
+    }
+    
+    /**
+     * ノードIDを取得します
+     * 
+     * @return ノードID
+     */
+    public int getNodeId() {
+        return nodeId;
+    }
+    
+    /**
+     * 採番した値をノードIDとまとめて36進数の10桁にします
+     */
+    private String format(long value) {
+        long time = value >>> SEQUENCE_BITS;
+        if (time > TIME_MASK) {
+            throw new IllegalStateException("ファイルIDの時刻が上限を超えました。" + EPOCH_PROPERTY + " で起点日を更新してください");
+        }
+        long packed = (((time << NODE_BITS) | nodeId) << SEQUENCE_BITS) | (value & SEQUENCE_MASK);
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = DIGITS[(int) (packed % 36)];
+            packed /= 36;
+        }
+        return new String(chars);
+    }
+    
+    /**
+     * ノードIDを決定します（システムプロパティ、環境変数の順）
+     */
+    private static int resolveNodeId() {
+        return resolveNodeId(System.getProperty(NODE_ID_PROPERTY, System.getenv(NODE_ID_ENV)),
+                System.getProperty(NODE_COUNT_PROPERTY, System.getenv(NODE_COUNT_ENV)));
+    }
+    
+    /**
+     * 指定値からノードIDを決定します
+     * 
+     * @param configuredNodeId 指定されたノードID（未指定の場合はnull）
+     * @param configuredNodeCount 指定されたノード数（未指定の場合はnull、既定は1）
+     * @return ノードID
+     * @throws IllegalStateException 複数ノードでノードIDが未指定の場合、ノードIDがノード数の範囲外の場合
+     */
+    static int resolveNodeId(String configuredNodeId, String configuredNodeCount) {
+        int nodeCount = configuredNodeCount == null || configuredNodeCount.isBlank()
+                ? 1 : Integer.parseInt(configuredNodeCount.trim());
+        if (nodeCount < 1 || nodeCount > NODE_MASK + 1) {
+            throw new IllegalStateException(NODE_COUNT_PROPERTY + " は1～" + (NODE_MASK + 1) + "で指定してください: " + nodeCount);
+        }
+        if (configuredNodeId == null || configuredNodeId.isBlank()) {
+            if (nodeCount > 1) {
+                // ホスト名等から算出したIDは他のノードと重複しうるため、採番を始める前にエラーとする
+                throw new IllegalStateException("複数ノード（" + NODE_COUNT_PROPERTY + "=" + nodeCount + "）で送信する場合は、"
+                        + NODE_ID_PROPERTY + " または " + NODE_ID_ENV + " でノードごとに異なるノードIDを指定してください");
+            }
+            return 0;
+        }
+        int nodeId = Integer.parseInt(configuredNodeId.trim());
+        int maxNodeId = nodeCount > 1 ? nodeCount - 1 : (int) NODE_MASK; // 単一ノードの場合は全範囲を許可
+        if (nodeId < 0 || nodeId > maxNodeId) {
+            throw new IllegalStateException(NODE_ID_PROPERTY + " は0～" + maxNodeId + "で指定してください: " + nodeId);
+        }
+        return nodeId;
+    }
+    
+    /**
+     * 時刻の起点日を決定します（システムプロパティ、環境変数、既定値の順）
+     */
+    private static LocalDate resolveEpoch() {
+        String configured = System.getProperty(EPOCH_PROPERTY, System.getenv(EPOCH_ENV));
+        if (configured != null && !configured.isBlank()) {
+            return LocalDate.parse(configured.trim());
+        }
+        return DEFAULT_EPOCH;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.example.zengin.format;
+
+/**
+ * 受信した電文のトレーラの記載値と、解析時に集計した実際の件数・金額
+ * 電文トレーラのレコード件数に加え、データレコードに業務トレーラレコード（データ区分8）が含まれる場合は
+ * その合計件数・合計金額と、データ区分2のレコードの件数・振込金額の合計を保持します
+ * 
+ * 値は解析時に確定するため、検証は記載値と集計値の比較のみで行えます
+ */
+public class ReceivedTotals {
+    
+    public static final long NOT_PRESENT = -1; // 記載がない、または数値でない場合の値
+    
+    private final long trailerRecordCount; // 電文トレーラのレコード件数
+    private final int recordCount; // 受信したデータレコード件数
+    private final boolean fileTrailer; // 業務トレーラレコードを含む場合はtrue
+    private final long fileTrailerCount; // 業務トレーラレコードの合計件数
+    private final long fileTrailerAmount; // 業務トレーラレコードの合計金額
+    private final int dataCount; // データ区分2のレコード件数
+    private final long dataAmount; // データ区分2のレコードの金額の合計
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param trailerRecordCount 電文トレーラのレコード件数（数値でない場合は NOT_PRESENT）
+     * @param recordCount 受信したデータレコード件数
+     * @param fileTrailer 業務トレーラレコードを含む場合はtrue
+     * @param fileTrailerCount 業務トレーラレコードの合計件数（ない場合、数値でない場合は NOT_PRESENT）
+     * @param fileTrailerAmount 業務トレーラレコードの合計金額（ない場合、数値でない場合は NOT_PRESENT）
+     * @param dataCount データ区分2のレコード件数
+     * @param dataAmount データ区分2のレコードの金額の合計（数値でない金額がある場合は NOT_PRESENT）
+     */
+    public ReceivedTotals(long trailerRecordCount, int recordCount, boolean fileTrailer, long fileTrailerCount,
+            long fileTrailerAmount, int dataCount, long dataAmount) {
+        this.trailerRecordCount = trailerRecordCount;
+        this.recordCount = recordCount;
+        this.fileTrailer = fileTrailer;
+        this.fileTrailerCount = fileTrailerCount;
+        this.fileTrailerAmount = fileTrailerAmount;
+        this.dataCount = dataCount;
+        this.dataAmount = dataAmount;
+    }
+    
+    /**
+     * 業務トレーラレコードを含むかを取得します
+     * 
+     * @return 含む場合はtrue
+     */
+    public boolean hasFileTrailer() {
+        return fileTrailer;
+    }
+    
+    /**
+     * 電文トレーラのレコード件数を取得します
+     * 
+     * @return レコード件数（数値でない場合は NOT_PRESENT）
+     */
+    public long getTrailerRecordCount() {
+        return trailerRecordCount;
+    }
+    
+    /**
+     * 受信したデータレコード件数を取得します
+     * 
+     * @return データレコード件数
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+    
+    /**
+     * 業務トレーラレコードの合計件数を取得します
+     * 
+     * @return 合計件数（ない場合、数値でない場合は NOT_PRESENT）
+     */
+    public long getFileTrailerCount() {
+        return fileTrailerCount;
+    }
+    
+    /**
+     * 業務トレーラレコードの合計金額を取得します
+     * 
+     * @return 合計金額（ない場合、数値でない場合は NOT_PRESENT）
+     */
+    public long getFileTrailerAmount() {
+        return fileTrailerAmount;
+    }
+    
+    /**
+     * データ区分2のレコード件数を取得します
+     * 
+     * @return レコード件数
+     */
+    public int getDataCount() {
+        return dataCount;
+    }
+    
+    /**
+     * データ区分2のレコードの金額の合計を取得します
+     * 
+     * @return 金額の合計（数値でない金額がある場合は NOT_PRESENT）
+     */
+    public long getDataAmount() {
+        return dataAmount;
+    }
+    
+    @Override
+    public String toString() {
+        return "ReceivedTotals [trailerRecordCount=" + trailerRecordCount + 
+               ", recordCount=" + recordCount + 
+               ", fileTrailer=" + fileTrailer + 
+               ", fileTrailerCount=" + fileTrailerCount + 
+               ", fileTrailerAmount=" + fileTrailerAmount + 
+               ", dataCount=" + dataCount + 
+               ", dataAmount=" + dataAmount + "]";
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.example.zengin.format;
+
+import com.example.zengin.format.layout.MessageEnvelopeLayout;
+import com.example.zengin.format.layout.NumericField;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+
+/**
+ * 受信したデータレコードの件数・金額の集計
+ * 電文全体を解析する場合と受信しながら解析する場合で同じ集計を行うため、レコード単位で値を加算します
+ * （総合振込・給与振込・口座振替の金額と合計件数・合計金額は同じ位置）
+ */
+final class RecordTally {
+    
+    private static final char DATA_CATEGORY_DATA = '2'; // データ区分（データレコード）
+    private static final char DATA_CATEGORY_TRAILER = '8'; // データ区分（トレーラレコード）
+    
+    private final ZenginCharset charset;
+    private int recordCount;
+    private int dataCount;
+    private long dataAmount;
+    private boolean fileTrailer;
+    private long fileTrailerCount = ReceivedTotals.NOT_PRESENT;
+    private long fileTrailerAmount = ReceivedTotals.NOT_PRESENT;
+    
+    RecordTally(ZenginCharset charset) {
+        this.charset = charset;
+    }
+    
+    /**
+     * データレコード1件を集計に加えます
+     * 
+     * @param data レコードを含むバイト配列
+     * @param offset レコードの開始位置
+     */
+    void add(byte[] data, int offset) {
+        recordCount++;
+        char dataCategory = charset.decode(data[offset]);
+        if (dataCategory == DATA_CATEGORY_DATA) {
+            dataCount++;
+            if (dataAmount != ReceivedTotals.NOT_PRESENT) {
+                long amount = readLong(SogoFurikomiLayout.DATA_AMOUNT, data, offset, charset);
+                dataAmount = amount == ReceivedTotals.NOT_PRESENT ? amount : dataAmount + amount;
+            }
+        } else if (dataCategory == DATA_CATEGORY_TRAILER) {
+            fileTrailer = true;
+            fileTrailerCount = readLong(SogoFurikomiLayout.TRAILER_TOTAL_COUNT, data, offset, charset);
+            fileTrailerAmount = readLong(SogoFurikomiLayout.TRAILER_TOTAL_AMOUNT, data, offset, charset);
+        }
+    }
+    
+    /**
+     * 集計したデータレコード件数を取得します
+     * 
+     * @return レコード件数
+     */
+    int getRecordCount() {
+        return recordCount;
+    }
+    
+    /**
+     * 電文トレーラの記載値と集計値から受信結果を作成します
+     * 
+     * @param trailer 電文トレーラレコードを含むバイト配列
+     * @param trailerOffset 電文トレーラレコードの開始位置
+     * @return 受信したトレーラの記載値と集計値
+     */
+    ReceivedTotals toReceivedTotals(byte[] trailer, int trailerOffset) {
+        long trailerRecordCount = readLong(MessageEnvelopeLayout.TRAILER_RECORD_COUNT, trailer, trailerOffset,
+                charset);
+        return new ReceivedTotals(trailerRecordCount, recordCount, fileTrailer, fileTrailerCount, fileTrailerAmount,
+                dataCount, dataAmount);
+    }
+    
+    /**
+     * 数値項目を読み取ります
+     * 
+     * @return 項目の値（数値でない場合は ReceivedTotals.NOT_PRESENT）
+     */
+    private static long readLong(NumericField field, byte[] data, int recordOffset, ZenginCharset charset) {
+        try {
+            return field.getLong(data, recordOffset, charset);
+        } catch (NumberFormatException e) {
+            return ReceivedTotals.NOT_PRESENT;
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,219 @@
+package com.example.zengin.format;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 全銀フォーマットの文字コード
+ * 全銀データで使用する1バイト文字（英数字、半角カナ、記号）の変換表を保持し、
+ * CharsetEncoder / CharsetDecoder を介さずにレコード単位で一括変換します
+ * 
+ * JIS: JIS X 0201（0x20-0x7EはASCII、0xA1-0xDFは半角カナ）
+ * EBCDIC: EBCDIK（IBM コードページ 290 相当）
+ * 
+ * 変換表にない文字は、エンコード時は例外、デコード時は置換文字（U+FFFD）になります
+ */
+public enum ZenginCharset {
+    
+    JIS((byte) 0x20, jisDecodeTable(), "¥\\‾~"), // 円記号・オーバーラインはASCIIの位置に対応させる
+    EBCDIC((byte) 0x40, ebcdicDecodeTable(), "");
+    
+    private static final char REPLACEMENT = '\uFFFD'; // 変換表にないバイトの置換文字
+    private static final byte UNMAPPABLE = 0; // 変換表にない文字（0x00はどちらの文字コードでも使用しない）
+    
+    private final byte space; // 空白のコード
+    private final char[] decodeTable; // バイト値 -> 文字
+    private final byte[] encodeTable; // 文字 -> バイト値
+    private final byte[] digitTable; // バイト値 -> 数字（数字でない場合は-1）
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param space 空白のコード
+     * @param decodeTable バイト値ごとの文字
+     * @param aliases 変換表の文字と同じバイト値にエンコードする別名（別名, 変換表の文字 の順に並べた文字列）
+     */
+    ZenginCharset(byte space, char[] decodeTable, String aliases) {
+        this.space = space;
+        this.decodeTable = decodeTable;
+        this.encodeTable = new byte[Character.MAX_VALUE + 1];
+        for (int b = 0; b < decodeTable.length; b++) {
+            if (decodeTable[b] != REPLACEMENT) {
+                encodeTable[decodeTable[b]] = (byte) b;
+            }
+        }
+        for (int i = 0; i < aliases.length(); i += 2) {
+            encodeTable[aliases.charAt(i)] = encodeTable[aliases.charAt(i + 1)];
+        }
+        this.digitTable = new byte[decodeTable.length];
+        for (int b = 0; b < decodeTable.length; b++) {
+            char c = decodeTable[b];
+            digitTable[b] = (byte) (c >= '0' && c <= '9' ? c - '0' : -1);
+        }
+    }
+    
+    /**
+     * 文字列を指定長のフィールドにエンコードします
+     * 指定長に満たない部分は空白で埋め、超える部分は切り捨てます
+     * 
+     * @param value 文字列（nullの場合は空白のみ）
+     * @param dest 出力先
+     * @param offset 出力開始位置
+     * @param length フィールド長（バイト）
+     * @throws IllegalArgumentException 変換できない文字が含まれる場合
+     */
+    public void encode(CharSequence value, byte[] dest, int offset, int length) {
+        int count = value == null ? 0 : Math.min(value.length(), length);
+        for (int i = 0; i < count; i++) {
+            char c = value.charAt(i);
+            byte b = encodeTable[c];
+            if (b == UNMAPPABLE) {
+                throw new IllegalArgumentException(
+                        String.format("%sで変換できない文字です: U+%04X（%d文字目）", name(), (int) c, i + 1));
+            }
+            dest[offset + i] = b;
+        }
+        Arrays.fill(dest, offset + count, offset + length, space);
+    }
+    
+    /**
+     * 文字列をレコードにエンコードします
+     * 
+     * @param value レコードの内容
+     * @param length レコード長（バイト）
+     * @return エンコードされたレコード
+     * @throws IllegalArgumentException 変換できない文字が含まれる場合
+     */
+    public byte[] encode(CharSequence value, int length) {
+        byte[] record = new byte[length];
+        encode(value, record, 0, length);
+        return record;
+    }
+    
+    /**
+     * フィールドをデコードします
+     * 
+     * @param src 入力元
+     * @param offset 開始位置
+     * @param length フィールド長（バイト）
+     * @return デコードされた文字列
+     */
+    public String decode(byte[] src, int offset, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = decodeTable[src[offset + i] & 0xFF];
+        }
+        return new String(chars);
+    }
+    
+    /**
+     * レコード全体をデコードします
+     * 
+     * @param record レコード
+     * @return デコードされた文字列
+     */
+    public String decode(byte[] record) {
+        return decode(record, 0, record.length);
+    }
+    
+    /**
+     * 1バイトをデコードします
+     * 
+     * @param b バイト値
+     * @return 文字（変換表にない場合は置換文字）
+     */
+    public char decode(byte b) {
+        return decodeTable[b & 0xFF];
+    }
+    
+    /**
+     * 数字項目を数値として読み取ります
+     * 文字列を生成せずにバイト列から直接読み取ります
+     * 
+     * @param src 入力元
+     * @param offset 開始位置
+     * @param length フィールド長（バイト、9以下）
+     * @return 値（数字以外のバイトを含む場合は-1）
+     */
+    public int parseDigits(byte[] src, int offset, int length) {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int digit = digitTable[src[i] & 0xFF];
+            if (digit < 0) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+    
+    /**
+     * 空白のコードを取得します
+     * 
+     * @return 空白のコード
+     */
+    public byte getSpace() {
+        return space;
+    }
+    
+    /**
+     * 電文の先頭バイトから文字コードを判定します
+     * ヘッダレコードの先頭は固定値「ZEDI」のため、「Z」のコードで判別します
+     * 
+     * @param data 電文
+     * @return 判定した文字コード（判別できない場合はJIS）
+     */
+    public static ZenginCharset detect(byte[] data) {
+        if (data != null && data.length > 0 && data[0] == EBCDIC.encodeTable['Z']) {
+            return EBCDIC;
+        }
+        return JIS;
+    }
+    
+    /**
+     * バッファの現在位置のバイトから文字コードを判定します
+     * 
+     * @param data 電文（現在位置が電文の先頭）
+     * @return 判定した文字コード（判別できない場合はJIS）
+     */
+    public static ZenginCharset detect(ByteBuffer data) {
+        if (data != null && data.hasRemaining() && data.get(data.position()) == EBCDIC.encodeTable['Z']) {
+            return EBCDIC;
+        }
+        return JIS;
+    }
+    
+    private static char[] jisDecodeTable() {
+        char[] table = new char[256];
+        Arrays.fill(table, REPLACEMENT);
+        for (int b = 0x20; b <= 0x7E; b++) {
+            table[b] = (char) b;
+        }
+        for (int b = 0xA1; b <= 0xDF; b++) {
+            table[b] = (char) (0xFF61 + b - 0xA1); // 半角カナ
+        }
+        return table;
+    }
+    
+    private static char[] ebcdicDecodeTable() {
+        char[] table = new char[256];
+        Arrays.fill(table, REPLACEMENT);
+        EBCDIK.getChars(0, EBCDIK.length(), table, 0x40);
+        return table;
+    }
+    
+    // EBCDIK の 0x40-0xFF に対応する文字（0x00-0x3Fは制御文字のため使用しない）
+    private static final String EBCDIK = ""
+            + "\u0020\uFF61\uFF62\uFF63\uFF64\uFF65\uFF66\uFF67\uFF68\uFF69\u00A3\u002E\u003C\u0028\u002B\u007C" // 0x40
+            + "\u0026\uFF6A\uFF6B\uFF6C\uFF6D\uFF6E\uFF6F\uFFFD\uFF70\uFFFD\u0021\u00A5\u002A\u0029\u003B\u00AC" // 0x50
+            + "\u002D\u002F\u0061\u0062\u0063\u0064\u0065\u0066\u0067\u0068\uFFFD\u002C\u0025\u005F\u003E\u003F" // 0x60
+            + "\u005B\u0069\u006A\u006B\u006C\u006D\u006E\u006F\u0070\u0060\u003A\u0023\u0040\u0027\u003D\"" // 0x70
+            + "\u005D\uFF71\uFF72\uFF73\uFF74\uFF75\uFF76\uFF77\uFF78\uFF79\uFF7A\u0071\uFF7B\uFF7C\uFF7D\uFF7E" // 0x80
+            + "\uFF7F\uFF80\uFF81\uFF82\uFF83\uFF84\uFF85\uFF86\uFF87\uFF88\uFF89\u0072\uFFFD\uFF8A\uFF8B\uFF8C" // 0x90
+            + "\u007E\u203E\uFF8D\uFF8E\uFF8F\uFF90\uFF91\uFF92\uFF93\uFF94\uFF95\u0073\uFF96\uFF97\uFF98\uFF99" // 0xA0
+            + "\u005E\u00A2\\\u0074\u0075\u0076\u0077\u0078\u0079\u007A\uFF9A\uFF9B\uFF9C\uFF9D\uFF9E\uFF9F" // 0xB0
+            + "\u007B\u0041\u0042\u0043\u0044\u0045\u0046\u0047\u0048\u0049\uFFFD\uFFFD\uFFFD\uFFFD\uFFFD\uFFFD" // 0xC0
+            + "\u007D\u004A\u004B\u004C\u004D\u004E\u004F\u0050\u0051\u0052\uFFFD\uFFFD\uFFFD\uFFFD\uFFFD\uFFFD" // 0xD0
+            + "\u0024\uFFFD\u0053\u0054\u0055\u0056\u0057\u0058\u0059\u005A\uFFFD\uFFFD\uFFFD\uFFFD\uFFFD\uFFFD" // 0xE0
+            + "\u0030\u0031\u0032\u0033\u0034\u0035\u0036\u0037\u0038\u0039\uFFFD\uFFFD\uFFFD\uFFFD\uFFFD\uFFFD"; // 0xF0
+} 
\ No newline at end of file
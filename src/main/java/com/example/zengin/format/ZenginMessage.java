@@ -1,10 +1,15 @@
 package com.example.zengin.format;
 
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
+import com.example.zengin.format.layout.MessageEnvelopeLayout;
+import com.example.zengin.jfr.ZenginEventContext;
+import com.example.zengin.jfr.ZenginMessageDecodeEvent;
+import com.example.zengin.jfr.ZenginMessageEncodeEvent;
+
 /**
  * 全銀フォーマットの電文を表すクラス
  * 全銀協標準通信プロトコルで使用される電文フォーマットを扱います
@@ -12,10 +17,10 @@ import java.time.format.DateTimeFormatter;
 public class ZenginMessage {
     
     // 全銀フォーマット定数
-    private static final int HEADER_LENGTH = 80; // ヘッダレコード長
+    private static final int HEADER_LENGTH = MessageEnvelopeLayout.HEADER.getLength(); // ヘッダレコード長
     private static final int DATA_LENGTH = 120; // データレコード長
-    private static final int TRAILER_LENGTH = 80; // トレーラレコード長
-    private static final Charset ZENGIN_CHARSET = StandardCharsets.UTF_8; // 文字コード（実際はJIS X 0208等）
+    private static final int TRAILER_LENGTH = MessageEnvelopeLayout.TRAILER.getLength(); // トレーラレコード長
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
     
     // 電文種別
     public enum MessageType {
@@ -41,11 +46,13 @@ public class ZenginMessage {
     private LocalDateTime transmissionDateTime; // 送信日時
     private MessageType messageType; // 電文種別
     private String fileId; // ファイルID
+    private ZenginCharset charset = ZenginCharset.JIS; // 文字コード
     
     // 電文データ
     private byte[] headerRecord; // ヘッダレコード
     private byte[][] dataRecords; // データレコード配列
     private byte[] trailerRecord; // トレーラレコード
+    private ReceivedTotals receivedTotals; // 受信したトレーラの記載値と集計値（受信電文以外はnull）
     
     /**
      * コンストラクタ
@@ -55,11 +62,23 @@ public class ZenginMessage {
      * @param receiverId 受信者ID
      */
     public ZenginMessage(MessageType messageType, String senderId, String receiverId) {
+        this(messageType, senderId, receiverId, FileIdGenerator.shared().next());
+    }
+    
+    /**
+     * コンストラクタ（受信したヘッダレコードのファイルIDを使用）
+     * 
+     * @param messageType 電文種別
+     * @param senderId 送信者ID
+     * @param receiverId 受信者ID
+     * @param fileId ファイルID
+     */
+    private ZenginMessage(MessageType messageType, String senderId, String receiverId, String fileId) {
         this.messageType = messageType;
         this.senderId = senderId;
         this.receiverId = receiverId;
         this.transmissionDateTime = LocalDateTime.now();
-        this.fileId = generateFileId();
+        this.fileId = fileId;
     }
     
     /**
@@ -68,6 +87,35 @@ public class ZenginMessage {
      * @return 全銀フォーマットのバイト配列
      */
     public byte[] toByteArray() {
+        byte[] message = new byte[getEncodedLength()];
+        encodeTo(ByteBuffer.wrap(message));
+        return message;
+    }
+    
+    /**
+     * 全銀フォーマットに変換した電文の長さを取得します
+     * 
+     * @return 電文長（バイト）
+     */
+    public int getEncodedLength() {
+        int totalSize = HEADER_LENGTH;
+        if (dataRecords != null) {
+            totalSize += dataRecords.length * DATA_LENGTH;
+        }
+        return totalSize + TRAILER_LENGTH;
+    }
+    
+    /**
+     * 電文を全銀フォーマットでバッファに書き込みます
+     * 送信フレームのバッファに直接書き込む場合に使用し、電文全体のバイト配列の作成を避けます
+     * 
+     * @param buffer 書き込み先のバッファ（現在の位置から getEncodedLength() バイトを書き込み）
+     * @throws BufferOverflowException バッファの残りが足りない場合
+     */
+    public void encodeTo(ByteBuffer buffer) {
+        ZenginMessageEncodeEvent event = new ZenginMessageEncodeEvent();
+        event.begin();
+        
         // ヘッダレコードの作成（未作成の場合）
         if (headerRecord == null) {
             createHeaderRecord();
@@ -78,56 +126,137 @@ public class ZenginMessage {
             createTrailerRecord();
         }
         
-        // 全体のサイズを計算
-        int totalSize = HEADER_LENGTH;
-        if (dataRecords != null) {
-            totalSize += dataRecords.length * DATA_LENGTH;
+        int totalSize = getEncodedLength();
+        if (buffer.remaining() < totalSize) {
+            throw new BufferOverflowException();
         }
-        totalSize += TRAILER_LENGTH;
-        
-        // 全体のバイト配列を作成
-        byte[] message = new byte[totalSize];
-        int offset = 0;
         
         // ヘッダレコードをコピー
-        System.arraycopy(headerRecord, 0, message, offset, HEADER_LENGTH);
-        offset += HEADER_LENGTH;
+        buffer.put(headerRecord, 0, HEADER_LENGTH);
         
         // データレコードをコピー
         if (dataRecords != null) {
             for (byte[] dataRecord : dataRecords) {
-                System.arraycopy(dataRecord, 0, message, offset, DATA_LENGTH);
-                offset += DATA_LENGTH;
+                buffer.put(dataRecord, 0, DATA_LENGTH);
             }
         }
         
         // トレーラレコードをコピー
-        System.arraycopy(trailerRecord, 0, message, offset, TRAILER_LENGTH);
+        buffer.put(trailerRecord, 0, TRAILER_LENGTH);
         
-        return message;
+        event.bytes = totalSize;
+        event.recordCount = dataRecords == null ? 0 : dataRecords.length;
+        ZenginEventContext.commit(event, this);
     }
     
     /**
      * バイト配列から電文を解析します
+     * 文字コードはヘッダレコードの先頭から判定します
      * 
      * @param data 全銀フォーマットのバイト配列
      * @return 解析された電文オブジェクト
      * @throws IllegalArgumentException 不正なデータ形式の場合
      */
     public static ZenginMessage fromByteArray(byte[] data) throws IllegalArgumentException {
-        if (data == null || data.length < HEADER_LENGTH + TRAILER_LENGTH) {
+        return fromByteArray(data, ZenginCharset.detect(data));
+    }
+    
+    /**
+     * 指定した文字コードでバイト配列から電文を解析します
+     * 受信したトレーラのレコード件数と、データ区分ごとの件数・金額は解析時に集計し、
+     * getReceivedTotals() で取得できます
+     * 
+     * @param data 全銀フォーマットのバイト配列
+     * @param charset 文字コード
+     * @return 解析された電文オブジェクト
+     * @throws IllegalArgumentException 不正なデータ形式の場合
+     */
+    public static ZenginMessage fromByteArray(byte[] data, ZenginCharset charset) throws IllegalArgumentException {
+        if (data == null) {
             throw new IllegalArgumentException("データサイズが不正です");
         }
+        return fromBuffer(ByteBuffer.wrap(data), charset);
+    }
+    
+    /**
+     * バッファから電文を解析します
+     * 文字コードはヘッダレコードの先頭から判定します
+     * 
+     * @param data 全銀フォーマットのデータ（現在位置から上限まで、位置は変更しません）
+     * @return 解析された電文オブジェクト
+     * @throws IllegalArgumentException 不正なデータ形式の場合
+     */
+    public static ZenginMessage fromBuffer(ByteBuffer data) throws IllegalArgumentException {
+        return fromBuffer(data, ZenginCharset.detect(data));
+    }
+    
+    /**
+     * 指定した文字コードでバッファから電文を解析します
+     * 受信フレームのバッファ（一時ファイルのメモリマップを含む）から各レコードを直接コピーするため、
+     * 電文全体のバイト配列を作成しません
+     * 
+     * @param data 全銀フォーマットのデータ（現在位置から上限まで、位置は変更しません）
+     * @param charset 文字コード
+     * @return 解析された電文オブジェクト
+     * @throws IllegalArgumentException 不正なデータ形式の場合
+     */
+    public static ZenginMessage fromBuffer(ByteBuffer data, ZenginCharset charset) throws IllegalArgumentException {
+        if (data == null || data.remaining() < HEADER_LENGTH + TRAILER_LENGTH) {
+            throw new IllegalArgumentException("データサイズが不正です");
+        }
+        
+        ZenginMessageDecodeEvent event = new ZenginMessageDecodeEvent();
+        event.begin();
         
         // ヘッダレコードを解析
+        int start = data.position();
         byte[] headerBytes = new byte[HEADER_LENGTH];
-        System.arraycopy(data, 0, headerBytes, 0, HEADER_LENGTH);
-        String headerStr = new String(headerBytes, ZENGIN_CHARSET);
+        data.get(start, headerBytes);
+        ZenginMessage message = fromHeaderRecord(headerBytes, charset);
         
-        // 送信者ID、受信者ID、電文種別を取得
-        String senderId = headerStr.substring(4, 14).trim();
-        String receiverId = headerStr.substring(14, 24).trim();
-        String messageTypeCode = headerStr.substring(24, 26);
+        // データレコード数を計算
+        int length = data.remaining();
+        int dataRecordCount = (length - HEADER_LENGTH - TRAILER_LENGTH) / DATA_LENGTH;
+        RecordTally tally = new RecordTally(charset);
+        if (dataRecordCount > 0) {
+            message.dataRecords = new byte[dataRecordCount][DATA_LENGTH];
+            
+            // データレコードをコピーし、データ区分ごとに件数・金額を集計
+            for (int i = 0; i < dataRecordCount; i++) {
+                data.get(start + HEADER_LENGTH + (i * DATA_LENGTH), message.dataRecords[i]);
+                tally.add(message.dataRecords[i], 0);
+            }
+        }
+        
+        // トレーラレコードを設定
+        message.trailerRecord = new byte[TRAILER_LENGTH];
+        data.get(start + length - TRAILER_LENGTH, message.trailerRecord);
+        
+        // 受信したトレーラのレコード件数と集計値を保持
+        message.receivedTotals = tally.toReceivedTotals(message.trailerRecord, 0);
+        
+        event.bytes = length;
+        event.recordCount = dataRecordCount;
+        ZenginEventContext.commit(event, message);
+        
+        return message;
+    }
+    
+    /**
+     * ヘッダレコードから電文を作成します
+     * データレコードとトレーラレコードは設定しません
+     * 
+     * @param headerBytes ヘッダレコード（以後、電文のヘッダレコードとして保持されます）
+     * @param charset 文字コード
+     * @return ヘッダレコードを設定した電文オブジェクト
+     * @throws IllegalArgumentException 不明な電文種別の場合、ファイルIDが設定されていない場合
+     */
+    static ZenginMessage fromHeaderRecord(byte[] headerBytes, ZenginCharset charset) {
+        // 送信者ID、受信者ID、電文種別、ファイルIDを取得
+        String senderId = MessageEnvelopeLayout.HEADER_SENDER_ID.getString(headerBytes, charset).trim();
+        String receiverId = MessageEnvelopeLayout.HEADER_RECEIVER_ID.getString(headerBytes, charset).trim();
+        String messageTypeCode = MessageEnvelopeLayout.HEADER_MESSAGE_TYPE.getString(headerBytes, charset);
+        String fileId = MessageEnvelopeLayout.HEADER_FILE_ID.getString(headerBytes, charset).trim();
         
         // 電文種別を特定
         MessageType messageType = null;
@@ -142,28 +271,17 @@ public class ZenginMessage {
             throw new IllegalArgumentException("不明な電文種別です: " + messageTypeCode);
         }
         
+        // 重複チェックのキーになるため、受信したファイルIDを採番し直さずに保持する
+        if (fileId.isEmpty()) {
+            throw new IllegalArgumentException("ファイルIDが設定されていません");
+        }
+        
         // 電文オブジェクトを作成
-        ZenginMessage message = new ZenginMessage(messageType, senderId, receiverId);
+        ZenginMessage message = new ZenginMessage(messageType, senderId, receiverId, fileId);
+        message.charset = charset;
         
         // ヘッダレコードを設定
         message.headerRecord = headerBytes;
-        
-        // データレコード数を計算
-        int dataRecordCount = (data.length - HEADER_LENGTH - TRAILER_LENGTH) / DATA_LENGTH;
-        if (dataRecordCount > 0) {
-            message.dataRecords = new byte[dataRecordCount][DATA_LENGTH];
-            
-            // データレコードをコピー
-            for (int i = 0; i < dataRecordCount; i++) {
-                int offset = HEADER_LENGTH + (i * DATA_LENGTH);
-                System.arraycopy(data, offset, message.dataRecords[i], 0, DATA_LENGTH);
-            }
-        }
-        
-        // トレーラレコードを設定
-        message.trailerRecord = new byte[TRAILER_LENGTH];
-        System.arraycopy(data, data.length - TRAILER_LENGTH, message.trailerRecord, 0, TRAILER_LENGTH);
-        
         return message;
     }
     
@@ -171,38 +289,22 @@ public class ZenginMessage {
      * ヘッダレコードを作成します
      */
     private void createHeaderRecord() {
-        // ヘッダレコード用のバッファを作成
-        byte[] buffer = new byte[HEADER_LENGTH];
+        // ヘッダレコード用のバッファを作成（予備領域はスペース）
+        byte[] buffer = MessageEnvelopeLayout.HEADER.newRecord(charset);
         
         // 固定値「ZEDI」を設定
-        byte[] zedi = "ZEDI".getBytes(ZENGIN_CHARSET);
-        System.arraycopy(zedi, 0, buffer, 0, zedi.length);
-        
-        // 送信者IDを設定（10バイト）
-        byte[] senderIdBytes = padRight(senderId, 10).getBytes(ZENGIN_CHARSET);
-        System.arraycopy(senderIdBytes, 0, buffer, 4, 10);
-        
-        // 受信者IDを設定（10バイト）
-        byte[] receiverIdBytes = padRight(receiverId, 10).getBytes(ZENGIN_CHARSET);
-        System.arraycopy(receiverIdBytes, 0, buffer, 14, 10);
+        MessageEnvelopeLayout.HEADER_IDENTIFIER.setString(buffer, MessageEnvelopeLayout.IDENTIFIER, charset);
         
-        // 電文種別を設定（2バイト）
-        byte[] messageTypeBytes = messageType.getCode().getBytes(ZENGIN_CHARSET);
-        System.arraycopy(messageTypeBytes, 0, buffer, 24, 2);
+        // 送信者ID、受信者ID、電文種別を設定
+        MessageEnvelopeLayout.HEADER_SENDER_ID.setString(buffer, senderId, charset);
+        MessageEnvelopeLayout.HEADER_RECEIVER_ID.setString(buffer, receiverId, charset);
+        MessageEnvelopeLayout.HEADER_MESSAGE_TYPE.setString(buffer, messageType.getCode(), charset);
         
-        // 送信日時を設定（14バイト: YYYYMMDDHHmmss）
-        String dateTimeStr = transmissionDateTime.format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        byte[] dateTimeBytes = dateTimeStr.getBytes(ZENGIN_CHARSET);
-        System.arraycopy(dateTimeBytes, 0, buffer, 26, 14);
+        // 送信日時を設定（YYYYMMDDHHmmss）
+        MessageEnvelopeLayout.HEADER_DATE_TIME.setString(buffer, transmissionDateTime.format(DATE_TIME_FORMAT), charset);
         
-        // ファイルIDを設定（10バイト）
-        byte[] fileIdBytes = padRight(fileId, 10).getBytes(ZENGIN_CHARSET);
-        System.arraycopy(fileIdBytes, 0, buffer, 40, 10);
-        
-        // 残りは予備領域としてスペースで埋める
-        for (int i = 50; i < HEADER_LENGTH; i++) {
-            buffer[i] = 0x20; // スペース
-        }
+        // ファイルIDを設定
+        MessageEnvelopeLayout.HEADER_FILE_ID.setString(buffer, fileId, charset);
         
         this.headerRecord = buffer;
     }
@@ -211,62 +313,22 @@ public class ZenginMessage {
      * トレーラレコードを作成します
      */
     private void createTrailerRecord() {
-        // トレーラレコード用のバッファを作成
-        byte[] buffer = new byte[TRAILER_LENGTH];
+        // トレーラレコード用のバッファを作成（予備領域はスペース）
+        byte[] buffer = MessageEnvelopeLayout.TRAILER.newRecord(charset);
         
         // 固定値「ZEDI」を設定
-        byte[] zedi = "ZEDI".getBytes(ZENGIN_CHARSET);
-        System.arraycopy(zedi, 0, buffer, 0, zedi.length);
+        MessageEnvelopeLayout.TRAILER_IDENTIFIER.setString(buffer, MessageEnvelopeLayout.IDENTIFIER, charset);
         
         // レコード種別「99」（トレーラ）を設定
-        byte[] recordType = "99".getBytes(ZENGIN_CHARSET);
-        System.arraycopy(recordType, 0, buffer, 4, 2);
+        MessageEnvelopeLayout.TRAILER_TYPE.setString(buffer, MessageEnvelopeLayout.TRAILER_RECORD_TYPE, charset);
         
-        // データレコード件数を設定（8バイト）
+        // データレコード件数を設定
         int recordCount = (dataRecords != null) ? dataRecords.length : 0;
-        String countStr = String.format("%08d", recordCount);
-        byte[] countBytes = countStr.getBytes(ZENGIN_CHARSET);
-        System.arraycopy(countBytes, 0, buffer, 6, 8);
-        
-        // 残りは予備領域としてスペースで埋める
-        for (int i = 14; i < TRAILER_LENGTH; i++) {
-            buffer[i] = 0x20; // スペース
-        }
+        MessageEnvelopeLayout.TRAILER_RECORD_COUNT.setLong(buffer, recordCount, charset);
         
         this.trailerRecord = buffer;
     }
     
-    /**
-     * ファイルIDを生成します
-     * 
-     * @return 生成されたファイルID
-     */
-    private String generateFileId() {
-        // 現在時刻をもとにしたユニークなID
-        return "F" + System.currentTimeMillis() % 1000000000;
-    }
-    
-    /**
-     * 文字列を指定長に右詰めします（不足分はスペース）
-     * 
-     * @param str 対象文字列
-     * @param length 指定長
-     * @return 右詰めされた文字列
-     */
-    private String padRight(String str, int length) {
-        if (str == null) {
-            str = "";
-        }
-        if (str.length() > length) {
-            return str.substring(0, length);
-        }
-        StringBuilder sb = new StringBuilder(str);
-        while (sb.length() < length) {
-            sb.append(' ');
-        }
-        return sb.toString();
-    }
-    
     /**
      * データレコードを設定します
      * 
@@ -285,6 +347,15 @@ public class ZenginMessage {
         return dataRecords;
     }
     
+    /**
+     * 受信したトレーラの記載値と解析時の集計値を取得します
+     * 
+     * @return トレーラの記載値と集計値（fromByteArray で解析した電文以外はnull）
+     */
+    public ReceivedTotals getReceivedTotals() {
+        return receivedTotals;
+    }
+    
     /**
      * 送信者IDを取得します
      * 
@@ -321,6 +392,29 @@ public class ZenginMessage {
         return fileId;
     }
     
+    /**
+     * 文字コードを取得します
+     * 
+     * @return 文字コード
+     */
+    public ZenginCharset getCharset() {
+        return charset;
+    }
+    
+    /**
+     * 文字コードを設定します
+     * ヘッダ・トレーラレコードは次回の変換時にこの文字コードで作成されます
+     * 
+     * @param charset 文字コード
+     */
+    public void setCharset(ZenginCharset charset) {
+        if (this.charset != charset) {
+            this.charset = charset;
+            this.headerRecord = null;
+            this.trailerRecord = null;
+        }
+    }
+    
     /**
      * 送信日時を取得します
      * 
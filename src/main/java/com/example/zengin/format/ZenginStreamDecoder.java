@@ -0,0 +1,215 @@
+package com.example.zengin.format;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import com.example.zengin.format.layout.MessageEnvelopeLayout;
+import com.example.zengin.jfr.ZenginEventContext;
+import com.example.zengin.jfr.ZenginMessageDecodeEvent;
+
+/**
+ * 全銀フォーマットの電文を受信しながら解析するデコーダ
+ * 受信したバイト列を feed で順に渡すと、ヘッダレコードがそろった時点でヘッダを、
+ * データレコードが1件そろうごとにそのレコードをハンドラに渡します
+ * トレーラレコードの受信後は、fromByteArray と同じトレーラの記載値と集計値を getReceivedTotals() で取得できます
+ * 
+ * 電文全体を保持しないため、使用するメモリは電文の長さによらず一定です
+ * 文字コードはヘッダレコードの先頭から判定し、識別子「ZEDI」で始まる80バイトをトレーラレコードとして扱います
+ */
+public class ZenginStreamDecoder {
+    
+    private static final int HEADER_LENGTH = MessageEnvelopeLayout.HEADER.getLength(); // ヘッダレコード長
+    private static final int DATA_LENGTH = 120; // データレコード長
+    private static final int TRAILER_LENGTH = MessageEnvelopeLayout.TRAILER.getLength(); // トレーラレコード長
+    private static final int IDENTIFIER_LENGTH = MessageEnvelopeLayout.IDENTIFIER.length(); // 識別子の長さ
+    
+    /**
+     * 解析結果を受け取るハンドラ
+     */
+    public interface Handler {
+        
+        /**
+         * ヘッダレコードを受信した時に呼び出されます
+         * 
+         * @param header ヘッダレコードを設定した電文（データレコード・トレーラレコードは含みません）
+         */
+        void onHeader(ZenginMessage header);
+        
+        /**
+         * データレコードを1件受信するごとに呼び出されます
+         * 配列は次のレコードの受信に再利用するため、保持する場合はコピーしてください
+         * 
+         * @param record データレコード（120バイト）
+         */
+        void onRecord(byte[] record);
+        
+        /**
+         * トレーラレコードを受信した時に呼び出されます
+         * 
+         * @param totals 受信したトレーラの記載値と集計値
+         */
+        default void onTrailer(ReceivedTotals totals) {
+        }
+    }
+    
+    private enum State {
+        HEADER, BODY, COMPLETE
+    }
+    
+    private final Handler handler;
+    private final byte[] header = new byte[HEADER_LENGTH];
+    private final byte[] record = new byte[DATA_LENGTH]; // 受信中のデータレコードまたはトレーラレコード
+    private MessageDigest digest;
+    private State state = State.HEADER;
+    private int position; // 受信中のレコードの受信済みバイト数
+    private int recordLength; // 受信中のレコードの長さ（判定前は0）
+    private byte[] identifier;
+    private ZenginMessage message;
+    private RecordTally tally;
+    private ReceivedTotals receivedTotals;
+    private long bytes;
+    private ZenginMessageDecodeEvent event;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param handler 解析結果を受け取るハンドラ
+     */
+    public ZenginStreamDecoder(Handler handler) {
+        this.handler = handler;
+    }
+    
+    /**
+     * 受信したバイト列でハッシュ値を計算するダイジェストを設定します
+     * 電文全体を保持せずに、fromByteArray で解析した電文の toByteArray() と同じバイト列のハッシュ値を得られます
+     * 
+     * @param digest ダイジェスト（feed で渡したバイト列をそのまま加えます）
+     */
+    public void setDigest(MessageDigest digest) {
+        this.digest = digest;
+    }
+    
+    /**
+     * 受信したバイト列を解析します
+     * 
+     * @param data 受信したバイト列
+     * @param offset 開始位置
+     * @param length バイト数
+     * @throws IllegalArgumentException 不正なデータ形式の場合（トレーラレコードより後のデータを含む）
+     */
+    public void feed(byte[] data, int offset, int length) {
+        if (event == null) {
+            event = new ZenginMessageDecodeEvent();
+            event.begin();
+        }
+        if (digest != null) {
+            digest.update(data, offset, length);
+        }
+        bytes += length;
+        
+        int end = offset + length;
+        while (offset < end) {
+            switch (state) {
+                case HEADER:
+                    offset = fill(header, HEADER_LENGTH, data, offset, end);
+                    if (position == HEADER_LENGTH) {
+                        position = 0;
+                        onHeader();
+                    }
+                    break;
+                case BODY:
+                    if (recordLength == 0) {
+                        // 識別子を受信するまでデータレコードかトレーラレコードかを判定しない
+                        offset = fill(record, IDENTIFIER_LENGTH, data, offset, end);
+                        if (position == IDENTIFIER_LENGTH) {
+                            recordLength = Arrays.equals(record, 0, IDENTIFIER_LENGTH, identifier, 0, IDENTIFIER_LENGTH)
+                                    ? TRAILER_LENGTH : DATA_LENGTH;
+                        }
+                        break;
+                    }
+                    offset = fill(record, recordLength, data, offset, end);
+                    if (position == recordLength) {
+                        position = 0;
+                        onRecordOrTrailer();
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("トレーラレコードの後にデータがあります");
+            }
+        }
+    }
+    
+    /**
+     * 受信の終了を通知します
+     * 
+     * @return 受信したトレーラの記載値と集計値
+     * @throws IllegalArgumentException トレーラレコードまで受信していない場合
+     */
+    public ReceivedTotals finish() {
+        if (state != State.COMPLETE) {
+            throw new IllegalArgumentException("データサイズが不正です");
+        }
+        return receivedTotals;
+    }
+    
+    /**
+     * ヘッダレコードを設定した電文を取得します
+     * 
+     * @return 電文（ヘッダレコードを受信していない場合はnull）
+     */
+    public ZenginMessage getHeader() {
+        return message;
+    }
+    
+    /**
+     * 受信したトレーラの記載値と集計値を取得します
+     * 
+     * @return 記載値と集計値（トレーラレコードを受信していない場合はnull）
+     */
+    public ReceivedTotals getReceivedTotals() {
+        return receivedTotals;
+    }
+    
+    /**
+     * 受信したバイト数を取得します
+     * 
+     * @return バイト数
+     */
+    public long getBytes() {
+        return bytes;
+    }
+    
+    private int fill(byte[] dest, int length, byte[] data, int offset, int end) {
+        int count = Math.min(length - position, end - offset);
+        System.arraycopy(data, offset, dest, position, count);
+        position += count;
+        return offset + count;
+    }
+    
+    private void onHeader() {
+        ZenginCharset charset = ZenginCharset.detect(header);
+        message = ZenginMessage.fromHeaderRecord(header.clone(), charset);
+        identifier = charset.encode(MessageEnvelopeLayout.IDENTIFIER, IDENTIFIER_LENGTH);
+        tally = new RecordTally(charset);
+        state = State.BODY;
+        handler.onHeader(message);
+    }
+    
+    private void onRecordOrTrailer() {
+        if (recordLength == DATA_LENGTH) {
+            recordLength = 0;
+            tally.add(record, 0);
+            handler.onRecord(record);
+            return;
+        }
+        
+        recordLength = 0;
+        receivedTotals = tally.toReceivedTotals(record, 0);
+        state = State.COMPLETE;
+        
+        event.bytes = bytes;
+        event.recordCount = tally.getRecordCount();
+        ZenginEventContext.commit(event, message);
+        handler.onTrailer(receivedTotals);
+    }
+} 
\ No newline at end of file
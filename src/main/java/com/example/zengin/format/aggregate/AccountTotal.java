@@ -0,0 +1,38 @@
+package com.example.zengin.format.aggregate;
+
+/**
+ * 口座ごとの件数・金額の集計値
+ */
+public class AccountTotal {
+    
+    private final int count; // データレコード件数
+    private final long amount; // 金額の合計
+    
+    AccountTotal(int count, long amount) {
+        this.count = count;
+        this.amount = amount;
+    }
+    
+    /**
+     * データレコード件数を取得します
+     * 
+     * @return 件数
+     */
+    public int getCount() {
+        return count;
+    }
+    
+    /**
+     * 金額の合計を取得します
+     * 
+     * @return 金額
+     */
+    public long getAmount() {
+        return amount;
+    }
+    
+    @Override
+    public String toString() {
+        return "AccountTotal{count=" + count + ", amount=" + amount + "}";
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.example.zengin.format.aggregate;
+
+import java.util.function.BiConsumer;
+
+/**
+ * 口座のキー（long）ごとの件数・金額の集計表
+ * オープンアドレス法（線形探索）で件数・金額をプリミティブの配列に保持するため、
+ * 登録・加算のたびにキーや集計値のオブジェクトを生成しません
+ */
+class AccountTotalMap {
+    
+    private static final int INITIAL_CAPACITY = 64; // スロット数の初期値（2のべき乗）
+    
+    private long[] keys; // キー + 1（0は空き）
+    private int[] counts;
+    private long[] amounts;
+    private int size;
+    
+    AccountTotalMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+    
+    /**
+     * 口座の件数・金額に加算します
+     * 
+     * @param key 口座のキー（0以上）
+     * @param count 件数
+     * @param amount 金額
+     */
+    void add(long key, int count, long amount) {
+        int slot = slotOf(key);
+        if (keys[slot] == 0) {
+            keys[slot] = key + 1;
+            size++;
+        }
+        counts[slot] += count;
+        amounts[slot] += amount;
+        
+        // 負荷率が75%を超えたら拡張する
+        if (size * 4 > keys.length * 3) {
+            resize();
+        }
+    }
+    
+    /**
+     * 別の集計表を合算します
+     * 
+     * @param other 合算する集計表
+     */
+    void merge(AccountTotalMap other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != 0) {
+                add(other.keys[i] - 1, other.counts[i], other.amounts[i]);
+            }
+        }
+    }
+    
+    /**
+     * 登録されている口座の件数を取得します
+     * 
+     * @return 件数
+     */
+    int size() {
+        return size;
+    }
+    
+    /**
+     * 口座ごとの集計値を順に処理します
+     * 
+     * @param action 口座のキーと集計値を受け取る処理
+     */
+    void forEach(BiConsumer<Long, AccountTotal> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i] - 1, new AccountTotal(counts[i], amounts[i]));
+            }
+        }
+    }
+    
+    /**
+     * キーのスロット（登録済みの場合はその位置、未登録の場合は空きの位置）を求めます
+     */
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        long h = (key + 1) * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (keys[slot] != 0 && keys[slot] != key + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+    
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        long[] oldAmounts = amounts;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slotOf(oldKeys[i] - 1);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+                amounts[slot] = oldAmounts[i];
+            }
+        }
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        counts = new int[capacity];
+        amounts = new long[capacity];
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.example.zengin.format.aggregate;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+
+/**
+ * データレコードの集計結果
+ * データ区分2のレコードについて、件数・金額の合計と、被仕向銀行・支店・口座番号ごとの件数・金額を保持します
+ * 範囲ごとに集計した結果を merge で合算するため、集計の順序によらず同じ結果になります
+ * 
+ * 口座は被仕向銀行番号（4桁）・被仕向支店番号（3桁）・口座番号（7桁）を1つの long に詰めたキーで集計し、
+ * 文字列のキーは getAccountTotals の呼び出し時にのみ生成します
+ */
+public class RecordAggregate {
+    
+    private static final int BANK_LENGTH = SogoFurikomiLayout.DATA_BANK_CODE.getLength();
+    private static final int BRANCH_LENGTH = SogoFurikomiLayout.DATA_BRANCH_CODE.getLength();
+    private static final int ACCOUNT_LENGTH = SogoFurikomiLayout.DATA_ACCOUNT_NUMBER.getLength();
+    private static final long BRANCH_CODES = 1000; // 支店番号の種類数（3桁）
+    private static final long ACCOUNT_NUMBERS = 10000000; // 口座番号の種類数（7桁）
+    
+    private int recordCount; // 集計したデータレコード件数（全データ区分）
+    private int dataCount; // データ区分2のレコード件数
+    private long totalAmount; // データ区分2のレコードの金額の合計（数値でない金額を除く）
+    private int invalidAmountCount; // 金額が数値でないデータ区分2のレコード件数
+    private int invalidAccountCount; // 銀行・支店・口座番号が数字でないデータ区分2のレコード件数
+    private final AccountTotalMap accountTotals = new AccountTotalMap();
+    
+    /**
+     * データ区分2以外のレコードを集計に加えます
+     */
+    void addOther() {
+        recordCount++;
+    }
+    
+    /**
+     * データ区分2のレコードを集計に加えます
+     * 
+     * @param accountKey 口座のキー（銀行・支店・口座番号が数字でない場合は負の値。口座ごとの集計には含めません）
+     * @param amount 金額
+     */
+    void addData(long accountKey, long amount) {
+        recordCount++;
+        dataCount++;
+        totalAmount += amount;
+        if (accountKey < 0) {
+            invalidAccountCount++;
+        } else {
+            accountTotals.add(accountKey, 1, amount);
+        }
+    }
+    
+    /**
+     * 金額が数値でないデータ区分2のレコードを集計に加えます（金額・口座ごとの集計には含めません）
+     */
+    void addInvalidAmount() {
+        recordCount++;
+        dataCount++;
+        invalidAmountCount++;
+    }
+    
+    /**
+     * 別の範囲の集計結果を合算します
+     * 
+     * @param other 合算する集計結果
+     * @return この集計結果
+     */
+    RecordAggregate merge(RecordAggregate other) {
+        recordCount += other.recordCount;
+        dataCount += other.dataCount;
+        totalAmount += other.totalAmount;
+        invalidAmountCount += other.invalidAmountCount;
+        invalidAccountCount += other.invalidAccountCount;
+        accountTotals.merge(other.accountTotals);
+        return this;
+    }
+    
+    /**
+     * 集計したデータレコード件数を取得します
+     * 
+     * @return 件数（全データ区分）
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+    
+    /**
+     * データ区分2のレコード件数を取得します
+     * 
+     * @return 件数
+     */
+    public int getDataCount() {
+        return dataCount;
+    }
+    
+    /**
+     * データ区分2のレコードの金額の合計を取得します
+     * 
+     * @return 金額（数値でない金額は含みません）
+     */
+    public long getTotalAmount() {
+        return totalAmount;
+    }
+    
+    /**
+     * 金額が数値でないデータ区分2のレコード件数を取得します
+     * 
+     * @return 件数
+     */
+    public int getInvalidAmountCount() {
+        return invalidAmountCount;
+    }
+    
+    /**
+     * 銀行・支店・口座番号が数字でないデータ区分2のレコード件数を取得します
+     * これらのレコードは件数・金額の合計に含め、口座ごとの集計には含めません
+     * 
+     * @return 件数
+     */
+    public int getInvalidAccountCount() {
+        return invalidAccountCount;
+    }
+    
+    /**
+     * 集計した口座の件数を取得します
+     * 
+     * @return 口座数
+     */
+    public int getAccountCount() {
+        return accountTotals.size();
+    }
+    
+    /**
+     * 口座ごとの件数・金額を取得します
+     * キーは「被仕向銀行番号-被仕向支店番号-口座番号」です（呼び出しごとに生成します）
+     * 
+     * @return 口座ごとの集計値（変更不可）
+     */
+    public Map<String, AccountTotal> getAccountTotals() {
+        Map<String, AccountTotal> result = new HashMap<>(accountTotals.size() * 2);
+        accountTotals.forEach((key, total) -> result.put(formatAccountKey(key), total));
+        return Collections.unmodifiableMap(result);
+    }
+    
+    /**
+     * 銀行・支店・口座番号を口座のキーに詰めます
+     * 
+     * @param bankCode 被仕向銀行番号（4桁）
+     * @param branchCode 被仕向支店番号（3桁）
+     * @param accountNumber 口座番号（7桁）
+     * @return 口座のキー
+     */
+    static long accountKey(int bankCode, int branchCode, int accountNumber) {
+        return (bankCode * BRANCH_CODES + branchCode) * ACCOUNT_NUMBERS + accountNumber;
+    }
+    
+    private static String formatAccountKey(long key) {
+        long bankBranch = key / ACCOUNT_NUMBERS;
+        return String.format("%0" + BANK_LENGTH + "d-%0" + BRANCH_LENGTH + "d-%0" + ACCOUNT_LENGTH + "d",
+                bankBranch / BRANCH_CODES, bankBranch % BRANCH_CODES, key % ACCOUNT_NUMBERS);
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,187 @@
+package com.example.zengin.format.aggregate;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.example.zengin.format.ZenginCharset;
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.layout.MessageEnvelopeLayout;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+
+/**
+ * 受信した全銀データレコードの並列集計クラス
+ * データレコードを一定件数ごとの範囲に分割して ForkJoinPool で並列に集計し、範囲ごとの結果を合算します
+ * 項目の取り出し・金額の合計・口座ごとの集計はいずれも範囲内で完結するため、大きな電文ほどコア数に応じて短縮できます
+ * 
+ * デコード済みの電文（ZenginMessage）のほか、電文全体を保持する ByteBuffer（一時ファイルのメモリマップを含む）を
+ * ヒープにコピーせずに集計できます
+ * 口座ごとの集計は銀行・支店・口座番号をレコードのバイト列から数値として読み取って1つの long のキーに詰めるため、
+ * レコードごとに文字列を生成しません
+ * 
+ * 受信処理（ZenginCommunicationService）は件数・金額をデコード時に集計してトレーラと照合するため、このクラスを使用しません
+ * 受信した通知の口座ごとの集計が必要なアプリケーションが、受信後の電文に対して呼び出してください
+ * 
+ * インスタンスは不変のため、複数スレッドで共有できます
+ */
+public class ZenginRecordAggregator {
+    
+    /** 1タスクで集計するデータレコード件数の既定値 */
+    public static final int DEFAULT_SPLIT_RECORDS = 8192;
+    
+    private static final int HEADER_LENGTH = MessageEnvelopeLayout.HEADER.getLength(); // ヘッダレコード長
+    private static final int TRAILER_LENGTH = MessageEnvelopeLayout.TRAILER.getLength(); // トレーラレコード長
+    private static final int DATA_LENGTH = SogoFurikomiLayout.DATA.getLength(); // データレコード長
+    private static final char DATA_CATEGORY_DATA = '2'; // データ区分（データレコード）
+    private static final int BANK_OFFSET = SogoFurikomiLayout.DATA_BANK_CODE.getOffset();
+    private static final int BANK_LENGTH = SogoFurikomiLayout.DATA_BANK_CODE.getLength();
+    private static final int BRANCH_OFFSET = SogoFurikomiLayout.DATA_BRANCH_CODE.getOffset();
+    private static final int BRANCH_LENGTH = SogoFurikomiLayout.DATA_BRANCH_CODE.getLength();
+    private static final int ACCOUNT_OFFSET = SogoFurikomiLayout.DATA_ACCOUNT_NUMBER.getOffset();
+    private static final int ACCOUNT_LENGTH = SogoFurikomiLayout.DATA_ACCOUNT_NUMBER.getLength();
+    
+    private final ForkJoinPool pool;
+    private final int splitRecords;
+    
+    /**
+     * コンストラクタ（共通プールを使用し、既定の件数ごとに分割）
+     */
+    public ZenginRecordAggregator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SPLIT_RECORDS);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param pool 集計に使用するプール
+     * @param splitRecords 1タスクで集計するデータレコード件数（これ以下の範囲は分割しない）
+     */
+    public ZenginRecordAggregator(ForkJoinPool pool, int splitRecords) {
+        if (splitRecords < 1) {
+            throw new IllegalArgumentException("分割件数は1以上を指定してください: " + splitRecords);
+        }
+        this.pool = pool;
+        this.splitRecords = splitRecords;
+    }
+    
+    /**
+     * デコード済みの電文のデータレコードを集計します
+     * 
+     * @param message 電文
+     * @return 集計結果
+     */
+    public RecordAggregate aggregate(ZenginMessage message) {
+        byte[][] records = message.getDataRecords();
+        RecordSource source = (index, scratch) -> records[index];
+        return pool.invoke(new AggregateTask(source, message.getCharset(), 0, records.length));
+    }
+    
+    /**
+     * 電文全体（ヘッダレコード・データレコード・トレーラレコード）を保持するバッファのデータレコードを集計します
+     * バッファの位置は変更しません（絶対位置で読み取るため、複数のタスクで同じバッファを共有します）
+     * 
+     * @param message 電文全体（position から limit まで）
+     * @return 集計結果
+     * @throws IllegalArgumentException 電文長が不正な場合
+     */
+    public RecordAggregate aggregate(ByteBuffer message) {
+        int start = message.position();
+        int length = message.remaining();
+        if (length < HEADER_LENGTH + TRAILER_LENGTH || (length - HEADER_LENGTH - TRAILER_LENGTH) % DATA_LENGTH != 0) {
+            throw new IllegalArgumentException("電文長が不正です: " + length);
+        }
+        
+        ZenginCharset charset = ZenginCharset.detect(new byte[] { message.get(start) });
+        int recordStart = start + HEADER_LENGTH;
+        RecordSource source = (index, scratch) -> {
+            message.get(recordStart + index * DATA_LENGTH, scratch);
+            return scratch;
+        };
+        int recordCount = (length - HEADER_LENGTH - TRAILER_LENGTH) / DATA_LENGTH;
+        return pool.invoke(new AggregateTask(source, charset, 0, recordCount));
+    }
+    
+    /**
+     * データレコードの取り出し
+     */
+    @FunctionalInterface
+    private interface RecordSource {
+        
+        /**
+         * 指定位置のデータレコードを取得します
+         * 
+         * @param index レコードの位置（0始まり）
+         * @param scratch 読み取りに使用できるレコード長の配列（タスクごとに再利用）
+         * @return データレコード
+         */
+        byte[] record(int index, byte[] scratch);
+    }
+    
+    /**
+     * [from, to) の範囲のデータレコードを集計するタスク
+     */
+    private class AggregateTask extends RecursiveTask<RecordAggregate> {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final transient RecordSource source;
+        private final ZenginCharset charset;
+        private final int from;
+        private final int to;
+        
+        AggregateTask(RecordSource source, ZenginCharset charset, int from, int to) {
+            this.source = source;
+            this.charset = charset;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected RecordAggregate compute() {
+            if (to - from <= splitRecords) {
+                return aggregateRange();
+            }
+            int middle = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(source, charset, from, middle);
+            left.fork();
+            RecordAggregate right = new AggregateTask(source, charset, middle, to).compute();
+            return left.join().merge(right);
+        }
+        
+        private RecordAggregate aggregateRange() {
+            RecordAggregate aggregate = new RecordAggregate();
+            byte[] scratch = new byte[DATA_LENGTH];
+            for (int i = from; i < to; i++) {
+                byte[] record = source.record(i, scratch);
+                if (charset.decode(record[0]) != DATA_CATEGORY_DATA) {
+                    aggregate.addOther();
+                    continue;
+                }
+                long amount;
+                try {
+                    amount = SogoFurikomiLayout.DATA_AMOUNT.getLong(record, charset);
+                } catch (NumberFormatException e) {
+                    aggregate.addInvalidAmount();
+                    continue;
+                }
+                aggregate.addData(accountKey(record), amount);
+            }
+            return aggregate;
+        }
+        
+        /**
+         * 銀行・支店・口座番号を口座のキーに詰めます
+         * 
+         * @return 口座のキー（いずれかが数字でない場合は-1）
+         */
+        private long accountKey(byte[] record) {
+            int bankCode = charset.parseDigits(record, BANK_OFFSET, BANK_LENGTH);
+            int branchCode = charset.parseDigits(record, BRANCH_OFFSET, BRANCH_LENGTH);
+            int accountNumber = charset.parseDigits(record, ACCOUNT_OFFSET, ACCOUNT_LENGTH);
+            if (bankCode < 0 || branchCode < 0 || accountNumber < 0) {
+                return -1;
+            }
+            return RecordAggregate.accountKey(bankCode, branchCode, accountNumber);
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.example.zengin.format.layout;
+
+/**
+ * 項目の文字種
+ */
+public enum CharClass {
+    NUMERIC, // 数字のみ
+    NUMERIC_OR_SPACE, // 数字または空白（任意項目）
+    KANA, // 全銀で使用できる文字（半角カナ、英大文字、数字、一部の記号、空白）
+    SPACE; // 空白のみ（ダミー・予備領域）
+    
+    private static final String KANA_SYMBOLS = " ()-./\\¥,｢｣ｦｰ";
+    
+    /**
+     * 文字がこの文字種に含まれるかを判定します
+     * 
+     * @param c 文字
+     * @return 含まれる場合はtrue
+     */
+    public boolean contains(char c) {
+        boolean digit = c >= '0' && c <= '9';
+        switch (this) {
+            case NUMERIC:
+                return digit;
+            case NUMERIC_OR_SPACE:
+                return digit || c == ' ';
+            case KANA:
+                return digit || (c >= 'A' && c <= 'Z') || (c >= 'ｱ' && c <= 'ﾟ') || KANA_SYMBOLS.indexOf(c) >= 0;
+            default:
+                return c == ' ';
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.example.zengin.format.layout;
+
+/**
+ * 口座振替（種別コード91）のレコードレイアウト
+ * ヘッダ・データ・トレーラ・エンドの各レコードは120バイトです
+ * 
+ * 依頼時の振替結果コードは0、結果返却時に銀行が設定します
+ */
+public final class KozaFurikaeLayout {
+    
+    public static final String TYPE_CODE = "91"; // 種別コード
+    
+    public static final RecordLayout HEADER = RecordLayout.builder("口座振替ヘッダレコード", 120)
+            .code("データ区分", 1)
+            .code("種別コード", 2)
+            .code("コード区分", 1)
+            .code("委託者コード", 10)
+            .kana("委託者名", 40)
+            .code("引落日", 4)
+            .code("取引銀行番号", 4)
+            .kana("取引銀行名", 15)
+            .code("取引支店番号", 3)
+            .kana("取引支店名", 15)
+            .code("預金種目", 1)
+            .code("口座番号", 7)
+            .dummy(17)
+            .build();
+    
+    public static final RecordLayout DATA = RecordLayout.builder("口座振替データレコード", 120)
+            .code("データ区分", 1)
+            .code("引落銀行番号", 4)
+            .kana("引落銀行名", 15)
+            .code("引落支店番号", 3)
+            .kana("引落支店名", 15)
+            .dummy(4)
+            .code("預金種目", 1)
+            .code("口座番号", 7)
+            .kana("預金者名", 30)
+            .numeric("引落金額", 10)
+            .optionalCode("新規コード", 1)
+            .kana("顧客番号", 20)
+            .code("振替結果コード", 1)
+            .dummy(8)
+            .build();
+    
+    public static final RecordLayout TRAILER = RecordLayout.builder("口座振替トレーラレコード", 120)
+            .code("データ区分", 1)
+            .numeric("合計件数", 6)
+            .numeric("合計金額", 12)
+            .numeric("振替済件数", 6)
+            .numeric("振替済金額", 12)
+            .numeric("振替不能件数", 6)
+            .numeric("振替不能金額", 12)
+            .dummy(65)
+            .build();
+    
+    public static final RecordLayout END = SogoFurikomiLayout.END;
+    
+    // 主な項目
+    public static final TextField DATA_CUSTOMER_NUMBER = DATA.text("顧客番号");
+    public static final NumericField DATA_AMOUNT = DATA.numeric("引落金額");
+    public static final TextField DATA_RESULT_CODE = DATA.text("振替結果コード");
+    public static final NumericField TRAILER_TOTAL_COUNT = TRAILER.numeric("合計件数");
+    public static final NumericField TRAILER_TOTAL_AMOUNT = TRAILER.numeric("合計金額");
+    
+    private KozaFurikaeLayout() {
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.example.zengin.format.layout;
+
+/**
+ * 給与振込（種別コード11）・賞与振込（種別コード12）のレコードレイアウト
+ * ヘッダ・トレーラ・エンドレコードは総合振込と共通です
+ */
+public final class KyuyoFurikomiLayout {
+    
+    public static final String TYPE_CODE = "11"; // 種別コード（給与）
+    public static final String BONUS_TYPE_CODE = "12"; // 種別コード（賞与）
+    
+    public static final RecordLayout HEADER = SogoFurikomiLayout.HEADER;
+    
+    public static final RecordLayout DATA = RecordLayout.builder("給与振込データレコード", 120)
+            .code("データ区分", 1)
+            .code("被仕向銀行番号", 4)
+            .kana("被仕向銀行名", 15)
+            .code("被仕向支店番号", 3)
+            .kana("被仕向支店名", 15)
+            .dummy(4)
+            .code("預金種目", 1)
+            .code("口座番号", 7)
+            .kana("受取人名", 30)
+            .numeric("振込金額", 10)
+            .optionalCode("新規コード", 1)
+            .kana("社員番号", 10)
+            .kana("所属コード", 10)
+            .dummy(9)
+            .build();
+    
+    public static final RecordLayout TRAILER = SogoFurikomiLayout.TRAILER;
+    
+    public static final RecordLayout END = SogoFurikomiLayout.END;
+    
+    // 主な項目
+    public static final TextField DATA_PAYEE_NAME = DATA.text("受取人名");
+    public static final TextField DATA_EMPLOYEE_NUMBER = DATA.text("社員番号");
+    public static final NumericField DATA_AMOUNT = DATA.numeric("振込金額");
+    
+    private KyuyoFurikomiLayout() {
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.example.zengin.format.layout;
+
+/**
+ * 電文のヘッダ・トレーラレコード（各80バイト）のレイアウト
+ * 業務データ（振込・口座振替等のレコード）を包む通信用のレコードです
+ */
+public final class MessageEnvelopeLayout {
+    
+    public static final String IDENTIFIER = "ZEDI"; // 識別子
+    public static final String TRAILER_RECORD_TYPE = "99"; // トレーラのレコード種別
+    
+    public static final RecordLayout HEADER = RecordLayout.builder("電文ヘッダレコード", 80)
+            .kana("識別子", 4)
+            .kana("送信者ID", 10)
+            .kana("受信者ID", 10)
+            .code("電文種別", 2)
+            .code("送信日時", 14)
+            .kana("ファイルID", 10)
+            .dummy(30)
+            .build();
+    
+    public static final RecordLayout TRAILER = RecordLayout.builder("電文トレーラレコード", 80)
+            .kana("識別子", 4)
+            .code("レコード種別", 2)
+            .numeric("レコード件数", 8)
+            .dummy(66)
+            .build();
+    
+    public static final TextField HEADER_IDENTIFIER = HEADER.text("識別子");
+    public static final TextField HEADER_SENDER_ID = HEADER.text("送信者ID");
+    public static final TextField HEADER_RECEIVER_ID = HEADER.text("受信者ID");
+    public static final TextField HEADER_MESSAGE_TYPE = HEADER.text("電文種別");
+    public static final TextField HEADER_DATE_TIME = HEADER.text("送信日時");
+    public static final TextField HEADER_FILE_ID = HEADER.text("ファイルID");
+    public static final TextField TRAILER_IDENTIFIER = TRAILER.text("識別子");
+    public static final TextField TRAILER_TYPE = TRAILER.text("レコード種別");
+    public static final NumericField TRAILER_RECORD_COUNT = TRAILER.numeric("レコード件数");
+    
+    private MessageEnvelopeLayout() {
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.example.zengin.format.layout;
+
+import com.example.zengin.format.ZenginCharset;
+
+/**
+ * 数値項目（件数・金額・残高等）
+ * 値は右詰め・前ゼロ埋めで格納します（符号付きの項目は負数の場合に先頭を「-」とします）
+ */
+public class NumericField extends RecordField {
+    
+    private final boolean signed;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param name 項目名
+     * @param offset 開始位置（0始まり）
+     * @param length 項目長（バイト）
+     * @param charClass 文字種
+     * @param signed 符号付きの場合はtrue
+     */
+    NumericField(String name, int offset, int length, CharClass charClass, boolean signed) {
+        super(name, offset, length, charClass);
+        this.signed = signed;
+    }
+    
+    /**
+     * 項目の値を取得します
+     * 先頭の空白は読み飛ばし、空白のみの場合は0とします
+     * 
+     * @param record レコード
+     * @param charset 文字コード
+     * @return 項目の値
+     * @throws NumberFormatException 数値でない場合
+     */
+    public long getLong(byte[] record, ZenginCharset charset) {
+        return getLong(record, 0, charset);
+    }
+    
+    /**
+     * 複数レコードを連結したバイト配列から項目の値を取得します
+     * 先頭の空白は読み飛ばし、空白のみの場合は0とします
+     * 
+     * @param data バイト配列
+     * @param recordOffset レコードの開始位置
+     * @param charset 文字コード
+     * @return 項目の値
+     * @throws NumberFormatException 数値でない場合
+     */
+    public long getLong(byte[] data, int recordOffset, ZenginCharset charset) {
+        int start = recordOffset + getOffset();
+        long value = 0;
+        boolean digits = false;
+        boolean negative = false;
+        for (int i = start; i < start + getLength(); i++) {
+            char c = charset.decode(data[i]);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits = true;
+            } else if (c == ' ' && !digits && !negative) {
+                continue;
+            } else if (c == '-' && signed && !digits && !negative) {
+                negative = true;
+            } else {
+                throw new NumberFormatException(getName() + "が数値ではありません: "
+                        + charset.decode(data, start, getLength()));
+            }
+        }
+        return negative ? -value : value;
+    }
+    
+    /**
+     * 項目の値を設定します
+     * 
+     * @param record レコード
+     * @param value 値
+     * @param charset 文字コード
+     * @throws IllegalArgumentException 項目長に収まらない場合、または符号なしの項目に負数を設定する場合
+     */
+    public void setLong(byte[] record, long value, ZenginCharset charset) {
+        if (value < 0 && !signed) {
+            throw new IllegalArgumentException(getName() + "に負数は設定できません: " + value);
+        }
+        String digits = value < 0 ? Long.toString(value).substring(1) : Long.toString(value);
+        int width = value < 0 ? getLength() - 1 : getLength();
+        if (digits.length() > width) {
+            throw new IllegalArgumentException(getName() + "の桁数を超えています: " + value);
+        }
+        
+        StringBuilder formatted = new StringBuilder(getLength());
+        if (value < 0) {
+            formatted.append('-');
+        }
+        for (int i = digits.length(); i < width; i++) {
+            formatted.append('0');
+        }
+        formatted.append(digits);
+        charset.encode(formatted, record, getOffset(), getLength());
+    }
+    
+    /**
+     * 符号付きの項目かを取得します
+     * 
+     * @return 符号付きの場合はtrue
+     */
+    public boolean isSigned() {
+        return signed;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.example.zengin.format.layout;
+
+/**
+ * 入出金取引明細（種別コード03）のレコードレイアウト
+ * ヘッダ・データ・トレーラ・エンドの各レコードは200バイトです
+ */
+public final class NyushukkinMeisaiLayout {
+    
+    public static final String TYPE_CODE = "03"; // 種別コード
+    
+    public static final RecordLayout HEADER = RecordLayout.builder("入出金明細ヘッダレコード", 200)
+            .code("データ区分", 1)
+            .code("種別コード", 2)
+            .code("コード区分", 1)
+            .code("作成日", 6)
+            .code("勘定日（自）", 6)
+            .code("勘定日（至）", 6)
+            .code("銀行コード", 4)
+            .kana("銀行名", 15)
+            .code("支店コード", 3)
+            .kana("支店名", 15)
+            .dummy(3)
+            .code("預金種目", 1)
+            .code("口座番号", 10)
+            .kana("口座名", 40)
+            .code("貸越区分", 1)
+            .code("通帳・証書区分", 1)
+            .signedNumeric("取引前残高", 14)
+            .dummy(71)
+            .build();
+    
+    public static final RecordLayout DATA = RecordLayout.builder("入出金明細データレコード", 200)
+            .code("データ区分", 1)
+            .code("照会番号", 8)
+            .code("勘定日", 6)
+            .optionalCode("預入・払出日", 6)
+            .code("入払区分", 1)
+            .code("取引区分", 2)
+            .numeric("取引金額", 12)
+            .optionalNumeric("うち他店券金額", 12)
+            .optionalCode("交換呈示日", 6)
+            .optionalCode("不渡返還日", 6)
+            .optionalCode("手形・小切手区分", 1)
+            .optionalCode("手形・小切手番号", 7)
+            .optionalCode("僚店番号", 3)
+            .kana("振込依頼人コード", 10)
+            .kana("振込依頼人名", 48)
+            .kana("仕向銀行名", 15)
+            .kana("仕向店名", 15)
+            .kana("摘要内容", 20)
+            .kana("EDI情報", 20)
+            .dummy(1)
+            .build();
+    
+    public static final RecordLayout TRAILER = RecordLayout.builder("入出金明細トレーラレコード", 200)
+            .code("データ区分", 1)
+            .numeric("入金件数", 6)
+            .numeric("入金額合計", 13)
+            .numeric("出金件数", 6)
+            .numeric("出金額合計", 13)
+            .code("貸越区分", 1)
+            .signedNumeric("取引後残高", 14)
+            .numeric("データレコード件数", 7)
+            .dummy(139)
+            .build();
+    
+    public static final RecordLayout END = RecordLayout.builder("入出金明細エンドレコード", 200)
+            .code("データ区分", 1)
+            .dummy(199)
+            .build();
+    
+    // 主な項目
+    public static final TextField DATA_DEPOSIT_TYPE = DATA.text("入払区分"); // 1: 入金, 2: 出金
+    public static final NumericField DATA_AMOUNT = DATA.numeric("取引金額");
+    public static final TextField DATA_REMITTER_NAME = DATA.text("振込依頼人名");
+    public static final NumericField TRAILER_DEPOSIT_COUNT = TRAILER.numeric("入金件数");
+    public static final NumericField TRAILER_DEPOSIT_TOTAL = TRAILER.numeric("入金額合計");
+    public static final NumericField TRAILER_WITHDRAWAL_COUNT = TRAILER.numeric("出金件数");
+    public static final NumericField TRAILER_WITHDRAWAL_TOTAL = TRAILER.numeric("出金額合計");
+    public static final NumericField TRAILER_BALANCE = TRAILER.numeric("取引後残高");
+    
+    private NyushukkinMeisaiLayout() {
+    }
+} 
\ No newline at end of file
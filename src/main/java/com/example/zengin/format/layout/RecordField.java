@@ -0,0 +1,69 @@
+package com.example.zengin.format.layout;
+
+/**
+ * レコードの項目
+ * 開始位置と長さはレイアウトの定義時に確定するため、項目の読み書きは固定位置へのアクセスになります
+ */
+public abstract class RecordField {
+    
+    private final String name;
+    private final int offset;
+    private final int length;
+    private final CharClass charClass;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param name 項目名
+     * @param offset 開始位置（0始まり）
+     * @param length 項目長（バイト）
+     * @param charClass 文字種
+     */
+    RecordField(String name, int offset, int length, CharClass charClass) {
+        this.name = name;
+        this.offset = offset;
+        this.length = length;
+        this.charClass = charClass;
+    }
+    
+    /**
+     * 項目名を取得します
+     * 
+     * @return 項目名
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * 開始位置を取得します
+     * 
+     * @return 開始位置（0始まり）
+     */
+    public int getOffset() {
+        return offset;
+    }
+    
+    /**
+     * 項目長を取得します
+     * 
+     * @return 項目長（バイト）
+     */
+    public int getLength() {
+        return length;
+    }
+    
+    /**
+     * 文字種を取得します
+     * 
+     * @return 文字種
+     */
+    public CharClass getCharClass() {
+        return charClass;
+    }
+    
+    @Override
+    public String toString() {
+        return name + "(" + offset + "," + length + ")";
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,246 @@
+package com.example.zengin.format.layout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.example.zengin.format.ZenginCharset;
+
+/**
+ * 固定長レコードのレイアウト
+ * 項目を先頭から順に宣言して定義し、各項目の開始位置は定義時に確定します
+ * 
+ * 項目は名前で一度だけ取得して定数に保持し、読み書きは RecordField の固定位置アクセスで行います
+ * <pre>
+ * static final RecordLayout DATA = RecordLayout.builder("データレコード", 120)
+ *         .code("データ区分", 1)
+ *         .numeric("金額", 10)
+ *         .dummy(109)
+ *         .build();
+ * static final NumericField AMOUNT = DATA.numeric("金額");
+ * </pre>
+ */
+public class RecordLayout {
+    
+    private final String name;
+    private final int length;
+    private final List<RecordField> fields;
+    
+    private RecordLayout(String name, int length, List<RecordField> fields) {
+        this.name = name;
+        this.length = length;
+        this.fields = Collections.unmodifiableList(fields);
+    }
+    
+    /**
+     * レイアウトの定義を開始します
+     * 
+     * @param name レコード名
+     * @param length レコード長（バイト）
+     * @return ビルダー
+     */
+    public static Builder builder(String name, int length) {
+        return new Builder(name, length);
+    }
+    
+    /**
+     * 項目を取得します
+     * 
+     * @param fieldName 項目名
+     * @return 項目
+     * @throws IllegalArgumentException 項目が存在しない場合
+     */
+    public RecordField field(String fieldName) {
+        for (RecordField field : fields) {
+            if (field.getName().equals(fieldName)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException(name + "に項目がありません: " + fieldName);
+    }
+    
+    /**
+     * 数値項目を取得します
+     * 
+     * @param fieldName 項目名
+     * @return 数値項目
+     * @throws IllegalArgumentException 項目が存在しない場合、または数値項目でない場合
+     */
+    public NumericField numeric(String fieldName) {
+        RecordField field = field(fieldName);
+        if (!(field instanceof NumericField)) {
+            throw new IllegalArgumentException(name + "の" + fieldName + "は数値項目ではありません");
+        }
+        return (NumericField) field;
+    }
+    
+    /**
+     * 文字項目を取得します
+     * 
+     * @param fieldName 項目名
+     * @return 文字項目
+     * @throws IllegalArgumentException 項目が存在しない場合、または文字項目でない場合
+     */
+    public TextField text(String fieldName) {
+        RecordField field = field(fieldName);
+        if (!(field instanceof TextField)) {
+            throw new IllegalArgumentException(name + "の" + fieldName + "は文字項目ではありません");
+        }
+        return (TextField) field;
+    }
+    
+    /**
+     * 全項目を空白で埋めたレコードを作成します
+     * 
+     * @param charset 文字コード
+     * @return レコード
+     */
+    public byte[] newRecord(ZenginCharset charset) {
+        byte[] record = new byte[length];
+        Arrays.fill(record, charset.getSpace());
+        return record;
+    }
+    
+    /**
+     * レコード名を取得します
+     * 
+     * @return レコード名
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * レコード長を取得します
+     * 
+     * @return レコード長（バイト）
+     */
+    public int getLength() {
+        return length;
+    }
+    
+    /**
+     * 項目を定義順に取得します
+     * 
+     * @return 項目
+     */
+    public List<RecordField> getFields() {
+        return fields;
+    }
+    
+    /**
+     * レイアウトのビルダー
+     */
+    public static class Builder {
+        
+        private final String name;
+        private final int length;
+        private final List<RecordField> fields = new ArrayList<>();
+        private int offset;
+        private int dummyCount;
+        
+        private Builder(String name, int length) {
+            this.name = name;
+            this.length = length;
+        }
+        
+        /**
+         * 数値項目（数字のみ）を追加します
+         * 
+         * @param fieldName 項目名
+         * @param fieldLength 項目長
+         * @return このビルダー
+         */
+        public Builder numeric(String fieldName, int fieldLength) {
+            return add(new NumericField(fieldName, offset, fieldLength, CharClass.NUMERIC, false));
+        }
+        
+        /**
+         * 任意の数値項目（数字または空白）を追加します
+         * 
+         * @param fieldName 項目名
+         * @param fieldLength 項目長
+         * @return このビルダー
+         */
+        public Builder optionalNumeric(String fieldName, int fieldLength) {
+            return add(new NumericField(fieldName, offset, fieldLength, CharClass.NUMERIC_OR_SPACE, false));
+        }
+        
+        /**
+         * 符号付きの数値項目（残高等）を追加します
+         * 
+         * @param fieldName 項目名
+         * @param fieldLength 項目長
+         * @return このビルダー
+         */
+        public Builder signedNumeric(String fieldName, int fieldLength) {
+            return add(new NumericField(fieldName, offset, fieldLength, CharClass.KANA, true));
+        }
+        
+        /**
+         * 数字のコード項目（データ区分・種別コード・銀行番号・日付等）を追加します
+         * 
+         * @param fieldName 項目名
+         * @param fieldLength 項目長
+         * @return このビルダー
+         */
+        public Builder code(String fieldName, int fieldLength) {
+            return add(new TextField(fieldName, offset, fieldLength, CharClass.NUMERIC));
+        }
+        
+        /**
+         * 任意のコード項目（数字または空白）を追加します
+         * 
+         * @param fieldName 項目名
+         * @param fieldLength 項目長
+         * @return このビルダー
+         */
+        public Builder optionalCode(String fieldName, int fieldLength) {
+            return add(new TextField(fieldName, offset, fieldLength, CharClass.NUMERIC_OR_SPACE));
+        }
+        
+        /**
+         * カナ項目（銀行名・受取人名等）を追加します
+         * 
+         * @param fieldName 項目名
+         * @param fieldLength 項目長
+         * @return このビルダー
+         */
+        public Builder kana(String fieldName, int fieldLength) {
+            return add(new TextField(fieldName, offset, fieldLength, CharClass.KANA));
+        }
+        
+        /**
+         * ダミー項目（空白のみ）を追加します
+         * 
+         * @param fieldLength 項目長
+         * @return このビルダー
+         */
+        public Builder dummy(int fieldLength) {
+            dummyCount++;
+            return add(new TextField(dummyCount == 1 ? "ダミー" : "ダミー" + dummyCount, offset, fieldLength,
+                    CharClass.SPACE));
+        }
+        
+        /**
+         * レイアウトを作成します
+         * 
+         * @return レイアウト
+         * @throws IllegalStateException 項目長の合計がレコード長と一致しない場合
+         */
+        public RecordLayout build() {
+            if (offset != length) {
+                throw new IllegalStateException(name + "の項目長の合計がレコード長と一致しません: 合計=" + offset
+                        + ", レコード長=" + length);
+            }
+            return new RecordLayout(name, length, new ArrayList<>(fields));
+        }
+        
+        private Builder add(RecordField field) {
+            fields.add(field);
+            offset += field.getLength();
+            return this;
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.zengin.format.layout;
+
+/**
+ * 総合振込（種別コード21）のレコードレイアウト
+ * ヘッダ・データ・トレーラ・エンドの各レコードは120バイトです
+ * 
+ * ヘッダ・トレーラ・エンドレコードは給与・賞与振込と共通です
+ */
+public final class SogoFurikomiLayout {
+    
+    public static final String TYPE_CODE = "21"; // 種別コード
+    
+    public static final RecordLayout HEADER = RecordLayout.builder("振込ヘッダレコード", 120)
+            .code("データ区分", 1)
+            .code("種別コード", 2)
+            .code("コード区分", 1)
+            .code("依頼人コード", 10)
+            .kana("依頼人名", 40)
+            .code("取組日", 4)
+            .code("仕向銀行番号", 4)
+            .kana("仕向銀行名", 15)
+            .code("仕向支店番号", 3)
+            .kana("仕向支店名", 15)
+            .code("預金種目", 1)
+            .code("口座番号", 7)
+            .dummy(17)
+            .build();
+    
+    public static final RecordLayout DATA = RecordLayout.builder("総合振込データレコード", 120)
+            .code("データ区分", 1)
+            .code("被仕向銀行番号", 4)
+            .kana("被仕向銀行名", 15)
+            .code("被仕向支店番号", 3)
+            .kana("被仕向支店名", 15)
+            .optionalCode("手形交換所番号", 4)
+            .code("預金種目", 1)
+            .code("口座番号", 7)
+            .kana("受取人名", 30)
+            .numeric("振込金額", 10)
+            .optionalCode("新規コード", 1)
+            .kana("顧客コード1", 10)
+            .kana("顧客コード2", 10)
+            .optionalCode("振込指定区分", 1)
+            .kana("識別表示", 1)
+            .dummy(7)
+            .build();
+    
+    public static final RecordLayout TRAILER = RecordLayout.builder("振込トレーラレコード", 120)
+            .code("データ区分", 1)
+            .numeric("合計件数", 6)
+            .numeric("合計金額", 12)
+            .dummy(101)
+            .build();
+    
+    public static final RecordLayout END = RecordLayout.builder("エンドレコード", 120)
+            .code("データ区分", 1)
+            .dummy(119)
+            .build();
+    
+    // 主な項目
+    public static final TextField DATA_BANK_CODE = DATA.text("被仕向銀行番号");
+    public static final TextField DATA_BRANCH_CODE = DATA.text("被仕向支店番号");
+    public static final TextField DATA_ACCOUNT_TYPE = DATA.text("預金種目");
+    public static final TextField DATA_ACCOUNT_NUMBER = DATA.text("口座番号");
+    public static final TextField DATA_PAYEE_NAME = DATA.text("受取人名");
+    public static final NumericField DATA_AMOUNT = DATA.numeric("振込金額");
+    public static final TextField DATA_CUSTOMER_CODE1 = DATA.text("顧客コード1");
+    public static final TextField DATA_CUSTOMER_CODE2 = DATA.text("顧客コード2");
+    public static final NumericField TRAILER_TOTAL_COUNT = TRAILER.numeric("合計件数");
+    public static final NumericField TRAILER_TOTAL_AMOUNT = TRAILER.numeric("合計金額");
+    
+    private SogoFurikomiLayout() {
+    }
+} 
\ No newline at end of file
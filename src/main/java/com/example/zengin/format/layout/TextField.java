@@ -0,0 +1,57 @@
+package com.example.zengin.format.layout;
+
+import com.example.zengin.format.ZenginCharset;
+
+/**
+ * 文字項目（カナ・コード・ダミー）
+ */
+public class TextField extends RecordField {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param name 項目名
+     * @param offset 開始位置（0始まり）
+     * @param length 項目長（バイト）
+     * @param charClass 文字種
+     */
+    TextField(String name, int offset, int length, CharClass charClass) {
+        super(name, offset, length, charClass);
+    }
+    
+    /**
+     * 項目の値を取得します（後続の空白を含みます）
+     * 
+     * @param record レコード
+     * @param charset 文字コード
+     * @return 項目の値
+     */
+    public String getString(byte[] record, ZenginCharset charset) {
+        return getString(record, 0, charset);
+    }
+    
+    /**
+     * 複数レコードを連結したバイト配列から項目の値を取得します（後続の空白を含みます）
+     * 
+     * @param data バイト配列
+     * @param recordOffset レコードの開始位置
+     * @param charset 文字コード
+     * @return 項目の値
+     */
+    public String getString(byte[] data, int recordOffset, ZenginCharset charset) {
+        return charset.decode(data, recordOffset + getOffset(), getLength());
+    }
+    
+    /**
+     * 項目の値を設定します
+     * 項目長に満たない部分は空白で埋め、超える部分は切り捨てます
+     * 
+     * @param record レコード
+     * @param value 値（nullの場合は空白のみ）
+     * @param charset 文字コード
+     * @throws IllegalArgumentException 変換できない文字が含まれる場合
+     */
+    public void setString(byte[] record, CharSequence value, ZenginCharset charset) {
+        charset.encode(value, record, getOffset(), getLength());
+    }
+} 
\ No newline at end of file
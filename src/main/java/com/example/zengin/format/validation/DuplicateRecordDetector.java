@@ -0,0 +1,301 @@
+package com.example.zengin.format.validation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.example.zengin.format.layout.RecordField;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+
+/**
+ * ファイル内の重複レコードの検出クラス
+ * キー項目のバイト列から64ビットのハッシュ値を求め、ヒープ外（ダイレクトバッファ）の
+ * オープンアドレス法（線形探索）のハッシュ表に登録して、同じキー項目のレコードを検出します
+ * 
+ * ハッシュ表の1スロットは8バイト（ハッシュ値の上位32ビットとレコード位置）で、
+ * 1000万件のファイルでも約128MBをヒープ外に確保するだけのため、GCの対象になるオブジェクトを生成しません
+ * ハッシュ値が一致した場合はキー項目のバイト列を比較するため、ハッシュ値の衝突による誤検出はありません
+ * 
+ * ダイレクトバッファの解放はGCに依存するため、ハッシュ表は呼び出しごとに確保せずスレッドごとに保持し、
+ * 検出後に使用した範囲をゼロに戻して再利用します（より大きな表が必要になった場合のみ確保し直します）
+ * スレッドごとに保持するのは4MB（約39万件分）までの表で、それを超える件数の場合はヒープ上に表を確保し、
+ * 検出後はGCに解放を任せるため、大きなファイルを処理したスレッドがヒープ外のメモリを保持し続けることはありません
+ * 
+ * インスタンスは不変のため、複数スレッドで共有できます
+ */
+public final class DuplicateRecordDetector {
+    
+    private static final int MAX_DUPLICATES = 1000; // 報告する重複の上限
+    private static final int BATCH_RECORDS = 1024; // ハッシュ値をまとめて求める件数
+    private static final int CLEAR_CHUNK = 1024; // ハッシュ表をゼロに戻す際に一度に書き込むスロット数
+    private static final long MAX_TABLE_BYTES = Integer.MAX_VALUE; // ハッシュ表のバイト数の上限（ダイレクトバッファの上限）
+    static final int MAX_CAPACITY = 1 << 27; // スロット数の上限（MAX_TABLE_BYTES に収まる2のべき乗）
+    static final int MAX_RETAINED_CAPACITY = 1 << 19; // スレッドごとに保持するハッシュ表のスロット数の上限（4MB）
+    
+    private static final long[] ZEROS = new long[CLEAR_CHUNK];
+    private static final ThreadLocal<LongBuffer> TABLES = new ThreadLocal<>(); // スレッドごとのハッシュ表
+    
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    
+    private static final DuplicateRecordDetector TRANSFER_DATA = new DuplicateRecordDetector(
+            SogoFurikomiLayout.DATA_BANK_CODE,
+            SogoFurikomiLayout.DATA_BRANCH_CODE,
+            SogoFurikomiLayout.DATA_ACCOUNT_TYPE,
+            SogoFurikomiLayout.DATA_ACCOUNT_NUMBER,
+            SogoFurikomiLayout.DATA_AMOUNT,
+            SogoFurikomiLayout.DATA_CUSTOMER_CODE1,
+            SogoFurikomiLayout.DATA_CUSTOMER_CODE2);
+    
+    /**
+     * 重複レコード
+     */
+    public static class Duplicate {
+        
+        private final int recordIndex;
+        private final int firstIndex;
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param recordIndex 重複しているレコードの位置（0始まり）
+         * @param firstIndex 同じキー項目を持つ最初のレコードの位置（0始まり）
+         */
+        public Duplicate(int recordIndex, int firstIndex) {
+            this.recordIndex = recordIndex;
+            this.firstIndex = firstIndex;
+        }
+        
+        public int getRecordIndex() {
+            return recordIndex;
+        }
+        
+        public int getFirstIndex() {
+            return firstIndex;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%d件目: %d件目と同じ振込の可能性があります", recordIndex + 1, firstIndex + 1);
+        }
+    }
+    
+    private final int[] offsets; // キー項目の開始位置
+    private final int[] lengths; // キー項目の長さ
+    private final int recordLength; // キー項目を含むのに必要なレコード長
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param keyFields キー項目
+     */
+    public DuplicateRecordDetector(RecordField... keyFields) {
+        if (keyFields.length == 0) {
+            throw new IllegalArgumentException("キー項目を指定してください");
+        }
+        this.offsets = new int[keyFields.length];
+        this.lengths = new int[keyFields.length];
+        int end = 0;
+        for (int i = 0; i < keyFields.length; i++) {
+            offsets[i] = keyFields[i].getOffset();
+            lengths[i] = keyFields[i].getLength();
+            end = Math.max(end, offsets[i] + lengths[i]);
+        }
+        this.recordLength = end;
+    }
+    
+    /**
+     * 総合振込のデータレコードの検出クラスを取得します
+     * 被仕向銀行番号・被仕向支店番号・預金種目・口座番号・振込金額・顧客コード1・顧客コード2をキー項目とします
+     * 
+     * @return 検出クラス
+     */
+    public static DuplicateRecordDetector transferData() {
+        return TRANSFER_DATA;
+    }
+    
+    /**
+     * キー項目が同じレコードを検出します
+     * 2件目以降のレコードを重複として報告し、重複が上限（1000件）に達した時点で検出を終了します
+     * キー項目を含まない短いレコードは対象外です（レコード長の誤りは文字種チェックで検出します）
+     * 
+     * @param records データレコード配列
+     * @return 重複レコード（重複がない場合は空のリスト）
+     * @throws IllegalArgumentException レコード件数がハッシュ表の上限を超える場合
+     */
+    public List<Duplicate> detect(byte[][] records) {
+        if (records == null || records.length < 2) {
+            return Collections.emptyList();
+        }
+        
+        int capacity = capacityFor(records.length);
+        int mask = capacity - 1;
+        // スロット: 上位32ビットにハッシュ値の上位32ビット、下位32ビットにレコード位置 + 1（0は空き）
+        // 先頭の capacity スロットのみを使用し、すべてのスロットが空きの状態で始まります
+        if (capacity > MAX_RETAINED_CAPACITY) {
+            return detect(records, LongBuffer.wrap(new long[capacity]), mask);
+        }
+        LongBuffer table = acquireTable(capacity);
+        try {
+            return detect(records, table, mask);
+        } finally {
+            clearTable(table, capacity);
+        }
+    }
+    
+    /**
+     * ハッシュ表を使用してキー項目が同じレコードを検出します
+     * 
+     * @param records データレコード配列
+     * @param table ハッシュ表（先頭の mask + 1 スロットが空き）
+     * @param mask スロット位置のマスク
+     * @return 重複レコード
+     */
+    private List<Duplicate> detect(byte[][] records, LongBuffer table, int mask) {
+        // ハッシュ値の計算とハッシュ表の探索を交互に行うとキャッシュミスの待ちが重ならないため、
+        // 一定件数ごとにハッシュ値をまとめて求めてから探索します
+        long[] hashes = new long[BATCH_RECORDS];
+        List<Duplicate> duplicates = new ArrayList<>();
+        for (int from = 0; from < records.length && duplicates.size() < MAX_DUPLICATES; from += BATCH_RECORDS) {
+            int to = Math.min(from + BATCH_RECORDS, records.length);
+            for (int i = from; i < to; i++) {
+                if (isTarget(records[i])) {
+                    hashes[i - from] = hash(records[i]);
+                }
+            }
+            for (int i = from; i < to && duplicates.size() < MAX_DUPLICATES; i++) {
+                if (!isTarget(records[i])) {
+                    continue;
+                }
+                long hash = hashes[i - from];
+                long tag = hash & 0xFFFFFFFF00000000L;
+                int slot = (int) hash & mask;
+                while (true) {
+                    long entry = table.get(slot);
+                    if (entry == 0) {
+                        table.put(slot, tag | (i + 1L));
+                        break;
+                    }
+                    if ((entry & 0xFFFFFFFF00000000L) == tag) {
+                        int first = (int) entry - 1;
+                        if (sameKey(records[first], records[i])) {
+                            duplicates.add(new Duplicate(i, first));
+                            break;
+                        }
+                    }
+                    slot = (slot + 1) & mask;
+                }
+            }
+        }
+        return duplicates;
+    }
+    
+    /**
+     * 件数に対するハッシュ表のスロット数（2のべき乗、負荷率75%以下）を求めます
+     */
+    static int capacityFor(int recordCount) {
+        long required = Math.max(16L, recordCount + (recordCount + 2L) / 3);
+        long capacity = Long.highestOneBit(required - 1) << 1;
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("重複チェックのレコード件数が上限を超えています: " + recordCount + "件");
+        }
+        return (int) capacity;
+    }
+    
+    /**
+     * スロット数に対するハッシュ表のバイト数を求めます
+     * 
+     * @param capacity スロット数
+     * @return バイト数
+     * @throws IllegalArgumentException バイト数がダイレクトバッファの上限を超える場合
+     */
+    static long tableBytes(int capacity) {
+        long bytes = (long) capacity * Long.BYTES;
+        if (bytes > MAX_TABLE_BYTES) {
+            throw new IllegalArgumentException("重複チェックのハッシュ表が上限を超えています: " + bytes + "バイト");
+        }
+        return bytes;
+    }
+    
+    /**
+     * 現在のスレッドのハッシュ表を取得します
+     * 保持している表のスロット数が足りない場合は確保し直します（allocateDirect はゼロで初期化されます）
+     * 
+     * @param capacity 必要なスロット数（MAX_RETAINED_CAPACITY 以下）
+     * @return 先頭の capacity スロットが空きのハッシュ表
+     */
+    private static LongBuffer acquireTable(int capacity) {
+        LongBuffer table = TABLES.get();
+        if (table == null || table.capacity() < capacity) {
+            table = ByteBuffer.allocateDirect((int) tableBytes(capacity)).order(ByteOrder.nativeOrder()).asLongBuffer();
+            TABLES.set(table);
+        }
+        return table;
+    }
+    
+    /**
+     * 現在のスレッドが保持しているハッシュ表のスロット数を取得します
+     * 
+     * @return スロット数（保持していない場合は0）
+     */
+    static int retainedCapacity() {
+        LongBuffer table = TABLES.get();
+        return table == null ? 0 : table.capacity();
+    }
+    
+    /**
+     * ハッシュ表の先頭の capacity スロットを空きに戻します
+     * 
+     * @param table ハッシュ表
+     * @param capacity 使用したスロット数
+     */
+    private static void clearTable(LongBuffer table, int capacity) {
+        for (int from = 0; from < capacity; from += CLEAR_CHUNK) {
+            table.put(from, ZEROS, 0, Math.min(CLEAR_CHUNK, capacity - from));
+        }
+    }
+    
+    /**
+     * キー項目のバイト列のハッシュ値を求めます
+     * 8バイトずつ long として読み取って混ぜ合わせ、最後にビットを拡散します
+     */
+    private long hash(byte[] record) {
+        long h = 0;
+        for (int f = 0; f < offsets.length; f++) {
+            int i = offsets[f];
+            int end = i + lengths[f];
+            for (; i + Long.BYTES <= end; i += Long.BYTES) {
+                h = (h ^ (long) LONG_VIEW.get(record, i)) * 0x9E3779B97F4A7C15L;
+            }
+            for (; i < end; i++) {
+                h = (h ^ (record[i] & 0xFF)) * 0x9E3779B97F4A7C15L;
+            }
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    private boolean isTarget(byte[] record) {
+        return record != null && record.length >= recordLength;
+    }
+    
+    private boolean sameKey(byte[] a, byte[] b) {
+        for (int f = 0; f < offsets.length; f++) {
+            int from = offsets[f];
+            int to = from + lengths[f];
+            if (!Arrays.equals(a, from, to, b, from, to)) {
+                return false;
+            }
+        }
+        return true;
+    }
+} 
\ No newline at end of file
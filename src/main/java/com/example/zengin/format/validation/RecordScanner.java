@@ -0,0 +1,17 @@
+package com.example.zengin.format.validation;
+
+/**
+ * データレコードの文字種チェックの実装
+ * 不正な文字を含むレコードを先頭から探します（エラーの詳細は呼び出し側で1レコードずつ調べます）
+ */
+interface RecordScanner {
+    
+    /**
+     * 不正な文字を含むレコード、またはレコード長が不正なレコードを探します
+     * 
+     * @param records データレコード配列
+     * @param from 検索開始位置
+     * @return 最初に見つかったレコードの位置（見つからない場合は-1）
+     */
+    int nextInvalid(byte[][] records, int from);
+} 
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.example.zengin.format.validation;
+
+/**
+ * データレコードの文字種チェックのスカラー実装
+ * 桁位置ごとの許可文字表を1バイトずつ参照します
+ */
+class ScalarRecordScanner implements RecordScanner {
+    
+    private final boolean[][] allowedAt; // 桁位置 -> バイト値 -> 許可する場合はtrue
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param allowedAt 桁位置ごとの許可文字表
+     */
+    ScalarRecordScanner(boolean[][] allowedAt) {
+        this.allowedAt = allowedAt;
+    }
+    
+    @Override
+    public int nextInvalid(byte[][] records, int from) {
+        for (int i = from; i < records.length; i++) {
+            byte[] record = records[i];
+            if (record == null || record.length != allowedAt.length) {
+                return i;
+            }
+            for (int pos = 0; pos < record.length; pos++) {
+                if (!allowedAt[pos][record[pos] & 0xFF]) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+} 
\ No newline at end of file
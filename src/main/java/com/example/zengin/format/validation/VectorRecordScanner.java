@@ -0,0 +1,207 @@
+package com.example.zengin.format.validation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * データレコードの文字種チェックの Vector API 実装
+ * レコードをベクトル長ごとに読み込み、全レーンの文字種を一度に判定します
+ * 
+ * 文字種の判定はバイト値の上位・下位4ビットそれぞれで16要素の表を引き、その論理積で行います
+ * 許可文字の集合を「上位4ビットの集合 × 下位4ビットの集合」の組（成分）に分解し、成分ごとに1ビットを割り当てます
+ * 成分が8個を超える場合は2組（16成分）まで表を分けて引き、結果の論理和をとります
+ * 各レーンで許可する成分のビットは桁位置ごとにあらかじめ求めておきます
+ */
+class VectorRecordScanner implements RecordScanner {
+    
+    private final VectorSpecies<Byte> species;
+    private final int recordLength;
+    private final int[] offsets; // ベクトルの読み込み位置（最後はレコード末尾に合わせて前と重ねる）
+    private final ByteVector[] hiTables; // 組ごとの上位4ビットの表
+    private final ByteVector[] loTables; // 組ごとの下位4ビットの表
+    private final ByteVector[][] allowedBits; // 読み込み位置 -> 組 -> レーンごとに許可する成分のビット
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param allowedAt 桁位置ごとの許可文字表
+     * @throws IllegalArgumentException レコード長がベクトル長より短い場合、表引きに必要なベクトル長がない場合、
+     *         または成分が16個を超える場合
+     */
+    VectorRecordScanner(boolean[][] allowedAt) {
+        this.species = preferredSpecies();
+        this.recordLength = allowedAt.length;
+        int length = species.length();
+        if (length < 16 || recordLength < length) {
+            throw new IllegalArgumentException("ベクトル長が適合しません: ベクトル長=" + length + ", レコード長=" + recordLength);
+        }
+        
+        // 読み込み位置
+        int chunks = (recordLength + length - 1) / length;
+        this.offsets = new int[chunks];
+        for (int k = 0; k < chunks; k++) {
+            offsets[k] = Math.min(k * length, recordLength - length);
+        }
+        
+        // 許可文字の集合を成分に分解
+        List<int[]> components = new ArrayList<>(); // {上位4ビットの集合, 下位4ビットの集合}
+        List<boolean[]> sets = new ArrayList<>();
+        List<List<Integer>> setComponents = new ArrayList<>();
+        int[] setAt = new int[recordLength];
+        for (int pos = 0; pos < recordLength; pos++) {
+            int index = indexOf(sets, allowedAt[pos]);
+            if (index < 0) {
+                index = sets.size();
+                sets.add(allowedAt[pos]);
+                setComponents.add(decompose(allowedAt[pos], components));
+            }
+            setAt[pos] = index;
+        }
+        
+        // 成分を8個ずつの組に分けて表を作成
+        int groups = Math.max(1, (components.size() + 7) / 8);
+        if (groups > 2) {
+            throw new IllegalArgumentException("許可文字の成分が多すぎます: " + components.size());
+        }
+        this.hiTables = new ByteVector[groups];
+        this.loTables = new ByteVector[groups];
+        byte[][] bitsAt = new byte[groups][recordLength];
+        for (int g = 0; g < groups; g++) {
+            byte[] hi = new byte[length];
+            byte[] lo = new byte[length];
+            for (int c = g * 8; c < Math.min(components.size(), g * 8 + 8); c++) {
+                int bit = 1 << (c - g * 8);
+                for (int lane = 0; lane < length; lane++) {
+                    int nibble = lane & 0x0F; // 表は16要素をベクトル長まで繰り返す
+                    if ((components.get(c)[0] & (1 << nibble)) != 0) {
+                        hi[lane] |= bit;
+                    }
+                    if ((components.get(c)[1] & (1 << nibble)) != 0) {
+                        lo[lane] |= bit;
+                    }
+                }
+            }
+            hiTables[g] = ByteVector.fromArray(species, hi, 0);
+            loTables[g] = ByteVector.fromArray(species, lo, 0);
+            
+            for (int pos = 0; pos < recordLength; pos++) {
+                for (int c : setComponents.get(setAt[pos])) {
+                    if (c / 8 == g) {
+                        bitsAt[g][pos] |= 1 << (c % 8);
+                    }
+                }
+            }
+        }
+        
+        this.allowedBits = new ByteVector[chunks][groups];
+        for (int k = 0; k < chunks; k++) {
+            for (int g = 0; g < groups; g++) {
+                allowedBits[k][g] = ByteVector.fromArray(species, bitsAt[g], offsets[k]);
+            }
+        }
+    }
+    
+    @Override
+    public int nextInvalid(byte[][] records, int from) {
+        for (int i = from; i < records.length; i++) {
+            byte[] record = records[i];
+            if (record == null || record.length != recordLength) {
+                return i;
+            }
+            
+            VectorMask<Byte> invalid = species.maskAll(false);
+            for (int k = 0; k < offsets.length; k++) {
+                ByteVector v = ByteVector.fromArray(species, record, offsets[k]);
+                ByteVector hi = v.lanewise(VectorOperators.LSHR, 4);
+                ByteVector lo = v.and((byte) 0x0F);
+                ByteVector bits = hi.selectFrom(hiTables[0]).and(lo.selectFrom(loTables[0])).and(allowedBits[k][0]);
+                if (hiTables.length > 1) {
+                    // ループで組を回すとベクトルがボックス化されるため、2組目は個別に判定する
+                    bits = bits.or(hi.selectFrom(hiTables[1]).and(lo.selectFrom(loTables[1])).and(allowedBits[k][1]));
+                }
+                invalid = invalid.or(bits.compare(VectorOperators.EQ, (byte) 0));
+            }
+            if (invalid.anyTrue()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * 使用するベクトル長を取得します
+     * 
+     * @return ベクトル長（バイト）
+     */
+    int vectorLength() {
+        return species.length();
+    }
+    
+    /**
+     * 使用するベクトルの種類を決定します
+     * 512ビットのバイト単位の表引きは一部のCPUでしか命令化されないため、256ビットを上限とします
+     */
+    private static VectorSpecies<Byte> preferredSpecies() {
+        VectorSpecies<Byte> preferred = ByteVector.SPECIES_PREFERRED;
+        return preferred.length() > ByteVector.SPECIES_256.length() ? ByteVector.SPECIES_256 : preferred;
+    }
+    
+    /**
+     * 許可文字の集合を成分に分解します
+     * 上位4ビットが同じバイト値を行とみなし、下位4ビットの集合が等しい行をまとめて1成分とします
+     * 
+     * @param allowed 許可文字表
+     * @param components 全集合の成分（新しい成分は追加されます）
+     * @return この集合の成分の番号
+     */
+    private static List<Integer> decompose(boolean[] allowed, List<int[]> components) {
+        int[] rowsByColumns = new int[1 << 16]; // 下位4ビットの集合 -> 上位4ビットの集合
+        for (int hi = 0; hi < 16; hi++) {
+            int columns = 0;
+            for (int lo = 0; lo < 16; lo++) {
+                if (allowed[(hi << 4) | lo]) {
+                    columns |= 1 << lo;
+                }
+            }
+            if (columns != 0) {
+                rowsByColumns[columns] |= 1 << hi;
+            }
+        }
+        
+        List<Integer> result = new ArrayList<>();
+        for (int columns = 1; columns < rowsByColumns.length; columns++) {
+            if (rowsByColumns[columns] == 0) {
+                continue;
+            }
+            int[] component = { rowsByColumns[columns], columns };
+            int index = -1;
+            for (int c = 0; c < components.size(); c++) {
+                if (Arrays.equals(components.get(c), component)) {
+                    index = c;
+                    break;
+                }
+            }
+            if (index < 0) {
+                index = components.size();
+                components.add(component);
+            }
+            result.add(index);
+        }
+        return result;
+    }
+    
+    private static int indexOf(List<boolean[]> sets, boolean[] set) {
+        for (int i = 0; i < sets.size(); i++) {
+            if (Arrays.equals(sets.get(i), set)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+} 
\ No newline at end of file
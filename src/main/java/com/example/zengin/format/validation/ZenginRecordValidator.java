@@ -0,0 +1,205 @@
+package com.example.zengin.format.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.zengin.format.ZenginCharset;
+import com.example.zengin.format.layout.CharClass;
+import com.example.zengin.format.layout.RecordField;
+import com.example.zengin.format.layout.RecordLayout;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+
+/**
+ * 全銀データレコードの文字種チェッククラス
+ * レコードレイアウトの各項目の文字種に従い、数字項目が数字のみであること、カナ項目が全銀で使用できる文字のみであること、予備領域が空白であることを
+ * 送信前に検証し、エラーのあるレコードと項目を報告します
+ * 
+ * JVMに jdk.incubator.vector モジュールが追加されている場合（--add-modules jdk.incubator.vector）は
+ * Vector API で複数桁を一度に判定し、追加されていない場合は1バイトずつ判定します
+ * いずれの場合もエラーのあるレコードのみ1バイトずつ調べ直して項目を特定します
+ * 
+ * インスタンスは不変のため、複数スレッドで共有できます
+ */
+public class ZenginRecordValidator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ZenginRecordValidator.class);
+    
+    private static final int MAX_ERRORS = 1000; // 報告するエラーの上限
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    
+    /**
+     * 検証エラー
+     */
+    public static class ValidationError {
+        
+        private final int recordIndex;
+        private final String fieldName;
+        private final int position;
+        private final int value;
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param recordIndex レコードの位置（0始まり）
+         * @param fieldName 項目名（レコード長の誤りの場合はnull）
+         * @param position レコード内の位置（0始まり、レコード長の誤りの場合は実際のレコード長）
+         * @param value 不正なバイト値（レコード長の誤りの場合は-1）
+         */
+        public ValidationError(int recordIndex, String fieldName, int position, int value) {
+            this.recordIndex = recordIndex;
+            this.fieldName = fieldName;
+            this.position = position;
+            this.value = value;
+        }
+        
+        public int getRecordIndex() {
+            return recordIndex;
+        }
+        
+        public String getFieldName() {
+            return fieldName;
+        }
+        
+        public int getPosition() {
+            return position;
+        }
+        
+        public int getValue() {
+            return value;
+        }
+        
+        @Override
+        public String toString() {
+            if (fieldName == null) {
+                return String.format("%d件目: レコード長が不正です（%dバイト）", recordIndex + 1, position);
+            }
+            return String.format("%d件目: %s（%d桁目）に使用できない文字があります（0x%02X）",
+                    recordIndex + 1, fieldName, position + 1, value);
+        }
+    }
+    
+    private static final boolean VECTOR_AVAILABLE = ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+    private static final Map<ZenginCharset, ZenginRecordValidator> TRANSFER_DATA_VALIDATORS = new EnumMap<>(ZenginCharset.class);
+    
+    static {
+        for (ZenginCharset charset : ZenginCharset.values()) {
+            TRANSFER_DATA_VALIDATORS.put(charset,
+                    new ZenginRecordValidator(charset, SogoFurikomiLayout.DATA, VECTOR_AVAILABLE));
+        }
+    }
+    
+    private final RecordField[] fieldAt; // 桁位置 -> 項目
+    private final boolean[][] allowedAt; // 桁位置 -> バイト値 -> 許可する場合はtrue
+    private final RecordScanner scanner;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param charset 文字コード
+     * @param layout レコードレイアウト
+     * @param vectorEnabled Vector API を使用する場合はtrue（使用できない場合は1バイトずつ判定します）
+     */
+    public ZenginRecordValidator(ZenginCharset charset, RecordLayout layout, boolean vectorEnabled) {
+        String decoded = charset.decode(allBytes());
+        Map<CharClass, boolean[]> classTables = new EnumMap<>(CharClass.class);
+        for (CharClass charClass : CharClass.values()) {
+            boolean[] table = new boolean[256];
+            for (int b = 0; b < 256; b++) {
+                table[b] = charClass.contains(decoded.charAt(b));
+            }
+            classTables.put(charClass, table);
+        }
+        
+        this.fieldAt = new RecordField[layout.getLength()];
+        this.allowedAt = new boolean[layout.getLength()][];
+        for (RecordField field : layout.getFields()) {
+            for (int pos = field.getOffset(); pos < field.getOffset() + field.getLength(); pos++) {
+                fieldAt[pos] = field;
+                allowedAt[pos] = classTables.get(field.getCharClass());
+            }
+        }
+        
+        this.scanner = createScanner(allowedAt, vectorEnabled && VECTOR_AVAILABLE);
+    }
+    
+    /**
+     * 総合振込のデータレコードの検証クラスを取得します
+     * 
+     * @param charset 文字コード
+     * @return 検証クラス
+     */
+    public static ZenginRecordValidator transferData(ZenginCharset charset) {
+        return TRANSFER_DATA_VALIDATORS.get(charset);
+    }
+    
+    /**
+     * データレコードを検証します
+     * エラーが上限（1000件）に達した時点で検証を終了します
+     * 
+     * @param records データレコード配列
+     * @return 検証エラー（エラーがない場合は空のリスト）
+     */
+    public List<ValidationError> validate(byte[][] records) {
+        if (records == null) {
+            return Collections.emptyList();
+        }
+        
+        List<ValidationError> errors = new ArrayList<>();
+        int index = scanner.nextInvalid(records, 0);
+        while (index >= 0 && errors.size() < MAX_ERRORS) {
+            collectErrors(index, records[index], errors);
+            index = scanner.nextInvalid(records, index + 1);
+        }
+        return errors.size() > MAX_ERRORS ? errors.subList(0, MAX_ERRORS) : errors;
+    }
+    
+    /**
+     * Vector API で判定するかを取得します
+     * 
+     * @return Vector API で判定する場合はtrue
+     */
+    public boolean isVectorized() {
+        return scanner instanceof VectorRecordScanner;
+    }
+    
+    /**
+     * 1レコードのエラーを1バイトずつ調べます
+     */
+    private void collectErrors(int index, byte[] record, List<ValidationError> errors) {
+        if (record == null || record.length != allowedAt.length) {
+            errors.add(new ValidationError(index, null, record == null ? 0 : record.length, -1));
+            return;
+        }
+        for (int pos = 0; pos < record.length; pos++) {
+            int value = record[pos] & 0xFF;
+            if (!allowedAt[pos][value]) {
+                errors.add(new ValidationError(index, fieldAt[pos].getName(), pos, value));
+            }
+        }
+    }
+    
+    private static RecordScanner createScanner(boolean[][] allowedAt, boolean vectorEnabled) {
+        if (vectorEnabled) {
+            try {
+                return new VectorRecordScanner(allowedAt);
+            } catch (IllegalArgumentException | LinkageError e) {
+                logger.debug("Vector API を使用できないため1バイトずつ判定します: {}", e.toString());
+            }
+        }
+        return new ScalarRecordScanner(allowedAt);
+    }
+    
+    private static byte[] allBytes() {
+        byte[] bytes = new byte[256];
+        for (int b = 0; b < 256; b++) {
+            bytes[b] = (byte) b;
+        }
+        return bytes;
+    }
+} 
\ No newline at end of file
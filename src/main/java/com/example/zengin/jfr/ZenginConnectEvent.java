@@ -0,0 +1,27 @@
+package com.example.zengin.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 全銀TCP/IP接続の確立（TLSハンドシェイク、ENQ/ACKを含む）を表すJFRイベント
+ */
+@Name("com.example.zengin.Connect")
+@Label("Zengin Connect")
+@Description("全銀TCP/IP接続の確立（TLSハンドシェイク、ENQ/ACKを含む）")
+public class ZenginConnectEvent extends ZenginEvent {
+    
+    @Label("Host")
+    public String host;
+    
+    @Label("Port")
+    public int port;
+    
+    @Label("TLS")
+    public boolean tls;
+    
+    @Label("Handshake Nanos")
+    @Description("TLSハンドシェイクの所要時間（ナノ秒、非TLS接続の場合は0）")
+    public long handshakeNanos;
+} 
\ No newline at end of file
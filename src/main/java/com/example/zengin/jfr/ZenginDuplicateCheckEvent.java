@@ -0,0 +1,17 @@
+package com.example.zengin.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 重複メッセージチェックを表すJFRイベント
+ */
+@Name("com.example.zengin.DuplicateCheck")
+@Label("Zengin Duplicate Check")
+@Description("重複メッセージチェック")
+public class ZenginDuplicateCheckEvent extends ZenginEvent {
+    
+    @Label("Duplicate")
+    public boolean duplicate;
+} 
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.example.zengin.jfr;
+
+import com.example.zengin.format.ZenginMessage.MessageType;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * 全銀通信のJFRイベントの基底クラス
+ * 全てのイベントにファイルID・受信者ID・電文種別を記録し、
+ * 同一のJFR記録上でGC停止やソケット待ちと電文単位の処理を突き合わせられるようにします
+ * 
+ * 電文種別は enum を記録できないため電文種別名の文字列として記録します
+ */
+@Category({ "Zengin" })
+@StackTrace(false)
+public abstract class ZenginEvent extends Event {
+    
+    @Label("File ID")
+    @Description("ファイルID")
+    String fileId;
+    
+    @Label("Receiver ID")
+    @Description("受信者ID（銀行ID）")
+    String receiverId;
+    
+    @Label("Message Type")
+    @Description("電文種別")
+    String messageType;
+    
+    /**
+     * 電文の識別情報を設定します
+     * 
+     * @param fileId ファイルID
+     * @param receiverId 受信者ID
+     * @param messageType 電文種別（不明な場合はnull）
+     */
+    public void setMessage(String fileId, String receiverId, MessageType messageType) {
+        this.fileId = fileId;
+        this.receiverId = receiverId;
+        this.messageType = messageType == null ? null : messageType.name();
+    }
+    
+    /**
+     * 未設定の識別情報のみを設定します
+     * 
+     * @param fileId ファイルID
+     * @param receiverId 受信者ID
+     * @param messageType 電文種別
+     */
+    void setMessageIfAbsent(String fileId, String receiverId, MessageType messageType) {
+        if (this.fileId == null) {
+            this.fileId = fileId;
+        }
+        if (this.receiverId == null) {
+            this.receiverId = receiverId;
+        }
+        if (this.messageType == null && messageType != null) {
+            this.messageType = messageType.name();
+        }
+    }
+} 
\ No newline at end of file
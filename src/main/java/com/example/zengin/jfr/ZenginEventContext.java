@@ -0,0 +1,75 @@
+package com.example.zengin.jfr;
+
+import com.example.zengin.format.ZenginMessage;
+
+/**
+ * JFRイベントに記録する電文の識別情報をスレッドごとに保持するクラス
+ * プロトコル層は送受信する電文の内容を解釈しないため、
+ * 全銀通信サービスが処理中の電文をここに設定し、接続・フレーム送受信のイベントに引き継ぎます
+ */
+public final class ZenginEventContext {
+    
+    private static final ThreadLocal<ZenginMessage> CURRENT = new ThreadLocal<>();
+    
+    private ZenginEventContext() {
+        // インスタンス化不可
+    }
+    
+    /**
+     * 現在のスレッドで処理中の電文を設定します
+     * 
+     * @param message 処理中の電文
+     */
+    public static void set(ZenginMessage message) {
+        CURRENT.set(message);
+    }
+    
+    /**
+     * 現在のスレッドで処理中の電文の受信者IDを取得します
+     * 銀行ごとの応答時間の集計にも使用します
+     * 
+     * @return 受信者ID（処理中の電文がない場合はnull）
+     */
+    public static String currentReceiverId() {
+        ZenginMessage message = CURRENT.get();
+        return message == null ? null : message.getReceiverId();
+    }
+    
+    /**
+     * 現在のスレッドで処理中の電文を解除します
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+    
+    /**
+     * イベントを終了し、記録対象の場合は処理中の電文の識別情報を補完して記録します
+     * イベントに設定済みの項目は上書きせず、処理中の電文がない場合（常駐受信など）はそのまま記録します
+     * 
+     * @param event 記録するイベント
+     */
+    public static void commit(ZenginEvent event) {
+        event.end();
+        if (event.shouldCommit()) {
+            ZenginMessage message = CURRENT.get();
+            if (message != null) {
+                event.setMessageIfAbsent(message.getFileId(), message.getReceiverId(), message.getMessageType());
+            }
+            event.commit();
+        }
+    }
+    
+    /**
+     * イベントを終了し、記録対象の場合は指定した電文の識別情報を設定して記録します
+     * 
+     * @param event 記録するイベント
+     * @param message 電文
+     */
+    public static void commit(ZenginEvent event, ZenginMessage message) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setMessage(message.getFileId(), message.getReceiverId(), message.getMessageType());
+            event.commit();
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.zengin.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * データ受信（STXからETXまで、ACK送信を含む）を表すJFRイベント
+ * 着信待ちの時間を含みます
+ */
+@Name("com.example.zengin.FrameReceive")
+@Label("Zengin Frame Receive")
+@Description("データ受信（着信待ちとACK送信を含む）")
+public class ZenginFrameReceiveEvent extends ZenginEvent {
+    
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+} 
\ No newline at end of file
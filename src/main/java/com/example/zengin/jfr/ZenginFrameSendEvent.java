@@ -0,0 +1,24 @@
+package com.example.zengin.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * データ送信（ACK受信まで）を表すJFRイベント
+ * ブロック転送の場合は全ブロックの確認応答受信までを1件として記録します
+ */
+@Name("com.example.zengin.FrameSend")
+@Label("Zengin Frame Send")
+@Description("データ送信（ACK受信まで）")
+public class ZenginFrameSendEvent extends ZenginEvent {
+    
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+    
+    @Label("Blocks")
+    @Description("送信ブロック数（ブロック転送でない場合は1）")
+    public int blocks;
+} 
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.example.zengin.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 整合性情報の生成・検証を表すJFRイベント
+ */
+@Name("com.example.zengin.Integrity")
+@Label("Zengin Integrity")
+@Description("整合性情報の生成（ハッシュ計算・保存）または検証")
+public class ZenginIntegrityEvent extends ZenginEvent {
+    
+    public static final String GENERATE = "generate";
+    public static final String VERIFY = "verify";
+    
+    @Label("Operation")
+    @Description("処理（generate: 生成、verify: 検証）")
+    public String operation;
+    
+    @Label("Verified")
+    @Description("検証に成功した場合はtrue（生成の場合は常にtrue）")
+    public boolean verified;
+} 
\ No newline at end of file
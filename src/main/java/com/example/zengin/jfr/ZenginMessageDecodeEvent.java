@@ -0,0 +1,22 @@
+package com.example.zengin.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * バイト配列からの電文の解析を表すJFRイベント
+ */
+@Name("com.example.zengin.MessageDecode")
+@Label("Zengin Message Decode")
+@Description("バイト配列からの電文の解析")
+public class ZenginMessageDecodeEvent extends ZenginEvent {
+    
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+    
+    @Label("Record Count")
+    public int recordCount;
+} 
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.zengin.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 電文のバイト配列への変換を表すJFRイベント
+ */
+@Name("com.example.zengin.MessageEncode")
+@Label("Zengin Message Encode")
+@Description("電文のバイト配列への変換")
+public class ZenginMessageEncodeEvent extends ZenginEvent {
+    
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+    
+    @Label("Record Count")
+    public int recordCount;
+} 
\ No newline at end of file
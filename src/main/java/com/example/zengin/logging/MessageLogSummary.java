@@ -0,0 +1,152 @@
+package com.example.zengin.logging;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.zengin.format.ZenginMessage.MessageType;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 電文送受信ログの集約クラス
+ * 電文ごとのINFOログの代わりに、電文種別ごとの送受信件数・バイト数・失敗件数を集計し、
+ * 一定間隔ごとに1行のサマリとして出力します（電文ごとの詳細はDEBUGレベルで出力されます）
+ * 
+ * 出力は記録時に間隔の経過を判定して行うため、専用のスレッドは使用しません
+ */
+@Component
+public class MessageLogSummary {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MessageLogSummary.class);
+    
+    @Value("${zengin.logging.summary-interval-seconds:60}")
+    private long intervalSeconds = 60; // サマリの出力間隔
+    
+    private final Map<MessageType, Counts> sent = new EnumMap<>(MessageType.class);
+    private final Map<MessageType, Counts> received = new EnumMap<>(MessageType.class);
+    private final Map<MessageType, LongAdder> failures = new EnumMap<>(MessageType.class);
+    private final AtomicLong lastSummaryNanos = new AtomicLong(System.nanoTime());
+    
+    /**
+     * コンストラクタ
+     */
+    public MessageLogSummary() {
+        for (MessageType messageType : MessageType.values()) {
+            sent.put(messageType, new Counts());
+            received.put(messageType, new Counts());
+            failures.put(messageType, new LongAdder());
+        }
+    }
+    
+    /**
+     * 電文の送信を記録します
+     * 
+     * @param messageType 電文種別
+     * @param bytes 電文長（バイト）
+     */
+    public void recordSent(MessageType messageType, int bytes) {
+        sent.get(messageType).add(bytes);
+        logIfDue(System.nanoTime());
+    }
+    
+    /**
+     * 電文の受信を記録します
+     * 
+     * @param messageType 電文種別
+     * @param bytes 電文長（バイト）
+     */
+    public void recordReceived(MessageType messageType, int bytes) {
+        received.get(messageType).add(bytes);
+        logIfDue(System.nanoTime());
+    }
+    
+    /**
+     * 送受信の失敗を記録します
+     * 
+     * @param messageType 電文種別
+     */
+    public void recordFailure(MessageType messageType) {
+        failures.get(messageType).increment();
+        logIfDue(System.nanoTime());
+    }
+    
+    /**
+     * 前回の出力から出力間隔が経過していればサマリを出力します
+     * 同時に複数のスレッドが判定した場合は1スレッドのみが出力します
+     * 
+     * @param nowNanos 現在時刻（System.nanoTime()）
+     */
+    void logIfDue(long nowNanos) {
+        long last = lastSummaryNanos.get();
+        if (nowNanos - last >= TimeUnit.SECONDS.toNanos(intervalSeconds)
+                && lastSummaryNanos.compareAndSet(last, nowNanos)) {
+            flush();
+        }
+    }
+    
+    /**
+     * 集計中の件数をサマリとして出力し、集計をリセットします
+     * 集計期間中に送受信がない場合は出力しません
+     * 
+     * @return 出力したサマリ（出力しなかった場合はnull）
+     */
+    @PreDestroy
+    public String flush() {
+        StringBuilder summary = new StringBuilder();
+        for (MessageType messageType : MessageType.values()) {
+            appendCounts(summary, "送信", messageType, sent.get(messageType));
+            appendCounts(summary, "受信", messageType, received.get(messageType));
+            long failureCount = failures.get(messageType).sumThenReset();
+            if (failureCount > 0) {
+                summary.append(" 失敗[").append(messageType).append("]=").append(failureCount).append("件");
+            }
+        }
+        if (summary.length() == 0) {
+            return null;
+        }
+        
+        String line = "電文送受信サマリ:" + summary;
+        logger.info(line);
+        return line;
+    }
+    
+    private static void appendCounts(StringBuilder summary, String direction, MessageType messageType, Counts counts) {
+        long messages = counts.messages.sumThenReset();
+        long bytes = counts.bytes.sumThenReset();
+        if (messages > 0) {
+            summary.append(' ').append(direction).append('[').append(messageType).append("]=")
+                    .append(messages).append("件/").append(bytes).append("バイト");
+        }
+    }
+    
+    /**
+     * 出力間隔を設定します
+     * 
+     * @param intervalSeconds 出力間隔（秒）
+     */
+    public void setIntervalSeconds(long intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+    }
+    
+    /**
+     * 電文種別ごとの件数とバイト数
+     */
+    private static class Counts {
+        
+        private final LongAdder messages = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        
+        void add(int length) {
+            messages.increment();
+            bytes.add(length);
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,228 @@
+package com.example.zengin.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 全銀通信の応答時間ヒストグラム
+ * ENQ/ACK、フレーム送信からACKまで、照会の往復、受信フレームの組み立ての所要時間を
+ * 銀行ごとに HdrHistogram で記録し、終了時にパーセンタイル値（p50/p90/p99/p99.9/最大）とスループットを出力します
+ * 
+ * 定期出力を有効にすると、一定間隔ごとの区間ヒストグラムを HdrHistogram のログ形式でファイルに出力します
+ * 出力したログは HistogramLogProcessor 等で複数ノード分を結合して集計できます
+ * 
+ * 値はマイクロ秒単位で記録します
+ */
+@Component
+public class ZenginLatencyHistograms {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ZenginLatencyHistograms.class);
+    
+    private static final int SIGNIFICANT_DIGITS = 3; // 有効桁数
+    
+    /**
+     * 計測対象の処理
+     */
+    public enum Operation {
+        ENQ_ACK, // 接続要求（ENQ）送信からACK受信まで
+        FRAME_ACK, // フレーム（ブロック）送信からACK受信まで
+        INQUIRY_ROUND_TRIP, // 照会電文の送信開始から応答電文の受信まで
+        RECEIVE_ASSEMBLY // 受信フレームの組み立て（STX受信からETX受信まで）
+    }
+    
+    @Value("${zengin.histogram.log.enabled:false}")
+    private boolean logEnabled;
+    
+    @Value("${zengin.histogram.log.path:logs/zengin-latency.hlog}")
+    private String logPath = "logs/zengin-latency.hlog";
+    
+    @Value("${zengin.histogram.log.interval-seconds:60}")
+    private long logIntervalSeconds = 60;
+    
+    private final Map<Operation, Map<String, LatencyRecorder>> recorders = new EnumMap<>(Operation.class);
+    private final long startTimeMillis = System.currentTimeMillis();
+    private long lastDrainMillis = startTimeMillis;
+    private ScheduledExecutorService executor;
+    private HistogramLogWriter logWriter;
+    
+    /**
+     * コンストラクタ
+     */
+    public ZenginLatencyHistograms() {
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new ConcurrentHashMap<>());
+        }
+    }
+    
+    /**
+     * 定期出力が有効な場合はログファイルを開き、区間ヒストグラムの出力を開始します
+     * 
+     * @throws IOException ログファイルを作成できない場合
+     */
+    @PostConstruct
+    public synchronized void start() throws IOException {
+        if (!logEnabled) {
+            return;
+        }
+        
+        File file = new File(logPath);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        logWriter = new HistogramLogWriter(file);
+        logWriter.outputComment("[Node: " + InetAddress.getLocalHost().getHostName() + "]");
+        logWriter.outputLogFormatVersion();
+        logWriter.outputStartTime(startTimeMillis);
+        logWriter.setBaseTime(startTimeMillis);
+        logWriter.outputLegend();
+        
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "zengin-histogram-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::drain, logIntervalSeconds, logIntervalSeconds, TimeUnit.SECONDS);
+        
+        logger.info("応答時間ヒストグラムの定期出力を開始しました: 出力先={}, 間隔={}秒", file.getAbsolutePath(), logIntervalSeconds);
+    }
+    
+    /**
+     * 定期出力を停止し、実行全体の集計結果を出力します
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        
+        String summary = summary();
+        if (!summary.isEmpty()) {
+            logger.info("応答時間の集計結果:\n{}", summary);
+        }
+        
+        if (logWriter != null) {
+            logWriter.close();
+            logWriter = null;
+        }
+    }
+    
+    /**
+     * 所要時間を記録します
+     * 
+     * @param operation 計測対象の処理
+     * @param bank 銀行（受信者ID、不明な場合は接続先ホスト）
+     * @param nanos 所要時間（ナノ秒）
+     */
+    public void record(Operation operation, String bank, long nanos) {
+        Map<String, LatencyRecorder> bankRecorders = recorders.get(operation);
+        LatencyRecorder latencyRecorder = bankRecorders.get(bank);
+        if (latencyRecorder == null) {
+            latencyRecorder = bankRecorders.computeIfAbsent(bank, key -> new LatencyRecorder(operation, key));
+        }
+        latencyRecorder.recorder.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+    
+    /**
+     * 記録中の値を実行全体のヒストグラムに集約します
+     * 定期出力が有効な場合は区間ヒストグラムをログファイルに出力します
+     */
+    synchronized void drain() {
+        long now = System.currentTimeMillis();
+        for (Map<String, LatencyRecorder> bankRecorders : recorders.values()) {
+            for (LatencyRecorder latencyRecorder : bankRecorders.values()) {
+                Histogram interval = latencyRecorder.recorder.getIntervalHistogram();
+                if (interval.getTotalCount() == 0) {
+                    continue;
+                }
+                interval.setStartTimeStamp(lastDrainMillis);
+                interval.setEndTimeStamp(now);
+                interval.setTag(latencyRecorder.tag);
+                latencyRecorder.total.add(interval);
+                
+                if (logWriter != null) {
+                    logWriter.outputIntervalHistogram(interval);
+                }
+            }
+        }
+        lastDrainMillis = now;
+    }
+    
+    /**
+     * 実行開始からの集計結果を取得します
+     * 処理・銀行ごとに件数、パーセンタイル値（ミリ秒）、スループット（件/秒）を1行ずつ出力します
+     * 
+     * @return 集計結果（記録がない場合は空文字列）
+     */
+    public synchronized String summary() {
+        drain();
+        double elapsedSeconds = Math.max(1, System.currentTimeMillis() - startTimeMillis) / 1000.0;
+        
+        StringBuilder summary = new StringBuilder();
+        for (Map<String, LatencyRecorder> bankRecorders : recorders.values()) {
+            for (LatencyRecorder latencyRecorder : bankRecorders.values()) {
+                Histogram total = latencyRecorder.total;
+                if (total.getTotalCount() == 0) {
+                    continue;
+                }
+                summary.append(String.format("%s count=%d p50=%.3fms p90=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms throughput=%.1f/s%n",
+                        latencyRecorder.tag, total.getTotalCount(),
+                        toMillis(total.getValueAtPercentile(50)), toMillis(total.getValueAtPercentile(90)),
+                        toMillis(total.getValueAtPercentile(99)), toMillis(total.getValueAtPercentile(99.9)),
+                        toMillis(total.getMaxValue()), total.getTotalCount() / elapsedSeconds));
+            }
+        }
+        return summary.toString();
+    }
+    
+    /**
+     * 実行開始からのヒストグラムを取得します
+     * 
+     * @param operation 計測対象の処理
+     * @param bank 銀行
+     * @return ヒストグラムの複製（マイクロ秒単位、記録がない場合はnull）
+     */
+    public synchronized Histogram getHistogram(Operation operation, String bank) {
+        drain();
+        LatencyRecorder latencyRecorder = recorders.get(operation).get(bank);
+        return latencyRecorder == null ? null : latencyRecorder.total.copy();
+    }
+    
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+    
+    /**
+     * 処理・銀行ごとの記録先
+     * 記録は Recorder に対してロックなしで行い、集約時に区間ヒストグラムとして取り出します
+     */
+    private static class LatencyRecorder {
+        
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+        private final String tag;
+        
+        LatencyRecorder(Operation operation, String bank) {
+            // ログ形式のタグにはカンマと空白を使用できない
+            this.tag = operation + ":" + bank.replaceAll("[,\\s]", "_");
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,385 @@
+package com.example.zengin.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.zengin.buffer.FrameBufferPool;
+import com.example.zengin.buffer.ReceiveBufferBudget;
+import com.example.zengin.communication.ZenginCommunicationException;
+import com.example.zengin.format.ZenginMessage.MessageType;
+import com.example.zengin.metrics.ZenginLatencyHistograms.Operation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * 全銀通信のメトリクス記録クラス
+ * 接続・送受信・整合性チェックの所要時間と件数を Micrometer に記録します
+ * 記録したメトリクスは Actuator の metrics / prometheus エンドポイントおよびJMXで参照できます
+ * 
+ * 送受信のメーターは電文種別・銀行IDごとに生成後キャッシュし、電文ごとのメーター検索を避けます
+ * 裾の応答時間の分析用に、ENQ/ACK・フレーム送信・照会往復・受信フレーム組み立ての時間は
+ * 銀行ごとの HdrHistogram（ZenginLatencyHistograms）にも記録します
+ * 
+ * フレーム送受信のバッファプール（FrameBufferPool）の取得件数と未解放数、受信データのメモリ予算（ReceiveBufferBudget）の
+ * 予約量と一時ファイルへの書き出し件数は、それぞれの集計値を参照するメーターとして公開します
+ */
+@Component
+public class ZenginMetrics {
+    
+    // メーター名
+    public static final String CONNECT = "zengin.connect";
+    public static final String ENQ_ACK = "zengin.enq.ack";
+    public static final String SEND = "zengin.send";
+    public static final String SEND_BYTES = "zengin.send.bytes";
+    public static final String RECEIVE = "zengin.receive";
+    public static final String RECEIVE_BYTES = "zengin.receive.bytes";
+    public static final String NAK = "zengin.nak";
+    public static final String ERRORS = "zengin.errors";
+    public static final String INTEGRITY_HASH = "zengin.integrity.hash";
+    public static final String INTEGRITY_DUPLICATE = "zengin.integrity.duplicate";
+    public static final String INTEGRITY_SAVE = "zengin.integrity.save";
+    public static final String BUFFER_POOL_ACQUIRE = "zengin.buffer.pool.acquire";
+    public static final String BUFFER_POOL_OUTSTANDING = "zengin.buffer.pool.outstanding";
+    public static final String RECEIVE_BUFFER_RESERVED = "zengin.receive.buffer.reserved";
+    public static final String RECEIVE_SPILL = "zengin.receive.spill";
+    public static final String RECEIVE_SPILL_BYTES = "zengin.receive.spill.bytes";
+    
+    // タグ名
+    private static final String TAG_TYPE = "type";
+    private static final String TAG_BANK = "bank";
+    private static final String UNKNOWN_BANK = "unknown";
+    
+    private final MeterRegistry registry;
+    private final ZenginLatencyHistograms histograms; // 記録しない場合はnull
+    
+    // 電文種別・銀行IDごとの送受信メーター
+    private final Map<MessageType, Map<String, TransferMeters>> sendMeters = new EnumMap<>(MessageType.class);
+    private final Map<MessageType, Map<String, TransferMeters>> receiveMeters = new EnumMap<>(MessageType.class);
+    
+    private final Timer enqAckTimer;
+    private final Timer hashTimer;
+    private final Timer saveTimer;
+    private final Counter duplicateHits;
+    private final Counter duplicateMisses;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param registry メーターレジストリ
+     */
+    public ZenginMetrics(MeterRegistry registry) {
+        this(registry, null);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param registry メーターレジストリ
+     * @param histograms 応答時間ヒストグラム（記録しない場合はnull）
+     */
+    public ZenginMetrics(MeterRegistry registry, ZenginLatencyHistograms histograms) {
+        this(registry, histograms, null);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param registry メーターレジストリ
+     * @param histograms 応答時間ヒストグラム（記録しない場合はnull）
+     * @param bufferPool フレーム送受信のバッファプール（公開しない場合はnull）
+     */
+    public ZenginMetrics(MeterRegistry registry, ZenginLatencyHistograms histograms, FrameBufferPool bufferPool) {
+        this(registry, histograms, bufferPool, null);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param registry メーターレジストリ
+     * @param histograms 応答時間ヒストグラム（記録しない場合はnull）
+     * @param bufferPool フレーム送受信のバッファプール（公開しない場合はnull）
+     * @param receiveBudget 受信データのメモリ予算（公開しない場合はnull）
+     */
+    @Autowired
+    public ZenginMetrics(MeterRegistry registry, ZenginLatencyHistograms histograms, FrameBufferPool bufferPool,
+            ReceiveBufferBudget receiveBudget) {
+        this.registry = registry;
+        this.histograms = histograms;
+        for (MessageType messageType : MessageType.values()) {
+            sendMeters.put(messageType, new ConcurrentHashMap<>());
+            receiveMeters.put(messageType, new ConcurrentHashMap<>());
+        }
+        
+        this.enqAckTimer = Timer.builder(ENQ_ACK)
+                .description("接続要求（ENQ）送信からACK受信までの時間")
+                .register(registry);
+        this.hashTimer = Timer.builder(INTEGRITY_HASH)
+                .description("電文ハッシュ値の計算時間")
+                .register(registry);
+        this.saveTimer = Timer.builder(INTEGRITY_SAVE)
+                .description("整合性情報の保存時間")
+                .register(registry);
+        this.duplicateHits = Counter.builder(INTEGRITY_DUPLICATE)
+                .description("重複メッセージチェックの件数")
+                .tag("result", "hit")
+                .register(registry);
+        this.duplicateMisses = Counter.builder(INTEGRITY_DUPLICATE)
+                .description("重複メッセージチェックの件数")
+                .tag("result", "miss")
+                .register(registry);
+        
+        if (bufferPool != null) {
+            bindBufferPool(bufferPool);
+        }
+        if (receiveBudget != null) {
+            bindReceiveBudget(receiveBudget);
+        }
+    }
+    
+    /**
+     * バッファプールの取得件数（取得元ごと）と未解放のバッファ数をメーターとして公開します
+     * キャッシュからの取得（thread-cache, shared）と新規確保（allocate）の比率がプールのヒット率になります
+     * 
+     * @param bufferPool バッファプール
+     */
+    private void bindBufferPool(FrameBufferPool bufferPool) {
+        bindBufferPoolCounter(bufferPool, "thread-cache", FrameBufferPool::getThreadCacheHits);
+        bindBufferPoolCounter(bufferPool, "shared", FrameBufferPool::getSharedCacheHits);
+        bindBufferPoolCounter(bufferPool, "allocate", FrameBufferPool::getAllocations);
+        bindBufferPoolCounter(bufferPool, "unpooled", FrameBufferPool::getUnpooledAllocations);
+        Gauge.builder(BUFFER_POOL_OUTSTANDING, bufferPool, FrameBufferPool::getOutstanding)
+                .description("取得済みで解放されていないバッファ数")
+                .register(registry);
+    }
+    
+    private void bindBufferPoolCounter(FrameBufferPool bufferPool, String result, ToDoubleFunction<FrameBufferPool> count) {
+        FunctionCounter.builder(BUFFER_POOL_ACQUIRE, bufferPool, count)
+                .description("フレーム送受信のバッファの取得件数")
+                .tag("result", result)
+                .register(registry);
+    }
+    
+    /**
+     * 受信データのメモリ予算の予約量と、一時ファイルに書き出したフレーム数・バイト数をメーターとして公開します
+     * 
+     * @param receiveBudget メモリ予算
+     */
+    private void bindReceiveBudget(ReceiveBufferBudget receiveBudget) {
+        Gauge.builder(RECEIVE_BUFFER_RESERVED, receiveBudget, ReceiveBufferBudget::getReserved)
+                .description("受信データをヒープに保持するために予約中のバイト数")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder(RECEIVE_SPILL, receiveBudget, ReceiveBufferBudget::getSpills)
+                .description("閾値・メモリ予算を超えたため一時ファイルに書き出した受信フレーム数")
+                .register(registry);
+        FunctionCounter.builder(RECEIVE_SPILL_BYTES, receiveBudget, ReceiveBufferBudget::getSpilledBytes)
+                .description("一時ファイルに書き出した受信データのバイト数")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+    
+    /**
+     * どこにも公開しないメトリクスを生成します
+     * Spring管理外で生成したセッションやテストで使用します
+     * 
+     * @return メトリクス
+     */
+    public static ZenginMetrics noop() {
+        return new ZenginMetrics(new CompositeMeterRegistry());
+    }
+    
+    /**
+     * 接続確立（TLSハンドシェイク、ENQ/ACKを含む）の所要時間を記録します
+     * 
+     * @param host 接続先ホスト
+     * @param tls TLS接続の場合はtrue
+     * @param nanos 所要時間（ナノ秒）
+     */
+    public void recordConnect(String host, boolean tls, long nanos) {
+        Timer.builder(CONNECT)
+                .description("全銀TCP/IP接続の確立時間")
+                .tag("host", host)
+                .tag("tls", String.valueOf(tls))
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * 接続要求（ENQ）送信からACK受信までの時間を記録します
+     * 
+     * @param bank 銀行（受信者ID、不明な場合は接続先ホスト）
+     * @param nanos 所要時間（ナノ秒）
+     */
+    public void recordEnqAck(String bank, long nanos) {
+        enqAckTimer.record(nanos, TimeUnit.NANOSECONDS);
+        recordLatency(Operation.ENQ_ACK, bank, nanos);
+    }
+    
+    /**
+     * フレーム（ブロック転送の場合はブロック）の送信からACK受信までの時間を記録します
+     * 
+     * @param bank 銀行（受信者ID、不明な場合は接続先ホスト）
+     * @param nanos 所要時間（ナノ秒）
+     */
+    public void recordFrameAck(String bank, long nanos) {
+        recordLatency(Operation.FRAME_ACK, bank, nanos);
+    }
+    
+    /**
+     * 受信フレームの組み立て（STX受信からETX受信まで）の時間を記録します
+     * 
+     * @param bank 銀行（受信者ID、不明な場合は接続先ホスト）
+     * @param nanos 所要時間（ナノ秒）
+     */
+    public void recordFrameAssembly(String bank, long nanos) {
+        recordLatency(Operation.RECEIVE_ASSEMBLY, bank, nanos);
+    }
+    
+    /**
+     * 照会電文の送信開始から応答電文の受信までの時間を記録します
+     * 
+     * @param receiverId 受信者ID（銀行ID）
+     * @param nanos 所要時間（ナノ秒）
+     */
+    public void recordInquiryRoundTrip(String receiverId, long nanos) {
+        recordLatency(Operation.INQUIRY_ROUND_TRIP, receiverId, nanos);
+    }
+    
+    /**
+     * 電文の送信（ACK受信まで）を記録します
+     * 
+     * @param messageType 電文種別
+     * @param receiverId 受信者ID（銀行ID）
+     * @param bytes 電文長（バイト）
+     * @param nanos 所要時間（ナノ秒）
+     */
+    public void recordSend(MessageType messageType, String receiverId, int bytes, long nanos) {
+        sendMeters(messageType, receiverId).record(bytes, nanos);
+    }
+    
+    /**
+     * 電文の受信を記録します
+     * 
+     * @param messageType 電文種別
+     * @param senderId 送信者ID（銀行ID）
+     * @param bytes 電文長（バイト）
+     * @param nanos 所要時間（ナノ秒）
+     */
+    public void recordReceive(MessageType messageType, String senderId, int bytes, long nanos) {
+        receiveMeters(messageType, senderId).record(bytes, nanos);
+    }
+    
+    /**
+     * NAKの受信を記録します
+     * 
+     * @param phase 受信した処理（connect, data, block）
+     */
+    public void recordNak(String phase) {
+        Counter.builder(NAK)
+                .description("NAK（否定応答）の受信件数")
+                .tag("phase", phase)
+                .register(registry)
+                .increment();
+    }
+    
+    /**
+     * エラーを記録します
+     * 例外の原因をたどり、最も具体的なエラーコードで集計します
+     * 
+     * @param cause 発生した例外
+     */
+    public void recordError(Throwable cause) {
+        Counter.builder(ERRORS)
+                .description("全銀通信エラーの発生件数")
+                .tag("code", ZenginCommunicationException.findErrorCode(cause))
+                .register(registry)
+                .increment();
+    }
+    
+    /**
+     * 電文ハッシュ値の計算時間を記録します
+     * 
+     * @param nanos 所要時間（ナノ秒）
+     */
+    public void recordIntegrityHash(long nanos) {
+        hashTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * 重複メッセージチェックの結果を記録します
+     * 
+     * @param duplicate 重複していた場合はtrue
+     */
+    public void recordDuplicateCheck(boolean duplicate) {
+        (duplicate ? duplicateHits : duplicateMisses).increment();
+    }
+    
+    /**
+     * 整合性情報の保存時間を記録します
+     * 
+     * @param nanos 所要時間（ナノ秒）
+     */
+    public void recordIntegritySave(long nanos) {
+        saveTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    private TransferMeters sendMeters(MessageType messageType, String receiverId) {
+        return sendMeters.get(messageType).computeIfAbsent(bankTag(receiverId),
+                bank -> new TransferMeters(SEND, SEND_BYTES, "電文の送信（ACK受信まで）", messageType, bank));
+    }
+    
+    private TransferMeters receiveMeters(MessageType messageType, String senderId) {
+        return receiveMeters.get(messageType).computeIfAbsent(bankTag(senderId),
+                bank -> new TransferMeters(RECEIVE, RECEIVE_BYTES, "電文の受信", messageType, bank));
+    }
+    
+    private void recordLatency(Operation operation, String bank, long nanos) {
+        if (histograms != null) {
+            histograms.record(operation, bankTag(bank), nanos);
+        }
+    }
+    
+    private static String bankTag(String bankId) {
+        return bankId == null || bankId.isEmpty() ? UNKNOWN_BANK : bankId;
+    }
+    
+    /**
+     * 電文種別・銀行IDごとの所要時間と電文長のメーター
+     */
+    private class TransferMeters {
+        
+        private final Timer timer;
+        private final DistributionSummary bytes;
+        
+        TransferMeters(String timerName, String bytesName, String description, MessageType messageType, String bank) {
+            this.timer = Timer.builder(timerName)
+                    .description(description + "の所要時間")
+                    .tag(TAG_TYPE, messageType.name())
+                    .tag(TAG_BANK, bank)
+                    .register(registry);
+            this.bytes = DistributionSummary.builder(bytesName)
+                    .description(description + "の電文長")
+                    .baseUnit("bytes")
+                    .tag(TAG_TYPE, messageType.name())
+                    .tag(TAG_BANK, bank)
+                    .register(registry);
+        }
+        
+        void record(int length, long nanos) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            bytes.record(length);
+        }
+    }
+} 
\ No newline at end of file
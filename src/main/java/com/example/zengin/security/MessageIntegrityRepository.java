@@ -4,10 +4,14 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * メッセージ整合性情報を管理するリポジトリインターフェース
@@ -24,6 +28,43 @@ public interface MessageIntegrityRepository extends JpaRepository<MessageIntegri
      */
     Optional<MessageIntegrityInfo> findByMessageId(String messageId);
     
+    /**
+     * 整合性情報を挿入します
+     * 主キー（メッセージID）が既に存在する場合は DataIntegrityViolationException になります
+     * 一意制約の違反で呼び出し元のトランザクションがロールバック対象にならないよう、別のトランザクションで実行します
+     * 
+     * @param messageId メッセージID
+     * @param hashValue ハッシュ値
+     * @param recordCount レコード件数
+     * @param totalAmount 合計金額
+     * @param createdAt 作成日時
+     * @return 挿入した件数
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "INSERT INTO message_integrity_info "
+            + "(message_id, hash_value, record_count, total_amount, created_at, verified) "
+            + "VALUES (:messageId, :hashValue, :recordCount, :totalAmount, :createdAt, FALSE)", nativeQuery = true)
+    int insert(@Param("messageId") String messageId, @Param("hashValue") String hashValue,
+            @Param("recordCount") int recordCount, @Param("totalAmount") long totalAmount,
+            @Param("createdAt") LocalDateTime createdAt);
+    
+    /**
+     * 同じメッセージIDの整合性情報が存在しない場合のみ挿入します
+     * 存在の確認と登録を1回の挿入で行うため、複数のスレッド・JVMが同時に登録しても1件のみ成功します
+     * 
+     * @param info 挿入する整合性情報
+     * @return 挿入した場合はtrue、既に存在する場合はfalse
+     */
+    default boolean insertIfAbsent(MessageIntegrityInfo info) {
+        try {
+            return insert(info.getMessageId(), info.getHashValue(), info.getRecordCount(), info.getTotalAmount(),
+                    info.getCreatedAt()) == 1;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+    
     /**
      * 指定した日時以降の整合性情報を取得します
      * 
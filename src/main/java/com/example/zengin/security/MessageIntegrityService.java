@@ -1,16 +1,25 @@
 package com.example.zengin.security;
 
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.zengin.communication.ZenginCommunicationException;
+import com.example.zengin.format.ZenginCharset;
 import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.layout.NumericField;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+import com.example.zengin.jfr.ZenginDuplicateCheckEvent;
+import com.example.zengin.jfr.ZenginEventContext;
+import com.example.zengin.jfr.ZenginIntegrityEvent;
+import com.example.zengin.metrics.ZenginMetrics;
 
 /**
  * メッセージ整合性チェックサービス
@@ -20,11 +29,10 @@ import com.example.zengin.format.ZenginMessage;
 @Transactional
 public class MessageIntegrityService {
     
-    private static final Logger logger = Logger.getLogger(MessageIntegrityService.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(MessageIntegrityService.class);
     
-    // 全銀フォーマットの金額フィールド位置（仮の値、実際のフォーマットに合わせて調整が必要）
-    private static final int AMOUNT_FIELD_START_POS = 30;
-    private static final int AMOUNT_FIELD_LENGTH = 12;
+    // 合計金額の計算対象（総合振込データレコードの振込金額）
+    private static final NumericField AMOUNT_FIELD = SogoFurikomiLayout.DATA_AMOUNT;
     
     @Autowired
     private MessageIntegrityUtil integrityUtil;
@@ -32,6 +40,9 @@ public class MessageIntegrityService {
     @Autowired
     private MessageIntegrityRepository integrityRepository;
     
+    @Autowired(required = false)
+    private ZenginMetrics metrics = ZenginMetrics.noop();
+    
     /**
      * メッセージの整合性情報を生成し、保存します
      * 
@@ -40,12 +51,16 @@ public class MessageIntegrityService {
      * @throws ZenginCommunicationException 整合性情報の生成に失敗した場合
      */
     public MessageIntegrityInfo generateAndSaveIntegrityInfo(ZenginMessage message) throws ZenginCommunicationException {
+        ZenginIntegrityEvent event = new ZenginIntegrityEvent();
+        event.begin();
         try {
             // メッセージのバイト配列を取得
             byte[] messageData = message.toByteArray();
             
             // ハッシュ値を計算
+            long hashStartNanos = System.nanoTime();
             String hashValue = integrityUtil.calculateHash(messageData);
+            metrics.recordIntegrityHash(System.nanoTime() - hashStartNanos);
             
             // レコード件数を計算
             int recordCount = integrityUtil.calculateRecordCount(message.getDataRecords());
@@ -53,33 +68,91 @@ public class MessageIntegrityService {
             // 合計金額を計算
             long totalAmount = integrityUtil.calculateTotalAmount(
                     message.getDataRecords(), 
-                    AMOUNT_FIELD_START_POS, 
-                    AMOUNT_FIELD_LENGTH
-            );
-            
-            // メッセージIDを生成（ファイルIDを使用）
-            String messageId = message.getFileId();
-            
-            // 整合性情報を生成
-            MessageIntegrityInfo integrityInfo = new MessageIntegrityInfo(
-                    messageId, 
-                    hashValue, 
-                    recordCount, 
-                    totalAmount
+                    AMOUNT_FIELD, 
+                    message.getCharset()
             );
             
-            // 整合性情報を保存
-            integrityRepository.save(integrityInfo);
-            
-            logger.info("メッセージ整合性情報を生成しました: " + integrityInfo);
-            return integrityInfo;
+            return saveIntegrityInfo(message, hashValue, recordCount, totalAmount, event);
             
         } catch (NoSuchAlgorithmException e) {
-            logger.log(Level.SEVERE, "ハッシュ計算中にエラーが発生しました", e);
+            logger.error("ハッシュ計算中にエラーが発生しました", e);
+            throw new ZenginCommunicationException("メッセージ整合性情報の生成に失敗しました: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 受信しながら解析した電文のハッシュ値を計算するダイジェストを作成します
+     * 受信データをすべて加えた後、件数・合計金額とともに saveIntegrityInfo で保存します
+     * 
+     * @return ダイジェスト
+     * @throws ZenginCommunicationException ハッシュアルゴリズムが存在しない場合
+     */
+    public MessageDigest createDigest() throws ZenginCommunicationException {
+        try {
+            return integrityUtil.createDigest();
+        } catch (NoSuchAlgorithmException e) {
+            logger.error("ハッシュ計算中にエラーが発生しました", e);
             throw new ZenginCommunicationException("メッセージ整合性情報の生成に失敗しました: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * 整合性情報の合計金額に加えるデータレコード1件の金額を取得します
+     * 
+     * @param record データレコード
+     * @param charset 文字コード
+     * @return 金額（数値でない場合は0）
+     */
+    public long calculateAmount(byte[] record, ZenginCharset charset) {
+        return integrityUtil.calculateAmount(record, AMOUNT_FIELD, charset);
+    }
+    
+    /**
+     * 受信しながら集計した整合性情報を保存します
+     * generateAndSaveIntegrityInfo で電文全体から生成する場合と同じ値になります
+     * 
+     * @param message ヘッダレコードを設定した電文
+     * @param digest createDigest で作成し、受信データをすべて加えたダイジェスト
+     * @param recordCount データレコード件数
+     * @param totalAmount 合計金額
+     * @return 保存した整合性情報
+     */
+    public MessageIntegrityInfo saveIntegrityInfo(ZenginMessage message, MessageDigest digest, int recordCount,
+            long totalAmount) {
+        ZenginIntegrityEvent event = new ZenginIntegrityEvent();
+        event.begin();
+        long hashStartNanos = System.nanoTime();
+        String hashValue = integrityUtil.toHash(digest);
+        metrics.recordIntegrityHash(System.nanoTime() - hashStartNanos);
+        return saveIntegrityInfo(message, hashValue, recordCount, totalAmount, event);
+    }
+    
+    private MessageIntegrityInfo saveIntegrityInfo(ZenginMessage message, String hashValue, int recordCount,
+            long totalAmount, ZenginIntegrityEvent event) {
+        // メッセージIDを生成（ファイルIDを使用）
+        String messageId = message.getFileId();
+        
+        // 整合性情報を生成
+        MessageIntegrityInfo integrityInfo = new MessageIntegrityInfo(
+                messageId, 
+                hashValue, 
+                recordCount, 
+                totalAmount
+        );
+        
+        // 整合性情報を保存
+        long saveStartNanos = System.nanoTime();
+        integrityRepository.save(integrityInfo);
+        metrics.recordIntegritySave(System.nanoTime() - saveStartNanos);
+        
+        event.operation = ZenginIntegrityEvent.GENERATE;
+        event.verified = true;
+        ZenginEventContext.commit(event, message);
+        
+        logger.debug("メッセージ整合性情報を生成しました: {}", integrityInfo);
+        return integrityInfo;
+    }
+    
     /**
      * メッセージの整合性を検証します
      * 
@@ -88,6 +161,9 @@ public class MessageIntegrityService {
      * @throws ZenginCommunicationException 検証中にエラーが発生した場合
      */
     public boolean verifyMessageIntegrity(ZenginMessage message) throws ZenginCommunicationException {
+        ZenginIntegrityEvent event = new ZenginIntegrityEvent();
+        event.begin();
+        event.operation = ZenginIntegrityEvent.VERIFY;
         try {
             // メッセージIDを取得
             String messageId = message.getFileId();
@@ -96,7 +172,8 @@ public class MessageIntegrityService {
             Optional<MessageIntegrityInfo> savedInfoOpt = integrityRepository.findById(messageId);
             
             if (!savedInfoOpt.isPresent()) {
-                logger.warning("メッセージID " + messageId + " の整合性情報が見つかりません");
+                logger.warn("メッセージID {} の整合性情報が見つかりません", messageId);
+                ZenginEventContext.commit(event, message);
                 return false;
             }
             
@@ -109,7 +186,8 @@ public class MessageIntegrityService {
             boolean hashVerified = integrityUtil.verifyHash(messageData, savedInfo.getHashValue());
             
             if (!hashVerified) {
-                logger.warning("メッセージID " + messageId + " のハッシュ値が一致しません");
+                logger.warn("メッセージID {} のハッシュ値が一致しません", messageId);
+                ZenginEventContext.commit(event, message);
                 return false;
             }
             
@@ -118,22 +196,24 @@ public class MessageIntegrityService {
             boolean recordCountVerified = (actualRecordCount == savedInfo.getRecordCount());
             
             if (!recordCountVerified) {
-                logger.warning("メッセージID " + messageId + " のレコード件数が一致しません: " + 
-                        "期待値=" + savedInfo.getRecordCount() + ", 実際=" + actualRecordCount);
+                logger.warn("メッセージID {} のレコード件数が一致しません: 期待値={}, 実際={}",
+                        messageId, savedInfo.getRecordCount(), actualRecordCount);
+                ZenginEventContext.commit(event, message);
                 return false;
             }
             
             // 合計金額を検証
             long actualTotalAmount = integrityUtil.calculateTotalAmount(
                     message.getDataRecords(), 
-                    AMOUNT_FIELD_START_POS, 
-                    AMOUNT_FIELD_LENGTH
+                    AMOUNT_FIELD, 
+                    message.getCharset()
             );
             boolean totalAmountVerified = (actualTotalAmount == savedInfo.getTotalAmount());
             
             if (!totalAmountVerified) {
-                logger.warning("メッセージID " + messageId + " の合計金額が一致しません: " + 
-                        "期待値=" + savedInfo.getTotalAmount() + ", 実際=" + actualTotalAmount);
+                logger.warn("メッセージID {} の合計金額が一致しません: 期待値={}, 実際={}",
+                        messageId, savedInfo.getTotalAmount(), actualTotalAmount);
+                ZenginEventContext.commit(event, message);
                 return false;
             }
             
@@ -141,11 +221,14 @@ public class MessageIntegrityService {
             savedInfo.setVerified(true);
             integrityRepository.save(savedInfo);
             
-            logger.info("メッセージID " + messageId + " の整合性検証に成功しました");
+            event.verified = true;
+            ZenginEventContext.commit(event, message);
+            
+            logger.debug("メッセージID {} の整合性検証に成功しました", messageId);
             return true;
             
         } catch (NoSuchAlgorithmException e) {
-            logger.log(Level.SEVERE, "ハッシュ検証中にエラーが発生しました", e);
+            logger.error("ハッシュ検証中にエラーが発生しました", e);
             throw new ZenginCommunicationException("メッセージ整合性検証に失敗しました: " + e.getMessage(), e);
         }
     }
@@ -165,16 +248,16 @@ public class MessageIntegrityService {
         // 実際の合計金額を計算
         long actualTotalAmount = integrityUtil.calculateTotalAmount(
                 message.getDataRecords(), 
-                AMOUNT_FIELD_START_POS, 
-                AMOUNT_FIELD_LENGTH
+                AMOUNT_FIELD, 
+                message.getCharset()
         );
         
         // レコード件数を検証
         boolean recordCountVerified = (actualRecordCount == expectedRecordCount);
         
         if (!recordCountVerified) {
-            logger.warning("トレーラレコードのレコード件数が一致しません: " + 
-                    "期待値=" + expectedRecordCount + ", 実際=" + actualRecordCount);
+            logger.warn("トレーラレコードのレコード件数が一致しません: 期待値={}, 実際={}",
+                    expectedRecordCount, actualRecordCount);
             return false;
         }
         
@@ -182,29 +265,67 @@ public class MessageIntegrityService {
         boolean totalAmountVerified = (actualTotalAmount == expectedTotalAmount);
         
         if (!totalAmountVerified) {
-            logger.warning("トレーラレコードの合計金額が一致しません: " + 
-                    "期待値=" + expectedTotalAmount + ", 実際=" + actualTotalAmount);
+            logger.warn("トレーラレコードの合計金額が一致しません: 期待値={}, 実際={}",
+                    expectedTotalAmount, actualTotalAmount);
             return false;
         }
         
-        logger.info("トレーラレコードの整合性検証に成功しました");
+        logger.debug("トレーラレコードの整合性検証に成功しました");
         return true;
     }
     
     /**
      * メッセージIDの重複をチェックします
+     * 確認のみで登録はしないため、受信処理の重複判定には claimMessage を使用してください
      * 
      * @param messageId チェックするメッセージID
      * @return 重複している場合はtrue、それ以外はfalse
      */
     public boolean isDuplicateMessage(String messageId) {
+        ZenginDuplicateCheckEvent event = new ZenginDuplicateCheckEvent();
+        event.begin();
         boolean exists = integrityRepository.existsById(messageId);
-        
-        if (exists) {
-            logger.warning("メッセージID " + messageId + " は既に処理されています");
-            return true;
+        recordDuplicateCheck(event, messageId, exists);
+        return exists;
+    }
+    
+    /**
+     * メッセージIDを処理中として登録します（重複チェックと登録を1回の挿入で行います）
+     * 同じメッセージを複数のスレッド・JVMで同時に受信しても、登録できるのは1つのみのため、ロックなしで受信処理を並列化できます
+     * 登録後は generateAndSaveIntegrityInfo または saveIntegrityInfo で整合性情報を更新し、
+     * 整合性情報を保存する前に受信処理が失敗した場合は releaseMessage で登録を取り消してください
+     * 
+     * @param messageId 登録するメッセージID
+     * @return 登録した場合はtrue、既に登録されている（重複している）場合はfalse
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean claimMessage(String messageId) {
+        ZenginDuplicateCheckEvent event = new ZenginDuplicateCheckEvent();
+        event.begin();
+        boolean claimed = integrityRepository.insertIfAbsent(new MessageIntegrityInfo(messageId, "", 0, 0));
+        recordDuplicateCheck(event, messageId, !claimed);
+        return claimed;
+    }
+    
+    /**
+     * claimMessage による登録を取り消します
+     * 
+     * @param messageId 取り消すメッセージID
+     */
+    public void releaseMessage(String messageId) {
+        if (integrityRepository.deleteByMessageId(messageId)) {
+            logger.debug("メッセージID {} の登録を取り消しました", messageId);
         }
+    }
+    
+    private void recordDuplicateCheck(ZenginDuplicateCheckEvent event, String messageId, boolean duplicate) {
+        metrics.recordDuplicateCheck(duplicate);
+        event.duplicate = duplicate;
+        event.setMessage(messageId, null, null);
+        ZenginEventContext.commit(event);
         
-        return false;
+        if (duplicate) {
+            logger.warn("メッセージID {} は既に処理されています", messageId);
+        }
     }
 } 
\ No newline at end of file
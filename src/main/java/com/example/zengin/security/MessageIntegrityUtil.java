@@ -8,6 +8,9 @@ import java.util.HexFormat;
 
 import org.springframework.stereotype.Component;
 
+import com.example.zengin.format.ZenginCharset;
+import com.example.zengin.format.layout.NumericField;
+
 /**
  * メッセージの整合性チェックを行うユーティリティクラス
  * ハッシュ値の計算や検証機能を提供します
@@ -36,6 +39,26 @@ public class MessageIntegrityUtil {
         return bytesToHex(hashBytes);
     }
     
+    /**
+     * 受信しながらハッシュ値を計算するダイジェストを作成します
+     * 
+     * @return ダイジェスト
+     * @throws NoSuchAlgorithmException ハッシュアルゴリズムが存在しない場合
+     */
+    public MessageDigest createDigest() throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance(HASH_ALGORITHM);
+    }
+    
+    /**
+     * ダイジェストに加えたデータのハッシュ値を取得します
+     * 
+     * @param digest createDigest で作成したダイジェスト
+     * @return ハッシュ値（16進数文字列）
+     */
+    public String toHash(MessageDigest digest) {
+        return bytesToHex(digest.digest());
+    }
+    
     /**
      * データのハッシュ値を計算し、期待されるハッシュ値と比較します
      * 
@@ -115,4 +138,46 @@ public class MessageIntegrityUtil {
         
         return totalAmount;
     }
+    
+    /**
+     * データレコードのレイアウトの金額項目から合計金額を計算します
+     * 金額が数値でないレコードはスキップします
+     * 
+     * @param dataRecords データレコード配列
+     * @param amountField 金額項目
+     * @param charset 文字コード
+     * @return 合計金額
+     */
+    public long calculateTotalAmount(byte[][] dataRecords, NumericField amountField, ZenginCharset charset) {
+        if (dataRecords == null || dataRecords.length == 0) {
+            return 0;
+        }
+        
+        long totalAmount = 0;
+        for (byte[] record : dataRecords) {
+            totalAmount += calculateAmount(record, amountField, charset);
+        }
+        
+        return totalAmount;
+    }
+    
+    /**
+     * データレコード1件の金額を取得します
+     * 
+     * @param record データレコード
+     * @param amountField 金額項目
+     * @param charset 文字コード
+     * @return 金額（金額フィールドがない、または数値でない場合は0）
+     */
+    public long calculateAmount(byte[] record, NumericField amountField, ZenginCharset charset) {
+        if (record == null || record.length < amountField.getOffset() + amountField.getLength()) {
+            return 0;
+        }
+        try {
+            return amountField.getLong(record, charset);
+        } catch (NumberFormatException e) {
+            // 金額フィールドが数値でない場合はスキップ
+            return 0;
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.example.zengin.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.zengin.format.validation.BankBranchIndex;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 金融機関・店舗マスタの管理クラス
+ * 起動時にマスタファイルから索引を作成し、再読み込みでは新しい索引を作成してから差し替えます
+ * 参照側は差し替え前後のいずれかの索引を読むため、再読み込み中も検証を止めません
+ * 
+ * 再読み込みの間隔を指定すると、マスタファイルの更新日時が変わった時点で自動的に再読み込みします
+ * 再読み込みに失敗した場合は、それまでの索引を使い続けます
+ */
+@Component
+public class BankBranchRegistry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BankBranchRegistry.class);
+    
+    @Value("${zengin.validation.bank-master.path:}")
+    private String masterPath = ""; // マスタファイル（空の場合は検証しない）
+    
+    @Value("${zengin.validation.bank-master.reload-interval-seconds:0}")
+    private long reloadIntervalSeconds; // 更新日時を確認する間隔（0以下で自動再読み込みしない）
+    
+    private volatile BankBranchIndex index;
+    private FileTime loadedModifiedTime;
+    private ScheduledExecutorService executor;
+    
+    /**
+     * マスタファイルを読み込み、自動再読み込みを開始します
+     * 
+     * @throws IOException マスタファイルを読み込めない場合
+     */
+    @PostConstruct
+    public synchronized void start() throws IOException {
+        if (masterPath == null || masterPath.isBlank()) {
+            logger.debug("金融機関マスタが指定されていないため、銀行・支店番号を検証しません");
+            return;
+        }
+        reload();
+        
+        if (reloadIntervalSeconds > 0) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "zengin-bank-master-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(this::reloadIfModified, reloadIntervalSeconds, reloadIntervalSeconds,
+                    TimeUnit.SECONDS);
+        }
+    }
+    
+    /**
+     * 自動再読み込みを停止します
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+    
+    /**
+     * マスタファイルを再読み込みし、索引を差し替えます
+     * 
+     * @return 新しい索引
+     * @throws IOException マスタファイルを読み込めない場合（索引は差し替えません）
+     * @throws IllegalArgumentException マスタの形式が不正な場合（索引は差し替えません）
+     */
+    public synchronized BankBranchIndex reload() throws IOException {
+        Path file = Path.of(masterPath);
+        FileTime modifiedTime = Files.getLastModifiedTime(file);
+        BankBranchIndex loaded = BankBranchIndex.load(file);
+        index = loaded;
+        loadedModifiedTime = modifiedTime;
+        logger.info("金融機関マスタを読み込みました: {}, 銀行={}件, 支店={}件", file, loaded.bankCount(), loaded.size());
+        return loaded;
+    }
+    
+    /**
+     * 銀行・支店番号の検証に使用する索引を取得します
+     * 
+     * @return 索引（マスタが指定されていない場合はnull）
+     */
+    public BankBranchIndex getIndex() {
+        return index;
+    }
+    
+    /**
+     * マスタファイルを設定します（次の start または reload から使用します）
+     * 
+     * @param masterPath マスタファイル
+     */
+    public void setMasterPath(String masterPath) {
+        this.masterPath = masterPath;
+    }
+    
+    private synchronized void reloadIfModified() {
+        try {
+            if (!Files.getLastModifiedTime(Path.of(masterPath)).equals(loadedModifiedTime)) {
+                reload();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("金融機関マスタを再読み込みできませんでした。読み込み済みのマスタを使用します: {}", masterPath, e);
+        }
+    }
+} 
\ No newline at end of file
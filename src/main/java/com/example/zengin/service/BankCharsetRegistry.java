@@ -0,0 +1,61 @@
+package com.example.zengin.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.zengin.format.ZenginCharset;
+
+/**
+ * 受信銀行ごとの文字コードの管理クラス
+ * 受信者IDごとに電文の文字コード（JIS / EBCDIC）を決定します
+ */
+@Component
+public class BankCharsetRegistry {
+    
+    @Value("${zengin.charset.default:JIS}")
+    private ZenginCharset defaultCharset = ZenginCharset.JIS; // 既定の文字コード
+    
+    @Value("${zengin.charset.banks:}")
+    private String bankCharsets = ""; // 銀行ごとの文字コード（receiverId=JIS|EBCDIC のカンマ区切り）
+    
+    private volatile Map<String, ZenginCharset> bankCharsetMap;
+    
+    /**
+     * 受信者IDの文字コードを取得します
+     * 
+     * @param receiverId 受信者ID（銀行ID）
+     * @return 文字コード
+     */
+    public ZenginCharset getCharset(String receiverId) {
+        Map<String, ZenginCharset> result = bankCharsetMap;
+        if (result == null) {
+            result = parseBankCharsets(bankCharsets);
+            bankCharsetMap = result;
+        }
+        return result.getOrDefault(receiverId, defaultCharset);
+    }
+    
+    /**
+     * 銀行ごとの文字コード設定を解析します
+     * 
+     * @param bankCharsets receiverId=JIS|EBCDIC のカンマ区切り
+     * @return 受信者IDごとの文字コード
+     */
+    private Map<String, ZenginCharset> parseBankCharsets(String bankCharsets) {
+        Map<String, ZenginCharset> result = new HashMap<>();
+        if (bankCharsets == null || bankCharsets.isBlank()) {
+            return result;
+        }
+        for (String entry : bankCharsets.split(",")) {
+            String[] pair = entry.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("文字コードの設定が不正です: " + entry);
+            }
+            result.put(pair[0].trim(), ZenginCharset.valueOf(pair[1].trim().toUpperCase()));
+        }
+        return result;
+    }
+} 
\ No newline at end of file
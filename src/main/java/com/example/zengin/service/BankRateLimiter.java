@@ -0,0 +1,94 @@
+package com.example.zengin.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 受信銀行ごとの送信レートの制御クラス
+ * 送信レートをトークンバケットで制限します
+ */
+public class BankRateLimiter {
+    
+    private final String receiverId;
+    private final double ratePerSecond; // 0以下で無制限
+    private final double burst;
+    
+    private double tokens;
+    private long lastRefillNanos;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param receiverId 受信者ID（銀行ID）
+     * @param ratePerSecond 送信レート（件/秒、0以下で無制限）
+     * @param burst 連続して送信できる最大件数
+     * @param nowNanos 現在時刻（System.nanoTime()）
+     */
+    public BankRateLimiter(String receiverId, double ratePerSecond, int burst, long nowNanos) {
+        this.receiverId = receiverId;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.lastRefillNanos = nowNanos;
+    }
+    
+    /**
+     * 送信を開始できるまでの待ち時間を取得します
+     * 
+     * @param nowNanos 現在時刻（System.nanoTime()）
+     * @return 待ち時間（ナノ秒、すぐに送信できる場合は0）
+     */
+    public synchronized long permitDelayNanos(long nowNanos) {
+        if (ratePerSecond <= 0) {
+            return 0;
+        }
+        refill(nowNanos);
+        if (tokens >= 1) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) * TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+    }
+    
+    /**
+     * 送信の開始を記録します
+     * permitDelayNanos が0を返した直後に呼び出してください
+     * 
+     * @param nowNanos 現在時刻（System.nanoTime()）
+     */
+    public synchronized void acquire(long nowNanos) {
+        if (ratePerSecond > 0) {
+            refill(nowNanos);
+            tokens -= 1;
+        }
+    }
+    
+    /**
+     * 経過時間分のトークンを補充します
+     * 
+     * @param nowNanos 現在時刻（System.nanoTime()）
+     */
+    private void refill(long nowNanos) {
+        long elapsedNanos = nowNanos - lastRefillNanos;
+        if (elapsedNanos > 0) {
+            tokens = Math.min(burst, tokens + elapsedNanos * ratePerSecond / TimeUnit.SECONDS.toNanos(1));
+            lastRefillNanos = nowNanos;
+        }
+    }
+    
+    /**
+     * 受信者IDを取得します
+     * 
+     * @return 受信者ID
+     */
+    public String getReceiverId() {
+        return receiverId;
+    }
+    
+    /**
+     * 送信レートを取得します
+     * 
+     * @return 送信レート（件/秒、0以下で無制限）
+     */
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.zengin.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 受信銀行ごとの送信レート制御の管理クラス
+ * 受信者IDごとに BankRateLimiter を生成・保持します
+ */
+@Component
+public class BankRateLimiterRegistry {
+    
+    @Value("${zengin.rate-limit.rate-per-second:10}")
+    private double ratePerSecond; // 既定の送信レート（件/秒、0以下で無制限）
+    
+    @Value("${zengin.rate-limit.burst:10}")
+    private int burst;
+    
+    @Value("${zengin.rate-limit.banks:}")
+    private String bankRates; // 銀行ごとの送信レート（receiverId=件/秒 のカンマ区切り）
+    
+    private final Map<String, BankRateLimiter> limiters = new ConcurrentHashMap<>();
+    private volatile Map<String, Double> bankRateMap;
+    
+    /**
+     * 受信者IDの制御オブジェクトを取得します
+     * 
+     * @param receiverId 受信者ID（銀行ID）
+     * @return 制御オブジェクト
+     */
+    public BankRateLimiter getLimiter(String receiverId) {
+        return limiters.computeIfAbsent(receiverId, id -> new BankRateLimiter(id,
+                bankRateMap().getOrDefault(id, ratePerSecond), burst, System.nanoTime()));
+    }
+    
+    /**
+     * 銀行ごとの送信レート設定を取得します
+     * 
+     * @return 受信者IDごとの送信レート
+     */
+    private Map<String, Double> bankRateMap() {
+        Map<String, Double> result = bankRateMap;
+        if (result == null) {
+            result = parseBankRates(bankRates);
+            bankRateMap = result;
+        }
+        return result;
+    }
+    
+    /**
+     * 銀行ごとの送信レート設定を解析します
+     * 
+     * @param bankRates receiverId=件/秒 のカンマ区切り
+     * @return 受信者IDごとの送信レート
+     */
+    private Map<String, Double> parseBankRates(String bankRates) {
+        Map<String, Double> result = new HashMap<>();
+        if (bankRates == null || bankRates.isBlank()) {
+            return result;
+        }
+        for (String entry : bankRates.split(",")) {
+            String[] pair = entry.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("送信レートの設定が不正です: " + entry);
+            }
+            result.put(pair[0].trim(), Double.parseDouble(pair[1].trim()));
+        }
+        return result;
+    }
+} 
\ No newline at end of file
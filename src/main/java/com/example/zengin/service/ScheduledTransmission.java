@@ -0,0 +1,147 @@
+package com.example.zengin.service;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+import com.example.zengin.format.ZenginMessage.MessageType;
+
+/**
+ * 送信スケジューラに登録された送信要求を表すクラス
+ * 送信結果はFutureで受け取り、待機中は完了見込み時刻を参照できます
+ * 
+ * @param <T> 送信結果の型
+ */
+public class ScheduledTransmission<T> implements Comparable<ScheduledTransmission<?>> {
+    
+    private final String receiverId;
+    private final MessageType messageType;
+    private final byte[][] dataRecords;
+    private final Instant deadline;
+    private final long sequence;
+    private final Instant submittedAt;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private final ZenginTransmissionScheduler scheduler;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param receiverId 受信者ID（銀行ID）
+     * @param messageType 電文種別
+     * @param dataRecords データレコード配列
+     * @param deadline 送信期限（期限なしの場合は Instant.MAX）
+     * @param sequence 登録順序
+     * @param submittedAt 登録日時
+     * @param scheduler 登録先のスケジューラ
+     */
+    ScheduledTransmission(String receiverId, MessageType messageType, byte[][] dataRecords, Instant deadline,
+            long sequence, Instant submittedAt, ZenginTransmissionScheduler scheduler) {
+        this.receiverId = receiverId;
+        this.messageType = messageType;
+        this.dataRecords = dataRecords;
+        this.deadline = deadline;
+        this.sequence = sequence;
+        this.submittedAt = submittedAt;
+        this.scheduler = scheduler;
+    }
+    
+    /**
+     * 送信順序を比較します
+     * 期限の早いものを優先し、同じ期限では電文種別の優先度、登録順の順で比較します
+     */
+    @Override
+    public int compareTo(ScheduledTransmission<?> other) {
+        int result = deadline.compareTo(other.deadline);
+        if (result != 0) {
+            return result;
+        }
+        result = Integer.compare(priorityOf(messageType), priorityOf(other.messageType));
+        if (result != 0) {
+            return result;
+        }
+        return Long.compare(sequence, other.sequence);
+    }
+    
+    /**
+     * 電文種別の優先度を取得します（小さいほど優先）
+     * 
+     * @param messageType 電文種別
+     * @return 優先度
+     */
+    static int priorityOf(MessageType messageType) {
+        switch (messageType) {
+            case TRANSFER:
+                return 0;
+            case INQUIRY:
+                return 1;
+            default:
+                return 2;
+        }
+    }
+    
+    /**
+     * 完了見込み時刻を取得します
+     * 送信待ちの要求は、同じ銀行の先行要求数・同時実行数・平均所要時間から算出します
+     * 
+     * @return 完了見込み時刻（完了済みの場合はnull）
+     */
+    public Instant getExpectedCompletionTime() {
+        if (future.isDone()) {
+            return null;
+        }
+        return scheduler.estimateCompletionTime(this);
+    }
+    
+    /**
+     * 送信結果のFutureを取得します
+     * 
+     * @return 送信結果のFuture
+     */
+    public CompletableFuture<T> getFuture() {
+        return future;
+    }
+    
+    /**
+     * 受信者IDを取得します
+     * 
+     * @return 受信者ID
+     */
+    public String getReceiverId() {
+        return receiverId;
+    }
+    
+    /**
+     * 電文種別を取得します
+     * 
+     * @return 電文種別
+     */
+    public MessageType getMessageType() {
+        return messageType;
+    }
+    
+    /**
+     * データレコードを取得します
+     * 
+     * @return データレコード配列
+     */
+    byte[][] getDataRecords() {
+        return dataRecords;
+    }
+    
+    /**
+     * 送信期限を取得します
+     * 
+     * @return 送信期限（期限なしの場合は Instant.MAX）
+     */
+    public Instant getDeadline() {
+        return deadline;
+    }
+    
+    /**
+     * 登録日時を取得します
+     * 
+     * @return 登録日時
+     */
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+} 
\ No newline at end of file
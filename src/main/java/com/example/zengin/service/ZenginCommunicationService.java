@@ -1,19 +1,33 @@
 package com.example.zengin.service;
 
+import java.security.MessageDigest;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.example.zengin.communication.ReceivedFrame;
 import com.example.zengin.communication.ZenginCommunicationException;
 import com.example.zengin.communication.ZenginTcpIpProtocol;
+import com.example.zengin.format.ReceivedTotals;
+import com.example.zengin.format.ZenginCharset;
 import com.example.zengin.format.ZenginMessage;
 import com.example.zengin.format.ZenginMessage.MessageType;
+import com.example.zengin.format.ZenginStreamDecoder;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+import com.example.zengin.format.validation.BankBranchIndex;
+import com.example.zengin.format.validation.DuplicateRecordDetector;
+import com.example.zengin.format.validation.DuplicateRecordDetector.Duplicate;
+import com.example.zengin.format.validation.ZenginRecordValidator;
+import com.example.zengin.format.validation.ZenginRecordValidator.ValidationError;
+import com.example.zengin.jfr.ZenginEventContext;
+import com.example.zengin.logging.MessageLogSummary;
+import com.example.zengin.metrics.ZenginMetrics;
 import com.example.zengin.security.MessageIntegrityService;
 
-import java.nio.charset.StandardCharsets;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-
 /**
  * 全銀通信サービス
  * 全銀TCP/IPプロトコルを使用した銀行との通信処理を提供します
@@ -21,7 +35,10 @@ import java.util.logging.Logger;
 @Service
 public class ZenginCommunicationService {
     
-    private static final Logger logger = Logger.getLogger(ZenginCommunicationService.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(ZenginCommunicationService.class);
+    
+    /** 受信済みのメッセージを再度受信した場合のエラーコード */
+    public static final String DUPLICATE_MESSAGE = "E020";
     
     @Autowired
     private ZenginTcpIpProtocol zenginProtocol;
@@ -29,6 +46,18 @@ public class ZenginCommunicationService {
     @Autowired
     private MessageIntegrityService integrityService;
     
+    @Autowired(required = false)
+    private ZenginMetrics metrics = ZenginMetrics.noop();
+    
+    @Autowired(required = false)
+    private MessageLogSummary logSummary = new MessageLogSummary();
+    
+    @Autowired(required = false)
+    private BankCharsetRegistry charsetRegistry = new BankCharsetRegistry();
+    
+    @Autowired(required = false)
+    private BankBranchRegistry bankBranchRegistry = new BankBranchRegistry();
+    
     @Value("${zengin.bank.host:localhost}")
     private String bankHost;
     
@@ -41,6 +70,18 @@ public class ZenginCommunicationService {
     @Value("${zengin.integrity.check.enabled:true}")
     private boolean integrityCheckEnabled;
     
+    @Value("${zengin.validation.enabled:true}")
+    private boolean recordValidationEnabled; // 振込データレコードの文字種チェック
+    
+    @Value("${zengin.validation.duplicate-check.enabled:true}")
+    private boolean duplicateCheckEnabled = true; // ファイル内の重複振込チェック
+    
+    @Value("${zengin.validation.duplicate-check.reject:false}")
+    private boolean duplicateCheckReject; // 重複の疑いがある場合は送信しない（falseの場合は警告のみ）
+    
+    @Value("${zengin.block.transfer-threshold:1048576}")
+    private int blockTransferThreshold; // このサイズを超える電文はブロック転送（0以下で無効）
+    
     /**
      * 振込データを送信します
      * 
@@ -50,12 +91,23 @@ public class ZenginCommunicationService {
      * @throws ZenginCommunicationException 通信エラー発生時
      */
     public boolean sendTransferData(String receiverId, byte[][] transferData) throws ZenginCommunicationException {
-        logger.info("振込データ送信を開始します: 送信先=" + receiverId);
+        logger.debug("振込データ送信を開始します: 送信先={}", receiverId);
         
         try {
             // 全銀メッセージを作成
             ZenginMessage message = new ZenginMessage(MessageType.TRANSFER, senderId, receiverId);
+            message.setCharset(charsetRegistry.getCharset(receiverId));
             message.setDataRecords(transferData);
+            ZenginEventContext.set(message);
+            
+            // データレコードの文字種と銀行・支店番号を検証し、ファイル内の重複振込を確認（有効な場合）
+            if (recordValidationEnabled) {
+                validateTransferRecords(message);
+                validateBankBranchCodes(message);
+                if (duplicateCheckEnabled) {
+                    checkDuplicateTransfers(message);
+                }
+            }
             
             // メッセージの整合性情報を生成・保存（有効な場合）
             if (integrityCheckEnabled) {
@@ -63,14 +115,18 @@ public class ZenginCommunicationService {
             }
             
             // 全銀プロトコルでデータ送信
-            boolean result = zenginProtocol.sendData(bankHost, bankPort, message.toByteArray());
+            boolean result = sendMessage(message);
             
-            logger.info("振込データ送信が" + (result ? "成功" : "失敗") + "しました");
+            logger.debug("振込データ送信が{}しました", result ? "成功" : "失敗");
             return result;
             
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "振込データ送信中にエラーが発生しました", e);
+            metrics.recordError(e);
+            logSummary.recordFailure(MessageType.TRANSFER);
+            logger.error("振込データ送信中にエラーが発生しました", e);
             throw new ZenginCommunicationException("振込データ送信に失敗しました: " + e.getMessage(), e);
+        } finally {
+            ZenginEventContext.clear();
         }
     }
     
@@ -84,12 +140,14 @@ public class ZenginCommunicationService {
      */
     public ZenginMessage sendInquiryAndReceiveResponse(String receiverId, byte[][] inquiryData) 
             throws ZenginCommunicationException {
-        logger.info("照会データ送信を開始します: 送信先=" + receiverId);
+        logger.debug("照会データ送信を開始します: 送信先={}", receiverId);
         
         try {
             // 全銀メッセージを作成
             ZenginMessage message = new ZenginMessage(MessageType.INQUIRY, senderId, receiverId);
+            message.setCharset(charsetRegistry.getCharset(receiverId));
             message.setDataRecords(inquiryData);
+            ZenginEventContext.set(message);
             
             // メッセージの整合性情報を生成・保存（有効な場合）
             if (integrityCheckEnabled) {
@@ -97,16 +155,26 @@ public class ZenginCommunicationService {
             }
             
             // 全銀プロトコルでデータ送信
-            boolean sendResult = zenginProtocol.sendData(bankHost, bankPort, message.toByteArray());
+            long roundTripStartNanos = System.nanoTime();
+            boolean sendResult = sendMessage(message);
             if (!sendResult) {
                 throw new ZenginCommunicationException("照会データの送信に失敗しました");
             }
             
-            logger.info("照会データを送信しました。応答を待機します...");
+            logger.debug("照会データを送信しました。応答を待機します...");
             
-            // 応答データを受信
-            byte[] responseData = zenginProtocol.receiveData(bankHost, bankPort);
-            ZenginMessage responseMessage = ZenginMessage.fromByteArray(responseData);
+            // 応答データを受信（メモリ予算の範囲でヒープに、超える場合は一時ファイルに保持して解析）
+            long receiveStartNanos = System.nanoTime();
+            ZenginMessage responseMessage;
+            int responseLength;
+            try (ReceivedFrame frame = zenginProtocol.receiveFrame(bankHost, bankPort)) {
+                responseMessage = ZenginMessage.fromBuffer(frame.buffer(), message.getCharset());
+                responseLength = (int) frame.length();
+            }
+            long receivedNanos = System.nanoTime();
+            metrics.recordReceive(responseMessage.getMessageType(), responseMessage.getSenderId(),
+                    responseLength, receivedNanos - receiveStartNanos);
+            metrics.recordInquiryRoundTrip(receiverId, receivedNanos - roundTripStartNanos);
             
             if (responseMessage.getMessageType() != MessageType.RESPONSE) {
                 throw new ZenginCommunicationException(
@@ -116,24 +184,24 @@ public class ZenginCommunicationService {
             
             // 受信メッセージの整合性を検証（有効な場合）
             if (integrityCheckEnabled) {
-                // 重複メッセージのチェック
-                if (integrityService.isDuplicateMessage(responseMessage.getFileId())) {
-                    throw new ZenginCommunicationException("重複したメッセージを受信しました: " + responseMessage.getFileId());
-                }
-                
-                // 整合性情報を生成・保存
-                integrityService.generateAndSaveIntegrityInfo(responseMessage);
+                // 重複メッセージのチェックと整合性情報の保存
+                registerIntegrityInfo(responseMessage);
                 
                 // トレーラレコードの整合性を検証
                 verifyTrailerConsistency(responseMessage);
             }
             
-            logger.info("照会応答を受信しました: 送信元=" + responseMessage.getSenderId());
+            logSummary.recordReceived(MessageType.RESPONSE, responseLength);
+            logger.debug("照会応答を受信しました: 送信元={}", responseMessage.getSenderId());
             return responseMessage;
             
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "照会処理中にエラーが発生しました", e);
+            metrics.recordError(e);
+            logSummary.recordFailure(MessageType.INQUIRY);
+            logger.error("照会処理中にエラーが発生しました", e);
             throw new ZenginCommunicationException("照会処理に失敗しました: " + e.getMessage(), e);
+        } finally {
+            ZenginEventContext.clear();
         }
     }
     
@@ -144,77 +212,365 @@ public class ZenginCommunicationService {
      * @throws ZenginCommunicationException 通信エラー発生時
      */
     public ZenginMessage receiveNotification() throws ZenginCommunicationException {
-        logger.info("通知データ受信を開始します");
+        logger.debug("通知データ受信を開始します");
         
         try {
-            // 通知データを受信
-            byte[] notificationData = zenginProtocol.receiveData(bankHost, bankPort);
-            ZenginMessage notificationMessage = ZenginMessage.fromByteArray(notificationData);
+            // 通知データを受信（メモリ予算の範囲でヒープに、超える場合は一時ファイルに保持して解析）
+            long startNanos = System.nanoTime();
+            try (ReceivedFrame frame = zenginProtocol.receiveFrame(bankHost, bankPort)) {
+                ZenginMessage notificationMessage = processNotification(frame);
+                metrics.recordReceive(notificationMessage.getMessageType(), notificationMessage.getSenderId(),
+                        (int) frame.length(), System.nanoTime() - startNanos);
+                return notificationMessage;
+            }
             
-            if (notificationMessage.getMessageType() != MessageType.NOTIFICATION) {
-                throw new ZenginCommunicationException(
-                    "不正な通知種別を受信しました: " + notificationMessage.getMessageType()
-                );
+        } catch (Exception e) {
+            metrics.recordError(e);
+            logSummary.recordFailure(MessageType.NOTIFICATION);
+            logger.error("通知データ受信中にエラーが発生しました", e);
+            throw new ZenginCommunicationException("通知データ受信に失敗しました: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 通知データを受信しながら解析し、データレコードを1件ずつ処理します
+     * データレコードはETXの受信を待たずに handler に渡すため、電文全体をメモリに保持しません
+     * 重複・トレーラレコードの整合性は全体の受信後に検証するため、handler での処理は
+     * このメソッドが正常に終了してから確定してください
+     * 
+     * @param handler ヘッダ・データレコードを処理するハンドラ（電文種別が通知でない場合、重複の場合は呼び出しません）
+     * @return 受信したトレーラの記載値と集計値
+     * @throws ZenginCommunicationException 通信エラー、解析エラー、通知種別不正、重複、整合性エラー発生時
+     */
+    public ReceivedTotals receiveNotification(ZenginStreamDecoder.Handler handler) throws ZenginCommunicationException {
+        return receiveNotification(handler, false);
+    }
+    
+    /**
+     * 通知データを受信してACKを応答した後、データレコードを1件ずつ処理します
+     * 受信データはメモリ予算の範囲でヒープに、閾値を超える場合は一時ファイルに保持するため、
+     * 大きな通知データでもヒープの使用量は予算を超えず、handler の処理中に銀行との接続を占有しません
+     * 保持先によらず receiveNotification(handler) と同じハンドラ・検証で処理します
+     * 
+     * @param handler ヘッダ・データレコードを処理するハンドラ（電文種別が通知でない場合、重複の場合は呼び出しません）
+     * @return 受信したトレーラの記載値と集計値
+     * @throws ZenginCommunicationException 通信エラー、解析エラー、通知種別不正、重複、整合性エラー発生時
+     */
+    public ReceivedTotals receiveBufferedNotification(ZenginStreamDecoder.Handler handler)
+            throws ZenginCommunicationException {
+        return receiveNotification(handler, true);
+    }
+    
+    /**
+     * 通知データを受信し、データレコードを1件ずつ処理します
+     * 
+     * @param handler ヘッダ・データレコードを処理するハンドラ
+     * @param buffered 受信を終えてから処理する場合はtrue、受信しながら処理する場合はfalse
+     * @return 受信したトレーラの記載値と集計値
+     * @throws ZenginCommunicationException 通信エラー、解析エラー、通知種別不正、重複、整合性エラー発生時
+     */
+    private ReceivedTotals receiveNotification(ZenginStreamDecoder.Handler handler, boolean buffered)
+            throws ZenginCommunicationException {
+        logger.debug("通知データの逐次処理を開始します: 受信後に処理={}", buffered);
+        
+        NotificationStreamHandler streamHandler = new NotificationStreamHandler(handler);
+        try {
+            long startNanos = System.nanoTime();
+            ZenginStreamDecoder decoder = new ZenginStreamDecoder(streamHandler);
+            MessageDigest digest = integrityCheckEnabled ? integrityService.createDigest() : null;
+            decoder.setDigest(digest);
+            long receivedBytes = buffered
+                    ? receiveFrame(decoder)
+                    : zenginProtocol.receiveStream(bankHost, bankPort, decoder);
+            
+            ZenginMessage header = decoder.getHeader();
+            if (header.getMessageType() != MessageType.NOTIFICATION) {
+                throw new ZenginCommunicationException("不正な通知種別を受信しました: " + header.getMessageType());
+            }
+            if (streamHandler.duplicate) {
+                throw new ZenginCommunicationException("重複したメッセージを受信しました: " + header.getFileId(), DUPLICATE_MESSAGE);
             }
             
             // 受信メッセージの整合性を検証（有効な場合）
+            ReceivedTotals totals = decoder.getReceivedTotals();
             if (integrityCheckEnabled) {
-                // 重複メッセージのチェック
-                if (integrityService.isDuplicateMessage(notificationMessage.getFileId())) {
-                    throw new ZenginCommunicationException("重複したメッセージを受信しました: " + notificationMessage.getFileId());
-                }
-                
-                // 整合性情報を生成・保存
-                integrityService.generateAndSaveIntegrityInfo(notificationMessage);
-                
-                // トレーラレコードの整合性を検証
-                verifyTrailerConsistency(notificationMessage);
+                integrityService.saveIntegrityInfo(header, digest, totals.getRecordCount(), streamHandler.totalAmount);
+                streamHandler.saved = true;
+                verifyTrailerConsistency(totals);
             }
             
-            logger.info("通知データを受信しました: 送信元=" + notificationMessage.getSenderId());
-            return notificationMessage;
+            logSummary.recordReceived(MessageType.NOTIFICATION, (int) receivedBytes);
+            metrics.recordReceive(header.getMessageType(), header.getSenderId(), (int) receivedBytes,
+                    System.nanoTime() - startNanos);
+            logger.debug("通知データを逐次受信しました: 送信元={}, 件数={}", header.getSenderId(), totals.getRecordCount());
+            return totals;
             
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "通知データ受信中にエラーが発生しました", e);
+            if (streamHandler.claimed && !streamHandler.saved) {
+                // 整合性情報を保存する前に失敗した場合は、再送を受信できるように登録を取り消す
+                integrityService.releaseMessage(streamHandler.fileId);
+            }
+            metrics.recordError(e);
+            logSummary.recordFailure(MessageType.NOTIFICATION);
+            logger.error("通知データ受信中にエラーが発生しました", e);
             throw new ZenginCommunicationException("通知データ受信に失敗しました: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * フレームを受信し、保持したデータ部をデコーダで解析します
+     * 
+     * @param decoder 受信データを解析するデコーダ
+     * @return 受信したバイト数
+     * @throws ZenginCommunicationException 通信エラー、解析エラー発生時
+     */
+    private long receiveFrame(ZenginStreamDecoder decoder) throws ZenginCommunicationException {
+        try (ReceivedFrame frame = zenginProtocol.receiveFrame(bankHost, bankPort)) {
+            frame.decode(decoder);
+            return frame.length();
+        } catch (IllegalArgumentException e) {
+            throw new ZenginCommunicationException("通知データの解析に失敗しました: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 受信済みの通知データを解析し、整合性を検証します
+     * 
+     * @param notificationData 受信した通知データ（全銀フォーマット）
+     * @return 解析された通知メッセージ
+     * @throws ZenginCommunicationException 通知種別不正、重複、整合性エラー発生時
+     */
+    public ZenginMessage processNotification(byte[] notificationData) throws ZenginCommunicationException {
+        return processNotification(ReceivedFrame.of(notificationData));
+    }
+    
+    /**
+     * 受信済みのフレームから通知データを解析し、整合性を検証します
+     * フレームのバッファから各レコードを直接コピーするため、電文全体のバイト配列を作成しません
+     * フレームは呼び出し元で close してください
+     * 
+     * @param frame 受信したフレーム（全銀フォーマット）
+     * @return 解析された通知メッセージ
+     * @throws ZenginCommunicationException 通知種別不正、重複、整合性エラー発生時
+     */
+    public ZenginMessage processNotification(ReceivedFrame frame) throws ZenginCommunicationException {
+        ZenginMessage notificationMessage;
+        try {
+            notificationMessage = ZenginMessage.fromBuffer(frame.buffer());
+        } catch (IllegalArgumentException e) {
+            throw new ZenginCommunicationException("通知データの解析に失敗しました: " + e.getMessage(), e);
+        }
+        
+        if (notificationMessage.getMessageType() != MessageType.NOTIFICATION) {
+            throw new ZenginCommunicationException(
+                "不正な通知種別を受信しました: " + notificationMessage.getMessageType()
+            );
+        }
+        
+        // 受信メッセージの整合性を検証（有効な場合）
+        if (integrityCheckEnabled) {
+            // 重複メッセージのチェックと整合性情報の保存
+            registerIntegrityInfo(notificationMessage);
+            
+            // トレーラレコードの整合性を検証（失敗した場合は銀行側の再送を受け付けられるよう登録を取り消す）
+            try {
+                verifyTrailerConsistency(notificationMessage);
+            } catch (ZenginCommunicationException e) {
+                integrityService.releaseMessage(notificationMessage.getFileId());
+                throw e;
+            }
+        }
+        
+        logSummary.recordReceived(MessageType.NOTIFICATION, (int) frame.length());
+        logger.debug("通知データを受信しました: 送信元={}", notificationMessage.getSenderId());
+        return notificationMessage;
+    }
+    
+    /**
+     * processNotification で受け付けた通知メッセージの登録を取り消します
+     * 受け付けた後に処理を完了できなかった通知を、保存した電文や銀行側の再送から再度受け付けられるようにします
+     * 
+     * @param message 受け付けた通知メッセージ
+     */
+    public void releaseNotification(ZenginMessage message) {
+        if (integrityCheckEnabled) {
+            integrityService.releaseMessage(message.getFileId());
+        }
+    }
+    
+    /**
+     * 受信メッセージのIDを登録し、整合性情報を保存します
+     * IDの登録は重複チェックを兼ねた1回の挿入のため、同じメッセージを複数のスレッドで同時に受信しても1つのみ処理します
+     * 
+     * @param message 受信メッセージ
+     * @throws ZenginCommunicationException 重複したメッセージの場合、整合性情報の生成に失敗した場合
+     */
+    private void registerIntegrityInfo(ZenginMessage message) throws ZenginCommunicationException {
+        if (!integrityService.claimMessage(message.getFileId())) {
+            throw new ZenginCommunicationException("重複したメッセージを受信しました: " + message.getFileId(), DUPLICATE_MESSAGE);
+        }
+        try {
+            integrityService.generateAndSaveIntegrityInfo(message);
+        } catch (ZenginCommunicationException | RuntimeException e) {
+            integrityService.releaseMessage(message.getFileId());
+            throw e;
+        }
+    }
+    
+    /**
+     * 電文を送信します
+     * 電文長がブロック転送閾値を超える場合は、ファイルIDを転送IDとしてブロック転送を行います
+     * 
+     * @param message 送信する全銀メッセージ
+     * @return 送信結果
+     * @throws ZenginCommunicationException 通信エラー発生時
+     */
+    private boolean sendMessage(ZenginMessage message) throws ZenginCommunicationException {
+        byte[] data = message.toByteArray();
+        long startNanos = System.nanoTime();
+        
+        boolean result;
+        if (blockTransferThreshold > 0 && data.length > blockTransferThreshold) {
+            result = zenginProtocol.sendDataInBlocks(bankHost, bankPort, message.getFileId(), data);
+        } else {
+            result = zenginProtocol.sendData(bankHost, bankPort, data);
+        }
+        
+        metrics.recordSend(message.getMessageType(), message.getReceiverId(), data.length, System.nanoTime() - startNanos);
+        logSummary.recordSent(message.getMessageType(), data.length);
+        return result;
+    }
+    
+    /**
+     * 振込データレコードの文字種を検証します
+     * 銀行側で全件送信後に拒否されることを避けるため、送信前にすべてのレコードを検証します
+     * 
+     * @param message 送信する全銀メッセージ
+     * @throws ZenginCommunicationException 検証エラーがある場合
+     */
+    private void validateTransferRecords(ZenginMessage message) throws ZenginCommunicationException {
+        List<ValidationError> errors = ZenginRecordValidator.transferData(message.getCharset())
+                .validate(message.getDataRecords());
+        if (errors.isEmpty()) {
+            return;
+        }
+        
+        for (ValidationError error : errors.subList(0, Math.min(errors.size(), 10))) {
+            logger.warn("データレコードの検証エラー: {}", error);
+        }
+        throw new ZenginCommunicationException(
+            "データレコードの検証に失敗しました: " + errors.size() + "件（" + errors.get(0) + "）", "E014"
+        );
+    }
+    
+    /**
+     * 振込データレコードの被仕向銀行番号・被仕向支店番号が金融機関マスタにあることを検証します
+     * マスタが指定されていない場合は検証しません
+     * 
+     * @param message 送信する全銀メッセージ
+     * @throws ZenginCommunicationException マスタにない番号がある場合
+     */
+    private void validateBankBranchCodes(ZenginMessage message) throws ZenginCommunicationException {
+        BankBranchIndex index = bankBranchRegistry.getIndex();
+        byte[][] records = message.getDataRecords();
+        if (index == null || records == null) {
+            return;
+        }
+        
+        int unknown = 0;
+        String first = null;
+        int recordIndex = index.nextUnknown(records, 0, message.getCharset());
+        while (recordIndex >= 0) {
+            if (unknown < 10) {
+                String code = SogoFurikomiLayout.DATA_BANK_CODE.getString(records[recordIndex], message.getCharset())
+                        + "-" + SogoFurikomiLayout.DATA_BRANCH_CODE.getString(records[recordIndex], message.getCharset());
+                String error = String.format("%d件目: 被仕向銀行番号・支店番号 %s が金融機関マスタにありません", recordIndex + 1, code);
+                logger.warn("データレコードの検証エラー: {}", error);
+                if (first == null) {
+                    first = error;
+                }
+            }
+            unknown++;
+            recordIndex = index.nextUnknown(records, recordIndex + 1, message.getCharset());
+        }
+        if (unknown > 0) {
+            throw new ZenginCommunicationException(
+                "データレコードの検証に失敗しました: " + unknown + "件（" + first + "）", "E018"
+            );
+        }
+    }
+    
+    /**
+     * ファイル内で同じ振込（被仕向銀行番号・支店番号・口座・金額・顧客コードが同じ）が重複していないかを確認します
+     * 重複の疑いがあるレコードは警告ログに出力し、拒否する設定の場合は送信しません
+     * 
+     * @param message 送信する全銀メッセージ
+     * @throws ZenginCommunicationException 重複の疑いがあり、拒否する設定の場合
+     */
+    private void checkDuplicateTransfers(ZenginMessage message) throws ZenginCommunicationException {
+        List<Duplicate> duplicates = DuplicateRecordDetector.transferData().detect(message.getDataRecords());
+        if (duplicates.isEmpty()) {
+            return;
+        }
+        
+        for (Duplicate duplicate : duplicates.subList(0, Math.min(duplicates.size(), 10))) {
+            logger.warn("重複振込の疑い: {}", duplicate);
+        }
+        if (duplicateCheckReject) {
+            throw new ZenginCommunicationException(
+                "ファイル内に重複振込の疑いがあります: " + duplicates.size() + "件（" + duplicates.get(0) + "）", "E019"
+            );
+        }
+    }
+    
     /**
      * トレーラレコードの整合性を検証します
+     * 受信したトレーラの記載値を、電文の解析時に集計した件数・金額と比較します
      * 
      * @param message 検証する全銀メッセージ
      * @throws ZenginCommunicationException 検証に失敗した場合
      */
     private void verifyTrailerConsistency(ZenginMessage message) throws ZenginCommunicationException {
-        if (message == null || message.getDataRecords() == null) {
-            return;
+        ReceivedTotals totals = message == null ? null : message.getReceivedTotals();
+        if (totals != null) {
+            verifyTrailerConsistency(totals);
+        }
+    }
+    
+    /**
+     * 受信したトレーラの記載値を集計値と比較し、整合性を検証します
+     * 
+     * @param totals 受信したトレーラの記載値と集計値
+     * @throws ZenginCommunicationException 検証に失敗した場合
+     */
+    private void verifyTrailerConsistency(ReceivedTotals totals) throws ZenginCommunicationException {
+        // 電文トレーラのレコード件数
+        long expectedRecordCount = totals.getTrailerRecordCount();
+        if (expectedRecordCount == ReceivedTotals.NOT_PRESENT) {
+            throw new ZenginCommunicationException("トレーラレコードの解析に失敗しました: レコード件数が数値ではありません");
+        }
+        if (expectedRecordCount != totals.getRecordCount()) {
+            throw new ZenginCommunicationException(
+                "トレーラレコードのレコード件数が一致しません: 期待値=" + expectedRecordCount + ", 実際=" + totals.getRecordCount()
+            );
         }
         
-        try {
-            // トレーラレコードからレコード件数を取得
-            byte[] trailerRecord = message.toByteArray();
-            int trailerOffset = trailerRecord.length - 80; // トレーラレコードの開始位置
-            
-            byte[] recordCountBytes = new byte[8];
-            System.arraycopy(trailerRecord, trailerOffset + 6, recordCountBytes, 0, 8);
-            String recordCountStr = new String(recordCountBytes, StandardCharsets.UTF_8).trim();
-            int expectedRecordCount = Integer.parseInt(recordCountStr);
-            
-            // 実際のレコード件数
-            int actualRecordCount = message.getDataRecords().length;
-            
-            if (expectedRecordCount != actualRecordCount) {
+        // 業務トレーラレコード（データ区分8）の合計件数・合計金額
+        if (totals.hasFileTrailer()) {
+            if (totals.getFileTrailerCount() != totals.getDataCount()) {
                 throw new ZenginCommunicationException(
-                    "トレーラレコードのレコード件数が一致しません: 期待値=" + expectedRecordCount + ", 実際=" + actualRecordCount
+                    "トレーラレコードの合計件数が一致しません: 期待値=" + totals.getFileTrailerCount() + ", 実際=" + totals.getDataCount()
+                );
+            }
+            if (totals.getFileTrailerAmount() == ReceivedTotals.NOT_PRESENT
+                    || totals.getFileTrailerAmount() != totals.getDataAmount()) {
+                throw new ZenginCommunicationException(
+                    "トレーラレコードの合計金額が一致しません: 期待値=" + totals.getFileTrailerAmount() + ", 実際=" + totals.getDataAmount()
                 );
             }
-            
-            logger.info("トレーラレコードの整合性検証に成功しました");
-            
-        } catch (NumberFormatException e) {
-            throw new ZenginCommunicationException("トレーラレコードの解析に失敗しました: " + e.getMessage(), e);
         }
+        
+        logger.debug("トレーラレコードの整合性検証に成功しました");
     }
     
     /**
@@ -270,4 +626,59 @@ public class ZenginCommunicationService {
     public void setIntegrityCheckEnabled(boolean integrityCheckEnabled) {
         this.integrityCheckEnabled = integrityCheckEnabled;
     }
+    
+    /**
+     * 逐次受信した通知データの電文種別・重複を確認し、整合性情報の合計金額を集計するハンドラ
+     * 通知で重複していない場合のみ、呼び出し元のハンドラにヘッダ・データレコードを渡します
+     */
+    private class NotificationStreamHandler implements ZenginStreamDecoder.Handler {
+        
+        private final ZenginStreamDecoder.Handler delegate;
+        private boolean accepted; // 呼び出し元のハンドラに渡す場合はtrue
+        private boolean duplicate; // 重複したメッセージの場合はtrue
+        private boolean claimed; // メッセージIDを登録した場合はtrue
+        private boolean saved; // 整合性情報を保存した場合はtrue
+        private String fileId;
+        private ZenginCharset charset;
+        private long totalAmount; // 整合性情報の合計金額
+        
+        NotificationStreamHandler(ZenginStreamDecoder.Handler delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public void onHeader(ZenginMessage header) {
+            charset = header.getCharset();
+            if (header.getMessageType() != MessageType.NOTIFICATION) {
+                return;
+            }
+            if (integrityCheckEnabled) {
+                if (!integrityService.claimMessage(header.getFileId())) {
+                    duplicate = true;
+                    return;
+                }
+                claimed = true;
+                fileId = header.getFileId();
+            }
+            accepted = true;
+            delegate.onHeader(header);
+        }
+        
+        @Override
+        public void onRecord(byte[] record) {
+            if (integrityCheckEnabled) {
+                totalAmount += integrityService.calculateAmount(record, charset);
+            }
+            if (accepted) {
+                delegate.onRecord(record);
+            }
+        }
+        
+        @Override
+        public void onTrailer(ReceivedTotals totals) {
+            if (accepted) {
+                delegate.onTrailer(totals);
+            }
+        }
+    }
 } 
\ No newline at end of file
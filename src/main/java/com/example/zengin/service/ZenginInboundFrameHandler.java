@@ -0,0 +1,44 @@
+package com.example.zengin.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.stereotype.Component;
+
+import com.example.zengin.communication.ZenginCommunicationException;
+import com.example.zengin.communication.ZenginControlCode;
+import com.example.zengin.config.ZenginIntegrationConfig;
+
+/**
+ * Spring Integration 受信ゲートウェイで受信したフレームの処理クラス
+ * 通知フレームには処理結果に応じて ACK または NAK を応答します
+ * 接続要求（ENQ）・転送終了（EOT）は接続ファクトリのインターセプタが処理するため、このクラスには渡されません
+ */
+@Component
+@ConditionalOnProperty(name = "zengin.integration.enabled", havingValue = "true")
+public class ZenginInboundFrameHandler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ZenginInboundFrameHandler.class);
+    
+    @Autowired
+    private ZenginCommunicationService communicationService;
+    
+    /**
+     * 受信フレームを処理します
+     * 
+     * @param frame 受信フレームのデータ部
+     * @return 応答（ACK または NAK）
+     */
+    @ServiceActivator(inputChannel = ZenginIntegrationConfig.INBOUND_CHANNEL)
+    public ZenginControlCode handle(byte[] frame) {
+        try {
+            communicationService.processNotification(frame);
+            return ZenginControlCode.ACK;
+        } catch (ZenginCommunicationException e) {
+            logger.warn("受信フレームの処理に失敗しました", e);
+            return ZenginControlCode.NAK;
+        }
+    }
+} 
\ No newline at end of file
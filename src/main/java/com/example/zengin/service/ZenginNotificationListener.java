@@ -0,0 +1,416 @@
+package com.example.zengin.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.example.zengin.buffer.FrameBufferPool;
+import com.example.zengin.buffer.ReceiveBufferBudget;
+import com.example.zengin.communication.ReceivedFrame;
+import com.example.zengin.communication.ZenginCommunicationException;
+import com.example.zengin.communication.ZenginTcpIpProtocol;
+import com.example.zengin.communication.ZenginTcpIpProtocol.FrameProcessor;
+import com.example.zengin.communication.ZenginTcpIpProtocolImpl;
+import com.example.zengin.communication.ZenginTcpIpProtocolImpl.FramingMode;
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.metrics.ZenginMetrics;
+
+/**
+ * 全銀通知データの常駐受信リスナー
+ * 銀行ごとに専用の受信セッションを維持し、到着した通知電文を有界キューに投入します
+ * キューが満杯の場合は受信を一時停止するため、処理が追いつかない間は銀行側の送信も抑制されます
+ * 
+ * 通知電文はキューに投入してからACKを応答し、検証に失敗した場合はNAKを応答して銀行側に再送させます
+ * 停止時に投入を待っていた通知電文は保留ディレクトリに保存し、次回の開始時にキューに投入します
+ */
+@Component
+public class ZenginNotificationListener implements SmartLifecycle {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ZenginNotificationListener.class);
+    
+    private static final String PENDING_SUFFIX = ".pending";
+    
+    @Autowired
+    private ZenginCommunicationService communicationService;
+    
+    @Autowired(required = false)
+    private ZenginMetrics metrics = ZenginMetrics.noop();
+    
+    @Autowired(required = false)
+    private FrameBufferPool bufferPool = FrameBufferPool.shared();
+    
+    @Autowired(required = false)
+    private ReceiveBufferBudget receiveBudget = ReceiveBufferBudget.shared();
+    
+    @Value("${zengin.notification.listener.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${zengin.notification.listener.banks:${zengin.bank.host:localhost}:${zengin.bank.port:20000}}")
+    private String banks; // 受信先（host:port のカンマ区切り）
+    
+    @Value("${zengin.notification.listener.queue-capacity:1000}")
+    private int queueCapacity;
+    
+    @Value("${zengin.notification.listener.reconnect-interval-millis:5000}")
+    private long reconnectIntervalMillis;
+    
+    @Value("${zengin.notification.listener.pending-dir:${java.io.tmpdir}/zengin-notification-pending}")
+    private String pendingDir = System.getProperty("java.io.tmpdir") + "/zengin-notification-pending"; // 停止時に投入できなかった通知電文の保存先
+    
+    @Value("${zengin.tls.enabled:true}")
+    private boolean tlsEnabled;
+    
+    @Value("${zengin.framing.mode:ETX}")
+    private FramingMode framingMode;
+    
+    private volatile BlockingQueue<ZenginMessage> notificationQueue;
+    private volatile ExecutorService executor;
+    private final List<ZenginTcpIpProtocol> sessions = new ArrayList<>();
+    private volatile boolean running;
+    
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        
+        notificationQueue = new LinkedBlockingQueue<>(queueCapacity);
+        List<String[]> endpoints = parseBanks(banks);
+        loadPending();
+        
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(endpoints.size(), runnable -> {
+            Thread thread = new Thread(runnable, "zengin-notification-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        running = true;
+        for (String[] endpoint : endpoints) {
+            ZenginTcpIpProtocol session = createSession();
+            sessions.add(session);
+            executor.execute(() -> listen(session, endpoint[0], Integer.parseInt(endpoint[1])));
+        }
+        
+        logger.info("通知受信リスナーを開始しました: 受信先={}", banks);
+    }
+    
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        
+        running = false;
+        executor.shutdownNow();
+        
+        // 受信待ちのセッションを中断してスレッドを解放する（切断は各受信スレッドが行う）
+        for (ZenginTcpIpProtocol session : sessions) {
+            session.abort();
+        }
+        sessions.clear();
+        
+        try {
+            if (!executor.awaitTermination(reconnectIntervalMillis, TimeUnit.MILLISECONDS)) {
+                logger.warn("通知受信スレッドが時間内に終了しませんでした");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        logger.info("通知受信リスナーを停止しました");
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    @Override
+    public boolean isAutoStartup() {
+        return enabled;
+    }
+    
+    /**
+     * 1銀行分の受信ループです
+     * 受信エラー時は一定間隔をおいて再接続し、通知電文の検証・処理のエラー時はNAKを応答して受信を継続します
+     * 予期しないエラー（RuntimeException・Error）でもスレッドを終了せず、Error の場合はセッションの状態が不明なため再接続します
+     * セッションは受信スレッドのみが切断します（停止時は stop が abort で受信待ちを中断します）
+     * 
+     * @param session 受信セッション
+     * @param host 銀行ホスト
+     * @param port 銀行ポート
+     */
+    private void listen(ZenginTcpIpProtocol session, String host, int port) {
+        try {
+            while (running && !Thread.currentThread().isInterrupted()) {
+                NotificationDelivery delivery = new NotificationDelivery();
+                try {
+                    session.receiveFrame(host, port, delivery);
+                } catch (ZenginCommunicationException | RuntimeException e) {
+                    if (!running) {
+                        break;
+                    }
+                    metrics.recordError(e);
+                    if (delivery.rejected) {
+                        if (e instanceof RuntimeException) {
+                            logger.error("通知電文の処理中に予期しないエラーが発生したため、NAKを応答しました: {}:{}", host, port, e);
+                        } else {
+                            logger.warn("通知電文を受け付けずにNAKを応答しました: {}:{}", host, port, e);
+                        }
+                        continue;
+                    }
+                    logger.warn("通知受信セッションでエラーが発生しました。再接続します: {}:{}", host, port, e);
+                    if (!reconnectLater(session)) {
+                        break;
+                    }
+                } catch (Error e) {
+                    if (!running) {
+                        break;
+                    }
+                    metrics.recordError(e);
+                    logger.error("通知受信セッションで予期しないエラーが発生しました。再接続します: {}:{}", host, port, e);
+                    if (!reconnectLater(session)) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            disconnectQuietly(session);
+        }
+    }
+    
+    /**
+     * 受信したフレームの処理です
+     * 通知電文を検証してキューに投入し、正常に終了した場合にセッションがACKを応答します
+     */
+    private final class NotificationDelivery implements FrameProcessor<ZenginMessage> {
+        
+        private boolean rejected; // 処理に失敗してNAKを応答する場合はtrue
+        
+        @Override
+        public ZenginMessage process(ReceivedFrame frame) throws ZenginCommunicationException {
+            long startNanos = System.nanoTime(); // 着信待ちの時間は含めず、解析・検証の時間を記録する
+            ZenginMessage notificationMessage;
+            try {
+                notificationMessage = communicationService.processNotification(frame);
+            } catch (ZenginCommunicationException e) {
+                if (ZenginCommunicationService.DUPLICATE_MESSAGE.equals(e.getErrorCode())) {
+                    // 受信済みの電文の再送（ACKが届かなかった場合など）は、ACKを応答して破棄する
+                    logger.info("受信済みの通知電文を破棄しました: {}", e.getMessage());
+                    return null;
+                }
+                rejected = true;
+                throw e;
+            } catch (RuntimeException e) {
+                rejected = true;
+                throw e;
+            }
+            metrics.recordReceive(notificationMessage.getMessageType(), notificationMessage.getSenderId(),
+                    (int) frame.length(), System.nanoTime() - startNanos);
+            
+            // キューが満杯の間は待機し、ACKを応答しないため次の受信も行わない
+            try {
+                notificationQueue.put(notificationMessage);
+            } catch (InterruptedException e) {
+                // 割り込み状態ではファイルチャネルが閉じられるため、保存してから割り込み状態を戻す
+                try {
+                    savePending(frame, notificationMessage);
+                } finally {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return notificationMessage;
+        }
+        
+        /**
+         * 停止によりキューに投入できなかった通知電文を保存します
+         * 受け付けた登録を取り消すため、次回の開始時に保存した電文を、または銀行側の再送を1回のみ受け付けます
+         */
+        private void savePending(ReceivedFrame frame, ZenginMessage notificationMessage)
+                throws ZenginCommunicationException {
+            communicationService.releaseNotification(notificationMessage);
+            try {
+                Path directory = Files.createDirectories(Path.of(pendingDir));
+                Path temporary = Files.createTempFile(directory, notificationMessage.getFileId(), ".tmp");
+                try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                    ByteBuffer data = frame.buffer();
+                    while (data.hasRemaining()) {
+                        channel.write(data);
+                    }
+                    channel.force(true);
+                }
+                Path pending = directory.resolve(notificationMessage.getFileId() + PENDING_SUFFIX);
+                Files.move(temporary, pending, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                logger.info("停止のためキューに投入できなかった通知電文を保存しました: {}", pending);
+            } catch (IOException e) {
+                rejected = true;
+                throw new ZenginCommunicationException("通知電文を保存できません: " + notificationMessage.getFileId(), e);
+            }
+        }
+    }
+    
+    /**
+     * 前回の停止時に保存した通知電文をキューに投入します
+     * 銀行側の再送を受信済みの電文（重複）・検証に失敗した電文は破棄し、キューに空きがない電文は次回の開始時まで残します
+     */
+    private void loadPending() {
+        Path directory = Path.of(pendingDir);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + PENDING_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    ZenginMessage notificationMessage = communicationService.processNotification(Files.readAllBytes(file));
+                    if (!notificationQueue.offer(notificationMessage)) {
+                        communicationService.releaseNotification(notificationMessage);
+                        logger.warn("通知キューに空きがないため、保存した通知電文を残しました: {}", file);
+                        break;
+                    }
+                    logger.info("保存した通知電文をキューに投入しました: {}", file);
+                } catch (ZenginCommunicationException e) {
+                    logger.warn("保存した通知電文を破棄しました: {}", file, e);
+                }
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            logger.error("保存した通知電文を読み込めませんでした: {}", directory, e);
+        }
+    }
+    
+    /**
+     * 受信セッションを作成します
+     * セッションは銀行ごとに専用のソケットを保持するため、共有のプロトコルBeanは使用しません
+     * 
+     * @return 受信セッション
+     */
+    protected ZenginTcpIpProtocol createSession() {
+        ZenginTcpIpProtocolImpl session = new ZenginTcpIpProtocolImpl();
+        session.setUseTLS(tlsEnabled);
+        session.setFramingMode(framingMode);
+        session.setMetrics(metrics);
+        session.setBufferPool(bufferPool);
+        session.setReceiveBudget(receiveBudget);
+        return session;
+    }
+    
+    /**
+     * 受信済みの通知電文を取り出します（到着するまで待機）
+     * 
+     * @return 通知電文
+     * @throws InterruptedException 待機中に割り込まれた場合
+     */
+    public ZenginMessage take() throws InterruptedException {
+        return getNotificationQueue().take();
+    }
+    
+    /**
+     * 受信済みの通知電文を取り出します（指定時間まで待機）
+     * 
+     * @param timeout 待機時間
+     * @param unit 待機時間の単位
+     * @return 通知電文（タイムアウト時はnull）
+     * @throws InterruptedException 待機中に割り込まれた場合
+     */
+    public ZenginMessage poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return getNotificationQueue().poll(timeout, unit);
+    }
+    
+    /**
+     * 通知キューを取得します
+     * 
+     * @return 通知キュー
+     */
+    public BlockingQueue<ZenginMessage> getNotificationQueue() {
+        if (notificationQueue == null) {
+            throw new IllegalStateException("通知受信リスナーが開始されていません");
+        }
+        return notificationQueue;
+    }
+    
+    /**
+     * 受信先設定を解析します
+     * 
+     * @param banks host:port のカンマ区切り
+     * @return ホストとポートの配列のリスト
+     */
+    private List<String[]> parseBanks(String banks) {
+        List<String[]> endpoints = new ArrayList<>();
+        for (String bank : banks.split(",")) {
+            String trimmed = bank.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("通知受信先の設定が不正です: " + trimmed);
+            }
+            endpoints.add(new String[] { trimmed.substring(0, separator), trimmed.substring(separator + 1) });
+        }
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("通知受信先が設定されていません");
+        }
+        return endpoints;
+    }
+    
+    /**
+     * セッションを切断します（エラーは無視）
+     * 
+     * @param session 受信セッション
+     */
+    private void disconnectQuietly(ZenginTcpIpProtocol session) {
+        try {
+            session.disconnect();
+        } catch (ZenginCommunicationException e) {
+            logger.debug("通知受信セッションの切断に失敗しました", e);
+        }
+    }
+    
+    /**
+     * セッションを切断し、再接続の間隔だけ待機します（次の受信時に再接続）
+     * 
+     * @param session 受信セッション
+     * @return 割り込まれずに待機できた場合はtrue
+     */
+    private boolean reconnectLater(ZenginTcpIpProtocol session) {
+        disconnectQuietly(session);
+        return sleep(reconnectIntervalMillis);
+    }
+    
+    /**
+     * 指定時間待機します
+     * 
+     * @param millis 待機時間（ミリ秒）
+     * @return 割り込まれずに待機できた場合はtrue
+     */
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,444 @@
+package com.example.zengin.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.zengin.communication.ZenginCommunicationException;
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginMessage.MessageType;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 銀行のカットオフ時刻を考慮した送信スケジューラ
+ * 送信要求を銀行ごとの待ち行列に登録し、期限の早いもの（同じ期限では振込を照会より優先）から
+ * 銀行ごとの同時実行数・送信レート（BankRateLimiter）の範囲内で全銀通信サービスへ送信します
+ * 
+ * 全銀通信サービスは1つのプロトコルセッションを共有するため、全体の同時実行数（worker-threads）は
+ * セッションを分離しない限り1としてください
+ */
+@Component
+public class ZenginTransmissionScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ZenginTransmissionScheduler.class);
+    
+    private static final double DURATION_SMOOTHING = 0.2; // 所要時間の指数移動平均の係数
+    private static final Duration MAX_DEADLINE_WAIT = Duration.ofDays(1); // 期限待ちの最大待機時間
+    
+    @Autowired
+    private ZenginCommunicationService communicationService;
+    
+    @Autowired
+    private BankRateLimiterRegistry rateLimiterRegistry;
+    
+    @Value("${zengin.scheduler.cutoffs:}")
+    private String cutoffs; // 銀行ごとのカットオフ時刻（receiverId=HH:mm のカンマ区切り）
+    
+    @Value("${zengin.scheduler.worker-threads:1}")
+    private int workerThreads;
+    
+    @Value("${zengin.scheduler.max-concurrency-per-bank:1}")
+    private int maxConcurrencyPerBank;
+    
+    @Value("${zengin.scheduler.initial-estimate-millis:1000}")
+    private long initialEstimateMillis; // 実績がない銀行の1件あたり所要時間の見込み
+    
+    private Clock clock = Clock.systemDefaultZone();
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<String, BankQueue> bankQueues = new HashMap<>();
+    private final Map<String, LocalTime> cutoffTimes = new HashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private int totalInFlight;
+    private volatile boolean running;
+    
+    private ExecutorService workers;
+    private Thread dispatcher;
+    
+    /**
+     * スケジューラを開始します
+     */
+    @PostConstruct
+    public void start() {
+        cutoffTimes.putAll(parseCutoffs(cutoffs));
+        
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "zengin-scheduler-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "zengin-scheduler-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+    
+    /**
+     * スケジューラを停止します
+     * 送信待ちの要求はキャンセルされます
+     */
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            running = false;
+            for (BankQueue bankQueue : bankQueues.values()) {
+                for (ScheduledTransmission<?> transmission : bankQueue.queue) {
+                    transmission.getFuture().cancel(false);
+                }
+                bankQueue.queue.clear();
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        
+        if (workers != null) {
+            workers.shutdown();
+        }
+    }
+    
+    /**
+     * 振込データの送信を登録します
+     * 送信期限は受信者IDに設定されたカットオフ時刻（当日）です
+     * 
+     * @param receiverId 受信者ID（銀行ID）
+     * @param transferData 振込データ
+     * @return 登録された送信要求
+     */
+    public ScheduledTransmission<Boolean> submitTransfer(String receiverId, byte[][] transferData) {
+        return submit(receiverId, MessageType.TRANSFER, transferData, cutoffDeadline(receiverId));
+    }
+    
+    /**
+     * 振込データの送信を期限を指定して登録します
+     * 
+     * @param receiverId 受信者ID（銀行ID）
+     * @param transferData 振込データ
+     * @param deadline 送信期限
+     * @return 登録された送信要求
+     */
+    public ScheduledTransmission<Boolean> submitTransfer(String receiverId, byte[][] transferData, Instant deadline) {
+        return submit(receiverId, MessageType.TRANSFER, transferData, deadline);
+    }
+    
+    /**
+     * 照会データの送信を登録します
+     * 送信期限は受信者IDに設定されたカットオフ時刻（当日）です
+     * 
+     * @param receiverId 受信者ID（銀行ID）
+     * @param inquiryData 照会データ
+     * @return 登録された送信要求（結果は照会応答）
+     */
+    public ScheduledTransmission<ZenginMessage> submitInquiry(String receiverId, byte[][] inquiryData) {
+        return submit(receiverId, MessageType.INQUIRY, inquiryData, cutoffDeadline(receiverId));
+    }
+    
+    /**
+     * 送信要求を登録します
+     * 
+     * @param <T> 送信結果の型
+     * @param receiverId 受信者ID（銀行ID）
+     * @param messageType 電文種別
+     * @param dataRecords データレコード配列
+     * @param deadline 送信期限
+     * @return 登録された送信要求
+     */
+    private <T> ScheduledTransmission<T> submit(String receiverId, MessageType messageType, byte[][] dataRecords,
+            Instant deadline) {
+        Instant now = clock.instant();
+        ScheduledTransmission<T> transmission = new ScheduledTransmission<>(
+                receiverId, messageType, dataRecords, deadline, sequence.incrementAndGet(), now, this);
+        
+        if (!deadline.isAfter(now)) {
+            transmission.getFuture().completeExceptionally(new ZenginCommunicationException(
+                    "カットオフ時刻を過ぎているため送信できません: 送信先=" + receiverId + ", 期限=" + deadline, "E013"));
+            return transmission;
+        }
+        
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("送信スケジューラが停止しています");
+            }
+            bankQueue(receiverId).queue.add(transmission);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        
+        logger.debug("送信要求を登録しました: 送信先={}, 種別={}, 期限={}", receiverId, messageType, deadline);
+        return transmission;
+    }
+    
+    /**
+     * 送信待ちの要求を送信順に取得します
+     * 
+     * @param receiverId 受信者ID（銀行ID）
+     * @return 送信待ちの要求のリスト
+     */
+    public List<ScheduledTransmission<?>> getQueuedTransmissions(String receiverId) {
+        lock.lock();
+        try {
+            BankQueue bankQueue = bankQueues.get(receiverId);
+            if (bankQueue == null) {
+                return List.of();
+            }
+            List<ScheduledTransmission<?>> queued = new ArrayList<>(bankQueue.queue);
+            queued.sort(null);
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 送信要求の完了見込み時刻を算出します
+     * 
+     * @param transmission 送信要求
+     * @return 完了見込み時刻
+     */
+    Instant estimateCompletionTime(ScheduledTransmission<?> transmission) {
+        lock.lock();
+        try {
+            BankQueue bankQueue = bankQueue(transmission.getReceiverId());
+            Instant now = clock.instant();
+            long durationMillis = Math.round(bankQueue.averageDurationMillis);
+            
+            if (!bankQueue.queue.contains(transmission)) {
+                // 送信中
+                return now.plusMillis(durationMillis);
+            }
+            
+            int ahead = 0;
+            for (ScheduledTransmission<?> queued : bankQueue.queue) {
+                if (queued.compareTo(transmission) < 0) {
+                    ahead++;
+                }
+            }
+            
+            // 同時実行数で割り当てた場合の開始待ち時間と、送信レートによる開始待ち時間の遅い方
+            int concurrency = Math.max(1, Math.min(maxConcurrencyPerBank, workerThreads));
+            long waitMillis = ((ahead + bankQueue.inFlight) / concurrency) * durationMillis;
+            double ratePerSecond = bankQueue.limiter.getRatePerSecond();
+            if (ratePerSecond > 0) {
+                waitMillis = Math.max(waitMillis, (long) (ahead * 1000 / ratePerSecond));
+            }
+            return now.plusMillis(waitMillis + durationMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 送信要求の振り分けループです
+     * 送信可能な銀行の待ち行列の先頭のうち、期限の最も早い要求から送信します
+     */
+    private void dispatchLoop() {
+        lock.lock();
+        try {
+            while (running) {
+                long nowNanos = System.nanoTime();
+                BankQueue selected = null;
+                
+                // 期限切れの要求を失敗させ、次の期限まで待機できるようにする
+                long waitNanos = expireOverdue();
+                
+                if (totalInFlight < workerThreads) {
+                    for (BankQueue bankQueue : bankQueues.values()) {
+                        if (bankQueue.queue.isEmpty() || bankQueue.inFlight >= maxConcurrencyPerBank) {
+                            continue;
+                        }
+                        long delayNanos = bankQueue.limiter.permitDelayNanos(nowNanos);
+                        if (delayNanos > 0) {
+                            // 送信レートによる待ち時間だけ待つ
+                            waitNanos = Math.min(waitNanos, delayNanos);
+                            continue;
+                        }
+                        if (selected == null || bankQueue.queue.peek().compareTo(selected.queue.peek()) < 0) {
+                            selected = bankQueue;
+                        }
+                    }
+                }
+                
+                if (selected == null) {
+                    if (waitNanos == Long.MAX_VALUE) {
+                        changed.await();
+                    } else {
+                        changed.awaitNanos(waitNanos);
+                    }
+                    continue;
+                }
+                
+                ScheduledTransmission<?> transmission = selected.queue.poll();
+                selected.inFlight++;
+                totalInFlight++;
+                selected.limiter.acquire(nowNanos);
+                
+                BankQueue bankQueue = selected;
+                workers.execute(() -> execute(transmission, bankQueue));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 期限を過ぎた送信待ちの要求を失敗させます
+     * 
+     * @return 次に期限を迎える要求までの時間（ナノ秒、送信待ちの要求がない場合は Long.MAX_VALUE）
+     */
+    private long expireOverdue() {
+        Instant now = clock.instant();
+        long nextDeadlineNanos = Long.MAX_VALUE;
+        for (BankQueue bankQueue : bankQueues.values()) {
+            while (!bankQueue.queue.isEmpty() && !bankQueue.queue.peek().getDeadline().isAfter(now)) {
+                ScheduledTransmission<?> expired = bankQueue.queue.poll();
+                logger.warn("カットオフ時刻までに送信できませんでした: 送信先={}, 期限={}",
+                        expired.getReceiverId(), expired.getDeadline());
+                expired.getFuture().completeExceptionally(new ZenginCommunicationException(
+                        "カットオフ時刻までに送信できませんでした: 送信先=" + expired.getReceiverId(), "E013"));
+            }
+            if (!bankQueue.queue.isEmpty() && !bankQueue.queue.peek().getDeadline().equals(Instant.MAX)) {
+                // 遠い期限は1日ごとに再確認する（ナノ秒換算の桁あふれ防止）
+                Duration untilDeadline = Duration.between(now, bankQueue.queue.peek().getDeadline());
+                nextDeadlineNanos = Math.min(nextDeadlineNanos, untilDeadline.compareTo(MAX_DEADLINE_WAIT) < 0
+                        ? untilDeadline.toNanos() : MAX_DEADLINE_WAIT.toNanos());
+            }
+        }
+        return nextDeadlineNanos;
+    }
+    
+    /**
+     * 送信要求を実行します
+     * 
+     * @param transmission 送信要求
+     * @param bankQueue 送信先銀行の待ち行列
+     */
+    @SuppressWarnings("unchecked")
+    private void execute(ScheduledTransmission<?> transmission, BankQueue bankQueue) {
+        long startNanos = System.nanoTime();
+        try {
+            if (transmission.getMessageType() == MessageType.INQUIRY) {
+                ZenginMessage response = communicationService.sendInquiryAndReceiveResponse(
+                        transmission.getReceiverId(), transmission.getDataRecords());
+                ((ScheduledTransmission<ZenginMessage>) transmission).getFuture().complete(response);
+            } else {
+                boolean result = communicationService.sendTransferData(
+                        transmission.getReceiverId(), transmission.getDataRecords());
+                ((ScheduledTransmission<Boolean>) transmission).getFuture().complete(result);
+            }
+        } catch (Exception e) {
+            logger.warn("スケジュールされた送信に失敗しました: 送信先={}", transmission.getReceiverId(), e);
+            transmission.getFuture().completeExceptionally(e);
+        } finally {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            lock.lock();
+            try {
+                bankQueue.inFlight--;
+                totalInFlight--;
+                bankQueue.averageDurationMillis += DURATION_SMOOTHING * (elapsedMillis - bankQueue.averageDurationMillis);
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * 受信者IDのカットオフ時刻から当日の送信期限を求めます
+     * 
+     * @param receiverId 受信者ID（銀行ID）
+     * @return 送信期限（カットオフ時刻が設定されていない場合は Instant.MAX）
+     */
+    private Instant cutoffDeadline(String receiverId) {
+        LocalTime cutoff = cutoffTimes.get(receiverId);
+        if (cutoff == null) {
+            return Instant.MAX;
+        }
+        return LocalDate.now(clock).atTime(cutoff).atZone(clock.getZone()).toInstant();
+    }
+    
+    /**
+     * 銀行の待ち行列を取得します（ロック取得中に呼び出すこと）
+     * 
+     * @param receiverId 受信者ID（銀行ID）
+     * @return 銀行の待ち行列
+     */
+    private BankQueue bankQueue(String receiverId) {
+        return bankQueues.computeIfAbsent(receiverId,
+                id -> new BankQueue(rateLimiterRegistry.getLimiter(id), initialEstimateMillis));
+    }
+    
+    /**
+     * カットオフ時刻設定を解析します
+     * 
+     * @param cutoffs receiverId=HH:mm のカンマ区切り
+     * @return 受信者IDごとのカットオフ時刻
+     */
+    private Map<String, LocalTime> parseCutoffs(String cutoffs) {
+        Map<String, LocalTime> result = new HashMap<>();
+        if (cutoffs == null || cutoffs.isBlank()) {
+            return result;
+        }
+        for (String entry : cutoffs.split(",")) {
+            String[] pair = entry.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("カットオフ時刻の設定が不正です: " + entry);
+            }
+            result.put(pair[0].trim(), LocalTime.parse(pair[1].trim()));
+        }
+        return result;
+    }
+    
+    /**
+     * 時計を設定します（テスト用）
+     * 
+     * @param clock 時計
+     */
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+    
+    /**
+     * 銀行ごとの送信待ち行列と実行状況
+     */
+    private static class BankQueue {
+        private final PriorityQueue<ScheduledTransmission<?>> queue = new PriorityQueue<>();
+        private final BankRateLimiter limiter;
+        private int inFlight;
+        private double averageDurationMillis;
+        
+        BankQueue(BankRateLimiter limiter, long initialEstimateMillis) {
+            this.limiter = limiter;
+            this.averageDurationMillis = initialEstimateMillis;
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.example.zengin.buffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * フレーム送受信用バッファプールのテストクラス
+ */
+public class FrameBufferPoolTest {
+    
+    private FrameBufferPool pool;
+    
+    @BeforeEach
+    public void setUp() {
+        pool = new FrameBufferPool();
+        pool.setLeakDetection(true);
+    }
+    
+    @Test
+    public void testCapacityIsRoundedUpToSizeClass() {
+        try (PooledBuffer small = pool.acquire(100);
+                PooledBuffer medium = pool.acquire(8193);
+                PooledBuffer large = pool.acquire(FrameBufferPool.MAX_POOLED_CAPACITY)) {
+            assertEquals(8192, small.capacity());
+            assertEquals(16384, medium.capacity());
+            assertEquals(FrameBufferPool.MAX_POOLED_CAPACITY, large.capacity());
+            assertTrue(small.buffer().isDirect());
+            assertEquals(3, pool.getOutstanding());
+        }
+        assertEquals(0, pool.getOutstanding());
+    }
+    
+    @Test
+    public void testReleasedBufferIsReusedFromThreadCache() {
+        ByteBuffer first;
+        try (PooledBuffer buffer = pool.acquire(1000)) {
+            first = buffer.buffer();
+            first.put((byte) 1);
+        }
+        try (PooledBuffer buffer = pool.acquire(2000)) {
+            assertSame(first, buffer.buffer());
+            assertEquals(0, buffer.buffer().position());
+            assertEquals(buffer.capacity(), buffer.buffer().limit());
+        }
+        
+        assertEquals(1, pool.getAllocations());
+        assertEquals(1, pool.getThreadCacheHits());
+        assertEquals(0.5, pool.getHitRate(), 0.001);
+    }
+    
+    @Test
+    public void testBufferReleasedByAnotherThreadIsSharedWhenThreadCacheIsFull() throws Exception {
+        pool.setThreadCacheSize(0);
+        PooledBuffer buffer = pool.acquire(1000);
+        Thread releaser = new Thread(buffer::close);
+        releaser.start();
+        releaser.join();
+        
+        try (PooledBuffer reused = pool.acquire(1000)) {
+            assertEquals(1, pool.getSharedCacheHits());
+        }
+    }
+    
+    @Test
+    public void testLargeBufferIsNotPooled() {
+        try (PooledBuffer buffer = pool.acquire(FrameBufferPool.MAX_POOLED_CAPACITY + 1)) {
+            assertFalse(buffer.buffer().isDirect());
+            assertEquals(FrameBufferPool.MAX_POOLED_CAPACITY + 1, buffer.capacity());
+        }
+        assertEquals(1, pool.getUnpooledAllocations());
+        assertEquals(0, pool.getAllocations());
+    }
+    
+    @Test
+    public void testReleasedBufferCannotBeUsed() {
+        PooledBuffer buffer = pool.acquire(1000);
+        buffer.close();
+        
+        assertThrows(IllegalStateException.class, buffer::buffer);
+        assertThrows(IllegalStateException.class, buffer::close);
+        assertEquals(0, pool.getOutstanding());
+    }
+    
+    @Test
+    public void testLeakDetectionReportsUnreleasedBuffer() {
+        PooledBuffer leaked = pool.acquire(1000);
+        pool.acquire(2000).close();
+        
+        assertEquals(1, pool.checkLeaks());
+        leaked.close();
+        assertEquals(0, pool.checkLeaks());
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.example.zengin.communication;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.integration.ip.tcp.serializer.SoftEndOfStreamException;
+
+/**
+ * 全銀フレームシリアライザのテストクラス
+ */
+public class ZenginStxEtxSerializerTest {
+    
+    private static final byte STX = 0x02;
+    private static final byte ETX = 0x03;
+    private static final byte ENQ = 0x05;
+    private static final byte ACK = 0x06;
+    
+    private ZenginStxEtxSerializer serializer;
+    
+    @BeforeEach
+    public void setUp() {
+        serializer = new ZenginStxEtxSerializer();
+        serializer.setMaxMessageSize(1024);
+    }
+    
+    @Test
+    public void testSerializeDataFrame() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        
+        // データフレームを書き込み
+        serializer.serialize("TEST_DATA".getBytes(), outputStream);
+        
+        // STX + データ + ETX で書き込まれたことを確認
+        byte[] written = outputStream.toByteArray();
+        assertEquals(11, written.length);
+        assertEquals(STX, written[0]);
+        assertEquals("TEST_DATA", new String(written, 1, 9));
+        assertEquals(ETX, written[10]);
+    }
+    
+    @Test
+    public void testSerializeControlCharacter() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        
+        // 制御文字を書き込み
+        serializer.serialize(ZenginControlCode.ACK, outputStream);
+        
+        // STX/ETXで囲まれずに書き込まれたことを確認
+        assertArrayEquals(new byte[] { ACK }, outputStream.toByteArray());
+    }
+    
+    @Test
+    public void testSerializeOneByteDataFrame() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        
+        // 制御文字と同じ値の1バイトのデータを書き込み
+        serializer.serialize(new byte[] { ACK }, outputStream);
+        
+        // 制御文字ではなくデータフレームとして書き込まれたことを確認
+        assertArrayEquals(new byte[] { STX, ACK, ETX }, outputStream.toByteArray());
+        assertThrows(IllegalArgumentException.class, () -> serializer.serialize("ACK", new ByteArrayOutputStream()));
+    }
+    
+    @Test
+    public void testDeserializeDataFrameAndControlCharacter() throws IOException {
+        // ENQ + STX + データ + ETX + STX + ACK + ETX の順に受信
+        byte[] received = new byte[] { ENQ, STX, 'A', 'B', 'C', ETX, STX, ACK, ETX };
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(received);
+        
+        // 制御文字とデータフレームが型で区別して読み取れることを確認
+        assertEquals(ZenginControlCode.ENQ, serializer.deserialize(inputStream));
+        assertArrayEquals("ABC".getBytes(), (byte[]) serializer.deserialize(inputStream));
+        assertArrayEquals(new byte[] { ACK }, (byte[]) serializer.deserialize(inputStream));
+        
+        // ストリーム終端ではフレーム間の切断として扱われることを確認
+        assertThrows(SoftEndOfStreamException.class, () -> serializer.deserialize(inputStream));
+    }
+    
+    @Test
+    public void testDeserializeExceedsMaxMessageSize() {
+        // 上限を超えるフレーム
+        byte[] received = new byte[2000];
+        received[0] = STX;
+        for (int i = 1; i < received.length; i++) {
+            received[i] = 'X';
+        }
+        
+        // 上限超過で例外が発生することを確認
+        assertThrows(IOException.class, () -> serializer.deserialize(new ByteArrayInputStream(received)));
+    }
+} 
\ No newline at end of file
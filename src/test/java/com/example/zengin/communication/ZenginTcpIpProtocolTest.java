@@ -240,4 +240,82 @@ public class ZenginTcpIpProtocolTest {
         // ENQが送信されたことを確認
         assertEquals(ENQ, outputStream.toByteArray()[0]);
     }
+
+    @Test
+    public void testSendDataInBlocks_Success() throws Exception {
+        // 入力ストリームの準備（3ブロックそれぞれにACK + ブロック番号を返す）
+        byte[] responseData = blockResponses(ACK, 0, ACK, 1, ACK, 2);
+        inputStream = new ByteArrayInputStream(responseData);
+        
+        // モックの設定
+        when(socket.getInputStream()).thenReturn(inputStream);
+        when(socket.getOutputStream()).thenReturn(outputStream);
+        ReflectionTestUtils.setField(zenginProtocol, "socket", socket);
+        ReflectionTestUtils.setField(zenginProtocol, "inputStream", inputStream);
+        ReflectionTestUtils.setField(zenginProtocol, "outputStream", outputStream);
+        zenginProtocol.setBlockSize(4);
+        
+        // ブロック転送実行（10バイト → 4 + 4 + 2 の3ブロック）
+        boolean result = zenginProtocol.sendDataInBlocks("localhost", 20000, "F000000001", "0123456789".getBytes());
+        
+        // 送信成功を確認
+        assertTrue(result);
+        
+        // 3ブロックが送信されたことを確認（STX + 転送ID(10) + ブロック番号(8) + 総ブロック数(8) + データ + ETX）
+        byte[] sentData = outputStream.toByteArray();
+        assertEquals(3, countByte(sentData, STX));
+        assertEquals("F000000001" + "00000000" + "00000003" + "0123", new String(sentData, 1, 30));
+        
+        // 転送完了後は再開位置がクリアされていることを確認
+        assertEquals(0, zenginProtocol.getAcknowledgedBlocks("F000000001"));
+    }
+
+    @Test
+    public void testSendDataInBlocks_ResendOnlyNakBlock() throws Exception {
+        // 入力ストリームの準備（ブロック1のみNAK、再送後にACK）
+        byte[] responseData = blockResponses(ACK, 0, NAK, 1, ACK, 2, ACK, 1);
+        inputStream = new ByteArrayInputStream(responseData);
+        
+        // モックの設定
+        when(socket.getInputStream()).thenReturn(inputStream);
+        when(socket.getOutputStream()).thenReturn(outputStream);
+        ReflectionTestUtils.setField(zenginProtocol, "socket", socket);
+        ReflectionTestUtils.setField(zenginProtocol, "inputStream", inputStream);
+        ReflectionTestUtils.setField(zenginProtocol, "outputStream", outputStream);
+        zenginProtocol.setBlockSize(4);
+        
+        // ブロック転送実行
+        boolean result = zenginProtocol.sendDataInBlocks("localhost", 20000, "F000000002", "0123456789".getBytes());
+        
+        // 送信成功を確認
+        assertTrue(result);
+        
+        // 初回3ブロック + NAKを受けたブロック1の再送のみで、計4ブロックが送信されたことを確認
+        assertEquals(4, countByte(outputStream.toByteArray(), STX));
+    }
+
+    /**
+     * ブロック応答（制御文字 + 8桁のブロック番号）のバイト列を作成します
+     */
+    private byte[] blockResponses(Object... controlAndNumbers) {
+        ByteArrayOutputStream responses = new ByteArrayOutputStream();
+        for (int i = 0; i < controlAndNumbers.length; i += 2) {
+            responses.write((Byte) controlAndNumbers[i]);
+            responses.writeBytes(String.format("%08d", (Integer) controlAndNumbers[i + 1]).getBytes());
+        }
+        return responses.toByteArray();
+    }
+
+    /**
+     * バイト列に含まれる指定バイトの数を数えます
+     */
+    private int countByte(byte[] data, byte target) {
+        int count = 0;
+        for (byte b : data) {
+            if (b == target) {
+                count++;
+            }
+        }
+        return count;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.example.zengin.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.integration.IntegrationAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import com.example.zengin.communication.ZenginControlCode;
+import com.example.zengin.communication.ZenginTcpGateway;
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginMessage.MessageType;
+import com.example.zengin.stub.StubBankServer;
+
+/**
+ * 全銀TCP/IP通信のSpring Integration設定をスタブ銀行サーバに対して動作させる結合テストクラス
+ */
+public class ZenginIntegrationConfigTest {
+    
+    private static final long EOT_TIMEOUT_MILLIS = 5000;
+    
+    private StubBankServer server;
+    
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new StubBankServer().start();
+    }
+    
+    @AfterEach
+    public void tearDown() throws Exception {
+        server.close();
+    }
+    
+    @Test
+    public void testGatewayExchangesFramesWithStubBankServer() throws Exception {
+        ZenginMessage transfer = new ZenginMessage(MessageType.TRANSFER, "CLIENT", "STUBBANK");
+        transfer.setDataRecords(new byte[2][120]);
+        
+        contextRunner().run(context -> {
+            ZenginTcpGateway gateway = context.getBean(ZenginTcpGateway.class);
+            
+            assertEquals(ZenginControlCode.ACK, gateway.exchange(transfer.toByteArray()));
+            // 制御文字と同じ値の1バイトのデータもデータフレームとして送信されること
+            assertEquals(ZenginControlCode.ACK, gateway.exchange(new byte[] { 0x06 }));
+            
+            assertEquals(2, server.getReceivedFrames());
+            assertEquals(1, server.getEnquiries());
+        });
+        
+        // コンテキストの終了時に接続が閉じられ、EOTが送信されること
+        long deadline = System.currentTimeMillis() + EOT_TIMEOUT_MILLIS;
+        while (server.getEndOfTransmissions() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, server.getEndOfTransmissions());
+    }
+    
+    private ApplicationContextRunner contextRunner() {
+        return new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(IntegrationAutoConfiguration.class))
+                .withUserConfiguration(ZenginIntegrationConfig.class)
+                .withPropertyValues(
+                        "zengin.integration.enabled=true",
+                        "zengin.tls.enabled=false",
+                        "zengin.bank.host=127.0.0.1",
+                        "zengin.bank.port=" + server.getPort(),
+                        "zengin.integration.inbound.port=0");
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,182 @@
+package com.example.zengin.format;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * ファイルIDの生成クラスのテストクラス
+ */
+public class FileIdGeneratorTest {
+    
+    private static final long NOW = 1760000000000L; // 固定の現在時刻（エポックミリ秒）
+    private static final int SEQUENCES_PER_SECOND = 1 << 15; // 1秒あたりの連番の件数
+    private static final long BLOCKED_MILLIS = 200; // 採番が待っていることを確認する時間
+    
+    @Test
+    public void testFileIdIsTenBase36Characters() {
+        String fileId = new FileIdGenerator(63).next();
+        
+        assertEquals(FileIdGenerator.LENGTH, fileId.length());
+        assertTrue(fileId.matches("[0-9A-Z]{10}"), fileId);
+        assertEquals(FileIdGenerator.LENGTH, FileIdGenerator.shared().next().length());
+    }
+    
+    @Test
+    public void testSameMillisecondIsUnique() {
+        FileIdGenerator generator = new FileIdGenerator(1, () -> NOW);
+        Set<String> fileIds = new HashSet<>();
+        for (int i = 0; i < SEQUENCES_PER_SECOND; i++) {
+            assertTrue(fileIds.add(generator.next()));
+        }
+    }
+    
+    @Test
+    public void testNodesDoNotCollide() {
+        FileIdGenerator node1 = new FileIdGenerator(1, () -> NOW);
+        FileIdGenerator node2 = new FileIdGenerator(2, () -> NOW);
+        Set<String> fileIds = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(fileIds.add(node1.next()));
+            assertTrue(fileIds.add(node2.next()));
+        }
+    }
+    
+    @Test
+    public void testSequenceExhaustionWaitsForNextSecond() throws Exception {
+        AtomicLong clock = new AtomicLong(NOW);
+        FileIdGenerator generator = new FileIdGenerator(5, clock::get);
+        Set<String> fileIds = new HashSet<>();
+        for (int i = 0; i < SEQUENCES_PER_SECOND; i++) {
+            assertTrue(fileIds.add(generator.next()));
+        }
+        
+        // 1秒の連番（2^15件）を使い切った場合は、次の秒の値を先取りせずに時計が進むまで待つ
+        FutureTask<String> waiting = new FutureTask<>(generator::next);
+        new Thread(waiting).start();
+        assertThrows(TimeoutException.class, () -> waiting.get(BLOCKED_MILLIS, TimeUnit.MILLISECONDS));
+        clock.addAndGet(1000);
+        assertTrue(fileIds.add(waiting.get(5, TimeUnit.SECONDS)));
+    }
+    
+    @Test
+    public void testClockGoingBackwardsIsUnique() throws Exception {
+        AtomicLong clock = new AtomicLong(NOW);
+        FileIdGenerator generator = new FileIdGenerator(0, clock::get);
+        Set<String> fileIds = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(fileIds.add(generator.next()));
+        }
+        
+        // 少し戻った場合は、最後に採番した秒に時計が追いつくまで待つ
+        clock.set(NOW - 2000);
+        FutureTask<String> waiting = new FutureTask<>(generator::next);
+        new Thread(waiting).start();
+        assertThrows(TimeoutException.class, () -> waiting.get(BLOCKED_MILLIS, TimeUnit.MILLISECONDS));
+        clock.set(NOW);
+        assertTrue(fileIds.add(waiting.get(5, TimeUnit.SECONDS)));
+        
+        // 上限を超えて戻った場合は、待たずに採番を中止する
+        clock.set(NOW - 60000);
+        assertThrows(IllegalStateException.class, generator::next);
+        clock.set(NOW);
+        assertTrue(fileIds.add(generator.next()));
+    }
+    
+    @Test
+    public void testConcurrentGenerationIsUnique() throws Exception {
+        FileIdGenerator generator = new FileIdGenerator(7);
+        Set<String> fileIds = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = SEQUENCES_PER_SECOND / threads;
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    fileIds.add(generator.next());
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        
+        assertEquals(threads * perThread, fileIds.size());
+    }
+    
+    @Test
+    public void testEpochIsConfigurable() {
+        LocalDate epoch = LocalDate.of(2025, 1, 1);
+        long epochMillis = epoch.atStartOfDay(ZoneOffset.UTC).toEpochSecond() * 1000;
+        
+        // 起点日の時点は時刻0のため、ノードID0では連番のみの値になる
+        assertEquals("0000000001", new FileIdGenerator(0, epoch, () -> epochMillis).next());
+        assertNotEquals(new FileIdGenerator(0, () -> NOW).next(), new FileIdGenerator(0, epoch, () -> NOW).next());
+        assertThrows(IllegalArgumentException.class,
+                () -> new FileIdGenerator(0, LocalDate.of(2100, 1, 1), () -> NOW));
+    }
+    
+    @Test
+    public void testTimeDoesNotWrapWithinThirtyYears() {
+        LocalDate epoch = LocalDate.of(2024, 1, 1);
+        long epochMillis = epoch.atStartOfDay(ZoneOffset.UTC).toEpochSecond() * 1000;
+        
+        // 30年後の同時刻のIDは起点日のIDと重複しない
+        String first = new FileIdGenerator(0, epoch, () -> epochMillis).next();
+        String later = new FileIdGenerator(0, epoch, () -> epochMillis + 30L * 366 * 24 * 3600 * 1000).next();
+        assertNotEquals(first, later);
+        assertTrue(later.matches("[0-9A-Z]{10}"), later);
+        
+        // 時刻の上限（2^30秒）を超えた場合は一巡せずに採番を中止する
+        FileIdGenerator expired = new FileIdGenerator(0, epoch, () -> epochMillis + (1L << 30) * 1000);
+        assertThrows(IllegalStateException.class, expired::next);
+    }
+    
+    @Test
+    public void testInvalidNodeIdIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new FileIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new FileIdGenerator(64));
+    }
+    
+    @Test
+    public void testNodeIdIsRequiredForMultipleNodes() {
+        // 単一ノードではノードIDを省略できる
+        assertEquals(0, FileIdGenerator.resolveNodeId(null, null));
+        assertEquals(0, FileIdGenerator.resolveNodeId(" ", "1"));
+        assertEquals(63, FileIdGenerator.resolveNodeId("63", null));
+        
+        // 複数ノードではノードIDの指定が必須で、ノード数の範囲内であること
+        assertEquals(2, FileIdGenerator.resolveNodeId("2", "3"));
+        assertThrows(IllegalStateException.class, () -> FileIdGenerator.resolveNodeId(null, "2"));
+        assertThrows(IllegalStateException.class, () -> FileIdGenerator.resolveNodeId("3", "3"));
+        assertThrows(IllegalStateException.class, () -> FileIdGenerator.resolveNodeId("0", "65"));
+    }
+    
+    @Test
+    public void testMessagesCreatedTogetherHaveDistinctFileIds() {
+        ZenginMessage first = new ZenginMessage(ZenginMessage.MessageType.INQUIRY, "SENDER0001", "BANK000001");
+        ZenginMessage second = new ZenginMessage(ZenginMessage.MessageType.INQUIRY, "SENDER0001", "BANK000001");
+        
+        assertNotEquals(first.getFileId(), second.getFileId());
+    }
+} 
\ No newline at end of file
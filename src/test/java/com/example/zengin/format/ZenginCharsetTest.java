@@ -0,0 +1,93 @@
+package com.example.zengin.format;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.Charset;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.zengin.format.ZenginMessage.MessageType;
+
+/**
+ * 全銀フォーマットの文字コードのテストクラス
+ */
+public class ZenginCharsetTest {
+    
+    private static final String TEXT = "ｾﾞﾝｷﾞﾝ ﾀﾛｳ 0123456789 ABC()-./";
+    
+    @Test
+    public void testJisMatchesShiftJis() {
+        byte[] encoded = ZenginCharset.JIS.encode(TEXT, 40);
+        byte[] expected = (TEXT + " ".repeat(40 - TEXT.length())).getBytes(Charset.forName("Shift_JIS"));
+        
+        assertArrayEquals(expected, encoded);
+        assertEquals(TEXT, ZenginCharset.JIS.decode(encoded).trim());
+    }
+    
+    @Test
+    public void testEbcdicMatchesIbm290() {
+        byte[] encoded = ZenginCharset.EBCDIC.encode(TEXT, 40);
+        byte[] expected = (TEXT + " ".repeat(40 - TEXT.length())).getBytes(Charset.forName("IBM290"));
+        
+        assertArrayEquals(expected, encoded);
+        assertEquals((byte) 0x40, encoded[39]); // 空白
+        assertEquals(TEXT, ZenginCharset.EBCDIC.decode(encoded).trim());
+    }
+    
+    @Test
+    public void testYenSignIsEncodedAsBackslashPosition() {
+        byte[] encoded = ZenginCharset.JIS.encode("¥1000", 5);
+        
+        assertEquals(0x5C, encoded[0]);
+    }
+    
+    @Test
+    public void testUnmappableCharacterIsRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ZenginCharset.JIS.encode("全銀", 10));
+        assertTrue(e.getMessage().contains("U+5168"));
+    }
+    
+    @Test
+    public void testLongValueIsTruncated() {
+        byte[] buffer = new byte[6];
+        ZenginCharset.JIS.encode("ABCDEFGH", buffer, 1, 4);
+        
+        assertArrayEquals(new byte[] { 0, 'A', 'B', 'C', 'D', 0 }, buffer);
+    }
+    
+    @Test
+    public void testEbcdicMessageRoundTrip() {
+        ZenginMessage message = new ZenginMessage(MessageType.TRANSFER, "SENDER0001", "BANK000001");
+        message.setCharset(ZenginCharset.EBCDIC);
+        message.setDataRecords(new byte[][] { ZenginCharset.EBCDIC.encode("ｾﾞﾝｷﾞﾝ", 120) });
+        byte[] data = message.toByteArray();
+        
+        assertEquals(ZenginCharset.EBCDIC, ZenginCharset.detect(data));
+        
+        ZenginMessage restored = ZenginMessage.fromByteArray(data);
+        assertEquals(ZenginCharset.EBCDIC, restored.getCharset());
+        assertEquals(MessageType.TRANSFER, restored.getMessageType());
+        assertEquals("SENDER0001", restored.getSenderId());
+        assertEquals("BANK000001", restored.getReceiverId());
+        assertEquals("ｾﾞﾝｷﾞﾝ", ZenginCharset.EBCDIC.decode(restored.getDataRecords()[0]).trim());
+    }
+    
+    @Test
+    public void testParseDigits() {
+        for (ZenginCharset charset : ZenginCharset.values()) {
+            byte[] field = charset.encode("X0123456789", 11);
+            assertEquals(123456789, charset.parseDigits(field, 2, 9));
+            assertEquals(12, charset.parseDigits(field, 1, 3));
+            assertEquals(-1, charset.parseDigits(field, 0, 3));
+            assertEquals(-1, charset.parseDigits(charset.encode(" 12", 3), 0, 3));
+        }
+    }
+    
+    @Test
+    public void testJisIsDetectedByDefault() {
+        ZenginMessage message = new ZenginMessage(MessageType.INQUIRY, "SENDER0001", "BANK000001");
+        
+        assertEquals(ZenginCharset.JIS, ZenginCharset.detect(message.toByteArray()));
+    }
+} 
\ No newline at end of file
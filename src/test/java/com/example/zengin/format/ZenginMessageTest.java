@@ -2,6 +2,8 @@ package com.example.zengin.format;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -10,6 +12,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.example.zengin.format.ZenginMessage.MessageType;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
 
 /**
  * 全銀メッセージクラスのテスト
@@ -110,6 +113,28 @@ public class ZenginMessageTest {
         assertTrue(trailerStr.contains("00000002")); // レコード件数
     }
     
+    @Test
+    public void testEncodeToBuffer() {
+        byte[] messageBytes = testMessage.toByteArray();
+        
+        // ダイレクトバッファの途中の位置から書き込めることを確認
+        ByteBuffer buffer = ByteBuffer.allocateDirect(testMessage.getEncodedLength() + 1);
+        buffer.put((byte) 0x02);
+        testMessage.encodeTo(buffer);
+        
+        assertEquals(messageBytes.length, testMessage.getEncodedLength());
+        assertFalse(buffer.hasRemaining());
+        byte[] encoded = new byte[messageBytes.length];
+        buffer.position(1);
+        buffer.get(encoded);
+        assertArrayEquals(messageBytes, encoded);
+        
+        // 残りが足りない場合は書き込まない
+        ByteBuffer small = ByteBuffer.allocate(messageBytes.length - 1);
+        assertThrows(BufferOverflowException.class, () -> testMessage.encodeTo(small));
+        assertEquals(0, small.position());
+    }
+    
     @Test
     public void testFromByteArray() {
         // メッセージをバイト配列に変換
@@ -133,6 +158,75 @@ public class ZenginMessageTest {
         assertTrue(restoredData.contains("RECORD1DATA"));
     }
     
+    @Test
+    public void testFromByteArrayKeepsFileId() {
+        ZenginMessage message = new ZenginMessage(MessageType.NOTIFICATION, "BANK0001", "SENDER01");
+        message.setDataRecords(new byte[1][120]);
+        byte[] messageBytes = message.toByteArray();
+        
+        // 受信したヘッダのファイルIDを採番し直さずに保持すること（重複チェックのキー）
+        assertEquals(message.getFileId(), ZenginMessage.fromByteArray(messageBytes).getFileId());
+        assertEquals(message.getFileId(), ZenginMessage.fromByteArray(messageBytes).getFileId());
+    }
+    
+    @Test
+    public void testReceivedTotals() {
+        // データレコード2件と業務トレーラレコード（合計2件、30000円）を含むメッセージ
+        ZenginCharset charset = ZenginCharset.EBCDIC;
+        byte[][] records = new byte[3][];
+        for (int i = 0; i < 2; i++) {
+            records[i] = SogoFurikomiLayout.DATA.newRecord(charset);
+            SogoFurikomiLayout.DATA.text("データ区分").setString(records[i], "2", charset);
+            SogoFurikomiLayout.DATA_AMOUNT.setLong(records[i], 10000 * (i + 1), charset);
+        }
+        records[2] = SogoFurikomiLayout.TRAILER.newRecord(charset);
+        SogoFurikomiLayout.TRAILER.text("データ区分").setString(records[2], "8", charset);
+        SogoFurikomiLayout.TRAILER_TOTAL_COUNT.setLong(records[2], 2, charset);
+        SogoFurikomiLayout.TRAILER_TOTAL_AMOUNT.setLong(records[2], 30000, charset);
+        testMessage.setCharset(charset);
+        testMessage.setDataRecords(records);
+        
+        assertNull(testMessage.getReceivedTotals());
+        
+        ReceivedTotals totals = ZenginMessage.fromByteArray(testMessage.toByteArray()).getReceivedTotals();
+        
+        assertEquals(3, totals.getTrailerRecordCount());
+        assertEquals(3, totals.getRecordCount());
+        assertTrue(totals.hasFileTrailer());
+        assertEquals(2, totals.getFileTrailerCount());
+        assertEquals(30000, totals.getFileTrailerAmount());
+        assertEquals(2, totals.getDataCount());
+        assertEquals(30000, totals.getDataAmount());
+    }
+    
+    @Test
+    public void testFromBuffer() {
+        testMessage.setCharset(ZenginCharset.EBCDIC);
+        byte[] messageBytes = testMessage.toByteArray();
+        
+        // ダイレクトバッファの途中の位置から解析でき、位置は変更されないことを確認
+        ByteBuffer buffer = ByteBuffer.allocateDirect(messageBytes.length + 1);
+        buffer.put((byte) 0x02).put(messageBytes).position(1);
+        ZenginMessage restoredMessage = ZenginMessage.fromBuffer(buffer);
+        
+        assertEquals(1, buffer.position());
+        assertEquals(ZenginCharset.EBCDIC, restoredMessage.getCharset());
+        assertEquals(testMessage.getMessageType(), restoredMessage.getMessageType());
+        assertArrayEquals(testDataRecords, restoredMessage.getDataRecords());
+        assertEquals(2, restoredMessage.getReceivedTotals().getTrailerRecordCount());
+        assertThrows(IllegalArgumentException.class, () -> ZenginMessage.fromBuffer(buffer.limit(100)));
+    }
+    
+    @Test
+    public void testReceivedTotalsWithoutFileTrailer() {
+        ReceivedTotals totals = ZenginMessage.fromByteArray(testMessage.toByteArray()).getReceivedTotals();
+        
+        assertEquals(2, totals.getTrailerRecordCount());
+        assertEquals(2, totals.getRecordCount());
+        assertFalse(totals.hasFileTrailer());
+        assertEquals(0, totals.getDataCount());
+    }
+    
     @Test
     public void testCreateHeaderRecord() {
         // ヘッダーレコードを作成するためにtoByteArrayを呼び出す
@@ -0,0 +1,152 @@
+package com.example.zengin.format;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.zengin.format.ZenginMessage.MessageType;
+import com.example.zengin.format.layout.MessageEnvelopeLayout;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+
+/**
+ * 全銀フォーマットの逐次デコーダのテストクラス
+ */
+public class ZenginStreamDecoderTest {
+    
+    /**
+     * 受信した順にヘッダ・データレコード・トレーラを記録するハンドラ
+     */
+    private static class RecordingHandler implements ZenginStreamDecoder.Handler {
+        
+        private ZenginMessage header;
+        private final List<byte[]> records = new ArrayList<>();
+        private ReceivedTotals totals;
+        
+        @Override
+        public void onHeader(ZenginMessage header) {
+            this.header = header;
+        }
+        
+        @Override
+        public void onRecord(byte[] record) {
+            records.add(record.clone());
+        }
+        
+        @Override
+        public void onTrailer(ReceivedTotals totals) {
+            this.totals = totals;
+        }
+    }
+    
+    @Test
+    public void testRecordsAreDeliveredAsTheyArrive() {
+        byte[][] records = notificationRecords(ZenginCharset.JIS);
+        byte[] data = notification(ZenginCharset.JIS, records);
+        RecordingHandler handler = new RecordingHandler();
+        ZenginStreamDecoder decoder = new ZenginStreamDecoder(handler);
+        
+        // ヘッダレコードがそろった時点でヘッダを通知
+        decoder.feed(data, 0, 79);
+        assertNull(handler.header);
+        decoder.feed(data, 79, 1);
+        assertEquals(MessageType.NOTIFICATION, handler.header.getMessageType());
+        assertEquals("BANK0001", handler.header.getSenderId());
+        
+        // データレコードが1件そろうごとに通知
+        decoder.feed(data, 80, 130);
+        assertEquals(1, handler.records.size());
+        assertArrayEquals(records[0], handler.records.get(0));
+        assertNull(handler.totals);
+        
+        decoder.feed(data, 210, data.length - 210);
+        ReceivedTotals totals = decoder.finish();
+        
+        assertEquals(records.length, handler.records.size());
+        assertArrayEquals(records[2], handler.records.get(2));
+        assertSame(totals, handler.totals);
+        assertEquals(data.length, decoder.getBytes());
+    }
+    
+    @Test
+    public void testTotalsMatchWholeMessageDecodingForAnyChunking() throws Exception {
+        byte[] data = notification(ZenginCharset.EBCDIC, notificationRecords(ZenginCharset.EBCDIC));
+        ReceivedTotals expected = ZenginMessage.fromByteArray(data).getReceivedTotals();
+        
+        for (int chunk : new int[] { 1, 3, 80, 120, 4096 }) {
+            RecordingHandler handler = new RecordingHandler();
+            ZenginStreamDecoder decoder = new ZenginStreamDecoder(handler);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            decoder.setDigest(digest);
+            for (int offset = 0; offset < data.length; offset += chunk) {
+                decoder.feed(data, offset, Math.min(chunk, data.length - offset));
+            }
+            ReceivedTotals totals = decoder.finish();
+            
+            assertEquals(ZenginCharset.EBCDIC, decoder.getHeader().getCharset());
+            assertEquals(expected.getTrailerRecordCount(), totals.getTrailerRecordCount());
+            assertEquals(expected.getRecordCount(), totals.getRecordCount());
+            assertEquals(expected.getFileTrailerCount(), totals.getFileTrailerCount());
+            assertEquals(expected.getFileTrailerAmount(), totals.getFileTrailerAmount());
+            assertEquals(expected.getDataCount(), totals.getDataCount());
+            assertEquals(expected.getDataAmount(), totals.getDataAmount());
+            assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(data), digest.digest());
+        }
+    }
+    
+    @Test
+    public void testIncompleteMessageIsRejected() {
+        byte[] data = notification(ZenginCharset.JIS, notificationRecords(ZenginCharset.JIS));
+        ZenginStreamDecoder decoder = new ZenginStreamDecoder(new RecordingHandler());
+        decoder.feed(data, 0, data.length - 1);
+        
+        assertThrows(IllegalArgumentException.class, decoder::finish);
+        assertNull(decoder.getReceivedTotals());
+    }
+    
+    @Test
+    public void testDataAfterTrailerIsRejected() {
+        byte[] data = notification(ZenginCharset.JIS, notificationRecords(ZenginCharset.JIS));
+        byte[] extended = Arrays.copyOf(data, data.length + 1);
+        ZenginStreamDecoder decoder = new ZenginStreamDecoder(new RecordingHandler());
+        
+        assertThrows(IllegalArgumentException.class, () -> decoder.feed(extended, 0, extended.length));
+    }
+    
+    @Test
+    public void testUnknownMessageTypeIsRejected() {
+        byte[] data = notification(ZenginCharset.JIS, notificationRecords(ZenginCharset.JIS));
+        MessageEnvelopeLayout.HEADER_MESSAGE_TYPE.setString(data, "99", ZenginCharset.JIS);
+        ZenginStreamDecoder decoder = new ZenginStreamDecoder(new RecordingHandler());
+        
+        assertThrows(IllegalArgumentException.class, () -> decoder.feed(data, 0, data.length));
+    }
+    
+    /**
+     * データレコード2件と業務トレーラレコード（合計2件、30000円）を作成します
+     */
+    private static byte[][] notificationRecords(ZenginCharset charset) {
+        byte[][] records = new byte[3][];
+        for (int i = 0; i < 2; i++) {
+            records[i] = SogoFurikomiLayout.DATA.newRecord(charset);
+            SogoFurikomiLayout.DATA.text("データ区分").setString(records[i], "2", charset);
+            SogoFurikomiLayout.DATA_AMOUNT.setLong(records[i], 10000 * (i + 1), charset);
+        }
+        records[2] = SogoFurikomiLayout.TRAILER.newRecord(charset);
+        SogoFurikomiLayout.TRAILER.text("データ区分").setString(records[2], "8", charset);
+        SogoFurikomiLayout.TRAILER_TOTAL_COUNT.setLong(records[2], 2, charset);
+        SogoFurikomiLayout.TRAILER_TOTAL_AMOUNT.setLong(records[2], 30000, charset);
+        return records;
+    }
+    
+    private static byte[] notification(ZenginCharset charset, byte[][] records) {
+        ZenginMessage message = new ZenginMessage(MessageType.NOTIFICATION, "BANK0001", "TESTSENDER");
+        message.setCharset(charset);
+        message.setDataRecords(records);
+        return message.toByteArray();
+    }
+} 
\ No newline at end of file
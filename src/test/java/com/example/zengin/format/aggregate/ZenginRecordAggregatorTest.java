@@ -0,0 +1,181 @@
+package com.example.zengin.format.aggregate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.zengin.format.ZenginCharset;
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginMessage.MessageType;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+
+/**
+ * 全銀データレコードの並列集計クラスのテストクラス
+ */
+public class ZenginRecordAggregatorTest {
+    
+    private static final int RECORD_COUNT = 1000;
+    private static final int ACCOUNT_COUNT = 7;
+    
+    private ForkJoinPool pool;
+    
+    @BeforeEach
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+    
+    @Test
+    public void testParallelAggregateMatchesSequential() {
+        ZenginMessage message = message(ZenginCharset.JIS);
+        
+        // 分割しない場合と10件ごとに分割した場合で同じ結果になる
+        RecordAggregate sequential = new ZenginRecordAggregator(pool, Integer.MAX_VALUE).aggregate(message);
+        RecordAggregate parallel = new ZenginRecordAggregator(pool, 10).aggregate(message);
+        
+        assertEquals(RECORD_COUNT + 1, sequential.getRecordCount());
+        assertEquals(RECORD_COUNT, sequential.getDataCount());
+        assertEquals(expectedTotalAmount(), sequential.getTotalAmount());
+        assertEquals(0, sequential.getInvalidAmountCount());
+        assertEquals(ACCOUNT_COUNT, sequential.getAccountTotals().size());
+        assertSameAggregate(sequential, parallel);
+        
+        // 口座ごとの件数・金額
+        AccountTotal first = parallel.getAccountTotals().get("0001-001-0000000");
+        int firstCount = (RECORD_COUNT + ACCOUNT_COUNT - 1) / ACCOUNT_COUNT;
+        assertEquals(firstCount, first.getCount());
+        long firstAmount = 0;
+        for (int i = 0; i < RECORD_COUNT; i += ACCOUNT_COUNT) {
+            firstAmount += amount(i);
+        }
+        assertEquals(firstAmount, first.getAmount());
+    }
+    
+    @Test
+    public void testBufferAggregateMatchesMessage() {
+        for (ZenginCharset charset : ZenginCharset.values()) {
+            ZenginMessage message = message(charset);
+            byte[] data = message.toByteArray();
+            ZenginRecordAggregator aggregator = new ZenginRecordAggregator(pool, 64);
+            RecordAggregate expected = aggregator.aggregate(message);
+            
+            // ヒープのバッファ（位置は変更しない）
+            ByteBuffer heap = ByteBuffer.wrap(data).asReadOnlyBuffer();
+            assertSameAggregate(expected, aggregator.aggregate(heap));
+            assertEquals(0, heap.position());
+            
+            // ダイレクトバッファ（メモリマップと同じくヒープ外のデータ、先頭以外の位置から）
+            ByteBuffer direct = ByteBuffer.allocateDirect(data.length + 3);
+            direct.position(3);
+            direct.put(data);
+            direct.position(3);
+            assertSameAggregate(expected, aggregator.aggregate(direct));
+        }
+    }
+    
+    @Test
+    public void testInvalidAmountIsCountedSeparately() {
+        ZenginMessage message = message(ZenginCharset.JIS);
+        byte[][] records = message.getDataRecords();
+        byte[] amount = ZenginCharset.JIS.encode("12345ABCDE", 10);
+        System.arraycopy(amount, 0, records[0], SogoFurikomiLayout.DATA_AMOUNT.getOffset(), amount.length);
+        
+        RecordAggregate aggregate = new ZenginRecordAggregator(pool, 10).aggregate(message);
+        
+        assertEquals(RECORD_COUNT, aggregate.getDataCount());
+        assertEquals(1, aggregate.getInvalidAmountCount());
+        assertEquals(expectedTotalAmount() - amount(0), aggregate.getTotalAmount());
+    }
+    
+    @Test
+    public void testAccountKeysArePackedPerAccount() {
+        ZenginCharset charset = ZenginCharset.EBCDIC;
+        ZenginMessage message = message(charset);
+        byte[][] records = message.getDataRecords();
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            // 銀行・支店・口座番号がすべて異なる口座（集計表の拡張を含む）
+            SogoFurikomiLayout.DATA_BANK_CODE.setString(records[i], String.format("%04d", 9999 - i % 2), charset);
+            SogoFurikomiLayout.DATA_BRANCH_CODE.setString(records[i], String.format("%03d", i % 1000), charset);
+            SogoFurikomiLayout.DATA_ACCOUNT_NUMBER.setString(records[i], String.format("%07d", 9999999 - i), charset);
+        }
+        SogoFurikomiLayout.DATA_ACCOUNT_NUMBER.setString(records[1], "ABC", charset);
+        
+        RecordAggregate aggregate = new ZenginRecordAggregator(pool, 10).aggregate(message);
+        
+        // 数字でない口座番号は件数・金額の合計にのみ含める
+        assertEquals(RECORD_COUNT, aggregate.getDataCount());
+        assertEquals(expectedTotalAmount(), aggregate.getTotalAmount());
+        assertEquals(1, aggregate.getInvalidAccountCount());
+        assertEquals(RECORD_COUNT - 1, aggregate.getAccountCount());
+        assertEquals(RECORD_COUNT - 1, aggregate.getAccountTotals().size());
+        AccountTotal last = aggregate.getAccountTotals().get("9998-999-9999000");
+        assertEquals(1, last.getCount());
+        assertEquals(amount(RECORD_COUNT - 1), last.getAmount());
+    }
+    
+    @Test
+    public void testInvalidLengthIsRejected() {
+        byte[] data = message(ZenginCharset.JIS).toByteArray();
+        ByteBuffer truncated = ByteBuffer.wrap(data, 0, data.length - 1);
+        
+        assertThrows(IllegalArgumentException.class, () -> new ZenginRecordAggregator().aggregate(truncated));
+    }
+    
+    private static void assertSameAggregate(RecordAggregate expected, RecordAggregate actual) {
+        assertEquals(expected.getRecordCount(), actual.getRecordCount());
+        assertEquals(expected.getDataCount(), actual.getDataCount());
+        assertEquals(expected.getTotalAmount(), actual.getTotalAmount());
+        assertEquals(expected.getInvalidAmountCount(), actual.getInvalidAmountCount());
+        assertEquals(expected.getAccountTotals().keySet(), actual.getAccountTotals().keySet());
+        expected.getAccountTotals().forEach((key, total) -> {
+            assertEquals(total.getCount(), actual.getAccountTotals().get(key).getCount());
+            assertEquals(total.getAmount(), actual.getAccountTotals().get(key).getAmount());
+        });
+    }
+    
+    /**
+     * データレコード（口座を順に割り当て）とトレーラレコードからなる総合振込の電文を作成します
+     */
+    private static ZenginMessage message(ZenginCharset charset) {
+        byte[][] records = new byte[RECORD_COUNT + 1][];
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            records[i] = SogoFurikomiLayout.DATA.newRecord(charset);
+            SogoFurikomiLayout.DATA.text("データ区分").setString(records[i], "2", charset);
+            SogoFurikomiLayout.DATA_BANK_CODE.setString(records[i], "0001", charset);
+            SogoFurikomiLayout.DATA_BRANCH_CODE.setString(records[i], "001", charset);
+            SogoFurikomiLayout.DATA_ACCOUNT_NUMBER.setString(records[i], String.format("%07d", i % ACCOUNT_COUNT),
+                    charset);
+            SogoFurikomiLayout.DATA_AMOUNT.setLong(records[i], amount(i), charset);
+        }
+        records[RECORD_COUNT] = SogoFurikomiLayout.TRAILER.newRecord(charset);
+        SogoFurikomiLayout.TRAILER.text("データ区分").setString(records[RECORD_COUNT], "8", charset);
+        SogoFurikomiLayout.TRAILER_TOTAL_COUNT.setLong(records[RECORD_COUNT], RECORD_COUNT, charset);
+        SogoFurikomiLayout.TRAILER_TOTAL_AMOUNT.setLong(records[RECORD_COUNT], expectedTotalAmount(), charset);
+        
+        ZenginMessage message = new ZenginMessage(MessageType.NOTIFICATION, "BANK0001", "TESTSENDER");
+        message.setCharset(charset);
+        message.setDataRecords(records);
+        return message;
+    }
+    
+    private static long amount(int index) {
+        return 1000L + index;
+    }
+    
+    private static long expectedTotalAmount() {
+        long total = 0;
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            total += amount(i);
+        }
+        return total;
+    }
+} 
\ No newline at end of file
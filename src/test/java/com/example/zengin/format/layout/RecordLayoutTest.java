@@ -0,0 +1,103 @@
+package com.example.zengin.format.layout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.zengin.format.ZenginCharset;
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginMessage.MessageType;
+
+/**
+ * レコードレイアウトのテストクラス
+ */
+public class RecordLayoutTest {
+    
+    @Test
+    public void testFieldsAreContiguous() {
+        List<RecordLayout> layouts = List.of(
+                SogoFurikomiLayout.HEADER, SogoFurikomiLayout.DATA, SogoFurikomiLayout.TRAILER, SogoFurikomiLayout.END,
+                KyuyoFurikomiLayout.DATA,
+                KozaFurikaeLayout.HEADER, KozaFurikaeLayout.DATA, KozaFurikaeLayout.TRAILER,
+                NyushukkinMeisaiLayout.HEADER, NyushukkinMeisaiLayout.DATA, NyushukkinMeisaiLayout.TRAILER,
+                NyushukkinMeisaiLayout.END,
+                MessageEnvelopeLayout.HEADER, MessageEnvelopeLayout.TRAILER);
+        for (RecordLayout layout : layouts) {
+            int offset = 0;
+            for (RecordField field : layout.getFields()) {
+                assertEquals(offset, field.getOffset(), layout.getName() + " " + field.getName());
+                offset += field.getLength();
+            }
+            assertEquals(layout.getLength(), offset, layout.getName());
+        }
+        
+        assertEquals(80, SogoFurikomiLayout.DATA_AMOUNT.getOffset());
+        assertEquals(10, SogoFurikomiLayout.DATA_AMOUNT.getLength());
+        assertEquals(1, SogoFurikomiLayout.TRAILER_TOTAL_COUNT.getOffset());
+        assertEquals(7, SogoFurikomiLayout.TRAILER_TOTAL_AMOUNT.getOffset());
+    }
+    
+    @Test
+    public void testBuildFailsWhenLengthDoesNotMatch() {
+        RecordLayout.Builder builder = RecordLayout.builder("テスト", 10).code("データ区分", 1).dummy(8);
+        
+        assertThrows(IllegalStateException.class, builder::build);
+        assertThrows(IllegalArgumentException.class, () -> SogoFurikomiLayout.DATA.numeric("受取人名"));
+        assertThrows(IllegalArgumentException.class, () -> SogoFurikomiLayout.DATA.field("存在しない項目"));
+    }
+    
+    @Test
+    public void testNumericFieldRoundTrip() {
+        for (ZenginCharset charset : ZenginCharset.values()) {
+            byte[] record = SogoFurikomiLayout.TRAILER.newRecord(charset);
+            SogoFurikomiLayout.TRAILER_TOTAL_COUNT.setLong(record, 42, charset);
+            SogoFurikomiLayout.TRAILER_TOTAL_AMOUNT.setLong(record, 123456789012L, charset);
+            
+            assertEquals("000042", charset.decode(record, 1, 6), charset.name());
+            assertEquals(42, SogoFurikomiLayout.TRAILER_TOTAL_COUNT.getLong(record, charset));
+            assertEquals(123456789012L, SogoFurikomiLayout.TRAILER_TOTAL_AMOUNT.getLong(record, charset));
+            assertThrows(IllegalArgumentException.class,
+                    () -> SogoFurikomiLayout.TRAILER_TOTAL_COUNT.setLong(record, 1000000, charset));
+            assertThrows(IllegalArgumentException.class,
+                    () -> SogoFurikomiLayout.TRAILER_TOTAL_COUNT.setLong(record, -1, charset));
+        }
+    }
+    
+    @Test
+    public void testSignedAndBlankNumericFields() {
+        ZenginCharset charset = ZenginCharset.EBCDIC;
+        byte[] record = NyushukkinMeisaiLayout.TRAILER.newRecord(charset);
+        NumericField balance = NyushukkinMeisaiLayout.TRAILER_BALANCE;
+        
+        assertEquals(0, balance.getLong(record, charset)); // 空白のみは0
+        
+        balance.setLong(record, -1500, charset);
+        assertEquals("-0000000001500", charset.decode(record, balance.getOffset(), balance.getLength()));
+        assertEquals(-1500, balance.getLong(record, charset));
+        
+        charset.encode("12A", record, NyushukkinMeisaiLayout.TRAILER_DEPOSIT_COUNT.getOffset(), 6);
+        assertThrows(NumberFormatException.class,
+                () -> NyushukkinMeisaiLayout.TRAILER_DEPOSIT_COUNT.getLong(record, charset));
+    }
+    
+    @Test
+    public void testEnvelopeFieldsMatchMessage() {
+        ZenginMessage message = new ZenginMessage(MessageType.TRANSFER, "SENDER0001", "BANK000001");
+        message.setCharset(ZenginCharset.EBCDIC);
+        message.setDataRecords(new byte[][] { SogoFurikomiLayout.DATA.newRecord(ZenginCharset.EBCDIC) });
+        byte[] data = message.toByteArray();
+        int trailerOffset = data.length - MessageEnvelopeLayout.TRAILER.getLength();
+        
+        assertEquals("ZEDI", MessageEnvelopeLayout.HEADER_IDENTIFIER.getString(data, 0, ZenginCharset.EBCDIC));
+        assertEquals("BANK000001", MessageEnvelopeLayout.HEADER_RECEIVER_ID.getString(data, 0, ZenginCharset.EBCDIC));
+        assertEquals(message.getFileId(),
+                MessageEnvelopeLayout.HEADER_FILE_ID.getString(data, 0, ZenginCharset.EBCDIC).trim());
+        assertEquals(1, MessageEnvelopeLayout.TRAILER_RECORD_COUNT.getLong(data, trailerOffset, ZenginCharset.EBCDIC));
+        
+        ZenginMessage parsed = ZenginMessage.fromByteArray(data);
+        assertEquals("SENDER0001", parsed.getSenderId());
+        assertEquals(MessageType.TRANSFER, parsed.getMessageType());
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.example.zengin.format.validation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.zengin.format.ZenginCharset;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+
+/**
+ * 金融機関・店舗マスタの索引のテストクラス
+ */
+public class BankBranchIndexTest {
+    
+    private static final String MASTER = ""
+            + "# 銀行番号,支店番号,銀行名,支店名\n"
+            + "0001,001,ｾﾞﾝｷﾞﾝ,ﾎﾝﾃﾝ\n"
+            + "0001,002,ｾﾞﾝｷﾞﾝ,ｼﾝｼﾞﾕｸ\n"
+            + "\n"
+            + "9999,999,ﾃｽﾄ,ﾃｽﾄｼﾃﾝ\n";
+    
+    @Test
+    public void testLookup() throws IOException {
+        BankBranchIndex index = BankBranchIndex.read(new StringReader(MASTER));
+        
+        assertEquals(2, index.bankCount());
+        assertEquals(3, index.size());
+        assertTrue(index.containsBank(1));
+        assertFalse(index.containsBank(2));
+        assertTrue(index.contains(1, 2));
+        assertTrue(index.contains(9999, 999));
+        assertFalse(index.contains(1, 3));
+        assertFalse(index.contains(10000, 0));
+        assertFalse(index.contains(1, -1));
+        assertEquals("ｾﾞﾝｷﾞﾝ", index.getBankName(1));
+        assertEquals("ｼﾝｼﾞﾕｸ", index.getBranchName(1, 2));
+        assertNull(index.getBankName(2));
+        assertNull(index.getBranchName(1, 3));
+    }
+    
+    @Test
+    public void testNextUnknown() throws IOException {
+        BankBranchIndex index = BankBranchIndex.read(new StringReader(MASTER));
+        for (ZenginCharset charset : ZenginCharset.values()) {
+            byte[][] records = {
+                record("0001", "001", charset),
+                record("0001", "003", charset),
+                record("9999", "999", charset),
+                record("0002", "001", charset),
+                record("00A1", "001", charset),
+            };
+            
+            assertEquals(1, index.nextUnknown(records, 0, charset));
+            assertEquals(3, index.nextUnknown(records, 2, charset));
+            assertEquals(4, index.nextUnknown(records, 4, charset));
+            assertEquals(-1, index.nextUnknown(records, 5, charset));
+        }
+    }
+    
+    @Test
+    public void testInvalidMasterIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BankBranchIndex.read(new StringReader("0001,001,ｾﾞﾝｷﾞﾝ\n")));
+        assertThrows(IllegalArgumentException.class,
+                () -> BankBranchIndex.read(new StringReader("001,001,ｾﾞﾝｷﾞﾝ,ﾎﾝﾃﾝ\n")));
+        assertThrows(IllegalArgumentException.class,
+                () -> BankBranchIndex.read(new StringReader("0001,0A1,ｾﾞﾝｷﾞﾝ,ﾎﾝﾃﾝ\n")));
+    }
+    
+    private static byte[] record(String bankCode, String branchCode, ZenginCharset charset) {
+        byte[] record = SogoFurikomiLayout.DATA.newRecord(charset);
+        SogoFurikomiLayout.DATA_BANK_CODE.setString(record, bankCode, charset);
+        SogoFurikomiLayout.DATA_BRANCH_CODE.setString(record, branchCode, charset);
+        return record;
+    }
+} 
\ No newline at end of file
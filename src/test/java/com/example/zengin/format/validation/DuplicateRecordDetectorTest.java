@@ -0,0 +1,150 @@
+package com.example.zengin.format.validation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.zengin.format.ZenginCharset;
+import com.example.zengin.format.validation.DuplicateRecordDetector.Duplicate;
+
+/**
+ * ファイル内の重複レコードの検出クラスのテストクラス
+ */
+public class DuplicateRecordDetectorTest {
+    
+    @Test
+    public void testDetectDuplicates() {
+        for (ZenginCharset charset : ZenginCharset.values()) {
+            byte[][] records = {
+                record("0001", "001", "1234567", "0000012345", "CUST000001", charset),
+                record("0001", "001", "1234567", "0000012345", "CUST000002", charset),
+                record("0001", "002", "1234567", "0000012345", "CUST000001", charset),
+                record("0001", "001", "1234567", "0000012346", "CUST000001", charset),
+                record("0001", "001", "1234567", "0000012345", "CUST000001", charset),
+                record("0001", "001", "1234567", "0000012345", "CUST000002", charset),
+                record("0001", "001", "1234567", "0000012345", "CUST000001", charset),
+            };
+            
+            List<Duplicate> duplicates = DuplicateRecordDetector.transferData().detect(records);
+            
+            assertEquals(3, duplicates.size());
+            assertEquals(4, duplicates.get(0).getRecordIndex());
+            assertEquals(0, duplicates.get(0).getFirstIndex());
+            assertEquals(5, duplicates.get(1).getRecordIndex());
+            assertEquals(1, duplicates.get(1).getFirstIndex());
+            assertEquals(6, duplicates.get(2).getRecordIndex());
+            assertEquals(0, duplicates.get(2).getFirstIndex());
+            assertEquals("5件目: 1件目と同じ振込の可能性があります", duplicates.get(0).toString());
+        }
+    }
+    
+    @Test
+    public void testNoDuplicates() {
+        DuplicateRecordDetector detector = DuplicateRecordDetector.transferData();
+        byte[][] records = new byte[100000][];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = record("0001", "001", String.format("%07d", i), "0000012345", "CUST000001", ZenginCharset.JIS);
+        }
+        
+        assertTrue(detector.detect(records).isEmpty());
+        assertTrue(detector.detect(null).isEmpty());
+        assertTrue(detector.detect(new byte[0][]).isEmpty());
+    }
+    
+    @Test
+    public void testDuplicatesAreLimited() {
+        byte[][] records = new byte[2000][];
+        byte[] record = record("0001", "001", "1234567", "0000012345", "CUST000001", ZenginCharset.JIS);
+        for (int i = 0; i < records.length; i++) {
+            records[i] = record;
+        }
+        
+        List<Duplicate> duplicates = DuplicateRecordDetector.transferData().detect(records);
+        
+        assertEquals(1000, duplicates.size());
+        assertEquals(1000, duplicates.get(999).getRecordIndex());
+    }
+    
+    @Test
+    public void testShortRecordsAreSkipped() {
+        byte[] record = record("0001", "001", "1234567", "0000012345", "CUST000001", ZenginCharset.JIS);
+        byte[][] records = { new byte[10], record, new byte[10], record };
+        
+        List<Duplicate> duplicates = DuplicateRecordDetector.transferData().detect(records);
+        
+        assertEquals(1, duplicates.size());
+        assertEquals(3, duplicates.get(0).getRecordIndex());
+        assertEquals(1, duplicates.get(0).getFirstIndex());
+    }
+    
+    @Test
+    public void testCapacity() {
+        assertEquals(16, DuplicateRecordDetector.capacityFor(2));
+        assertEquals(1 << 24, DuplicateRecordDetector.capacityFor(10000000));
+        assertThrows(IllegalArgumentException.class, () -> DuplicateRecordDetector.capacityFor(Integer.MAX_VALUE));
+        
+        // 負荷率75%で上限のスロット数に収まる件数まで受け付ける
+        int maxRecords = DuplicateRecordDetector.MAX_CAPACITY / 4 * 3;
+        assertEquals(DuplicateRecordDetector.MAX_CAPACITY, DuplicateRecordDetector.capacityFor(maxRecords));
+        assertThrows(IllegalArgumentException.class, () -> DuplicateRecordDetector.capacityFor(maxRecords + 1));
+    }
+    
+    @Test
+    public void testTableBytesDoNotOverflow() {
+        assertEquals(1L << 30, DuplicateRecordDetector.tableBytes(DuplicateRecordDetector.MAX_CAPACITY));
+        // int で計算すると 2^28 スロットは負のバイト数になる
+        assertThrows(IllegalArgumentException.class, () -> DuplicateRecordDetector.tableBytes(1 << 28));
+        assertThrows(IllegalArgumentException.class, () -> DuplicateRecordDetector.tableBytes(Integer.MAX_VALUE));
+    }
+    
+    @Test
+    public void testTableIsReusedAfterLargerAndSmallerCalls() {
+        DuplicateRecordDetector detector = DuplicateRecordDetector.transferData();
+        byte[] record = record("0001", "001", "1234567", "0000012345", "CUST000001", ZenginCharset.JIS);
+        byte[][] large = new byte[10000][];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = record("0001", "001", String.format("%07d", i), "0000012345", "CUST000001", ZenginCharset.JIS);
+        }
+        
+        // 前回の呼び出しで登録したスロットが残っていると、重複のないレコードを重複と誤検出する
+        assertTrue(detector.detect(large).isEmpty());
+        assertTrue(detector.detect(large).isEmpty());
+        assertEquals(1, detector.detect(new byte[][] { record, record }).size());
+        assertTrue(detector.detect(large).isEmpty());
+    }
+    
+    @Test
+    public void testLargeTableIsNotRetained() {
+        DuplicateRecordDetector detector = DuplicateRecordDetector.transferData();
+        byte[][] small = new byte[1000][];
+        for (int i = 0; i < small.length; i++) {
+            small[i] = record("0001", "001", String.format("%07d", i), "0000012345", "CUST000001", ZenginCharset.JIS);
+        }
+        byte[][] large = new byte[DuplicateRecordDetector.MAX_RETAINED_CAPACITY][];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = record("0001", "001", String.format("%07d", i), "0000012345", "CUST000001", ZenginCharset.JIS);
+        }
+        large[large.length - 1] = large[0];
+        
+        assertTrue(detector.detect(small).isEmpty());
+        int retained = DuplicateRecordDetector.retainedCapacity();
+        assertTrue(retained > 0);
+        
+        // 保持する上限を超える件数の表はスレッドに保持されないこと
+        List<Duplicate> duplicates = detector.detect(large);
+        assertEquals(1, duplicates.size());
+        assertEquals(large.length - 1, duplicates.get(0).getRecordIndex());
+        assertEquals(retained, DuplicateRecordDetector.retainedCapacity());
+        assertTrue(detector.detect(small).isEmpty());
+    }
+    
+    private static byte[] record(String bankCode, String branchCode, String accountNumber, String amount,
+            String customerCode, ZenginCharset charset) {
+        String record = "2" + bankCode + "ｾﾞﾝｷﾞﾝ         " + branchCode + "ﾎﾝﾃﾝ           " + "    " + "1" + accountNumber
+                + "ｾﾞﾝｷﾞﾝ ﾀﾛｳ(ｶ)                 " + amount + "0" + customerCode + "          " + " " + " "
+                + "       ";
+        return charset.encode(record, 120);
+    }
+} 
\ No newline at end of file
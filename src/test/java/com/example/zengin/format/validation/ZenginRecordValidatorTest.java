@@ -0,0 +1,100 @@
+package com.example.zengin.format.validation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.zengin.format.ZenginCharset;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+import com.example.zengin.format.validation.ZenginRecordValidator.ValidationError;
+
+/**
+ * 全銀データレコードの文字種チェックのテストクラス
+ */
+public class ZenginRecordValidatorTest {
+    
+    // 総合振込のデータレコード（120バイト）
+    private static final String VALID_RECORD = "2" + "0001" + "ｾﾞﾝｷﾞﾝ         " + "001" + "ﾎﾝﾃﾝ           " + "    "
+            + "1" + "1234567" + "ｾﾞﾝｷﾞﾝ ﾀﾛｳ(ｶ)                 " + "0000012345" + "0" + "CUST000001" + "          "
+            + " " + " " + "       ";
+    
+    @Test
+    public void testValidRecordsHaveNoErrors() {
+        for (ZenginCharset charset : ZenginCharset.values()) {
+            for (boolean vectorEnabled : new boolean[] { true, false }) {
+                ZenginRecordValidator validator = validator(charset, vectorEnabled);
+                
+                assertEquals(List.of(), validator.validate(records(charset, 100)), charset + " vector=" + vectorEnabled);
+            }
+        }
+    }
+    
+    @Test
+    public void testErrorReportsRecordAndField() {
+        for (ZenginCharset charset : ZenginCharset.values()) {
+            for (boolean vectorEnabled : new boolean[] { true, false }) {
+                byte[][] records = records(charset, 100);
+                records[41][83] = charset.encode("A", 1)[0]; // 振込金額に英字
+                records[97][55] = charset.encode("a", 1)[0]; // 受取人名に英小文字
+                records[97][119] = charset.encode("0", 1)[0]; // ダミーに数字
+                
+                List<ValidationError> errors = validator(charset, vectorEnabled).validate(records);
+                
+                String label = charset + " vector=" + vectorEnabled;
+                assertEquals(3, errors.size(), label);
+                assertEquals(41, errors.get(0).getRecordIndex(), label);
+                assertEquals("振込金額", errors.get(0).getFieldName(), label);
+                assertEquals(83, errors.get(0).getPosition(), label);
+                assertEquals("受取人名", errors.get(1).getFieldName(), label);
+                assertEquals("ダミー", errors.get(2).getFieldName(), label);
+                assertEquals(97, errors.get(2).getRecordIndex(), label);
+            }
+        }
+    }
+    
+    @Test
+    public void testEveryByteValueMatchesScalarResult() {
+        for (ZenginCharset charset : ZenginCharset.values()) {
+            ZenginRecordValidator vector = validator(charset, true);
+            ZenginRecordValidator scalar = validator(charset, false);
+            byte[][] records = records(charset, 256);
+            for (int i = 0; i < records.length; i++) {
+                records[i][i % 120] = (byte) i; // 全バイト値を各項目に配置
+            }
+            
+            List<ValidationError> expected = scalar.validate(records);
+            List<ValidationError> actual = vector.validate(records);
+            
+            assertEquals(expected.size(), actual.size(), charset.name());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).toString(), actual.get(i).toString());
+            }
+        }
+    }
+    
+    @Test
+    public void testWrongRecordLength() {
+        byte[][] records = records(ZenginCharset.JIS, 3);
+        records[1] = new byte[100];
+        
+        List<ValidationError> errors = ZenginRecordValidator.transferData(ZenginCharset.JIS).validate(records);
+        
+        assertEquals(1, errors.size());
+        assertNull(errors.get(0).getFieldName());
+        assertEquals("2件目: レコード長が不正です（100バイト）", errors.get(0).toString());
+    }
+    
+    private static ZenginRecordValidator validator(ZenginCharset charset, boolean vectorEnabled) {
+        return new ZenginRecordValidator(charset, SogoFurikomiLayout.DATA, vectorEnabled);
+    }
+    
+    private static byte[][] records(ZenginCharset charset, int count) {
+        byte[][] records = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            records[i] = charset.encode(VALID_RECORD, 120);
+        }
+        return records;
+    }
+} 
\ No newline at end of file
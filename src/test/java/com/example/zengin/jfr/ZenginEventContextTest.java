@@ -0,0 +1,108 @@
+package com.example.zengin.jfr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginMessage.MessageType;
+
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * JFRイベントの識別情報設定のテストクラス
+ */
+public class ZenginEventContextTest {
+    
+    @AfterEach
+    public void tearDown() {
+        ZenginEventContext.clear();
+    }
+    
+    @Test
+    public void testFrameEventTakesMessageFromContext() throws Exception {
+        ZenginMessage message = new ZenginMessage(MessageType.TRANSFER, "SENDER0001", "BANK000001");
+        
+        List<RecordedEvent> events = record(ZenginFrameSendEvent.class, () -> {
+            ZenginEventContext.set(message);
+            ZenginFrameSendEvent event = new ZenginFrameSendEvent();
+            event.begin();
+            event.bytes = 400;
+            event.blocks = 1;
+            ZenginEventContext.commit(event);
+        });
+        
+        assertEquals(1, events.size());
+        assertEquals(message.getFileId(), events.get(0).getString("fileId"));
+        assertEquals("BANK000001", events.get(0).getString("receiverId"));
+        assertEquals("TRANSFER", events.get(0).getString("messageType"));
+        assertEquals(400, events.get(0).getLong("bytes"));
+    }
+    
+    @Test
+    public void testExplicitFileIdIsNotOverwritten() throws Exception {
+        ZenginMessage message = new ZenginMessage(MessageType.INQUIRY, "SENDER0001", "BANK000001");
+        
+        List<RecordedEvent> events = record(ZenginDuplicateCheckEvent.class, () -> {
+            ZenginEventContext.set(message);
+            ZenginDuplicateCheckEvent event = new ZenginDuplicateCheckEvent();
+            event.begin();
+            event.duplicate = true;
+            event.setMessage("F000000001", null, null);
+            ZenginEventContext.commit(event);
+        });
+        
+        assertEquals(1, events.size());
+        assertEquals("F000000001", events.get(0).getString("fileId"));
+        assertEquals("BANK000001", events.get(0).getString("receiverId"));
+        assertEquals("INQUIRY", events.get(0).getString("messageType"));
+    }
+    
+    @Test
+    public void testEncodeAndDecodeEvents() throws Exception {
+        ZenginMessage message = new ZenginMessage(MessageType.TRANSFER, "SENDER0001", "BANK000001");
+        message.setDataRecords(new byte[3][120]);
+        
+        List<RecordedEvent> encodeEvents = record(ZenginMessageEncodeEvent.class, message::toByteArray);
+        
+        assertEquals(1, encodeEvents.size());
+        assertEquals(3, encodeEvents.get(0).getInt("recordCount"));
+        assertEquals(80 + 3 * 120 + 80, encodeEvents.get(0).getLong("bytes"));
+        assertEquals(message.getFileId(), encodeEvents.get(0).getString("fileId"));
+        
+        byte[] data = message.toByteArray();
+        List<RecordedEvent> decodeEvents = record(ZenginMessageDecodeEvent.class, () -> ZenginMessage.fromByteArray(data));
+        
+        assertEquals(1, decodeEvents.size());
+        assertEquals(3, decodeEvents.get(0).getInt("recordCount"));
+        assertEquals("TRANSFER", decodeEvents.get(0).getString("messageType"));
+    }
+    
+    /**
+     * 指定したイベントのみを有効にして処理を実行し、記録されたイベントを取得します
+     */
+    private static List<RecordedEvent> record(Class<? extends ZenginEvent> eventClass, Runnable action) throws Exception {
+        Path file = Files.createTempFile("zengin", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(eventClass).withoutThreshold();
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            String eventName = EventType.getEventType(eventClass).getName();
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(eventName))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+} 
\ No newline at end of file
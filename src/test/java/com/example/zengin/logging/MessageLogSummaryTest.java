@@ -0,0 +1,44 @@
+package com.example.zengin.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.zengin.format.ZenginMessage.MessageType;
+
+/**
+ * 電文送受信ログの集約クラスのテストクラス
+ */
+public class MessageLogSummaryTest {
+    
+    @Test
+    public void testFlushAggregatesAndResets() {
+        MessageLogSummary summary = new MessageLogSummary();
+        summary.recordSent(MessageType.TRANSFER, 400);
+        summary.recordSent(MessageType.TRANSFER, 520);
+        summary.recordReceived(MessageType.RESPONSE, 280);
+        summary.recordFailure(MessageType.INQUIRY);
+        
+        String line = summary.flush();
+        
+        assertTrue(line.contains("送信[TRANSFER]=2件/920バイト"), line);
+        assertTrue(line.contains("受信[RESPONSE]=1件/280バイト"), line);
+        assertTrue(line.contains("失敗[INQUIRY]=1件"), line);
+        assertNull(summary.flush());
+    }
+    
+    @Test
+    public void testSummaryIsLoggedOnlyAfterInterval() {
+        MessageLogSummary summary = new MessageLogSummary();
+        summary.setIntervalSeconds(3600);
+        summary.recordSent(MessageType.TRANSFER, 400);
+        
+        // 出力間隔が経過していないため集計は保持される
+        summary.logIfDue(System.nanoTime());
+        assertNotNull(summary.flush());
+        
+        summary.recordSent(MessageType.TRANSFER, 400);
+        summary.logIfDue(System.nanoTime() + 3601_000_000_000L);
+        assertNull(summary.flush());
+    }
+} 
\ No newline at end of file
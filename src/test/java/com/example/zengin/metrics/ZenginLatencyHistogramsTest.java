@@ -0,0 +1,70 @@
+package com.example.zengin.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.zengin.metrics.ZenginLatencyHistograms.Operation;
+
+/**
+ * 全銀通信の応答時間ヒストグラムのテストクラス
+ */
+public class ZenginLatencyHistogramsTest {
+    
+    @Test
+    public void testPercentilesArePerOperationAndBank() {
+        ZenginLatencyHistograms histograms = new ZenginLatencyHistograms();
+        for (int i = 1; i <= 1000; i++) {
+            histograms.record(Operation.ENQ_ACK, "BANK1", TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        histograms.record(Operation.ENQ_ACK, "BANK2", TimeUnit.MILLISECONDS.toNanos(5));
+        
+        Histogram bank1 = histograms.getHistogram(Operation.ENQ_ACK, "BANK1");
+        assertEquals(1000, bank1.getTotalCount());
+        assertEquals(500_000, bank1.getValueAtPercentile(50), 500);
+        assertEquals(990_000, bank1.getValueAtPercentile(99), 1000);
+        assertEquals(1, histograms.getHistogram(Operation.ENQ_ACK, "BANK2").getTotalCount());
+        assertNull(histograms.getHistogram(Operation.FRAME_ACK, "BANK1"));
+    }
+    
+    @Test
+    public void testSummaryListsEachRecordedHistogram() {
+        ZenginLatencyHistograms histograms = new ZenginLatencyHistograms();
+        histograms.record(Operation.INQUIRY_ROUND_TRIP, "BANK1", TimeUnit.MILLISECONDS.toNanos(20));
+        histograms.record(Operation.RECEIVE_ASSEMBLY, "BANK1", TimeUnit.MICROSECONDS.toNanos(300));
+        
+        String summary = histograms.summary();
+        
+        assertTrue(summary.contains("INQUIRY_ROUND_TRIP:BANK1 count=1 p50="), summary);
+        assertTrue(summary.contains("RECEIVE_ASSEMBLY:BANK1 count=1 p50="), summary);
+        assertTrue(summary.contains("p99.9="), summary);
+        assertTrue(summary.contains("throughput="), summary);
+        assertFalse(summary.contains("ENQ_ACK"), summary);
+    }
+    
+    @Test
+    public void testIntervalHistogramsAreWrittenToLog() throws Exception {
+        Path logFile = Files.createTempDirectory("zengin").resolve("latency.hlog");
+        ZenginLatencyHistograms histograms = new ZenginLatencyHistograms();
+        ReflectionTestUtils.setField(histograms, "logEnabled", true);
+        ReflectionTestUtils.setField(histograms, "logPath", logFile.toString());
+        ReflectionTestUtils.setField(histograms, "logIntervalSeconds", 3600L);
+        histograms.start();
+        
+        histograms.record(Operation.FRAME_ACK, "BANK 1", TimeUnit.MILLISECONDS.toNanos(3));
+        histograms.drain();
+        histograms.record(Operation.FRAME_ACK, "BANK 1", TimeUnit.MILLISECONDS.toNanos(4));
+        histograms.stop();
+        
+        String log = new String(Files.readAllBytes(logFile), StandardCharsets.US_ASCII);
+        assertEquals(2, log.split("Tag=FRAME_ACK:BANK_1,", -1).length - 1, log);
+        assertEquals(2, histograms.getHistogram(Operation.FRAME_ACK, "BANK 1").getTotalCount());
+    }
+} 
\ No newline at end of file
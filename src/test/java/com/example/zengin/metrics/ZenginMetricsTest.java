@@ -0,0 +1,123 @@
+package com.example.zengin.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.zengin.buffer.FrameBufferPool;
+import com.example.zengin.buffer.PooledBuffer;
+import com.example.zengin.buffer.ReceiveBufferBudget;
+import com.example.zengin.communication.ZenginCommunicationException;
+import com.example.zengin.format.ZenginMessage.MessageType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 全銀通信メトリクスのテストクラス
+ */
+public class ZenginMetricsTest {
+    
+    private SimpleMeterRegistry registry;
+    
+    private ZenginMetrics metrics;
+    
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new ZenginMetrics(registry);
+    }
+    
+    @Test
+    public void testSendIsRecordedPerTypeAndBank() {
+        metrics.recordSend(MessageType.TRANSFER, "BANK1", 200, TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.recordSend(MessageType.TRANSFER, "BANK1", 300, TimeUnit.MILLISECONDS.toNanos(7));
+        metrics.recordSend(MessageType.INQUIRY, "BANK2", 100, TimeUnit.MILLISECONDS.toNanos(3));
+        
+        assertEquals(2, registry.find(ZenginMetrics.SEND).tag("type", "TRANSFER").tag("bank", "BANK1").timer().count());
+        assertEquals(12.0, registry.find(ZenginMetrics.SEND).tag("type", "TRANSFER").tag("bank", "BANK1").timer()
+                .totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(500.0, registry.find(ZenginMetrics.SEND_BYTES).tag("type", "TRANSFER").tag("bank", "BANK1")
+                .summary().totalAmount(), 0.001);
+        assertEquals(1, registry.find(ZenginMetrics.SEND).tag("type", "INQUIRY").tag("bank", "BANK2").timer().count());
+    }
+    
+    @Test
+    public void testReceiveWithoutSenderIsTaggedUnknown() {
+        metrics.recordReceive(MessageType.NOTIFICATION, null, 80, 1000);
+        
+        assertEquals(1, registry.find(ZenginMetrics.RECEIVE).tag("type", "NOTIFICATION").tag("bank", "unknown")
+                .timer().count());
+    }
+    
+    @Test
+    public void testErrorIsCountedByInnermostErrorCode() {
+        ZenginCommunicationException nak = new ZenginCommunicationException("NAK", "E004");
+        metrics.recordError(new ZenginCommunicationException("振込データ送信に失敗しました", nak));
+        metrics.recordError(new ZenginCommunicationException("照会処理に失敗しました"));
+        metrics.recordError(new IOException("connection reset"));
+        
+        assertEquals(1.0, registry.find(ZenginMetrics.ERRORS).tag("code", "E004").counter().count(), 0.001);
+        assertEquals(1.0, registry.find(ZenginMetrics.ERRORS).tag("code", "E000").counter().count(), 0.001);
+        assertEquals(1.0, registry.find(ZenginMetrics.ERRORS).tag("code", "IOException").counter().count(), 0.001);
+    }
+    
+    @Test
+    public void testNakAndDuplicateCounters() {
+        metrics.recordNak("data");
+        metrics.recordNak("block");
+        metrics.recordNak("block");
+        metrics.recordDuplicateCheck(true);
+        metrics.recordDuplicateCheck(false);
+        metrics.recordDuplicateCheck(false);
+        
+        assertEquals(2.0, registry.find(ZenginMetrics.NAK).tag("phase", "block").counter().count(), 0.001);
+        assertEquals(1.0, registry.find(ZenginMetrics.INTEGRITY_DUPLICATE).tag("result", "hit").counter().count(), 0.001);
+        assertEquals(2.0, registry.find(ZenginMetrics.INTEGRITY_DUPLICATE).tag("result", "miss").counter().count(), 0.001);
+    }
+    
+    @Test
+    public void testBufferPoolAcquiresAreExposedByResult() {
+        FrameBufferPool pool = new FrameBufferPool();
+        metrics = new ZenginMetrics(registry, null, pool);
+        pool.acquire(1000).close();
+        pool.acquire(1000).close();
+        PooledBuffer outstanding = pool.acquire(FrameBufferPool.MAX_POOLED_CAPACITY + 1);
+        
+        assertEquals(1.0, registry.find(ZenginMetrics.BUFFER_POOL_ACQUIRE).tag("result", "allocate").functionCounter()
+                .count(), 0.001);
+        assertEquals(1.0, registry.find(ZenginMetrics.BUFFER_POOL_ACQUIRE).tag("result", "thread-cache").functionCounter()
+                .count(), 0.001);
+        assertEquals(1.0, registry.find(ZenginMetrics.BUFFER_POOL_ACQUIRE).tag("result", "unpooled").functionCounter()
+                .count(), 0.001);
+        assertEquals(1.0, registry.find(ZenginMetrics.BUFFER_POOL_OUTSTANDING).gauge().value(), 0.001);
+        outstanding.close();
+    }
+    
+    @Test
+    public void testReceiveBudgetIsExposed() {
+        ReceiveBufferBudget receiveBudget = new ReceiveBufferBudget();
+        metrics = new ZenginMetrics(registry, null, null, receiveBudget);
+        assertTrue(receiveBudget.tryReserve(1000));
+        receiveBudget.recordSpill(5000);
+        
+        assertEquals(1000.0, registry.find(ZenginMetrics.RECEIVE_BUFFER_RESERVED).gauge().value(), 0.001);
+        assertEquals(1.0, registry.find(ZenginMetrics.RECEIVE_SPILL).functionCounter().count(), 0.001);
+        assertEquals(5000.0, registry.find(ZenginMetrics.RECEIVE_SPILL_BYTES).functionCounter().count(), 0.001);
+        receiveBudget.release(1000);
+    }
+    
+    @Test
+    public void testNoopMetricsDoNotFail() {
+        ZenginMetrics noop = ZenginMetrics.noop();
+        noop.recordConnect("localhost", false, 1000);
+        noop.recordEnqAck("BANK1", 1000);
+        noop.recordSend(MessageType.TRANSFER, "BANK1", 200, 1000);
+        noop.recordError(new ZenginCommunicationException("error", "E005"));
+        noop.recordIntegrityHash(1000);
+        noop.recordIntegritySave(1000);
+    }
+} 
\ No newline at end of file
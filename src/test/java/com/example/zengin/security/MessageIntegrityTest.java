@@ -4,6 +4,12 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,8 +19,11 @@ import org.springframework.context.annotation.Import;
 
 import com.example.zengin.communication.ZenginCommunicationException;
 import com.example.zengin.config.TestTlsConfig;
+import com.example.zengin.format.ZenginCharset;
 import com.example.zengin.format.ZenginMessage;
 import com.example.zengin.format.ZenginMessage.MessageType;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+import com.example.zengin.service.ZenginCommunicationService;
 
 /**
  * メッセージ整合性チェック機能のテストクラス
@@ -32,6 +41,9 @@ public class MessageIntegrityTest {
     @Autowired
     private MessageIntegrityRepository integrityRepository;
     
+    @Autowired
+    private ZenginCommunicationService communicationService;
+    
     private ZenginMessage testMessage;
     private byte[][] testDataRecords;
     
@@ -43,20 +55,20 @@ public class MessageIntegrityTest {
         // データレコード1: 金額10000円
         byte[] record1 = "RECORD1DATA".getBytes(StandardCharsets.UTF_8);
         System.arraycopy(record1, 0, testDataRecords[0], 0, record1.length);
-        byte[] amount1 = "000000010000".getBytes(StandardCharsets.UTF_8);
-        System.arraycopy(amount1, 0, testDataRecords[0], 30, amount1.length);
+        byte[] amount1 = "0000010000".getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(amount1, 0, testDataRecords[0], 80, amount1.length);
         
         // データレコード2: 金額20000円
         byte[] record2 = "RECORD2DATA".getBytes(StandardCharsets.UTF_8);
         System.arraycopy(record2, 0, testDataRecords[1], 0, record2.length);
-        byte[] amount2 = "000000020000".getBytes(StandardCharsets.UTF_8);
-        System.arraycopy(amount2, 0, testDataRecords[1], 30, amount2.length);
+        byte[] amount2 = "0000020000".getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(amount2, 0, testDataRecords[1], 80, amount2.length);
         
         // データレコード3: 金額30000円
         byte[] record3 = "RECORD3DATA".getBytes(StandardCharsets.UTF_8);
         System.arraycopy(record3, 0, testDataRecords[2], 0, record3.length);
-        byte[] amount3 = "000000030000".getBytes(StandardCharsets.UTF_8);
-        System.arraycopy(amount3, 0, testDataRecords[2], 30, amount3.length);
+        byte[] amount3 = "0000030000".getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(amount3, 0, testDataRecords[2], 80, amount3.length);
         
         // テスト用メッセージを作成
         testMessage = new ZenginMessage(MessageType.TRANSFER, "TESTSENDER", "TESTRECEIVER");
@@ -114,10 +126,14 @@ public class MessageIntegrityTest {
     @Test
     public void testCalculateTotalAmount() {
         // 合計金額を計算
-        long totalAmount = integrityUtil.calculateTotalAmount(testDataRecords, 30, 12);
+        long totalAmount = integrityUtil.calculateTotalAmount(testDataRecords, 80, 10);
         
         // 期待値と一致することを確認（10000 + 20000 + 30000 = 60000）
         assertEquals(60000, totalAmount);
+        
+        // レイアウトの金額項目から計算しても一致することを確認
+        assertEquals(60000, integrityUtil.calculateTotalAmount(testDataRecords, SogoFurikomiLayout.DATA_AMOUNT,
+                ZenginCharset.JIS));
     }
     
     @Test
@@ -184,4 +200,59 @@ public class MessageIntegrityTest {
         boolean isDuplicate2 = integrityService.isDuplicateMessage("DIFFERENT_ID");
         assertFalse(isDuplicate2);
     }
+    
+    @Test
+    public void testClaimMessageIsAtomic() throws Exception {
+        // 同じメッセージIDを複数のスレッドで同時に登録
+        String messageId = testMessage.getFileId();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                tasks.add(() -> integrityService.claimMessage(messageId));
+            }
+            int claimed = 0;
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                if (result.get()) {
+                    claimed++;
+                }
+            }
+            
+            // 登録できるのは1つのみ
+            assertEquals(1, claimed);
+            assertTrue(integrityService.isDuplicateMessage(messageId));
+        } finally {
+            executor.shutdown();
+        }
+        
+        // 登録後に整合性情報を保存すると、登録した行が更新される
+        integrityService.generateAndSaveIntegrityInfo(testMessage);
+        assertEquals(60000, integrityRepository.findById(messageId).orElseThrow().getTotalAmount());
+        assertFalse(integrityService.claimMessage(messageId));
+    }
+    
+    @Test
+    public void testSameNotificationReceivedTwiceIsRejected() throws Exception {
+        ZenginMessage notification = new ZenginMessage(MessageType.NOTIFICATION, "BANK0001", "TESTSENDER");
+        notification.setDataRecords(testDataRecords);
+        byte[] notificationBytes = notification.toByteArray();
+        
+        // 受信したヘッダのファイルIDを登録するため、同じ通知の2回目は重複として拒否される
+        assertEquals(notification.getFileId(), communicationService.processNotification(notificationBytes).getFileId());
+        ZenginCommunicationException exception = assertThrows(ZenginCommunicationException.class,
+                () -> communicationService.processNotification(notificationBytes));
+        assertTrue(exception.getMessage().contains("重複したメッセージ"));
+    }
+    
+    @Test
+    public void testReleaseMessage() {
+        String messageId = testMessage.getFileId();
+        assertTrue(integrityService.claimMessage(messageId));
+        
+        // 取り消した後は再び登録できる
+        integrityService.releaseMessage(messageId);
+        assertFalse(integrityService.isDuplicateMessage(messageId));
+        assertTrue(integrityService.claimMessage(messageId));
+    }
 } 
\ No newline at end of file
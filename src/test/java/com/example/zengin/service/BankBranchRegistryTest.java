@@ -0,0 +1,70 @@
+package com.example.zengin.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.zengin.format.validation.BankBranchIndex;
+
+/**
+ * 金融機関・店舗マスタの管理クラスのテストクラス
+ */
+public class BankBranchRegistryTest {
+    
+    private Path master;
+    private BankBranchRegistry registry;
+    
+    @BeforeEach
+    public void setUp() throws Exception {
+        master = Files.createTempFile("bank-master", ".csv");
+        registry = new BankBranchRegistry();
+    }
+    
+    @AfterEach
+    public void tearDown() throws Exception {
+        registry.stop();
+        Files.deleteIfExists(master);
+    }
+    
+    @Test
+    public void testNoMasterDisablesValidation() throws Exception {
+        registry.start();
+        
+        assertNull(registry.getIndex());
+    }
+    
+    @Test
+    public void testReloadSwapsIndex() throws Exception {
+        Files.writeString(master, "0001,001,ｾﾞﾝｷﾞﾝ,ﾎﾝﾃﾝ\n", StandardCharsets.UTF_8);
+        registry.setMasterPath(master.toString());
+        registry.start();
+        BankBranchIndex before = registry.getIndex();
+        assertTrue(before.contains(1, 1));
+        assertFalse(before.contains(1, 2));
+        
+        // 再読み込みで新しい索引に差し替わる（取得済みの索引は変わらない）
+        Files.writeString(master, "0001,001,ｾﾞﾝｷﾞﾝ,ﾎﾝﾃﾝ\n0001,002,ｾﾞﾝｷﾞﾝ,ｼﾝｼﾞﾕｸ\n", StandardCharsets.UTF_8);
+        BankBranchIndex after = registry.reload();
+        assertSame(after, registry.getIndex());
+        assertTrue(after.contains(1, 2));
+        assertFalse(before.contains(1, 2));
+    }
+    
+    @Test
+    public void testInvalidMasterKeepsCurrentIndex() throws Exception {
+        Files.writeString(master, "0001,001,ｾﾞﾝｷﾞﾝ,ﾎﾝﾃﾝ\n", StandardCharsets.UTF_8);
+        registry.setMasterPath(master.toString());
+        registry.start();
+        BankBranchIndex current = registry.getIndex();
+        
+        Files.writeString(master, "0001,001\n", StandardCharsets.UTF_8);
+        assertThrows(IllegalArgumentException.class, registry::reload);
+        assertSame(current, registry.getIndex());
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.example.zengin.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 送信レート制御のテストクラス
+ */
+public class BankRateLimiterTest {
+    
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    
+    @Test
+    public void testTokenBucketLimitsRate() {
+        // 2件/秒、バースト2件
+        BankRateLimiter limiter = new BankRateLimiter("BANK1", 2, 2, 0);
+        
+        // バースト分は即時に送信できる
+        assertEquals(0, limiter.permitDelayNanos(0));
+        limiter.acquire(0);
+        assertEquals(0, limiter.permitDelayNanos(0));
+        limiter.acquire(0);
+        
+        // トークンが尽きると補充まで待つ
+        assertEquals(SECOND / 2, limiter.permitDelayNanos(0));
+        assertEquals(0, limiter.permitDelayNanos(SECOND / 2));
+    }
+    
+    @Test
+    public void testTokensDoNotExceedBurst() {
+        BankRateLimiter limiter = new BankRateLimiter("BANK1", 1, 2, 0);
+        
+        // 長時間送信しなくてもバースト分までしか溜まらない
+        limiter.acquire(10 * SECOND);
+        limiter.acquire(10 * SECOND);
+        assertEquals(SECOND, limiter.permitDelayNanos(10 * SECOND));
+    }
+    
+    @Test
+    public void testUnlimitedRate() {
+        BankRateLimiter limiter = new BankRateLimiter("BANK1", 0, 1, 0);
+        
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limiter.permitDelayNanos(0));
+            limiter.acquire(0);
+        }
+    }
+} 
\ No newline at end of file
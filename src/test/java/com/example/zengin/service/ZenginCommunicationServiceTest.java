@@ -11,13 +11,24 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import com.example.zengin.communication.ReceivedFrame;
 import com.example.zengin.communication.ZenginCommunicationException;
 import com.example.zengin.communication.ZenginTcpIpProtocol;
+import com.example.zengin.format.ReceivedTotals;
+import com.example.zengin.format.ZenginCharset;
 import com.example.zengin.format.ZenginMessage;
 import com.example.zengin.format.ZenginMessage.MessageType;
+import com.example.zengin.format.ZenginStreamDecoder;
+import com.example.zengin.format.layout.MessageEnvelopeLayout;
+import com.example.zengin.format.validation.BankBranchIndex;
 import com.example.zengin.security.MessageIntegrityService;
 
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * 全銀通信サービスのテストクラス
@@ -120,6 +131,63 @@ public class ZenginCommunicationServiceTest {
         verify(integrityService).generateAndSaveIntegrityInfo(any(ZenginMessage.class));
     }
 
+    @Test
+    public void testSendTransferData_InvalidRecordsAreNotSent() throws Exception {
+        // データレコードの文字種チェック有効設定
+        ReflectionTestUtils.setField(communicationService, "recordValidationEnabled", true);
+        
+        // 振込データ送信実行で検証エラーの例外が発生することを確認
+        ZenginCommunicationException exception = assertThrows(ZenginCommunicationException.class, () -> {
+            communicationService.sendTransferData(TEST_RECEIVER_ID, testDataRecords);
+        });
+        assertEquals("E014", ZenginCommunicationException.findErrorCode(exception));
+        
+        // 送信も整合性情報の保存も行われないことを確認
+        verify(zenginProtocol, never()).sendData(anyString(), anyInt(), any(byte[].class));
+        verify(integrityService, never()).generateAndSaveIntegrityInfo(any(ZenginMessage.class));
+    }
+
+    @Test
+    public void testSendTransferData_UnknownBankBranchIsNotSent() throws Exception {
+        // データレコードの検証有効設定、金融機関マスタには 0001-001 のみ登録
+        ReflectionTestUtils.setField(communicationService, "recordValidationEnabled", true);
+        BankBranchRegistry bankBranchRegistry = mock(BankBranchRegistry.class);
+        when(bankBranchRegistry.getIndex())
+                .thenReturn(BankBranchIndex.read(new StringReader("0001,001,ｾﾞﾝｷﾞﾝ,ﾎﾝﾃﾝ\n")));
+        ReflectionTestUtils.setField(communicationService, "bankBranchRegistry", bankBranchRegistry);
+        byte[][] records = { transferRecord("0001", "001"), transferRecord("0001", "002") };
+        
+        // 振込データ送信実行でマスタにない番号の例外が発生することを確認
+        ZenginCommunicationException exception = assertThrows(ZenginCommunicationException.class, () -> {
+            communicationService.sendTransferData(TEST_RECEIVER_ID, records);
+        });
+        assertEquals("E018", ZenginCommunicationException.findErrorCode(exception));
+        assertTrue(exception.getMessage().contains("2件目"));
+        
+        // 送信も整合性情報の保存も行われないことを確認
+        verify(zenginProtocol, never()).sendData(anyString(), anyInt(), any(byte[].class));
+        verify(integrityService, never()).generateAndSaveIntegrityInfo(any(ZenginMessage.class));
+    }
+
+    @Test
+    public void testSendTransferData_DuplicateTransferIsNotSentWhenRejected() throws Exception {
+        // データレコードの検証と重複振込の拒否を有効に設定
+        ReflectionTestUtils.setField(communicationService, "recordValidationEnabled", true);
+        ReflectionTestUtils.setField(communicationService, "duplicateCheckReject", true);
+        byte[][] records = { transferRecord("0001", "001"), transferRecord("0001", "002"), transferRecord("0001", "001") };
+        
+        // 振込データ送信実行で重複振込の例外が発生することを確認
+        ZenginCommunicationException exception = assertThrows(ZenginCommunicationException.class, () -> {
+            communicationService.sendTransferData(TEST_RECEIVER_ID, records);
+        });
+        assertEquals("E019", ZenginCommunicationException.findErrorCode(exception));
+        assertTrue(exception.getMessage().contains("3件目: 1件目"));
+        
+        // 送信も整合性情報の保存も行われないことを確認
+        verify(zenginProtocol, never()).sendData(anyString(), anyInt(), any(byte[].class));
+        verify(integrityService, never()).generateAndSaveIntegrityInfo(any(ZenginMessage.class));
+    }
+
     @Test
     public void testSendTransferData_Exception() throws Exception {
         // モックの設定
@@ -143,10 +211,10 @@ public class ZenginCommunicationServiceTest {
         byte[] responseBytes = responseMessage.toByteArray();
         
         // 受信モックの設定
-        when(zenginProtocol.receiveData(eq(TEST_HOST), eq(TEST_PORT))).thenReturn(responseBytes);
+        when(zenginProtocol.receiveFrame(eq(TEST_HOST), eq(TEST_PORT))).thenReturn(ReceivedFrame.of(responseBytes));
         
         // 重複チェックモックの設定
-        when(integrityService.isDuplicateMessage(anyString())).thenReturn(false);
+        when(integrityService.claimMessage(anyString())).thenReturn(true);
         
         // 照会送信・応答受信実行
         ZenginMessage result = communicationService.sendInquiryAndReceiveResponse(TEST_RECEIVER_ID, testDataRecords);
@@ -159,11 +227,11 @@ public class ZenginCommunicationServiceTest {
         
         // 整合性チェックが実行されたことを確認
         verify(integrityService).generateAndSaveIntegrityInfo(any(ZenginMessage.class));
-        verify(integrityService).isDuplicateMessage(anyString());
+        verify(integrityService).claimMessage(anyString());
         
-        // プロトコルのsendDataとreceiveDataが呼ばれたことを確認
+        // プロトコルのsendDataとreceiveFrameが呼ばれたことを確認
         verify(zenginProtocol).sendData(eq(TEST_HOST), eq(TEST_PORT), any(byte[].class));
-        verify(zenginProtocol).receiveData(eq(TEST_HOST), eq(TEST_PORT));
+        verify(zenginProtocol).receiveFrame(eq(TEST_HOST), eq(TEST_PORT));
     }
 
     @Test
@@ -177,7 +245,7 @@ public class ZenginCommunicationServiceTest {
         byte[] responseBytes = invalidResponseMessage.toByteArray();
         
         // 受信モックの設定
-        when(zenginProtocol.receiveData(eq(TEST_HOST), eq(TEST_PORT))).thenReturn(responseBytes);
+        when(zenginProtocol.receiveFrame(eq(TEST_HOST), eq(TEST_PORT))).thenReturn(ReceivedFrame.of(responseBytes));
         
         // 照会送信・応答受信実行で例外が発生することを確認
         assertThrows(ZenginCommunicationException.class, () -> {
@@ -196,10 +264,10 @@ public class ZenginCommunicationServiceTest {
         byte[] responseBytes = responseMessage.toByteArray();
         
         // 受信モックの設定
-        when(zenginProtocol.receiveData(eq(TEST_HOST), eq(TEST_PORT))).thenReturn(responseBytes);
+        when(zenginProtocol.receiveFrame(eq(TEST_HOST), eq(TEST_PORT))).thenReturn(ReceivedFrame.of(responseBytes));
         
         // 重複チェックモックの設定（重複あり）
-        when(integrityService.isDuplicateMessage(anyString())).thenReturn(true);
+        when(integrityService.claimMessage(anyString())).thenReturn(false);
         
         // 照会送信・応答受信実行で例外が発生することを確認
         assertThrows(ZenginCommunicationException.class, () -> {
@@ -215,10 +283,10 @@ public class ZenginCommunicationServiceTest {
         byte[] notificationBytes = notificationMessage.toByteArray();
         
         // 受信モックの設定
-        when(zenginProtocol.receiveData(eq(TEST_HOST), eq(TEST_PORT))).thenReturn(notificationBytes);
+        when(zenginProtocol.receiveFrame(eq(TEST_HOST), eq(TEST_PORT))).thenReturn(ReceivedFrame.of(notificationBytes));
         
         // 重複チェックモックの設定
-        when(integrityService.isDuplicateMessage(anyString())).thenReturn(false);
+        when(integrityService.claimMessage(anyString())).thenReturn(true);
         
         // 通知受信実行
         ZenginMessage result = communicationService.receiveNotification();
@@ -231,10 +299,45 @@ public class ZenginCommunicationServiceTest {
         
         // 整合性チェックが実行されたことを確認
         verify(integrityService).generateAndSaveIntegrityInfo(any(ZenginMessage.class));
-        verify(integrityService).isDuplicateMessage(anyString());
+        verify(integrityService).claimMessage(anyString());
         
-        // プロトコルのreceiveDataが呼ばれたことを確認
-        verify(zenginProtocol).receiveData(eq(TEST_HOST), eq(TEST_PORT));
+        // プロトコルのreceiveFrameが呼ばれたことを確認
+        verify(zenginProtocol).receiveFrame(eq(TEST_HOST), eq(TEST_PORT));
+    }
+
+    @Test
+    public void testSameNotificationReceivedTwiceIsRejected() throws Exception {
+        ZenginMessage notificationMessage = new ZenginMessage(MessageType.NOTIFICATION, TEST_RECEIVER_ID, TEST_SENDER_ID);
+        notificationMessage.setDataRecords(testDataRecords);
+        byte[] notificationBytes = notificationMessage.toByteArray();
+        
+        // 登録済みのIDを保持し、同じIDの2回目の登録は失敗させる（データベースの一意制約と同じ振る舞い）
+        Set<String> claimed = new HashSet<>();
+        when(integrityService.claimMessage(anyString())).thenAnswer(invocation -> claimed.add(invocation.getArgument(0)));
+        when(zenginProtocol.receiveFrame(eq(TEST_HOST), eq(TEST_PORT)))
+                .thenAnswer(invocation -> ReceivedFrame.of(notificationBytes.clone()));
+        
+        // 受信したヘッダのファイルIDで重複を判定すること
+        assertEquals(notificationMessage.getFileId(), communicationService.processNotification(notificationBytes).getFileId());
+        assertThrows(ZenginCommunicationException.class, () -> communicationService.processNotification(notificationBytes));
+        assertThrows(ZenginCommunicationException.class, () -> communicationService.receiveNotification());
+        assertThrows(ZenginCommunicationException.class,
+                () -> communicationService.receiveBufferedNotification(new ZenginStreamDecoder.Handler() {
+                    @Override
+                    public void onHeader(ZenginMessage header) {
+                        fail("重複した通知はハンドラに渡さないこと");
+                    }
+                    
+                    @Override
+                    public void onRecord(byte[] record) {
+                        fail("重複した通知はハンドラに渡さないこと");
+                    }
+                }));
+        ZenginCommunicationException duplicate = assertThrows(ZenginCommunicationException.class,
+                () -> communicationService.processNotification(notificationBytes));
+        assertEquals(ZenginCommunicationService.DUPLICATE_MESSAGE, duplicate.getErrorCode());
+        assertEquals(Set.of(notificationMessage.getFileId()), claimed);
+        verify(integrityService, times(1)).generateAndSaveIntegrityInfo(any(ZenginMessage.class));
     }
 
     @Test
@@ -245,7 +348,7 @@ public class ZenginCommunicationServiceTest {
         byte[] invalidBytes = invalidMessage.toByteArray();
         
         // 受信モックの設定
-        when(zenginProtocol.receiveData(eq(TEST_HOST), eq(TEST_PORT))).thenReturn(invalidBytes);
+        when(zenginProtocol.receiveFrame(eq(TEST_HOST), eq(TEST_PORT))).thenReturn(ReceivedFrame.of(invalidBytes));
         
         // 通知受信実行で例外が発生することを確認
         assertThrows(ZenginCommunicationException.class, () -> {
@@ -253,6 +356,177 @@ public class ZenginCommunicationServiceTest {
         });
     }
 
+    @Test
+    public void testReceiveNotification_TrailerRecordCountMismatch() throws Exception {
+        // 電文トレーラのレコード件数を実際の件数と異なる値にした通知メッセージを準備
+        ZenginMessage notificationMessage = new ZenginMessage(MessageType.NOTIFICATION, TEST_RECEIVER_ID, TEST_SENDER_ID);
+        notificationMessage.setDataRecords(testDataRecords);
+        byte[] notificationBytes = notificationMessage.toByteArray();
+        int trailerOffset = notificationBytes.length - MessageEnvelopeLayout.TRAILER.getLength();
+        byte[] trailer = MessageEnvelopeLayout.TRAILER.newRecord(ZenginCharset.JIS);
+        System.arraycopy(notificationBytes, trailerOffset, trailer, 0, trailer.length);
+        MessageEnvelopeLayout.TRAILER_RECORD_COUNT.setLong(trailer, testDataRecords.length + 1, ZenginCharset.JIS);
+        System.arraycopy(trailer, 0, notificationBytes, trailerOffset, trailer.length);
+        
+        // 重複チェックモックの設定
+        when(integrityService.claimMessage(anyString())).thenReturn(true);
+        
+        // 受信したトレーラの件数で検証され、例外が発生することを確認
+        ZenginCommunicationException exception = assertThrows(ZenginCommunicationException.class, () -> {
+            communicationService.processNotification(notificationBytes);
+        });
+        assertTrue(exception.getMessage().contains("レコード件数が一致しません"));
+        
+        // NAK応答後の銀行側の再送を受け付けられるよう、登録が取り消されることを確認
+        verify(integrityService).releaseMessage(notificationMessage.getFileId());
+    }
+
+    @Test
+    public void testReceiveNotificationStream_Success() throws Exception {
+        // 通知メッセージの準備
+        ZenginMessage notificationMessage = new ZenginMessage(MessageType.NOTIFICATION, TEST_RECEIVER_ID, TEST_SENDER_ID);
+        notificationMessage.setDataRecords(testDataRecords);
+        byte[] notificationBytes = notificationMessage.toByteArray();
+        
+        // 受信モックの設定（受信データをデコーダに渡す）
+        when(zenginProtocol.receiveStream(eq(TEST_HOST), eq(TEST_PORT), any(ZenginStreamDecoder.class)))
+                .thenAnswer(invocation -> feed(invocation.getArgument(2), notificationBytes));
+        when(integrityService.claimMessage(anyString())).thenReturn(true);
+        
+        // 通知受信実行
+        List<byte[]> records = new ArrayList<>();
+        ReceivedTotals totals = communicationService.receiveNotification(new ZenginStreamDecoder.Handler() {
+            @Override
+            public void onHeader(ZenginMessage header) {
+                assertEquals(TEST_RECEIVER_ID, header.getSenderId());
+            }
+            
+            @Override
+            public void onRecord(byte[] record) {
+                records.add(record.clone());
+            }
+        });
+        
+        // 結果確認
+        assertEquals(2, totals.getRecordCount());
+        assertEquals(2, records.size());
+        assertArrayEquals(testDataRecords[1], records.get(1));
+        verify(integrityService).saveIntegrityInfo(any(ZenginMessage.class), any(), eq(2), eq(0L));
+        verify(zenginProtocol, never()).receiveData(anyString(), anyInt());
+    }
+
+    @Test
+    public void testReceiveNotificationStream_TrailerRecordCountMismatch() throws Exception {
+        // 電文トレーラのレコード件数を実際の件数と異なる値にした通知メッセージを準備
+        ZenginMessage notificationMessage = new ZenginMessage(MessageType.NOTIFICATION, TEST_RECEIVER_ID, TEST_SENDER_ID);
+        notificationMessage.setDataRecords(testDataRecords);
+        byte[] notificationBytes = notificationMessage.toByteArray();
+        int trailerOffset = notificationBytes.length - MessageEnvelopeLayout.TRAILER.getLength();
+        byte[] trailer = MessageEnvelopeLayout.TRAILER.newRecord(ZenginCharset.JIS);
+        System.arraycopy(notificationBytes, trailerOffset, trailer, 0, trailer.length);
+        MessageEnvelopeLayout.TRAILER_RECORD_COUNT.setLong(trailer, testDataRecords.length + 1, ZenginCharset.JIS);
+        System.arraycopy(trailer, 0, notificationBytes, trailerOffset, trailer.length);
+        
+        when(zenginProtocol.receiveStream(eq(TEST_HOST), eq(TEST_PORT), any(ZenginStreamDecoder.class)))
+                .thenAnswer(invocation -> feed(invocation.getArgument(2), notificationBytes));
+        when(integrityService.claimMessage(anyString())).thenReturn(true);
+        
+        // 全体の受信後にトレーラの件数で検証され、例外が発生することを確認
+        ZenginCommunicationException exception = assertThrows(ZenginCommunicationException.class, () -> {
+            communicationService.receiveNotification(new ZenginStreamDecoder.Handler() {
+                @Override
+                public void onHeader(ZenginMessage header) {
+                }
+                
+                @Override
+                public void onRecord(byte[] record) {
+                }
+            });
+        });
+        assertTrue(exception.getMessage().contains("レコード件数が一致しません"));
+    }
+
+    @Test
+    public void testReceiveBufferedNotification_Success() throws Exception {
+        // 通知メッセージの準備
+        ZenginMessage notificationMessage = new ZenginMessage(MessageType.NOTIFICATION, TEST_RECEIVER_ID, TEST_SENDER_ID);
+        notificationMessage.setDataRecords(testDataRecords);
+        byte[] notificationBytes = notificationMessage.toByteArray();
+        
+        // 受信モックの設定（受信済みのフレームを返す）
+        when(zenginProtocol.receiveFrame(eq(TEST_HOST), eq(TEST_PORT))).thenReturn(ReceivedFrame.of(notificationBytes));
+        when(integrityService.claimMessage(anyString())).thenReturn(true);
+        
+        // 通知受信実行（逐次受信と同じハンドラで処理）
+        List<byte[]> records = new ArrayList<>();
+        ReceivedTotals totals = communicationService.receiveBufferedNotification(new ZenginStreamDecoder.Handler() {
+            @Override
+            public void onHeader(ZenginMessage header) {
+            }
+            
+            @Override
+            public void onRecord(byte[] record) {
+                records.add(record.clone());
+            }
+        });
+        
+        // 結果確認
+        assertEquals(2, totals.getRecordCount());
+        assertArrayEquals(testDataRecords[0], records.get(0));
+        verify(integrityService).saveIntegrityInfo(any(ZenginMessage.class), any(), eq(2), eq(0L));
+        verify(zenginProtocol, never()).receiveStream(anyString(), anyInt(), any());
+    }
+
+    @Test
+    public void testReceiveNotificationStream_FailureReleasesClaim() throws Exception {
+        // 通知メッセージの準備
+        ZenginMessage notificationMessage = new ZenginMessage(MessageType.NOTIFICATION, TEST_RECEIVER_ID, TEST_SENDER_ID);
+        notificationMessage.setDataRecords(testDataRecords);
+        byte[] notificationBytes = notificationMessage.toByteArray();
+        
+        // ヘッダレコードを受信した後に通信エラーが発生する受信モック
+        when(zenginProtocol.receiveStream(eq(TEST_HOST), eq(TEST_PORT), any(ZenginStreamDecoder.class)))
+                .thenAnswer(invocation -> {
+                    ZenginStreamDecoder decoder = invocation.getArgument(2);
+                    decoder.feed(notificationBytes, 0, MessageEnvelopeLayout.HEADER.getLength());
+                    throw new ZenginCommunicationException("受信がタイムアウトしました");
+                });
+        when(integrityService.claimMessage(anyString())).thenReturn(true);
+        
+        assertThrows(ZenginCommunicationException.class, () -> {
+            communicationService.receiveNotification(new ZenginStreamDecoder.Handler() {
+                @Override
+                public void onHeader(ZenginMessage header) {
+                }
+                
+                @Override
+                public void onRecord(byte[] record) {
+                }
+            });
+        });
+        
+        // 再送を受信できるように登録が取り消されることを確認
+        verify(integrityService).claimMessage(notificationMessage.getFileId());
+        verify(integrityService).releaseMessage(notificationMessage.getFileId());
+        verify(integrityService, never()).saveIntegrityInfo(any(), any(), anyInt(), anyLong());
+    }
+
+    /**
+     * 文字種チェックを通過する総合振込のデータレコードを作成します
+     */
+    private static byte[] transferRecord(String bankCode, String branchCode) {
+        String record = "2" + bankCode + "ｾﾞﾝｷﾞﾝ         " + branchCode + "ﾎﾝﾃﾝ           " + "    " + "1" + "1234567"
+                + "ｾﾞﾝｷﾞﾝ ﾀﾛｳ(ｶ)                 " + "0000012345" + "0" + "CUST000001" + "          " + " " + " "
+                + "       ";
+        return ZenginCharset.JIS.encode(record, 120);
+    }
+
+    private static long feed(ZenginStreamDecoder decoder, byte[] data) {
+        decoder.feed(data, 0, data.length);
+        decoder.finish();
+        return data.length;
+    }
+
     @Test
     public void testGetterAndSetter() {
         // 初期値確認
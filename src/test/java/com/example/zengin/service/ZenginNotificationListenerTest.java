@@ -0,0 +1,271 @@
+package com.example.zengin.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.zengin.communication.ReceivedFrame;
+import com.example.zengin.communication.ZenginCommunicationException;
+import com.example.zengin.communication.ZenginTcpIpProtocol;
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginMessage.MessageType;
+
+/**
+ * 通知受信リスナーのテストクラス
+ */
+@ExtendWith(MockitoExtension.class)
+public class ZenginNotificationListenerTest {
+    
+    @Mock
+    private ZenginCommunicationService communicationService;
+    
+    @Mock
+    private ZenginTcpIpProtocol session;
+    
+    @TempDir
+    Path pendingDir;
+    
+    private ZenginNotificationListener listener;
+    
+    private byte[] notificationBytes;
+    
+    @BeforeEach
+    public void setUp() {
+        // テスト用通知データを作成
+        byte[][] dataRecords = new byte[1][120];
+        byte[] record = "RECORD1DATA".getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(record, 0, dataRecords[0], 0, record.length);
+        ZenginMessage notificationMessage = new ZenginMessage(MessageType.NOTIFICATION, "TESTBANK", "TESTSENDER");
+        notificationMessage.setDataRecords(dataRecords);
+        notificationBytes = notificationMessage.toByteArray();
+        
+        // モックセッションを使用するリスナーを作成
+        listener = new ZenginNotificationListener() {
+            @Override
+            protected ZenginTcpIpProtocol createSession() {
+                return session;
+            }
+        };
+        ReflectionTestUtils.setField(listener, "communicationService", communicationService);
+        ReflectionTestUtils.setField(listener, "banks", "testhost.example.com:20000");
+        ReflectionTestUtils.setField(listener, "queueCapacity", 1);
+        ReflectionTestUtils.setField(listener, "reconnectIntervalMillis", 10L);
+        ReflectionTestUtils.setField(listener, "pendingDir", pendingDir.toString());
+    }
+    
+    /**
+     * セッションが受信したフレームを処理に渡す動作を模擬します
+     * 
+     * @param invocation receiveFrame の呼び出し
+     * @return 処理結果
+     */
+    private Object deliver(InvocationOnMock invocation) throws Exception {
+        ZenginTcpIpProtocol.FrameProcessor<?> processor = invocation.getArgument(2);
+        try (ReceivedFrame frame = ReceivedFrame.of(notificationBytes)) {
+            return processor.process(frame);
+        }
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        listener.stop();
+    }
+    
+    @Test
+    public void testReceivedNotificationIsQueued() throws Exception {
+        // モックの設定
+        ZenginMessage processed = ZenginMessage.fromByteArray(notificationBytes);
+        when(session.receiveFrame(eq("testhost.example.com"), eq(20000), any()))
+            .thenAnswer(this::deliver);
+        when(communicationService.processNotification(any(ReceivedFrame.class))).thenReturn(processed);
+        
+        // リスナーを開始
+        listener.start();
+        
+        // 通知電文がキューに投入されることを確認
+        ZenginMessage received = listener.poll(5, TimeUnit.SECONDS);
+        assertSame(processed, received);
+    }
+    
+    @Test
+    public void testBackpressureStopsReceivingWhenQueueIsFull() throws Exception {
+        // モックの設定
+        ZenginMessage processed = ZenginMessage.fromByteArray(notificationBytes);
+        when(session.receiveFrame(eq("testhost.example.com"), eq(20000), any()))
+            .thenAnswer(this::deliver);
+        when(communicationService.processNotification(any(ReceivedFrame.class))).thenReturn(processed);
+        
+        // リスナーを開始（キュー容量1）
+        listener.start();
+        
+        // 1件目はキューに投入され、2件目の投入で待機するため受信は2回で止まることを確認
+        verify(session, timeout(5000).times(2)).receiveFrame(anyString(), anyInt(), any());
+        Thread.sleep(200);
+        verify(session, times(2)).receiveFrame(anyString(), anyInt(), any());
+        assertEquals(1, listener.getNotificationQueue().size());
+    }
+    
+    @Test
+    public void testReconnectAfterReceiveError() throws Exception {
+        // モックの設定（1回目は受信エラー、2回目は正常受信）
+        ZenginMessage processed = ZenginMessage.fromByteArray(notificationBytes);
+        when(session.receiveFrame(eq("testhost.example.com"), eq(20000), any()))
+            .thenThrow(new ZenginCommunicationException("接続が切断されました", "E006"))
+            .thenAnswer(this::deliver);
+        when(communicationService.processNotification(any(ReceivedFrame.class))).thenReturn(processed);
+        
+        // リスナーを開始
+        listener.start();
+        
+        // 切断後に再受信して通知電文がキューに投入されることを確認
+        assertSame(processed, listener.poll(5, TimeUnit.SECONDS));
+        verify(session, atLeastOnce()).disconnect();
+    }
+    
+    @Test
+    public void testUnexpectedProcessingErrorDropsMessageAndKeepsReceiving() throws Exception {
+        // モックの設定（1回目の処理は予期しない例外、2回目はエラー、3回目は正常に処理）
+        ZenginMessage processed = ZenginMessage.fromByteArray(notificationBytes);
+        when(session.receiveFrame(eq("testhost.example.com"), eq(20000), any()))
+            .thenAnswer(this::deliver);
+        when(communicationService.processNotification(any(ReceivedFrame.class)))
+            .thenThrow(new IllegalStateException("処理中のエラー"))
+            .thenThrow(new AssertionError("処理中のエラー"))
+            .thenReturn(processed);
+        
+        // リスナーを開始
+        listener.start();
+        
+        // 受信スレッドが終了せず、次の通知電文がキューに投入されることを確認
+        assertSame(processed, listener.poll(5, TimeUnit.SECONDS));
+        verify(communicationService, atLeast(3)).processNotification(any(ReceivedFrame.class));
+        verify(session, atLeastOnce()).disconnect();
+    }
+    
+    @Test
+    public void testRejectedNotificationIsNotAcknowledged() throws Exception {
+        // モックの設定（1回目は検証エラー、2回目は正常に処理）
+        ZenginMessage processed = ZenginMessage.fromByteArray(notificationBytes);
+        List<Throwable> replies = new CopyOnWriteArrayList<>();
+        when(session.receiveFrame(eq("testhost.example.com"), eq(20000), any())).thenAnswer(invocation -> {
+            try {
+                return deliver(invocation);
+            } catch (ZenginCommunicationException e) {
+                replies.add(e);
+                throw e;
+            }
+        });
+        when(communicationService.processNotification(any(ReceivedFrame.class)))
+            .thenThrow(new ZenginCommunicationException("トレーラレコードのレコード件数が一致しません"))
+            .thenReturn(processed);
+        
+        // リスナーを開始
+        listener.start();
+        
+        // 検証エラーはセッションに送出され（NAK応答）、再接続せずに次の通知電文を受信することを確認
+        assertSame(processed, listener.poll(5, TimeUnit.SECONDS));
+        assertEquals(1, replies.size());
+        verify(session, never()).disconnect();
+    }
+    
+    @Test
+    public void testDuplicateNotificationIsAcknowledgedAndDropped() throws Exception {
+        // モックの設定（受信済みの電文の再送）
+        when(session.receiveFrame(eq("testhost.example.com"), eq(20000), any())).thenAnswer(this::deliver);
+        when(communicationService.processNotification(any(ReceivedFrame.class))).thenThrow(new ZenginCommunicationException(
+                "重複したメッセージを受信しました", ZenginCommunicationService.DUPLICATE_MESSAGE));
+        
+        // リスナーを開始
+        listener.start();
+        
+        // 重複は処理成功として扱い（ACK応答）、キューには投入しないことを確認
+        verify(communicationService, timeout(5000).atLeast(2)).processNotification(any(ReceivedFrame.class));
+        assertNull(listener.poll(100, TimeUnit.MILLISECONDS));
+        verify(session, never()).disconnect();
+    }
+    
+    @Test
+    public void testNotificationWaitingAtStopIsSavedAndQueuedOnRestart() throws Exception {
+        // モックの設定（キュー容量1のため、2件目はキューへの投入を待つ）
+        ZenginMessage processed = ZenginMessage.fromByteArray(notificationBytes);
+        ZenginMessage reloaded = ZenginMessage.fromByteArray(notificationBytes);
+        when(session.receiveFrame(eq("testhost.example.com"), eq(20000), any())).thenAnswer(this::deliver);
+        when(communicationService.processNotification(any(ReceivedFrame.class))).thenReturn(processed);
+        when(communicationService.processNotification(any(byte[].class))).thenReturn(reloaded);
+        ReflectionTestUtils.setField(listener, "reconnectIntervalMillis", 5000L); // 停止時に受信スレッドの終了を待つ
+        
+        listener.start();
+        verify(session, timeout(5000).times(2)).receiveFrame(anyString(), anyInt(), any());
+        Thread.sleep(200);
+        listener.stop();
+        
+        // 投入を待っていた電文は登録を取り消して保存されることを確認
+        verify(communicationService).releaseNotification(processed);
+        Path saved = pendingDir.resolve(processed.getFileId() + ".pending");
+        assertArrayEquals(notificationBytes, Files.readAllBytes(saved));
+        
+        // 次回の開始時に保存した電文をキューに投入し、ファイルを削除することを確認
+        listener.start();
+        assertSame(reloaded, listener.poll(5, TimeUnit.SECONDS));
+        assertFalse(Files.exists(saved));
+    }
+    
+    @Test
+    public void testUnexpectedReceiveErrorReconnects() throws Exception {
+        // モックの設定（1回目の受信は予期しない例外、2回目は正常受信）
+        ZenginMessage processed = ZenginMessage.fromByteArray(notificationBytes);
+        when(session.receiveFrame(eq("testhost.example.com"), eq(20000), any()))
+            .thenThrow(new IllegalStateException("受信中のエラー"))
+            .thenAnswer(this::deliver);
+        when(communicationService.processNotification(any(ReceivedFrame.class))).thenReturn(processed);
+        
+        // リスナーを開始
+        listener.start();
+        
+        assertSame(processed, listener.poll(5, TimeUnit.SECONDS));
+        verify(session, atLeastOnce()).disconnect();
+    }
+    
+    @Test
+    public void testStopAbortsSessionAndReceiverDisconnects() throws Exception {
+        // モックの設定（中断されるまで受信待ちを続ける）
+        CountDownLatch receiving = new CountDownLatch(1);
+        CountDownLatch aborted = new CountDownLatch(1);
+        when(session.receiveFrame(eq("testhost.example.com"), eq(20000), any())).thenAnswer(invocation -> {
+            receiving.countDown();
+            aborted.await();
+            throw new ZenginCommunicationException("接続が切断されました", "E006");
+        });
+        doAnswer(invocation -> {
+            aborted.countDown();
+            return null;
+        }).when(session).abort();
+        
+        // リスナーを開始し、受信待ちになってから停止
+        listener.start();
+        assertTrue(receiving.await(5, TimeUnit.SECONDS));
+        listener.stop();
+        
+        // 停止処理はセッションを中断するのみで、切断は受信スレッドが行うことを確認
+        verify(session).abort();
+        verify(session, timeout(5000)).disconnect();
+        assertFalse(listener.isRunning());
+    }
+} 
\ No newline at end of file
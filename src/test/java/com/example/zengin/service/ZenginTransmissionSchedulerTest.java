@@ -0,0 +1,127 @@
+package com.example.zengin.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.zengin.communication.ZenginCommunicationException;
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginMessage.MessageType;
+
+/**
+ * 送信スケジューラのテストクラス
+ */
+@ExtendWith(MockitoExtension.class)
+public class ZenginTransmissionSchedulerTest {
+    
+    private static final ZoneId ZONE = ZoneId.of("Asia/Tokyo");
+    
+    @Mock
+    private ZenginCommunicationService communicationService;
+    
+    private ZenginTransmissionScheduler scheduler;
+    
+    private final byte[][] dataRecords = new byte[1][120];
+    
+    @BeforeEach
+    public void setUp() {
+        scheduler = new ZenginTransmissionScheduler();
+        ReflectionTestUtils.setField(scheduler, "communicationService", communicationService);
+        ReflectionTestUtils.setField(scheduler, "cutoffs", "BANK1=15:00");
+        ReflectionTestUtils.setField(scheduler, "workerThreads", 1);
+        ReflectionTestUtils.setField(scheduler, "maxConcurrencyPerBank", 1);
+        ReflectionTestUtils.setField(scheduler, "rateLimiterRegistry", createRateLimiterRegistry());
+        ReflectionTestUtils.setField(scheduler, "initialEstimateMillis", 1000L);
+        scheduler.setClock(Clock.fixed(Instant.parse("2024-04-01T03:00:00Z"), ZONE)); // 12:00 JST
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+    
+    private BankRateLimiterRegistry createRateLimiterRegistry() {
+        // 送信レート無制限
+        BankRateLimiterRegistry registry = new BankRateLimiterRegistry();
+        ReflectionTestUtils.setField(registry, "ratePerSecond", 0.0);
+        ReflectionTestUtils.setField(registry, "burst", 1);
+        ReflectionTestUtils.setField(registry, "bankRates", "");
+        return registry;
+    }
+    
+    @Test
+    public void testEarliestDeadlineAndTransferFirst() throws Exception {
+        // 最初の送信をブロックして、待ち行列に要求を溜める
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+        
+        when(communicationService.sendTransferData(anyString(), any(byte[][].class))).thenAnswer(invocation -> {
+            String receiverId = invocation.getArgument(0);
+            order.add("TRANSFER:" + receiverId);
+            if (receiverId.equals("BLOCKER")) {
+                firstStarted.countDown();
+                releaseFirst.await(5, TimeUnit.SECONDS);
+            }
+            return true;
+        });
+        when(communicationService.sendInquiryAndReceiveResponse(anyString(), any(byte[][].class))).thenAnswer(invocation -> {
+            order.add("INQUIRY:" + invocation.getArgument(0));
+            return new ZenginMessage(MessageType.RESPONSE, "SENDER", invocation.getArgument(0));
+        });
+        
+        scheduler.start();
+        Instant deadline = Instant.parse("2024-04-01T08:00:00Z");
+        scheduler.submitTransfer("BLOCKER", dataRecords, deadline);
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+        
+        // 期限の遅い照会、期限の早い照会、カットオフ時刻（15:00 JST）が期限の振込を登録
+        ScheduledTransmission<ZenginMessage> lateInquiry = scheduler.submitInquiry("BANK2", dataRecords);
+        ScheduledTransmission<ZenginMessage> inquiry = scheduler.submitInquiry("BANK1", dataRecords);
+        ScheduledTransmission<Boolean> transfer = scheduler.submitTransfer("BANK1", dataRecords);
+        
+        // 待ち行列では同じ期限の振込が照会より前に並ぶ
+        List<ScheduledTransmission<?>> queued = scheduler.getQueuedTransmissions("BANK1");
+        assertSame(transfer, queued.get(0));
+        assertSame(inquiry, queued.get(1));
+        assertTrue(transfer.getExpectedCompletionTime().isBefore(inquiry.getExpectedCompletionTime()));
+        
+        releaseFirst.countDown();
+        assertTrue(transfer.getFuture().get(5, TimeUnit.SECONDS));
+        assertNotNull(inquiry.getFuture().get(5, TimeUnit.SECONDS));
+        assertNotNull(lateInquiry.getFuture().get(5, TimeUnit.SECONDS));
+        
+        assertEquals(List.of("TRANSFER:BLOCKER", "TRANSFER:BANK1", "INQUIRY:BANK1", "INQUIRY:BANK2"), order);
+    }
+    
+    @Test
+    public void testSubmitAfterCutoffIsRejected() throws Exception {
+        // カットオフ時刻（15:00 JST）を過ぎた時刻に設定
+        scheduler.setClock(Clock.fixed(Instant.parse("2024-04-01T06:30:00Z"), ZONE));
+        scheduler.start();
+        
+        ScheduledTransmission<Boolean> transfer = scheduler.submitTransfer("BANK1", dataRecords);
+        
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> transfer.getFuture().get(5, TimeUnit.SECONDS));
+        ZenginCommunicationException cause = assertInstanceOf(ZenginCommunicationException.class, exception.getCause());
+        assertEquals("E013", cause.getErrorCode());
+        verify(communicationService, never()).sendTransferData(anyString(), any(byte[][].class));
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,358 @@
+package com.example.zengin.stub;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import com.example.zengin.communication.ZenginTcpIpProtocolImpl;
+import com.example.zengin.format.ZenginCharset;
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginMessage.MessageType;
+import com.example.zengin.format.layout.SogoFurikomiLayout;
+import com.example.zengin.security.MessageIntegrityRepository;
+import com.example.zengin.security.MessageIntegrityService;
+import com.example.zengin.security.MessageIntegrityUtil;
+import com.example.zengin.service.ZenginCommunicationService;
+
+/**
+ * 全銀通信サービスの負荷生成ツール
+ * 指定した同時実行数ごとに ZenginCommunicationService で振込または照会を一定時間送信し続け、
+ * スループット（電文/秒、バイト/秒）と応答時間の p50/p99/p999 を出力します
+ * 
+ * 送信先を指定しない場合はプロセス内でスタブ銀行サーバを起動します
+ * 全銀通信サービスは1つのプロトコルセッションを共有するため、送信スレッドごとにサービスとセッションを生成します
+ * サービスは送信先・送信者ID・ブロック転送閾値をプロパティに設定した最小限のSpringコンテキストで構成し、
+ * 共通の Bean を持つ親コンテキストの下に、送信スレッドのセッションごとの子コンテキストを作成します
+ * 
+ * 使用例:
+ * <pre>
+ * ./gradlew loadTest -PloadTestArgs="--concurrency=1,4,16 --duration-seconds=10 --latency-millis=5 --nak-rate=0.01"
+ * </pre>
+ */
+public class LoadGenerator {
+    
+    private final String host;
+    private final int port;
+    private final boolean tls;
+    private final MessageType messageType;
+    private final byte[][] dataRecords;
+    private final int blockTransferThreshold;
+    private final long messageBytes;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param host 送信先ホスト
+     * @param port 送信先ポート
+     * @param tls TLSを使用する場合はtrue
+     * @param messageType 送信する電文種別（TRANSFER または INQUIRY）
+     * @param recordCount 1電文あたりのデータレコード件数
+     * @param blockTransferThreshold ブロック転送閾値（0以下で無効）
+     */
+    public LoadGenerator(String host, int port, boolean tls, MessageType messageType, int recordCount,
+            int blockTransferThreshold) {
+        this.host = host;
+        this.port = port;
+        this.tls = tls;
+        this.messageType = messageType;
+        this.dataRecords = createRecords(recordCount);
+        this.blockTransferThreshold = blockTransferThreshold;
+        
+        ZenginMessage sample = new ZenginMessage(messageType, "LOADGEN", "STUBBANK");
+        sample.setDataRecords(dataRecords);
+        this.messageBytes = sample.toByteArray().length;
+    }
+    
+    /**
+     * 指定した同時実行数で一定時間送信し、結果を集計します
+     * 
+     * @param concurrency 同時実行数
+     * @param durationMillis 送信時間（ミリ秒）
+     * @return 集計結果
+     * @throws InterruptedException 待機中に割り込まれた場合
+     */
+    public Result run(int concurrency, long durationMillis) throws InterruptedException {
+        Worker[] workers = new Worker[concurrency];
+        CountDownLatch finished = new CountDownLatch(concurrency);
+        long elapsedNanos;
+        
+        try (AnnotationConfigApplicationContext context = createContext()) {
+            long startNanos = System.nanoTime();
+            long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+            for (int i = 0; i < concurrency; i++) {
+                workers[i] = new Worker(context, deadlineNanos, finished);
+                Thread thread = new Thread(workers[i], "load-generator-" + (i + 1));
+                thread.setDaemon(true);
+                thread.start();
+            }
+            finished.await();
+            elapsedNanos = System.nanoTime() - startNanos;
+        }
+        
+        int total = 0;
+        long errors = 0;
+        for (Worker worker : workers) {
+            total += worker.count;
+            errors += worker.errors;
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (Worker worker : workers) {
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+            offset += worker.count;
+        }
+        Arrays.sort(latencies);
+        
+        return new Result(concurrency, total, errors, total * messageBytes, elapsedNanos, latencies);
+    }
+    
+    /**
+     * 送信スレッドで共有する親コンテキストを作成します
+     * 送信先・送信者ID・ブロック転送閾値をプロパティとして設定し、整合性チェックは無効にします
+     * 整合性情報は保存しないため、リポジトリはデータベースを使用しないモックとします
+     * 
+     * @return 親コンテキスト
+     */
+    private AnnotationConfigApplicationContext createContext() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("zengin.bank.host", host);
+        properties.put("zengin.bank.port", port);
+        properties.put("zengin.sender.id", "LOADGEN");
+        properties.put("zengin.integrity.check.enabled", false);
+        properties.put("zengin.block.transfer-threshold", blockTransferThreshold);
+        
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("loadGenerator", properties));
+        context.registerBean(MessageIntegrityUtil.class);
+        context.registerBean(MessageIntegrityRepository.class, () -> Mockito.mock(MessageIntegrityRepository.class));
+        context.registerBean(MessageIntegrityService.class);
+        context.refresh();
+        return context;
+    }
+    
+    /**
+     * 送信スレッド
+     * 失敗時はセッションの状態が不定になるため、サービスとセッションを作り直します
+     */
+    private class Worker implements Runnable {
+        
+        private final AnnotationConfigApplicationContext parent;
+        private final long deadlineNanos;
+        private final CountDownLatch finished;
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+        private AnnotationConfigApplicationContext session;
+        private ZenginCommunicationService service;
+        
+        Worker(AnnotationConfigApplicationContext parent, long deadlineNanos, CountDownLatch finished) {
+            this.parent = parent;
+            this.deadlineNanos = deadlineNanos;
+            this.finished = finished;
+        }
+        
+        @Override
+        public void run() {
+            try {
+                openSession();
+                while (System.nanoTime() < deadlineNanos) {
+                    long start = System.nanoTime();
+                    try {
+                        if (messageType == MessageType.INQUIRY) {
+                            service.sendInquiryAndReceiveResponse("STUBBANK", dataRecords);
+                        } else {
+                            service.sendTransferData("STUBBANK", dataRecords);
+                        }
+                        record(System.nanoTime() - start);
+                    } catch (Exception e) {
+                        errors++;
+                        closeSession();
+                        openSession();
+                    }
+                }
+                closeSession();
+            } finally {
+                finished.countDown();
+            }
+        }
+        
+        /**
+         * 専用のプロトコルセッションを持つ全銀通信サービスを子コンテキストに生成します（整合性チェックなし）
+         */
+        private void openSession() {
+            session = new AnnotationConfigApplicationContext();
+            session.setParent(parent);
+            session.registerBean(ZenginTcpIpProtocolImpl.class, () -> {
+                ZenginTcpIpProtocolImpl protocol = new ZenginTcpIpProtocolImpl();
+                protocol.setUseTLS(tls);
+                return protocol;
+            });
+            session.registerBean(ZenginCommunicationService.class);
+            session.refresh();
+            service = session.getBean(ZenginCommunicationService.class);
+        }
+        
+        private void closeSession() {
+            try {
+                session.getBean(ZenginTcpIpProtocolImpl.class).disconnect();
+            } catch (Exception e) {
+                // 切断済みの場合は無視
+            }
+            session.close();
+        }
+        
+        private void record(long latencyNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, latencies.length * 2);
+            }
+            latencies[count++] = latencyNanos;
+        }
+    }
+    
+    private static byte[][] createRecords(int recordCount) {
+        byte[][] records = new byte[recordCount][];
+        for (int i = 0; i < recordCount; i++) {
+            records[i] = SogoFurikomiLayout.DATA.newRecord(ZenginCharset.JIS);
+            SogoFurikomiLayout.DATA_AMOUNT.setLong(records[i], 1000 + i, ZenginCharset.JIS);
+        }
+        return records;
+    }
+    
+    /**
+     * 同時実行数ごとの集計結果
+     */
+    public static class Result {
+        
+        private final int concurrency;
+        private final long messages;
+        private final long errors;
+        private final long bytes;
+        private final long elapsedNanos;
+        private final long[] sortedLatencies;
+        
+        Result(int concurrency, long messages, long errors, long bytes, long elapsedNanos, long[] sortedLatencies) {
+            this.concurrency = concurrency;
+            this.messages = messages;
+            this.errors = errors;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = sortedLatencies;
+        }
+        
+        public long getMessages() {
+            return messages;
+        }
+        
+        public long getErrors() {
+            return errors;
+        }
+        
+        public double getMessagesPerSecond() {
+            return messages * 1e9 / elapsedNanos;
+        }
+        
+        public double getBytesPerSecond() {
+            return bytes * 1e9 / elapsedNanos;
+        }
+        
+        /**
+         * 応答時間のパーセンタイル値を取得します
+         * 
+         * @param percentile パーセンタイル（0.0～1.0）
+         * @return 応答時間（ミリ秒、成功した送信がない場合は0）
+         */
+        public double getLatencyMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1e6;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("concurrency=%d messages=%d errors=%d messages/s=%.1f bytes/s=%.0f "
+                    + "p50=%.3fms p99=%.3fms p999=%.3fms",
+                    concurrency, messages, errors, getMessagesPerSecond(), getBytesPerSecond(),
+                    getLatencyMillis(0.50), getLatencyMillis(0.99), getLatencyMillis(0.999));
+        }
+    }
+    
+    /**
+     * 負荷生成を実行します
+     * 
+     * @param args --host, --port, --tls, --concurrency（カンマ区切り）, --duration-seconds, --records,
+     *             --type（transfer/inquiry）, --block-threshold, --latency-millis, --nak-rate, --disconnect-rate
+     * @throws Exception 実行エラー発生時
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        
+        // 電文ごとのログが計測に影響しないようにする（失敗件数は集計結果に出力）
+        LoggingSystem.get(LoadGenerator.class.getClassLoader()).setLogLevel("com.example.zengin",
+                Boolean.parseBoolean(options.getOrDefault("verbose", "false")) ? LogLevel.INFO : LogLevel.OFF);
+        
+        boolean tls = Boolean.parseBoolean(options.getOrDefault("tls", "false"));
+        List<Integer> concurrencyLevels = new ArrayList<>();
+        for (String level : options.getOrDefault("concurrency", "1,4,16").split(",")) {
+            concurrencyLevels.add(Integer.parseInt(level.trim()));
+        }
+        long durationMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(options.getOrDefault("duration-seconds", "10")));
+        int records = Integer.parseInt(options.getOrDefault("records", "10"));
+        MessageType messageType = MessageType.valueOf(options.getOrDefault("type", "transfer").toUpperCase());
+        int blockThreshold = Integer.parseInt(options.getOrDefault("block-threshold", "1048576"));
+        
+        StubBankServer server = null;
+        String host = options.get("host");
+        int port = Integer.parseInt(options.getOrDefault("port", "0"));
+        if (host == null) {
+            server = new StubBankServer()
+                    .tls(tls)
+                    .latencyMillis(Long.parseLong(options.getOrDefault("latency-millis", "0")))
+                    .nakRate(Double.parseDouble(options.getOrDefault("nak-rate", "0")))
+                    .disconnectRate(Double.parseDouble(options.getOrDefault("disconnect-rate", "0")))
+                    .start();
+            host = "127.0.0.1";
+            port = server.getPort();
+        }
+        
+        try {
+            LoadGenerator generator = new LoadGenerator(host, port, tls, messageType, records, blockThreshold);
+            System.out.println("送信先=" + host + ":" + port + " TLS=" + tls + " 電文種別=" + messageType
+                    + " レコード件数=" + records + " 電文長=" + generator.messageBytes + "バイト");
+            for (int concurrency : concurrencyLevels) {
+                System.out.println(generator.run(concurrency, durationMillis));
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+    
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("不正な引数です: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,594 @@
+package com.example.zengin.stub;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginMessage.MessageType;
+
+/**
+ * 負荷試験・結合試験用のスタブ銀行サーバ
+ * ZenginTcpIpProtocolImpl と同じ手順（ENQ/ACK による接続、STX/ETX によるデータ送受信、EOT による切断、
+ * ブロック転送のブロック番号付きACK/NAK）で応答します
+ * 
+ * 照会電文には送信データを含む応答電文を返します
+ * 応答遅延、NAK応答率、切断率を設定することで銀行側の輻輳・障害を模擬できます
+ * 
+ * 大容量の送信を計測する場合は、受信データを保持せずACK/NAKのみを返すよう設定できます
+ * 
+ * フレーム長付き形式の要求（DLE + 'L'）にはACKで応じ、以降の接続中はデータ長に従ってフレームを送受信します
+ * 応じないよう設定した場合はNAKを返し、ETX形式で通信します
+ */
+public class StubBankServer implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StubBankServer.class);
+    
+    // 全銀プロトコル定数
+    private static final byte STX = 0x02;
+    private static final byte ETX = 0x03;
+    private static final byte EOT = 0x04;
+    private static final byte ENQ = 0x05;
+    private static final byte ACK = 0x06;
+    private static final byte NAK = 0x15;
+    private static final byte DLE = 0x10;
+    private static final byte LENGTH_PREFIXED_REQUEST = 'L';
+    private static final int FRAME_LENGTH_FIELD_LENGTH = 4;
+    
+    private static final int HEADER_LENGTH = 80; // ヘッダレコード長
+    private static final int TRANSFER_ID_LENGTH = 10; // ブロックの転送ID長
+    private static final int BLOCK_NUMBER_LENGTH = 8; // ブロック番号の桁数
+    private static final int BLOCK_HEADER_LENGTH = TRANSFER_ID_LENGTH + BLOCK_NUMBER_LENGTH * 2;
+    private static final byte[] ZEDI = "ZEDI".getBytes(StandardCharsets.US_ASCII);
+    
+    private static final String KEYSTORE_RESOURCE = "keystore/zengin-client.jks"; // テスト用キーストア
+    private static final char[] KEYSTORE_PASSWORD = "changeit".toCharArray();
+    
+    private int port;
+    private boolean tls;
+    private long latencyMillis;
+    private double nakRate;
+    private double disconnectRate;
+    private boolean discardData;
+    private boolean lengthFraming = true;
+    private long seed = System.nanoTime();
+    
+    private ServerSocket serverSocket;
+    private Random random;
+    private final Set<Socket> sessions = ConcurrentHashMap.newKeySet();
+    
+    private final AtomicLong enquiries = new AtomicLong();
+    private final AtomicLong endOfTransmissions = new AtomicLong();
+    private final AtomicLong receivedFrames = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong sentNaks = new AtomicLong();
+    private final AtomicLong receivedNaks = new AtomicLong();
+    private final AtomicLong disconnects = new AtomicLong();
+    
+    /**
+     * サーバを開始します
+     * 
+     * @return このサーバ
+     * @throws IOException サーバの開始に失敗した場合
+     */
+    public StubBankServer start() throws IOException {
+        random = new Random(seed);
+        serverSocket = tls
+                ? createSslContext().getServerSocketFactory().createServerSocket(port, 50, InetAddress.getLoopbackAddress())
+                : new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        
+        Thread acceptThread = new Thread(this::acceptLoop, "stub-bank-server");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        
+        logger.info("スタブ銀行サーバを開始しました: ポート={}, TLS={}", getPort(), tls);
+        return this;
+    }
+    
+    /**
+     * サーバを停止し、全てのセッションを切断します
+     */
+    @Override
+    public void close() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        for (Socket session : sessions) {
+            session.close();
+        }
+    }
+    
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.add(socket);
+                Thread handler = new Thread(() -> handle(socket), "stub-bank-session");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * 1接続分の手順を処理します
+     * 
+     * @param socket クライアントとの接続
+     */
+    private void handle(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            
+            boolean lengthPrefixed = false; // 接続中のフレーム形式
+            int bite;
+            while ((bite = in.read()) >= 0) {
+                if (bite == ENQ) {
+                    enquiries.incrementAndGet();
+                    out.write(ACK);
+                    out.flush();
+                } else if (bite == EOT) {
+                    endOfTransmissions.incrementAndGet();
+                    return;
+                } else if (bite == DLE) {
+                    lengthPrefixed = in.read() == LENGTH_PREFIXED_REQUEST && lengthFraming;
+                    out.write(lengthPrefixed ? ACK : NAK);
+                    out.flush();
+                } else if (bite == STX && discardData) {
+                    long length = lengthPrefixed ? skipLengthPrefixedFrame(in) : skipFrame(in);
+                    if (length < 0) {
+                        return;
+                    }
+                    receivedFrames.incrementAndGet();
+                    receivedBytes.addAndGet(length);
+                    
+                    sleep(latencyMillis);
+                    out.write(nakOrAck());
+                    out.flush();
+                } else if (bite == STX) {
+                    byte[] frame = lengthPrefixed ? readLengthPrefixedFrame(in) : readFrame(in);
+                    if (frame == null) {
+                        return;
+                    }
+                    receivedFrames.incrementAndGet();
+                    receivedBytes.addAndGet(frame.length);
+                    
+                    sleep(latencyMillis);
+                    if (chance(disconnectRate)) {
+                        disconnects.incrementAndGet();
+                        return;
+                    }
+                    
+                    if (isBlockFrame(frame)) {
+                        respondToBlock(frame, out);
+                    } else {
+                        respondToMessage(frame, in, out, lengthPrefixed);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("スタブ銀行サーバのセッションが終了しました", e);
+        } finally {
+            sessions.remove(socket);
+        }
+    }
+    
+    /**
+     * ETXまでのデータを読み取ります
+     * 
+     * @param in 入力ストリーム
+     * @return データ部（ETX前に切断された場合はnull）
+     * @throws IOException 読み取りエラー発生時
+     */
+    private byte[] readFrame(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        int length = 0;
+        int bite;
+        while ((bite = in.read()) != ETX) {
+            if (bite < 0) {
+                return null;
+            }
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[length++] = (byte) bite;
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+    
+    /**
+     * フレーム長付き形式のデータを読み取ります
+     * 
+     * @param in 入力ストリーム
+     * @return データ部（ETX前に切断された場合はnull）
+     * @throws IOException 読み取りエラー発生時、または終端がETXでない場合
+     */
+    private byte[] readLengthPrefixedFrame(InputStream in) throws IOException {
+        byte[] lengthBytes = in.readNBytes(FRAME_LENGTH_FIELD_LENGTH);
+        if (lengthBytes.length < FRAME_LENGTH_FIELD_LENGTH) {
+            return null;
+        }
+        int length = ByteBuffer.wrap(lengthBytes).getInt();
+        byte[] frame = new byte[length];
+        if (in.readNBytes(frame, 0, length) < length) {
+            return null;
+        }
+        int end = in.read();
+        if (end < 0) {
+            return null;
+        }
+        if (end != ETX) {
+            throw new IOException("フレームの終端が不正です: " + end);
+        }
+        return frame;
+    }
+    
+    /**
+     * フレーム長付き形式のデータを保持せずに読み飛ばします
+     * 
+     * @param in 入力ストリーム
+     * @return データ部の長さ（ETX前に切断された場合は-1）
+     * @throws IOException 読み取りエラー発生時、または終端がETXでない場合
+     */
+    private long skipLengthPrefixedFrame(InputStream in) throws IOException {
+        byte[] lengthBytes = in.readNBytes(FRAME_LENGTH_FIELD_LENGTH);
+        if (lengthBytes.length < FRAME_LENGTH_FIELD_LENGTH) {
+            return -1;
+        }
+        int length = ByteBuffer.wrap(lengthBytes).getInt();
+        try {
+            in.skipNBytes(length);
+        } catch (EOFException e) {
+            return -1;
+        }
+        int end = in.read();
+        if (end < 0) {
+            return -1;
+        }
+        if (end != ETX) {
+            throw new IOException("フレームの終端が不正です: " + end);
+        }
+        return length;
+    }
+    
+    /**
+     * ETXまでのデータを保持せずに読み飛ばします
+     * 
+     * @param in 入力ストリーム（mark/reset に対応していること）
+     * @return データ部の長さ（ETX前に切断された場合は-1）
+     * @throws IOException 読み取りエラー発生時
+     */
+    private long skipFrame(InputStream in) throws IOException {
+        byte[] buffer = new byte[65536];
+        long length = 0;
+        while (true) {
+            in.mark(buffer.length);
+            int read = in.read(buffer);
+            if (read < 0) {
+                return -1;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == ETX) {
+                    // ETXの後続データは次の読み取りに残す
+                    in.reset();
+                    in.skipNBytes(i + 1);
+                    return length + i;
+                }
+            }
+            length += read;
+        }
+    }
+    
+    /**
+     * ブロック転送のブロックにブロック番号付きのACK/NAKで応答します
+     * 
+     * @param frame 受信したブロック
+     * @param out 出力ストリーム
+     * @throws IOException 送信エラー発生時
+     */
+    private void respondToBlock(byte[] frame, OutputStream out) throws IOException {
+        byte[] blockNumber = Arrays.copyOfRange(frame, TRANSFER_ID_LENGTH, TRANSFER_ID_LENGTH + BLOCK_NUMBER_LENGTH);
+        out.write(nakOrAck());
+        out.write(blockNumber);
+        out.flush();
+    }
+    
+    /**
+     * 電文にACK/NAKで応答し、照会電文には応答電文を送信します
+     * 
+     * @param frame 受信した電文
+     * @param in 入力ストリーム
+     * @param out 出力ストリーム
+     * @param lengthPrefixed フレーム長付き形式で通信している場合はtrue
+     * @throws IOException 送受信エラー発生時
+     */
+    private void respondToMessage(byte[] frame, InputStream in, OutputStream out, boolean lengthPrefixed)
+            throws IOException {
+        byte response = nakOrAck();
+        out.write(response);
+        out.flush();
+        if (response != ACK) {
+            return;
+        }
+        
+        ZenginMessage request;
+        try {
+            request = ZenginMessage.fromByteArray(frame);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        
+        if (request.getMessageType() == MessageType.INQUIRY) {
+            ZenginMessage reply = new ZenginMessage(MessageType.RESPONSE, request.getReceiverId(), request.getSenderId());
+            reply.setCharset(request.getCharset());
+            reply.setDataRecords(request.getDataRecords());
+            byte[] replyBytes = reply.toByteArray();
+            out.write(STX);
+            if (lengthPrefixed) {
+                out.write(ByteBuffer.allocate(FRAME_LENGTH_FIELD_LENGTH).putInt(replyBytes.length).array());
+            }
+            out.write(replyBytes);
+            out.write(ETX);
+            out.flush();
+            if (in.read() == NAK) { // クライアントのACK/NAK
+                receivedNaks.incrementAndGet();
+            }
+        }
+    }
+    
+    /**
+     * ブロック転送のブロックかどうかを判定します
+     * 電文はヘッダの「ZEDI」で始まり、ブロックは転送ID・ブロック番号・総ブロック数で始まります
+     * 
+     * @param frame 受信したデータ部
+     * @return ブロックの場合はtrue
+     */
+    private boolean isBlockFrame(byte[] frame) {
+        if (frame.length < BLOCK_HEADER_LENGTH) {
+            return false;
+        }
+        if (frame.length >= HEADER_LENGTH && Arrays.equals(frame, 0, ZEDI.length, ZEDI, 0, ZEDI.length)) {
+            return false;
+        }
+        for (int i = TRANSFER_ID_LENGTH; i < BLOCK_HEADER_LENGTH; i++) {
+            if (frame[i] < '0' || frame[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private byte nakOrAck() {
+        if (chance(nakRate)) {
+            sentNaks.incrementAndGet();
+            return NAK;
+        }
+        return ACK;
+    }
+    
+    private boolean chance(double rate) {
+        if (rate <= 0) {
+            return false;
+        }
+        synchronized (random) {
+            return random.nextDouble() < rate;
+        }
+    }
+    
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static SSLContext createSslContext() throws IOException {
+        try (InputStream in = StubBankServer.class.getClassLoader().getResourceAsStream(KEYSTORE_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("キーストアが見つかりません: " + KEYSTORE_RESOURCE);
+            }
+            KeyStore keyStore = KeyStore.getInstance("JKS");
+            keyStore.load(in, KEYSTORE_PASSWORD);
+            
+            KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagerFactory.init(keyStore, KEYSTORE_PASSWORD);
+            
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+            return sslContext;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("スタブ銀行サーバのTLS初期化に失敗しました: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 待ち受けポートを設定します（0で空きポート）
+     * 
+     * @param port ポート番号
+     * @return このサーバ
+     */
+    public StubBankServer port(int port) {
+        this.port = port;
+        return this;
+    }
+    
+    /**
+     * 受信データを保持せずACK/NAKのみを返すかを設定します
+     * 照会電文への応答電文の送信とブロック番号付きの応答は行いません
+     * 
+     * @param discardData 受信データを保持しない場合はtrue
+     * @return このサーバ
+     */
+    public StubBankServer discardData(boolean discardData) {
+        this.discardData = discardData;
+        return this;
+    }
+    
+    /**
+     * フレーム長付き形式の要求に応じるかを設定します（デフォルトは応じる）
+     * 
+     * @param lengthFraming 応じる場合はtrue、NAKを返してETX形式で通信する場合はfalse
+     * @return このサーバ
+     */
+    public StubBankServer lengthFraming(boolean lengthFraming) {
+        this.lengthFraming = lengthFraming;
+        return this;
+    }
+    
+    /**
+     * TLSの使用を設定します（テスト用キーストアをサーバ証明書に使用）
+     * 
+     * @param tls TLSを使用する場合はtrue
+     * @return このサーバ
+     */
+    public StubBankServer tls(boolean tls) {
+        this.tls = tls;
+        return this;
+    }
+    
+    /**
+     * 受信から応答までの遅延を設定します
+     * 
+     * @param latencyMillis 遅延（ミリ秒）
+     * @return このサーバ
+     */
+    public StubBankServer latencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+    
+    /**
+     * NAKで応答する割合を設定します
+     * 
+     * @param nakRate NAK応答率（0.0～1.0）
+     * @return このサーバ
+     */
+    public StubBankServer nakRate(double nakRate) {
+        this.nakRate = nakRate;
+        return this;
+    }
+    
+    /**
+     * 受信後に応答せず切断する割合を設定します
+     * 
+     * @param disconnectRate 切断率（0.0～1.0）
+     * @return このサーバ
+     */
+    public StubBankServer disconnectRate(double disconnectRate) {
+        this.disconnectRate = disconnectRate;
+        return this;
+    }
+    
+    /**
+     * NAK応答・切断の乱数シードを設定します
+     * 
+     * @param seed 乱数シード
+     * @return このサーバ
+     */
+    public StubBankServer seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+    
+    /**
+     * 待ち受けポートを取得します
+     * 
+     * @return ポート番号
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+    
+    /**
+     * 受信した接続要求（ENQ）の数を取得します
+     * 
+     * @return ENQ数
+     */
+    public long getEnquiries() {
+        return enquiries.get();
+    }
+    
+    /**
+     * 受信した転送終了（EOT）の数を取得します
+     * 
+     * @return EOT数
+     */
+    public long getEndOfTransmissions() {
+        return endOfTransmissions.get();
+    }
+    
+    /**
+     * 受信したフレーム数を取得します
+     * 
+     * @return 受信フレーム数
+     */
+    public long getReceivedFrames() {
+        return receivedFrames.get();
+    }
+    
+    /**
+     * 受信したデータのバイト数を取得します
+     * 
+     * @return 受信バイト数
+     */
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+    
+    /**
+     * 送信したNAKの数を取得します
+     * 
+     * @return NAK数
+     */
+    public long getSentNaks() {
+        return sentNaks.get();
+    }
+    
+    /**
+     * 応答電文に対してクライアントから受信したNAKの数を取得します
+     * 
+     * @return NAK数
+     */
+    public long getReceivedNaks() {
+        return receivedNaks.get();
+    }
+    
+    /**
+     * 模擬切断の回数を取得します
+     * 
+     * @return 切断回数
+     */
+    public long getDisconnects() {
+        return disconnects.get();
+    }
+} 
\ No newline at end of file
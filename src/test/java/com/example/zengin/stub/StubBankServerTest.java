@@ -0,0 +1,499 @@
+package com.example.zengin.stub;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.zengin.buffer.FrameBufferPool;
+import com.example.zengin.buffer.ReceiveBufferBudget;
+import com.example.zengin.communication.ReceivedFrame;
+import com.example.zengin.communication.ZenginCommunicationException;
+import com.example.zengin.communication.ZenginTcpIpProtocolImpl;
+import com.example.zengin.communication.ZenginTcpIpProtocolImpl.FramingMode;
+import com.example.zengin.format.ReceivedTotals;
+import com.example.zengin.format.ZenginMessage;
+import com.example.zengin.format.ZenginMessage.MessageType;
+import com.example.zengin.format.ZenginStreamDecoder;
+import com.example.zengin.format.aggregate.ZenginRecordAggregator;
+import com.example.zengin.service.ZenginCommunicationService;
+
+/**
+ * スタブ銀行サーバに対する全銀TCP/IP通信の結合テストクラス
+ */
+public class StubBankServerTest {
+    
+    private static final String HOST = "127.0.0.1";
+    
+    private StubBankServer server;
+    
+    private ZenginTcpIpProtocolImpl protocol;
+    
+    private FrameBufferPool bufferPool;
+    
+    private ReceiveBufferBudget receiveBudget;
+    
+    private Path spillDirectory;
+    
+    @BeforeEach
+    public void setUp() throws Exception {
+        bufferPool = new FrameBufferPool();
+        bufferPool.setLeakDetection(true);
+        spillDirectory = Files.createTempDirectory("zengin-spill");
+        receiveBudget = new ReceiveBufferBudget();
+        receiveBudget.setSpillDirectory(spillDirectory.toString());
+    }
+    
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (protocol != null) {
+            protocol.disconnect();
+        }
+        if (server != null) {
+            server.close();
+        }
+        assertEquals(0, bufferPool.checkLeaks());
+        
+        // 受信フレームの予算と一時ファイルが解放されていること
+        assertEquals(0, receiveBudget.getReserved());
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            assertEquals(0, files.count());
+        }
+        Files.delete(spillDirectory);
+    }
+    
+    @Test
+    public void testSendTransferData() throws Exception {
+        server = new StubBankServer().start();
+        ZenginCommunicationService service = createService(false);
+        
+        assertTrue(service.sendTransferData("STUBBANK", new byte[2][120]));
+        assertEquals(1, server.getReceivedFrames());
+    }
+    
+    @Test
+    public void testInquiryOverTls() throws Exception {
+        server = new StubBankServer().tls(true).start();
+        ZenginCommunicationService service = createService(true);
+        
+        ZenginMessage response = service.sendInquiryAndReceiveResponse("STUBBANK", new byte[3][120]);
+        
+        assertEquals(MessageType.RESPONSE, response.getMessageType());
+        assertEquals(3, response.getDataRecords().length);
+    }
+    
+    @Test
+    public void testBlockTransferWithNaks() throws Exception {
+        server = new StubBankServer().nakRate(0.2).seed(1).start();
+        protocol = createProtocol(false);
+        protocol.setBlockSize(1024);
+        
+        assertTrue(protocol.sendDataInBlocks(HOST, server.getPort(), "F000000001", new byte[20 * 1024]));
+        
+        // NAKを受けたブロックのみ再送される
+        assertEquals(20 + server.getSentNaks(), server.getReceivedFrames());
+        assertTrue(server.getSentNaks() > 0);
+    }
+    
+    @Test
+    public void testSendFileOverPlainSocket() throws Exception {
+        server = new StubBankServer().start();
+        protocol = createProtocol(false);
+        Path file = writeMessageFile(100);
+        
+        try {
+            assertTrue(protocol.sendFile(HOST, server.getPort(), file));
+            assertEquals(1, server.getReceivedFrames());
+            assertEquals(Files.size(file), server.getReceivedBytes());
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    @Test
+    public void testSendFileOverTlsReadsFile() throws Exception {
+        server = new StubBankServer().tls(true).discardData(true).start();
+        protocol = createProtocol(true);
+        Path file = writeMessageFile(10);
+        
+        try {
+            assertTrue(protocol.sendFile(HOST, server.getPort(), file));
+            assertEquals(Files.size(file), server.getReceivedBytes());
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    @Test
+    public void testSendFileThatDoesNotExist() throws Exception {
+        server = new StubBankServer().start();
+        protocol = createProtocol(false);
+        
+        ZenginCommunicationException exception = assertThrows(ZenginCommunicationException.class,
+                () -> protocol.sendFile(HOST, server.getPort(), Path.of("does-not-exist.dat")));
+        assertEquals("E015", exception.getErrorCode());
+    }
+    
+    @Test
+    public void testLengthPrefixedFramingCarriesEtxBytes() throws Exception {
+        server = new StubBankServer().start();
+        ZenginCommunicationService service = createService(false);
+        protocol.setFramingMode(FramingMode.LENGTH_PREFIXED);
+        byte[][] records = new byte[3][120];
+        for (byte[] record : records) {
+            Arrays.fill(record, (byte) 0x03); // ETXと同じ値
+        }
+        
+        ZenginMessage response = service.sendInquiryAndReceiveResponse("STUBBANK", records);
+        
+        assertEquals(FramingMode.LENGTH_PREFIXED, protocol.getNegotiatedFraming());
+        assertArrayEquals(records, response.getDataRecords());
+        
+        // ブロック転送のブロックもデータ長に従って読み取られる
+        protocol.setBlockSize(1024);
+        byte[] data = new byte[4096];
+        Arrays.fill(data, (byte) 0x03);
+        assertTrue(protocol.sendDataInBlocks(HOST, server.getPort(), "F000000001", data));
+        assertEquals(FramingMode.LENGTH_PREFIXED, protocol.getNegotiatedFraming());
+    }
+    
+    @Test
+    public void testSendFileWithLengthPrefixedFraming() throws Exception {
+        server = new StubBankServer().discardData(true).start();
+        protocol = createProtocol(false);
+        protocol.setFramingMode(FramingMode.LENGTH_PREFIXED);
+        Path file = writeMessageFile(100);
+        
+        try {
+            assertTrue(protocol.sendFile(HOST, server.getPort(), file));
+            assertEquals(FramingMode.LENGTH_PREFIXED, protocol.getNegotiatedFraming());
+            assertEquals(Files.size(file), server.getReceivedBytes());
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    @Test
+    public void testLengthPrefixedFramingFallsBackToEtx() throws Exception {
+        server = new StubBankServer().lengthFraming(false).start();
+        protocol = createProtocol(false);
+        protocol.setFramingMode(FramingMode.LENGTH_PREFIXED);
+        
+        assertTrue(protocol.sendData(HOST, server.getPort(), new byte[200]));
+        assertEquals(FramingMode.ETX, protocol.getNegotiatedFraming());
+        assertEquals(200, server.getReceivedBytes());
+    }
+    
+    @Test
+    public void testSendMessageEncodesIntoPooledBuffer() throws Exception {
+        server = new StubBankServer().start();
+        protocol = createProtocol(false);
+        ZenginMessage message = new ZenginMessage(MessageType.TRANSFER, "SENDER0001", "STUBBANK");
+        message.setDataRecords(new byte[100][120]);
+        
+        assertTrue(protocol.sendMessage(HOST, server.getPort(), message));
+        assertTrue(protocol.sendMessage(HOST, server.getPort(), message));
+        
+        assertEquals(2 * message.getEncodedLength(), server.getReceivedBytes());
+        assertEquals(1, bufferPool.getAllocations());
+        assertEquals(1, bufferPool.getThreadCacheHits());
+    }
+    
+    @Test
+    public void testReceiveLargeFrameIsReadWithinBudget() throws Exception {
+        server = new StubBankServer().start();
+        receiveBudget.setSpillThreshold(64 * 1024);
+        for (FramingMode framing : FramingMode.values()) {
+            protocol = createProtocol(false);
+            protocol.setFramingMode(framing);
+            ZenginMessage inquiry = new ZenginMessage(MessageType.INQUIRY, "SENDER0001", "STUBBANK");
+            inquiry.setDataRecords(new byte[1000][120]);
+            assertTrue(protocol.sendMessage(HOST, server.getPort(), inquiry));
+            
+            // 閾値を超えるフレームは一時ファイルを経由して受信する
+            byte[] response = protocol.receiveData(HOST, server.getPort());
+            
+            assertEquals(1000, ZenginMessage.fromByteArray(response).getDataRecords().length);
+            protocol.disconnect();
+        }
+        assertEquals(2, receiveBudget.getSpills());
+        assertEquals(0, receiveBudget.getReserved());
+    }
+    
+    @Test
+    public void testEtxFrameLongerThanMaximumIsRejected() throws Exception {
+        server = new StubBankServer().start();
+        receiveBudget.setMaxFrameLength(1024);
+        protocol = createProtocol(false);
+        protocol.setFramingMode(FramingMode.ETX);
+        ZenginMessage inquiry = new ZenginMessage(MessageType.INQUIRY, "SENDER0001", "STUBBANK");
+        inquiry.setDataRecords(new byte[100][120]);
+        assertTrue(protocol.sendMessage(HOST, server.getPort(), inquiry));
+        
+        ZenginCommunicationException exception = assertThrows(ZenginCommunicationException.class,
+                () -> protocol.receiveData(HOST, server.getPort()));
+        assertEquals("E016", exception.getErrorCode());
+    }
+    
+    @Test
+    public void testReceiveStreamDeliversRecordsInBothFramings() throws Exception {
+        server = new StubBankServer().start();
+        for (FramingMode framing : FramingMode.values()) {
+            protocol = createProtocol(false);
+            protocol.setFramingMode(framing);
+            ZenginMessage inquiry = new ZenginMessage(MessageType.INQUIRY, "SENDER0001", "STUBBANK");
+            inquiry.setDataRecords(new byte[500][120]);
+            assertTrue(protocol.sendMessage(HOST, server.getPort(), inquiry));
+            
+            List<ZenginMessage> headers = new ArrayList<>();
+            AtomicInteger records = new AtomicInteger();
+            ZenginStreamDecoder decoder = new ZenginStreamDecoder(new ZenginStreamDecoder.Handler() {
+                @Override
+                public void onHeader(ZenginMessage header) {
+                    headers.add(header);
+                }
+                
+                @Override
+                public void onRecord(byte[] record) {
+                    records.incrementAndGet();
+                }
+            });
+            
+            assertEquals(inquiry.getEncodedLength(), protocol.receiveStream(HOST, server.getPort(), decoder));
+            assertEquals(framing, protocol.getNegotiatedFraming());
+            assertEquals(MessageType.RESPONSE, headers.get(0).getMessageType());
+            assertEquals(500, records.get());
+            assertEquals(500, decoder.getReceivedTotals().getTrailerRecordCount());
+            protocol.disconnect();
+        }
+    }
+    
+    @Test
+    public void testReceiveStreamHandlerFailureIsReportedAsE017() throws Exception {
+        server = new StubBankServer().start();
+        protocol = createProtocol(false);
+        ZenginMessage inquiry = new ZenginMessage(MessageType.INQUIRY, "SENDER0001", "STUBBANK");
+        inquiry.setDataRecords(new byte[10][120]);
+        assertTrue(protocol.sendMessage(HOST, server.getPort(), inquiry));
+        
+        ZenginStreamDecoder decoder = new ZenginStreamDecoder(new ZenginStreamDecoder.Handler() {
+            @Override
+            public void onHeader(ZenginMessage header) {
+            }
+            
+            @Override
+            public void onRecord(byte[] record) {
+                throw new IllegalStateException("処理できません");
+            }
+        });
+        
+        ZenginCommunicationException exception = assertThrows(ZenginCommunicationException.class,
+                () -> protocol.receiveStream(HOST, server.getPort(), decoder));
+        assertEquals("E017", exception.getErrorCode());
+        
+        // フレームの終端まで読み取っているため、同じ接続で送信を続けられる
+        assertTrue(protocol.sendData(HOST, server.getPort(), new byte[200]));
+    }
+    
+    @Test
+    public void testReceiveFrameRepliesNakWhenProcessingFails() throws Exception {
+        server = new StubBankServer().start();
+        protocol = createProtocol(false);
+        ZenginMessage inquiry = new ZenginMessage(MessageType.INQUIRY, "SENDER0001", "STUBBANK");
+        inquiry.setDataRecords(new byte[10][120]);
+        
+        // 処理が失敗した場合はACKの代わりにNAKを応答し、処理の例外をそのまま送出する
+        assertTrue(protocol.sendMessage(HOST, server.getPort(), inquiry));
+        ZenginCommunicationException exception = assertThrows(ZenginCommunicationException.class,
+                () -> protocol.receiveFrame(HOST, server.getPort(), frame -> {
+                    throw new ZenginCommunicationException("受け付けません", "E017");
+                }));
+        assertEquals("E017", exception.getErrorCode());
+        
+        // 処理が成功した場合はACKを応答し、処理結果を返す
+        assertTrue(protocol.sendMessage(HOST, server.getPort(), inquiry));
+        long length = protocol.receiveFrame(HOST, server.getPort(), ReceivedFrame::length);
+        assertEquals(inquiry.getEncodedLength(), length);
+        assertEquals(1, server.getReceivedNaks());
+    }
+    
+    @Test
+    public void testReceiveFrameSpillsLargeFrameToFile() throws Exception {
+        server = new StubBankServer().start();
+        receiveBudget.setSpillThreshold(64 * 1024);
+        for (FramingMode framing : FramingMode.values()) {
+            protocol = createProtocol(false);
+            protocol.setFramingMode(framing);
+            ZenginMessage inquiry = new ZenginMessage(MessageType.INQUIRY, "SENDER0001", "STUBBANK");
+            inquiry.setDataRecords(new byte[1000][120]);
+            assertTrue(protocol.sendMessage(HOST, server.getPort(), inquiry));
+            
+            try (ReceivedFrame frame = protocol.receiveFrame(HOST, server.getPort())) {
+                assertTrue(frame.isSpilled());
+                assertEquals(inquiry.getEncodedLength(), frame.length());
+                assertEquals(0, receiveBudget.getReserved());
+                
+                AtomicInteger records = new AtomicInteger();
+                ReceivedTotals totals = frame.decode(new ZenginStreamDecoder(new ZenginStreamDecoder.Handler() {
+                    @Override
+                    public void onHeader(ZenginMessage header) {
+                        assertEquals(MessageType.RESPONSE, header.getMessageType());
+                    }
+                    
+                    @Override
+                    public void onRecord(byte[] record) {
+                        records.incrementAndGet();
+                    }
+                }));
+                assertEquals(1000, records.get());
+                assertEquals(1000, totals.getTrailerRecordCount());
+                
+                // メモリマップのままデータレコードを並列集計
+                assertEquals(1000, new ZenginRecordAggregator(ForkJoinPool.commonPool(), 100).aggregate(frame.buffer())
+                        .getRecordCount());
+            }
+            protocol.disconnect();
+        }
+        assertEquals(2, receiveBudget.getSpills());
+    }
+    
+    @Test
+    public void testReceiveFrameSpillsWhenBudgetIsExhausted() throws Exception {
+        server = new StubBankServer().start();
+        protocol = createProtocol(false);
+        ZenginMessage inquiry = new ZenginMessage(MessageType.INQUIRY, "SENDER0001", "STUBBANK");
+        inquiry.setDataRecords(new byte[10][120]);
+        
+        // 1フレーム目はヒープに保持し、予算を使い切った状態の2フレーム目は一時ファイルに書き出す
+        receiveBudget.setMemoryBudget(8192);
+        assertTrue(protocol.sendMessage(HOST, server.getPort(), inquiry));
+        try (ReceivedFrame first = protocol.receiveFrame(HOST, server.getPort())) {
+            assertFalse(first.isSpilled());
+            assertTrue(receiveBudget.getReserved() > 0);
+            
+            assertTrue(protocol.sendMessage(HOST, server.getPort(), inquiry));
+            try (ReceivedFrame second = protocol.receiveFrame(HOST, server.getPort())) {
+                assertTrue(second.isSpilled());
+                assertEquals(first.length(), second.length());
+            }
+        }
+        assertEquals(1, receiveBudget.getSpills());
+    }
+    
+    @Test
+    public void testOversizedFrameLengthIsRejectedBeforeAllocating() throws Exception {
+        // データ長に約2GBを指定したフレームの先頭のみを送信し、データ部は送信しない
+        byte[] header = ByteBuffer.allocate(5).put((byte) 0x02).putInt(Integer.MAX_VALUE - 16).array();
+        try (ServerSocket rawServer = startRawServer(header)) {
+            protocol = createProtocol(false);
+            protocol.setFramingMode(FramingMode.LENGTH_PREFIXED);
+            
+            ZenginCommunicationException exception = assertThrows(ZenginCommunicationException.class,
+                    () -> protocol.receiveData(HOST, rawServer.getLocalPort()));
+            assertEquals("E016", exception.getErrorCode());
+            assertEquals(FramingMode.LENGTH_PREFIXED, protocol.getNegotiatedFraming());
+        }
+    }
+    
+    @Test
+    public void testFrameLengthAboveConfiguredMaximumIsRejected() throws Exception {
+        receiveBudget.setMaxFrameLength(1024);
+        byte[] header = ByteBuffer.allocate(5).put((byte) 0x02).putInt(1025).array();
+        try (ServerSocket rawServer = startRawServer(header)) {
+            protocol = createProtocol(false);
+            protocol.setFramingMode(FramingMode.LENGTH_PREFIXED);
+            
+            ZenginCommunicationException exception = assertThrows(ZenginCommunicationException.class,
+                    () -> protocol.receiveFrame(HOST, rawServer.getLocalPort()));
+            assertEquals("E016", exception.getErrorCode());
+        }
+    }
+    
+    @Test
+    public void testNakIsReportedAsE004() throws Exception {
+        server = new StubBankServer().nakRate(1.0).start();
+        protocol = createProtocol(false);
+        
+        ZenginCommunicationException exception = assertThrows(ZenginCommunicationException.class,
+                () -> protocol.sendData(HOST, server.getPort(), new byte[200]));
+        assertEquals("E004", exception.getErrorCode());
+    }
+    
+    /**
+     * 接続手順（ENQ、フレーム長付き形式の要求）にACKで応答した後、指定したバイト列を送信するサーバを開始します
+     * 不正なフレームを送信する相手を模擬するため、以降の受信データには応答しません
+     */
+    private static ServerSocket startRawServer(byte[] afterHandshake) throws IOException {
+        ServerSocket rawServer = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Thread thread = new Thread(() -> {
+            try (Socket socket = rawServer.accept()) {
+                InputStream in = socket.getInputStream();
+                OutputStream out = socket.getOutputStream();
+                in.read(); // ENQ
+                out.write(0x06);
+                if (in.read() == 0x10) { // DLE + 'L'
+                    in.read();
+                    out.write(0x06);
+                }
+                out.write(afterHandshake);
+                out.flush();
+                while (in.read() >= 0) {
+                    // 切断されるまで受信データを読み捨てる
+                }
+            } catch (IOException e) {
+                // サーバの停止
+            }
+        }, "raw-bank-server");
+        thread.setDaemon(true);
+        thread.start();
+        return rawServer;
+    }
+    
+    private static Path writeMessageFile(int recordCount) throws Exception {
+        ZenginMessage message = new ZenginMessage(MessageType.TRANSFER, "SENDER0001", "STUBBANK");
+        message.setDataRecords(new byte[recordCount][120]);
+        Path file = Files.createTempFile("zengin", ".dat");
+        Files.write(file, message.toByteArray());
+        return file;
+    }
+    
+    private ZenginTcpIpProtocolImpl createProtocol(boolean tls) {
+        ZenginTcpIpProtocolImpl protocol = new ZenginTcpIpProtocolImpl();
+        protocol.setUseTLS(tls);
+        protocol.setBufferPool(bufferPool);
+        protocol.setReceiveBudget(receiveBudget);
+        return protocol;
+    }
+    
+    private ZenginCommunicationService createService(boolean tls) {
+        protocol = createProtocol(tls);
+        
+        ZenginCommunicationService service = new ZenginCommunicationService();
+        ReflectionTestUtils.setField(service, "zenginProtocol", protocol);
+        ReflectionTestUtils.setField(service, "senderId", "TESTSENDER");
+        ReflectionTestUtils.setField(service, "blockTransferThreshold", 0);
+        service.setBankHost(HOST);
+        service.setBankPort(server.getPort());
+        service.setIntegrityCheckEnabled(false);
+        return service;
+    }
+} 
\ No newline at end of file